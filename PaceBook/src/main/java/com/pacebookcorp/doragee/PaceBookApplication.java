@@ -3,12 +3,14 @@ package com.pacebookcorp.doragee;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * @author Kwon Young
  */
 @SpringBootApplication
 @ComponentScan
+@EnableScheduling
 public class PaceBookApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(PaceBookApplication.class, args);
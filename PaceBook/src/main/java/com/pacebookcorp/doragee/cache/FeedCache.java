@@ -0,0 +1,470 @@
+package com.pacebookcorp.doragee.cache;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.pacebookcorp.doragee.dto.FeedCacheStats;
+import com.pacebookcorp.doragee.entity.Feed;
+import com.pacebookcorp.doragee.util.FeedCursor;
+
+/**
+ * 유저별 최신 뉴스피드 N 건의 키(수정일, Post PK)를 담아두는 캐시
+ * List<Post> 같은 객체 그래프 대신 힙 밖(direct buffer)의 long 배열에 유저 한 명당 고정 크기 슬롯(ring buffer)으로 저장하므로,
+ * 수백만 유저의 뉴스피드를 담아도 힙 사용량과 GC 대상 객체 수가 늘지 않는다.
+ *
+ * 슬롯 구조 : [meta][수정일 N 개][Post PK N 개]
+ * - meta : head(0~15 bit) | count(16~31 bit) | truncated(32 bit) | precomputed(33 bit)
+ *   truncated 는 슬롯 뒤로 더 오래된 뉴스피드가 있다는 표시, precomputed 는 미리 담아두고(FeedPrecomputeService) 아직 조회되지 않았다는 표시이다.
+ * - 수정일 : t_feed.mod_ymdt(datetime) 의 epoch millis(PaceBookUtils.nowDateTime 이 초 단위로 자른 값)
+ * - Post PK : 'post' + 숫자 17자리 PK 에서 숫자 부분만 long 으로 저장한다.
+ * 유저 수가 maxUsers 를 넘으면 가장 오래 조회되지 않은 유저의 슬롯을 비운다.(LRU)
+ *
+ * 슬롯을 담는 조회(load)는 t_feed 를 읽기 전에 유저의 스탬프를 받아두고, 그 사이 같은 유저에 대한 put, remove, invalidate 가 있었다면 담지 않는다.
+ * 슬롯이 없어 아무것도 하지 않은 put 도 스탬프는 올리므로, 커밋된 쓰기가 빠진 채로 읽은 뉴스피드가 뒤늦게 담기지 않는다.
+ * 스탬프는 유저 계정의 해시로 나눈 STAMP_STRIPES 개만 두므로 유저 수와 무관하게 크기가 일정하다.
+ *
+ * @author Kwon Young
+ */
+@Component
+public class FeedCache {
+	private static final String POST_PK_PREFIX = "post";
+	private static final int POST_PK_DIGITS = 17;
+	private static final int MAX_FEED_SIZE = 0xFFFF;
+	private static final int STAMP_STRIPES = 1024;
+	private static final long TRUNCATED = 1L << 32;
+	private static final long PRECOMPUTED = 1L << 33;
+
+	private final int maxUsers;
+	private final int feedSize;
+	private final int slotLongs;
+	private final int slotsPerSegment;
+	private final LongBuffer[] segments;
+
+	private final Map<String, Integer> slots;
+	private final Deque<Integer> freeSlots = new ArrayDeque<>();
+	private final long[] stamps = new long[STAMP_STRIPES];
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder precomputedLoads = new LongAdder();
+	private final LongAdder precomputedHits = new LongAdder();
+	private final LongAdder staleLoads = new LongAdder();
+
+	@Autowired
+	public FeedCache(@Value("${pacebook.feed.cache.max-users:50000}") int maxUsers, @Value("${pacebook.feed.cache.feed-size:64}") int feedSize) {
+		if (maxUsers < 1 || feedSize < 1 || feedSize > MAX_FEED_SIZE) {
+			throw new IllegalArgumentException("feed cache size is illegal.");
+		}
+
+		this.maxUsers = maxUsers;
+		this.feedSize = feedSize;
+		this.slotLongs = 1 + feedSize * 2;
+		this.slotsPerSegment = Math.min(maxUsers, Integer.MAX_VALUE / (slotLongs * Long.BYTES));
+		this.segments = new LongBuffer[(maxUsers + slotsPerSegment - 1) / slotsPerSegment];
+
+		for (int i = 0; i < segments.length; i++) {
+			int segmentSlots = Math.min(slotsPerSegment, maxUsers - i * slotsPerSegment);
+
+			segments[i] = ByteBuffer.allocateDirect(segmentSlots * slotLongs * Long.BYTES).asLongBuffer();
+		}
+
+		for (int slot = 0; slot < maxUsers; slot++) {
+			freeSlots.add(slot);
+		}
+
+		this.slots = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * @return	캐시할 수 있는 최대 유저 수
+	 */
+	public int getMaxUsers() {
+		return maxUsers;
+	}
+
+	/**
+	 * @return	유저 한 명당 담아두는 뉴스피드 키 수(N)
+	 */
+	public int getFeedSize() {
+		return feedSize;
+	}
+
+	/**
+	 * 커서 다음부터 limit 건의 Post PK 를 리턴한다.
+	 *
+	 * @param 	userId	뉴스피드를 보는 유저
+	 * @param 	cursor	커서, 첫 페이지라면 null
+	 * @param 	limit	최대 건수
+	 * @return	캐시에 담긴 범위만으로 limit 건을 채울 수 있다면(또는 뉴스피드 끝까지 담겨있다면) Post PK 목록, 아니라면 null
+	 */
+	public synchronized List<String> window(String userId, FeedCursor cursor, int limit) {
+		Integer slot = slots.get(userId);
+
+		if (Objects.isNull(slot)) {
+			misses.increment();
+			return null;
+		}
+
+		long meta = meta(slot);
+		int count = count(meta);
+		int k = 0;
+
+		if (Objects.nonNull(cursor)) {
+			long cursorPostPk = packPostPk(cursor.getPostPk());
+
+			if (cursorPostPk < 0) {
+				misses.increment();
+				return null;
+			}
+
+			long cursorTime = cursor.getModifiedDate().getTime();
+
+			while (k < count && isOlder(timeAt(slot, meta, k), postPkAt(slot, meta, k), cursorTime, cursorPostPk) == false) {
+				k++;
+			}
+		}
+
+		int available = count - k;
+
+		if (available < limit && isTruncated(meta)) {
+			misses.increment();
+			return null;
+		}
+
+		List<String> postPks = new ArrayList<>(Math.min(limit, available));
+
+		for (int i = k; i < k + Math.min(limit, available); i++) {
+			postPks.add(unpackPostPk(postPkAt(slot, meta, i)));
+		}
+
+		hits.increment();
+
+		if (isPrecomputed(meta)) {
+			precomputedHits.increment();
+			segment(slot).put(base(slot), meta & ~PRECOMPUTED);
+		}
+
+		return postPks;
+	}
+
+	/**
+	 * t_feed 를 읽기 전에 받아두고 load 에 넘긴다.
+	 *
+	 * @param 	userId	뉴스피드를 보는 유저
+	 * @return	유저의 현재 스탬프
+	 */
+	public synchronized long stamp(String userId) {
+		return stamps[stripe(userId)];
+	}
+
+	/**
+	 * t_feed 에서 읽은 최신 뉴스피드 키를 슬롯에 담는다. 읽는 도중 유저의 뉴스피드가 바뀌었다면(스탬프가 다르다면) 담지 않는다.
+	 *
+	 * @param userId		뉴스피드를 보는 유저
+	 * @param feeds			수정일 최신순으로 정렬된 최대 N 건의 뉴스피드
+	 * @param truncated		뒤로 더 오래된 뉴스피드가 있을 수 있다면 true
+	 * @param precomputed	조회 전에 미리 담아두는 것이라면 true, 첫 조회 때 precomputedHits 로 센다.
+	 * @param stamp			t_feed 를 읽기 전에 받아둔 스탬프(stamp)
+	 */
+	public synchronized void load(String userId, List<Feed> feeds, boolean truncated, boolean precomputed, long stamp) {
+		if (stamp != stamps[stripe(userId)]) {
+			staleLoads.increment();
+			return;
+		}
+
+		if (feeds.size() > feedSize || feeds.stream().anyMatch(feed -> packPostPk(feed.getPostPk()) < 0)) {
+			invalidate(userId);
+			return;
+		}
+
+		int slot = acquire(userId);
+		int base = base(slot);
+		LongBuffer segment = segment(slot);
+
+		for (int i = 0; i < feeds.size(); i++) {
+			segment.put(base + 1 + i, feeds.get(i).getModifiedDate().getTime());
+			segment.put(base + 1 + feedSize + i, packPostPk(feeds.get(i).getPostPk()));
+		}
+
+		segment.put(base, meta(0, feeds.size(), truncated) | (precomputed ? PRECOMPUTED : 0L));
+
+		if (precomputed) {
+			precomputedLoads.increment();
+		}
+	}
+
+	/**
+	 * 캐시된 유저라면 작성, 수정된 Post 를 수정일 순서 위치에 넣는다. 이미 있는 Post 라면 위치를 옮긴다.
+	 *
+	 * @param userId		뉴스피드를 보는 유저
+	 * @param postPk		Post PK
+	 * @param modifiedDate	Post 수정일
+	 */
+	public synchronized void put(String userId, String postPk, Date modifiedDate) {
+		Integer slot = slots.get(userId);
+
+		touch(userId);
+
+		if (Objects.isNull(slot)) {
+			return;
+		}
+
+		long packedPostPk = packPostPk(postPk);
+
+		if (packedPostPk < 0) {
+			invalidate(userId);
+			return;
+		}
+
+		remove(slot, packedPostPk);
+		insert(slot, modifiedDate.getTime(), packedPostPk);
+	}
+
+	/**
+	 * 캐시된 유저라면 삭제된 Post 를 뺀다.
+	 *
+	 * @param userId	뉴스피드를 보는 유저
+	 * @param postPk	Post PK
+	 */
+	public synchronized void remove(String userId, String postPk) {
+		Integer slot = slots.get(userId);
+
+		touch(userId);
+
+		if (Objects.nonNull(slot)) {
+			remove(slot, packPostPk(postPk));
+		}
+	}
+
+	/**
+	 * 유저의 슬롯을 비운다. 다음 조회에서 t_feed 로부터 다시 담는다.
+	 *
+	 * @param userId 뉴스피드를 보는 유저
+	 */
+	public synchronized void invalidate(String userId) {
+		Integer slot = slots.remove(userId);
+
+		touch(userId);
+
+		if (Objects.nonNull(slot)) {
+			freeSlots.push(slot);
+		}
+	}
+
+	/**
+	 * 모든 슬롯을 비운다.
+	 */
+	public synchronized void clear() {
+		slots.values().forEach(freeSlots::push);
+		slots.clear();
+
+		for (int i = 0; i < STAMP_STRIPES; i++) {
+			stamps[i]++;
+		}
+	}
+
+	/**
+	 * @return	적중, 실패, LRU 로 비운 횟수, 읽는 도중 바뀌어 담지 않은 횟수와 사용량
+	 */
+	public synchronized FeedCacheStats stats() {
+		long offHeapBytes = (long) maxUsers * slotLongs * Long.BYTES;
+
+		return new FeedCacheStats(hits.sum(), misses.sum(), evictions.sum(), slots.size(), maxUsers, feedSize, offHeapBytes,
+								  precomputedLoads.sum(), precomputedHits.sum(), staleLoads.sum());
+	}
+
+	private int acquire(String userId) {
+		Integer slot = slots.get(userId);
+
+		if (Objects.nonNull(slot)) {
+			return slot;
+		}
+
+		if (freeSlots.isEmpty()) {
+			Iterator<Map.Entry<String, Integer>> eldest = slots.entrySet().iterator();
+
+			freeSlots.push(eldest.next().getValue());
+			eldest.remove();
+			evictions.increment();
+		}
+
+		slot = freeSlots.pop();
+		slots.put(userId, slot);
+
+		return slot;
+	}
+
+	/**
+	 * 수정일 순서 위치(logical index k)를 찾아 넣는다. 가장 최신이라면 head 만 옮긴다.
+	 * 슬롯이 가득 찼다면 가장 오래된 키가 밀려나고(또는 넣을 키가 슬롯 밖이라면 버리고) truncated 가 된다.
+	 */
+	private void insert(int slot, long time, long packedPostPk) {
+		LongBuffer segment = segment(slot);
+		int base = base(slot);
+		long meta = segment.get(base);
+		int head = head(meta);
+		int count = count(meta);
+		boolean truncated = isTruncated(meta);
+		int k = 0;
+
+		while (k < count && isOlder(timeAt(slot, meta, k), postPkAt(slot, meta, k), time, packedPostPk) == false) {
+			k++;
+		}
+
+		if (k == count && truncated) {
+			return;
+		}
+
+		if (k == feedSize) {
+			segment.put(base, meta(head, count, true) | (meta & PRECOMPUTED));
+			return;
+		}
+
+		if (k == 0) {
+			head = (head - 1 + feedSize) % feedSize;
+		} else {
+			for (int i = Math.min(count, feedSize - 1); i > k; i--) {
+				copy(segment, base, physical(head, i - 1), physical(head, i));
+			}
+		}
+
+		int target = physical(head, k);
+
+		segment.put(base + 1 + target, time);
+		segment.put(base + 1 + feedSize + target, packedPostPk);
+
+		if (count == feedSize) {
+			truncated = true;
+		} else {
+			count++;
+		}
+
+		segment.put(base, meta(head, count, truncated) | (meta & PRECOMPUTED));
+	}
+
+	private void remove(int slot, long packedPostPk) {
+		LongBuffer segment = segment(slot);
+		int base = base(slot);
+		long meta = segment.get(base);
+		int head = head(meta);
+		int count = count(meta);
+		int k = 0;
+
+		while (k < count && postPkAt(slot, meta, k) != packedPostPk) {
+			k++;
+		}
+
+		if (k == count) {
+			return;
+		}
+
+		for (int i = k; i < count - 1; i++) {
+			copy(segment, base, physical(head, i + 1), physical(head, i));
+		}
+
+		segment.put(base, meta(head, count - 1, isTruncated(meta)) | (meta & PRECOMPUTED));
+	}
+
+	private void copy(LongBuffer segment, int base, int from, int to) {
+		segment.put(base + 1 + to, segment.get(base + 1 + from));
+		segment.put(base + 1 + feedSize + to, segment.get(base + 1 + feedSize + from));
+	}
+
+	private long timeAt(int slot, long meta, int k) {
+		return segment(slot).get(base(slot) + 1 + physical(head(meta), k));
+	}
+
+	private long postPkAt(int slot, long meta, int k) {
+		return segment(slot).get(base(slot) + 1 + feedSize + physical(head(meta), k));
+	}
+
+	private int physical(int head, int k) {
+		return (head + k) % feedSize;
+	}
+
+	private LongBuffer segment(int slot) {
+		return segments[slot / slotsPerSegment];
+	}
+
+	private int base(int slot) {
+		return (slot % slotsPerSegment) * slotLongs;
+	}
+
+	private long meta(int slot) {
+		return segment(slot).get(base(slot));
+	}
+
+	private static long meta(int head, int count, boolean truncated) {
+		return head | ((long) count << 16) | (truncated ? TRUNCATED : 0L);
+	}
+
+	private static int head(long meta) {
+		return (int) (meta & 0xFFFF);
+	}
+
+	private static int count(long meta) {
+		return (int) ((meta >>> 16) & 0xFFFF);
+	}
+
+	private static boolean isTruncated(long meta) {
+		return (meta & TRUNCATED) != 0;
+	}
+
+	private static boolean isPrecomputed(long meta) {
+		return (meta & PRECOMPUTED) != 0;
+	}
+
+	/**
+	 * (time, postPk) 가 (otherTime, otherPostPk) 보다 오래되었는지, 뉴스피드 정렬(수정일 최신순, PK 역순) 기준
+	 */
+	private static boolean isOlder(long time, long postPk, long otherTime, long otherPostPk) {
+		return time < otherTime || (time == otherTime && postPk < otherPostPk);
+	}
+
+	private void touch(String userId) {
+		stamps[stripe(userId)]++;
+	}
+
+	private static int stripe(String userId) {
+		return (userId.hashCode() & Integer.MAX_VALUE) % STAMP_STRIPES;
+	}
+
+	/**
+	 * 'post' + 숫자 17자리 PK 의 숫자 부분, 형태가 다르다면 -1
+	 */
+	static long packPostPk(String postPk) {
+		if (Objects.isNull(postPk) || postPk.length() != POST_PK_PREFIX.length() + POST_PK_DIGITS || postPk.startsWith(POST_PK_PREFIX) == false) {
+			return -1L;
+		}
+
+		for (int i = POST_PK_PREFIX.length(); i < postPk.length(); i++) {
+			if (Character.isDigit(postPk.charAt(i)) == false) {
+				return -1L;
+			}
+		}
+
+		return Long.parseLong(postPk.substring(POST_PK_PREFIX.length()));
+	}
+
+	static String unpackPostPk(long packedPostPk) {
+		String digits = Long.toString(packedPostPk);
+
+		return POST_PK_PREFIX + String.join("", Collections.nCopies(POST_PK_DIGITS - digits.length(), "0")) + digits;
+	}
+}
\ No newline at end of file
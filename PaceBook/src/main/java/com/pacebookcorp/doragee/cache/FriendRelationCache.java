@@ -0,0 +1,171 @@
+package com.pacebookcorp.doragee.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.pacebookcorp.doragee.dto.FriendRelationCacheStats;
+import com.pacebookcorp.doragee.entity.Friend;
+
+/**
+ * 친구 관계 쌍 키(pair_key)별 t_frnd 조회 결과를 담아두는 캐시
+ * 친구 수락, 끊기, 팔로우, 언팔로우 요청은 관계를 한 번 조회하여 유효성 체크에 쓰는데, 관계가 없는(거절될) 요청이 대부분이므로
+ * 관계가 없다는 결과(null)도 짧게 담아(negative caching) 같은 쌍의 반복 요청이 t_frnd 를 읽지 않도록 한다.
+ *
+ * 관계가 있는 쌍은 ttl, 없는 쌍은 negativeTtl 동안 담고, maxEntries 를 넘으면 가장 오래 조회되지 않은 쌍부터 비운다.(LRU)
+ * FriendService 가 관계를 바꿀 때마다 그 쌍을 비운다. 조회 도중 비워진 쌍이 있다면 조회 결과는 담지 않는다.
+ *
+ * @author Kwon Young
+ */
+@Component
+public class FriendRelationCache {
+	private final int maxEntries;
+	private final long ttlNanos;
+	private final long negativeTtlNanos;
+
+	private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long invalidated;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder negativeHits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	@Autowired
+	public FriendRelationCache(@Value("${pacebook.friend.relation-cache.max-entries:100000}") int maxEntries,
+							   @Value("${pacebook.friend.relation-cache.ttl-ms:60000}") long ttlMillis,
+							   @Value("${pacebook.friend.relation-cache.negative-ttl-ms:5000}") long negativeTtlMillis) {
+		if (maxEntries < 1 || ttlMillis < 1 || negativeTtlMillis < 1) {
+			throw new IllegalArgumentException("friend relation cache size is illegal.");
+		}
+
+		this.maxEntries = maxEntries;
+		this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+		this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+	}
+
+	/**
+	 * 담긴 쌍이라면 담긴 관계를, 아니라면 loader 로 조회하여 담고 리턴한다. loader 는 잠그지 않고 호출한다.
+	 * loader 가 리턴한 엔티티는 영속성 컨텍스트에 남아 이후 수정에 따라 바뀔 수 있으므로, 조회했을 때도 복사본을 리턴한다.
+	 *
+	 * @param 	pairKey	친구 관계 쌍 키
+	 * @param 	loader	t_frnd 에서 쌍 키로 관계를 조회하는 함수
+	 * @return	친구 관계의 복사본, 없다면 null
+	 */
+	public Friend get(String pairKey, Function<String, Friend> loader) {
+		long stamp;
+
+		synchronized (this) {
+			Entry entry = entries.get(pairKey);
+
+			if (Objects.nonNull(entry) && entry.expiresAt - System.nanoTime() > 0) {
+				if (Objects.isNull(entry.friend)) {
+					negativeHits.increment();
+					return null;
+				}
+
+				hits.increment();
+				return copy(entry.friend);
+			}
+
+			misses.increment();
+			stamp = invalidated;
+		}
+
+		Friend friend = loader.apply(pairKey);
+		Friend cachedFriend = Objects.isNull(friend) ? null : copy(friend);
+
+		synchronized (this) {
+			if (stamp == invalidated) {
+				entries.put(pairKey, new Entry(cachedFriend, System.nanoTime() + (Objects.isNull(friend) ? negativeTtlNanos : ttlNanos)));
+				evict();
+			}
+		}
+
+		return Objects.isNull(friend) ? null : copy(friend);
+	}
+
+	/**
+	 * 관계가 바뀐 쌍을 비운다. 이 시점에 조회 중인 결과는 담지 않는다.
+	 * 트랜잭션 안이라면 커밋 전까지 다른 요청이 바뀌기 전 관계를 읽어 담을 수 있으므로, 트랜잭션이 끝난 뒤 한 번 더 비운다.
+	 *
+	 * @param pairKey 친구 관계 쌍 키
+	 */
+	public void invalidate(String pairKey) {
+		invalidations.increment();
+		remove(pairKey);
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override
+				public void afterCompletion(int status) {
+					remove(pairKey);
+				}
+			});
+		}
+	}
+
+	/**
+	 * 모든 쌍을 비운다.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		invalidated++;
+	}
+
+	/**
+	 * @return	적중(관계 있음, 없음), 실패, 비운 횟수와 사용량
+	 */
+	public synchronized FriendRelationCacheStats stats() {
+		return new FriendRelationCacheStats(hits.sum(), negativeHits.sum(), misses.sum(), invalidations.sum(), evictions.sum(),
+											entries.size(), maxEntries, TimeUnit.NANOSECONDS.toMillis(ttlNanos),
+											TimeUnit.NANOSECONDS.toMillis(negativeTtlNanos));
+	}
+
+	private synchronized void remove(String pairKey) {
+		entries.remove(pairKey);
+		invalidated++;
+	}
+
+	private void evict() {
+		Iterator<Entry> eldest = entries.values().iterator();
+
+		while (entries.size() > maxEntries && eldest.hasNext()) {
+			eldest.next();
+			eldest.remove();
+			evictions.increment();
+		}
+	}
+
+	/**
+	 * 영속성 컨텍스트의 엔티티를 그대로 담거나 내주면 이후 수정이 캐시에 새어 들어가므로 복사한다.
+	 */
+	private static Friend copy(Friend friend) {
+		return new Friend(friend.getFriendPk(), friend.getApplierId(), friend.getAcceptorId(), friend.getPairKey(), friend.getAcceptYn(),
+						  friend.getApplierFollowYn(), friend.getAcceptFollowYn(), friend.getCreatedDate(), friend.getModifiedDate(), friend.getVersion());
+	}
+
+	/**
+	 * 쌍 하나의 조회 결과 : 친구 관계(없다면 null)와 만료 시각(System.nanoTime 기준)
+	 */
+	private static class Entry {
+		private final Friend friend;
+		private final long expiresAt;
+
+		private Entry(Friend friend, long expiresAt) {
+			this.friend = friend;
+			this.expiresAt = expiresAt;
+		}
+	}
+}
\ No newline at end of file
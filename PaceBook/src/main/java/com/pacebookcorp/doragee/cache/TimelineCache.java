@@ -0,0 +1,317 @@
+package com.pacebookcorp.doragee.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.pacebookcorp.doragee.dto.TimelineCacheStats;
+import com.pacebookcorp.doragee.entity.Post;
+import com.pacebookcorp.doragee.util.FeedCursor;
+
+/**
+ * Post 주인(ownerId)별 타임라인 첫 페이지를 담아두는 캐시
+ * 타임라인은 작성, 수정, 삭제보다 조회가 훨씬 많으므로, PostService 의 쓰기 시점에 캐시도 함께 고치고(write-through)
+ * 첫 페이지 조회는 t_post 를 읽지 않는다.
+ *
+ * 주인 한 명당 최신 pageSize + 1 건(다음 페이지 커서 판단용 1 건 포함)을 담는다.
+ * Post 내용(최대 500자)에 따라 크기가 다르므로 담긴 Post 의 대략적인 힙 사용량을 세어,
+ * 합계가 maxBytes 를 넘으면 가장 오래 조회되지 않은 주인부터 비운다.(LRU)
+ *
+ * 타임라인을 담는 조회(load)는 t_post 를 읽기 전에 주인의 스탬프를 받아두고, 그 사이 같은 주인에 대한 put, remove, invalidate 가 있었다면 담지 않는다.
+ * 스탬프는 FeedCache 와 같이 주인 계정의 해시로 나눈 STAMP_STRIPES 개만 둔다.
+ *
+ * @author Kwon Young
+ */
+@Component
+public class TimelineCache {
+	private static final int STAMP_STRIPES = 1024;
+	private static final long ENTRY_BYTES = 96L;
+	private static final long POST_BYTES = 112L;
+	private static final long STRING_BYTES = 40L;
+
+	private final long maxBytes;
+	private final int pageSize;
+	private final int timelineSize;
+
+	private final Map<String, Timeline> timelines = new LinkedHashMap<>(16, 0.75f, true);
+	private final long[] stamps = new long[STAMP_STRIPES];
+	private long usedBytes;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder staleLoads = new LongAdder();
+
+	@Autowired
+	public TimelineCache(@Value("${pacebook.timeline.cache.max-bytes:67108864}") long maxBytes, @Value("${pacebook.timeline.cache.page-size:20}") int pageSize) {
+		if (maxBytes < 1 || pageSize < 1) {
+			throw new IllegalArgumentException("timeline cache size is illegal.");
+		}
+
+		this.maxBytes = maxBytes;
+		this.pageSize = pageSize;
+		this.timelineSize = pageSize + 1;
+	}
+
+	/**
+	 * @return	캐시로 조회할 수 있는 최대 페이지 크기
+	 */
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * 타임라인 최신 limit 건을 리턴한다.
+	 *
+	 * @param 	ownerId	타임라인 주인
+	 * @param 	limit	최대 건수(size + 1)
+	 * @return	캐시에 담긴 범위만으로 limit 건을 채울 수 있다면(또는 타임라인 끝까지 담겨있다면) Post 목록, 아니라면 null
+	 */
+	public synchronized List<Post> firstPage(String ownerId, int limit) {
+		Timeline timeline = timelines.get(ownerId);
+
+		if (Objects.isNull(timeline) || (timeline.posts.size() < limit && timeline.truncated)) {
+			misses.increment();
+			return null;
+		}
+
+		hits.increment();
+
+		return new ArrayList<>(timeline.posts.subList(0, Math.min(limit, timeline.posts.size())));
+	}
+
+	/**
+	 * t_post 를 읽기 전에 받아두고 load 에 넘긴다.
+	 *
+	 * @param 	ownerId	타임라인 주인
+	 * @return	주인의 현재 스탬프
+	 */
+	public synchronized long stamp(String ownerId) {
+		return stamps[stripe(ownerId)];
+	}
+
+	/**
+	 * t_post 에서 읽은 최신 타임라인을 담는다. 읽는 도중 주인의 타임라인이 바뀌었다면(스탬프가 다르다면) 담지 않는다.
+	 *
+	 * @param ownerId	타임라인 주인
+	 * @param posts		수정일 최신순으로 정렬된 최대 pageSize + 1 건의 Post
+	 * @param truncated	뒤로 더 오래된 Post 가 있을 수 있다면 true
+	 * @param stamp		t_post 를 읽기 전에 받아둔 스탬프(stamp)
+	 */
+	public synchronized void load(String ownerId, List<Post> posts, boolean truncated, long stamp) {
+		if (stamp != stamps[stripe(ownerId)]) {
+			staleLoads.increment();
+			return;
+		}
+
+		Timeline timeline = new Timeline(truncated);
+
+		posts.stream()
+			 .limit(timelineSize)
+			 .map(TimelineCache::copy)
+			 .forEach(timeline::add);
+
+		timeline.truncated |= posts.size() > timelineSize;
+
+		replace(ownerId, timeline);
+	}
+
+	/**
+	 * 캐시된 주인이라면 작성, 수정된 Post 를 수정일 순서 위치에 넣는다. 이미 있는 Post 라면 위치를 옮긴다.
+	 *
+	 * @param post 작성, 수정된 Post
+	 */
+	public synchronized void put(Post post) {
+		touch(post.getOwnerId());
+
+		Timeline timeline = timelines.get(post.getOwnerId());
+
+		if (Objects.isNull(timeline)) {
+			return;
+		}
+
+		Post cachedPost = copy(post);
+
+		usedBytes -= timeline.bytes;
+		timeline.remove(post.getPostPk());
+		timeline.insert(cachedPost, timelineSize);
+		usedBytes += timeline.bytes;
+
+		evict();
+	}
+
+	/**
+	 * 캐시된 주인이라면 삭제된 Post 를 뺀다.
+	 *
+	 * @param ownerId	타임라인 주인
+	 * @param postPk	Post PK
+	 */
+	public synchronized void remove(String ownerId, String postPk) {
+		touch(ownerId);
+
+		Timeline timeline = timelines.get(ownerId);
+
+		if (Objects.nonNull(timeline)) {
+			usedBytes -= timeline.bytes;
+			timeline.remove(postPk);
+			usedBytes += timeline.bytes;
+		}
+	}
+
+	/**
+	 * 주인의 타임라인을 비운다. 다음 조회에서 t_post 로부터 다시 담는다.
+	 *
+	 * @param ownerId 타임라인 주인
+	 */
+	public synchronized void invalidate(String ownerId) {
+		touch(ownerId);
+
+		Timeline timeline = timelines.remove(ownerId);
+
+		if (Objects.nonNull(timeline)) {
+			usedBytes -= timeline.bytes;
+		}
+	}
+
+	/**
+	 * 모든 타임라인을 비운다.
+	 */
+	public synchronized void clear() {
+		timelines.clear();
+		usedBytes = 0L;
+
+		for (int i = 0; i < STAMP_STRIPES; i++) {
+			stamps[i]++;
+		}
+	}
+
+	/**
+	 * @return	적중, 실패, LRU 로 비운 횟수, 읽는 도중 바뀌어 담지 않은 횟수와 사용량
+	 */
+	public synchronized TimelineCacheStats stats() {
+		return new TimelineCacheStats(hits.sum(), misses.sum(), evictions.sum(), timelines.size(), pageSize, usedBytes, maxBytes,
+									  staleLoads.sum());
+	}
+
+	private void replace(String ownerId, Timeline timeline) {
+		Timeline replaced = timelines.remove(ownerId);
+
+		if (Objects.nonNull(replaced)) {
+			usedBytes -= replaced.bytes;
+		}
+
+		timelines.put(ownerId, timeline);
+		usedBytes += timeline.bytes;
+
+		evict();
+	}
+
+	/**
+	 * 사용량이 maxBytes 이하가 될 때까지 가장 오래 조회되지 않은 주인부터 비운다.
+	 * 한 명의 타임라인만으로 maxBytes 를 넘는다면 그 주인도 비운다.
+	 */
+	private void evict() {
+		Iterator<Timeline> eldest = timelines.values().iterator();
+
+		while (usedBytes > maxBytes && eldest.hasNext()) {
+			usedBytes -= eldest.next().bytes;
+			eldest.remove();
+			evictions.increment();
+		}
+	}
+
+	private void touch(String ownerId) {
+		stamps[stripe(ownerId)]++;
+	}
+
+	private static int stripe(String ownerId) {
+		return (ownerId.hashCode() & Integer.MAX_VALUE) % STAMP_STRIPES;
+	}
+
+	/**
+	 * 영속성 컨텍스트의 엔티티를 그대로 담으면 이후 수정이 캐시에 새어 들어가므로 복사본을 담는다.
+	 * 작성일, 수정일은 PaceBookUtils.nowDateTime 이 초 단위로 자른 값이므로 t_post 에 저장된 값과 같다.
+	 */
+	private static Post copy(Post post) {
+		return new Post(post.getPostPk(), post.getOwnerId(), post.getContent(), post.getCreatorId(), post.getCreatedDate(),
+						post.getModifierId(), post.getModifiedDate());
+	}
+
+	/**
+	 * Post 한 건의 대략적인 힙 사용량 : 객체 헤더와 Date 두 개, 문자열 다섯 개(char 2 byte)
+	 */
+	static long weigh(Post post) {
+		return POST_BYTES
+			   + weigh(post.getPostPk()) + weigh(post.getOwnerId()) + weigh(post.getContent())
+			   + weigh(post.getCreatorId()) + weigh(post.getModifierId());
+	}
+
+	private static long weigh(String value) {
+		return STRING_BYTES + 2L * StringUtils.length(value);
+	}
+
+	/**
+	 * 주인 한 명의 타임라인 : 수정일 최신순 Post 목록과 뒤로 더 오래된 Post 가 있는지 여부
+	 */
+	private static class Timeline {
+		private final List<Post> posts = new ArrayList<>();
+		private boolean truncated;
+		private long bytes = ENTRY_BYTES;
+
+		private Timeline(boolean truncated) {
+			this.truncated = truncated;
+		}
+
+		private void add(Post post) {
+			posts.add(post);
+			bytes += weigh(post);
+		}
+
+		/**
+		 * 수정일 순서 위치를 찾아 넣는다. 가득 찼다면 가장 오래된 Post 가 밀려나고(또는 넣을 Post 가 담긴 범위 밖이라면 버리고) truncated 가 된다.
+		 */
+		private void insert(Post post, int timelineSize) {
+			int k = 0;
+
+			while (k < posts.size() && FeedCursor.NEWEST_FIRST.compare(posts.get(k), post) <= 0) {
+				k++;
+			}
+
+			if (k == posts.size() && (truncated || k == timelineSize)) {
+				truncated = true;
+				return;
+			}
+
+			posts.add(k, post);
+			bytes += weigh(post);
+
+			if (posts.size() > timelineSize) {
+				bytes -= weigh(posts.remove(posts.size() - 1));
+				truncated = true;
+			}
+		}
+
+		private void remove(String postPk) {
+			Iterator<Post> iterator = posts.iterator();
+
+			while (iterator.hasNext()) {
+				Post post = iterator.next();
+
+				if (StringUtils.equals(post.getPostPk(), postPk)) {
+					iterator.remove();
+					bytes -= weigh(post);
+					return;
+				}
+			}
+		}
+	}
+}
\ No newline at end of file
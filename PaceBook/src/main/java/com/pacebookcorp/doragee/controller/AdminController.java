@@ -0,0 +1,135 @@
+package com.pacebookcorp.doragee.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.pacebookcorp.doragee.cache.FeedCache;
+import com.pacebookcorp.doragee.cache.FriendRelationCache;
+import com.pacebookcorp.doragee.cache.TimelineCache;
+import com.pacebookcorp.doragee.dto.FeedCacheStats;
+import com.pacebookcorp.doragee.dto.FeedExecutorStats;
+import com.pacebookcorp.doragee.dto.FeedPrecomputeStats;
+import com.pacebookcorp.doragee.dto.FriendRelationCacheStats;
+import com.pacebookcorp.doragee.dto.FriendUpdateStats;
+import com.pacebookcorp.doragee.dto.HybridFeedStats;
+import com.pacebookcorp.doragee.dto.SuggestionStats;
+import com.pacebookcorp.doragee.dto.TimelineCacheStats;
+import com.pacebookcorp.doragee.executor.FeedExecutor;
+import com.pacebookcorp.doragee.service.FeedPrecomputeService;
+import com.pacebookcorp.doragee.service.FriendService;
+import com.pacebookcorp.doragee.service.HeavyUserService;
+import com.pacebookcorp.doragee.service.SuggestionService;
+
+/**
+ * 운영자용 지표 조회
+ *
+ * @author Kwon Young
+ */
+@RestController
+public class AdminController {
+	@Autowired
+	private HeavyUserService heavyUserService;
+
+	@Autowired
+	private FeedCache feedCache;
+
+	@Autowired
+	private FeedExecutor feedExecutor;
+
+	@Autowired
+	private TimelineCache timelineCache;
+
+	@Autowired
+	private FeedPrecomputeService feedPrecomputeService;
+
+	@Autowired
+	private SuggestionService suggestionService;
+
+	@Autowired
+	private FriendRelationCache friendRelationCache;
+
+	@Autowired
+	private FriendService friendService;
+
+	/**
+	 * push / pull 혼합 뉴스피드 지표 조회
+	 *
+	 * @return	heavy 유저 분류 기준, heavy 유저 목록, 뉴스피드 조회 시점 병합에 추가된 시간
+	 */
+	@RequestMapping(value = "/v1/admin/feed", method = RequestMethod.GET)
+	public HybridFeedStats feed() {
+		return heavyUserService.stats();
+	}
+
+	/**
+	 * 뉴스피드 키 캐시 지표 조회
+	 *
+	 * @return	캐시 적중, 실패, LRU 로 비운 횟수와 사용량
+	 */
+	@RequestMapping(value = "/v1/admin/feed-cache", method = RequestMethod.GET)
+	public FeedCacheStats feedCache() {
+		return feedCache.stats();
+	}
+
+	/**
+	 * 타임라인 첫 페이지 캐시 지표 조회
+	 *
+	 * @return	캐시 적중, 실패, LRU 로 비운 횟수와 사용량
+	 */
+	@RequestMapping(value = "/v1/admin/timeline-cache", method = RequestMethod.GET)
+	public TimelineCacheStats timelineCache() {
+		return timelineCache.stats();
+	}
+
+	/**
+	 * 뉴스피드, 타임라인 조회 스레드 풀 지표 조회
+	 *
+	 * @return	스레드 수, 대기열 크기, 거절 방식과 실행 중, 대기 중, 완료, 거절된 작업 수
+	 */
+	@RequestMapping(value = "/v1/admin/feed-executor", method = RequestMethod.GET)
+	public FeedExecutorStats feedExecutor() {
+		return feedExecutor.stats();
+	}
+
+	/**
+	 * 뉴스피드 미리 담기 지표 조회
+	 *
+	 * @return	마지막 작업의 시작 시각, 소요 시간, 미리 담은 뉴스피드 수와 미리 담은 뉴스피드의 적중률
+	 */
+	@RequestMapping(value = "/v1/admin/feed-precompute", method = RequestMethod.GET)
+	public FeedPrecomputeStats feedPrecompute() {
+		return feedPrecomputeService.stats();
+	}
+
+	/**
+	 * 친구 추천 캐시 지표 조회
+	 *
+	 * @return	캐시 적중, 계산, 고친 횟수와 평균 계산 시간, 캐시 사용량
+	 */
+	@RequestMapping(value = "/v1/admin/suggestions", method = RequestMethod.GET)
+	public SuggestionStats suggestions() {
+		return suggestionService.stats();
+	}
+
+	/**
+	 * 친구 관계 조회 캐시 지표 조회
+	 *
+	 * @return	캐시 적중(관계 있음, 없음), 실패, 비운 횟수와 사용량
+	 */
+	@RequestMapping(value = "/v1/admin/friend-relation-cache", method = RequestMethod.GET)
+	public FriendRelationCacheStats friendRelationCache() {
+		return friendRelationCache.stats();
+	}
+
+	/**
+	 * 친구 관계 상태 변경 지표 조회
+	 *
+	 * @return	최대 시도 횟수와 수정, 버전 충돌, 재시도, 거절 횟수
+	 */
+	@RequestMapping(value = "/v1/admin/friend-updates", method = RequestMethod.GET)
+	public FriendUpdateStats friendUpdates() {
+		return friendService.updateStats();
+	}
+}
\ No newline at end of file
@@ -1,255 +1,634 @@
-package com.pacebookcorp.doragee.controller;
-
-import java.util.List;
-
-import org.apache.commons.lang3.StringUtils;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
-import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestMethod;
-import org.springframework.web.bind.annotation.ResponseStatus;
-import org.springframework.web.bind.annotation.RestController;
-
-import com.pacebookcorp.doragee.entity.Friend;
-import com.pacebookcorp.doragee.entity.Post;
-import com.pacebookcorp.doragee.entity.User;
-import com.pacebookcorp.doragee.exception.ExceptionMessage;
-import com.pacebookcorp.doragee.service.FriendService;
-import com.pacebookcorp.doragee.service.PostService;
-import com.pacebookcorp.doragee.service.UserService;
-import com.pacebookcorp.doragee.util.PaceBookUtils;
-
-import lombok.extern.slf4j.Slf4j;
-
-/**
- * @author Kwon Young
- */
-@RestController
-@Slf4j
-public class PaceBookController {
-	private static final String INVALID_FRIEND_MESSAGE = "In Friend Relation, acceptorId or applierId is not Friend.";
-	private static final String INVALID_FRIEND_AND_ABUSE_MESSAGE = "In Friend Relation, acceptorId or applierId is not Friend, or follwer is not acceptable.";
-	private static final String USERID_IS_ILLEGAL = "userId is illegal.";
-	private static final String NOT_FRIEND_EACH_OTHER = "In Friend Relation, acceptorId or applierId is not acceptable each other.";
-	private static final String USER_ID_NAME_IS_ILLEGAL = "userId or userName is illegal.";
-	private static final String APPLIER_OR_ACCEPTOR_ILLEGAL_OR_EXIST_FRIEND = "applierId or acceptorId is illegal or Exist friend each other.";
-	private static final String SERVER_ERROR = "Server Error";
-
-	@Autowired
-	private UserService userService;
-
-	@Autowired
-	private FriendService friendService;
-
-	@Autowired
-	private PostService postService;
-
-	/**
-	 * 1. 모든 사용자 정보 조회
-	 * 
-	 * @return	서비스에 등록된 모든 사용자 정보
-	 */
-	@RequestMapping(value = "/v1/users", method = RequestMethod.GET)
-	public List<User> users() {
-		return userService.findAll();
-	}
-
-	/**
-	 * 2. 특정 유저의 뉴스피드 조회
-	 * 
-	 * @param 	userId 특정 유저 계정(id)
-	 * @return	userId 와 친구관계를 맺은 사람들이 작성한 Post 목록을 가져오는데, 친구 관계더라도 팔로우가 활성화 된 친구의 Post만 가져온다. 정렬 기준은 Post 가 수정된 날짜 기준이다.(수정일이 작성일보다 최근)
-	 */
-	@RequestMapping(value = "/v1/newsfeed/{userId}", method = RequestMethod.GET)
-	public List<Post> newsfeed(@PathVariable String userId) {
-		if (PaceBookUtils.isInvalidUserId(userId)) {
-			log.info(USERID_IS_ILLEGAL + " : {}", userId);
-			throw new IllegalArgumentException(USERID_IS_ILLEGAL);
-		}
-
-		return postService.newsfeed(userId);
-	}
-
-	/**
-	 * 3. 특정 유저의 타임라인 조회
-	 * 
-	 * @param	userId 특정 유저 계정(id)
-	 * @return	userId 의 타임라인에 게시된 Post를 가져오는데, 자신이 작성한 것과 친구가 자신에게 남긴 글을 가져온다. 
-	 */
-	@RequestMapping(value = "/v1/timeline/{userId}", method = RequestMethod.GET)
-	public List<Post> timeline(@PathVariable String userId) {
-		if (PaceBookUtils.isInvalidUserId(userId)) {
-			log.info(USERID_IS_ILLEGAL + " : {}", userId);
-			throw new IllegalArgumentException(USERID_IS_ILLEGAL);
-		}
-
-		return postService.timeline(userId);
-	}
-
-	/**
-	 * 4. 유저 가입
-	 * 
-	 * @param 	user	: userId, userName 만 입력받는다.
-	 * @return	유저 가입은 계정과 이름만 받는다. 단, 유저 계정은 영문/숫자 5~45자 이내, 유저 이름은 영문/숫자/한글 1~45자 이내이며 유저 계정은 기존 User table 에 있는지 중복체크를 한다. 
-	 */
-	@RequestMapping(value = "/v1/regist", method = RequestMethod.POST)
-	public User regist(User user) {
-		if (userService.isInvalidRegistration(user.getUserId(), user.getUserName())) {
-			log.info(USER_ID_NAME_IS_ILLEGAL + " : {}, {}", user.getUserId(), user.getUserName());
-			throw new IllegalArgumentException(USER_ID_NAME_IS_ILLEGAL);
-		}
-
-		return userService.regist(user);
-	}
-
-	/**
-	 * 5. 친구 신청
-	 * 
-	 * @param	friend	 : applierId(친구신청자), acceptorId(친구수락자) 만 입력받는다.
-	 * @return	친구신청자가 친구수락자에게 친구 신청을 보내고 친구 신청 이력을 리턴받는다. 리턴받는 항목은 아직 친구 수락 전이므로 수락여부(acceptYn=n), 친구신청자가 친구수락자를 팔로우 여부(applierFollowYn=n), 친구수락자가 친구신청자를 팔로우 여부(acceptFollowYn=n) 이다. 추후, 친구수락자가 승인을 해야 수락 및 팔로우 모두 y로 바뀐다.
-	 */
-	@RequestMapping(value = "/v1/friend", method = RequestMethod.POST)
-	public Friend apply(Friend friend) {
-		if (friendService.isInvalidApply(friend)) {
-			log.info(APPLIER_OR_ACCEPTOR_ILLEGAL_OR_EXIST_FRIEND + " : {}, {}", friend.getApplierId(), friend.getAcceptorId());
-			throw new IllegalArgumentException(APPLIER_OR_ACCEPTOR_ILLEGAL_OR_EXIST_FRIEND);
-		}
-
-		return friendService.apply(friend);
-	}
-
-	/**
-	 * 6. 친구 수락
-	 * 
-	 * @param	friend	 : applierId(친구신청자), acceptorId(친구수락자) 만 입력받는다.
-	 * @return	친구수락자가 친구신청자의 친구 신청을 수락하며 쌍방간에 팔로우가 활성화 된다. 친구수락여부(acceptYn=y), 친구신청자가 친구수락자를 팔로우 여부(applierFollowYn=y), 친구수락자가 친구신청자를 팔로우 여부(acceptFollowYn=y) 이다. 
-	 */
-	@RequestMapping(value = "/v1/friend", method = RequestMethod.PUT)
-	public Friend accept(Friend friend) {
-		if (friendService.notExistNotAccptedFriendRelation(friend.getApplierId(), friend.getAcceptorId())) {
-			log.info(NOT_FRIEND_EACH_OTHER + " : {}, {}", friend.getApplierId(), friend.getAcceptorId());
-			throw new IllegalStateException(NOT_FRIEND_EACH_OTHER);
-		}
-
-		return friendService.accept(friend);		
-	}
-
-	/**
-	 * 7. 친구 끊기
-	 * 
-	 * @param	friend	 : applierId(친구신청자), acceptorId(친구수락자) 만 입력받는다.
-	 * @return	친구 관계가 끊긴다면 친구신청자, 친구수락자 서로를 팔로우 하지 않고 친구 관계 여부도 n 으로 변경된다.
-	 */
-	@RequestMapping(value = "/v1/friend", method = RequestMethod.DELETE)
-	public Friend end(Friend friend) {
-		if (friendService.isInvalidAccepted(friend)) {
-			log.info(NOT_FRIEND_EACH_OTHER + " : {}, {}", friend.getApplierId(), friend.getAcceptorId());
-			throw new IllegalStateException(NOT_FRIEND_EACH_OTHER);
-		}
-
-		return friendService.end(friend);
-	}
-
-	/**
-	 * 8. 친구 관계에 있는 사람 팔로우 맺기
-	 * 친구 관계가 수락된다면 자동으로 서로 팔로우는 맺어지지만, 친구 관계더라도 팔로우는 끊고 다시 맺을 수 있기 때문에 팔로우 맺는 기능이 있어야 한다.
-	 * 단, Friend 객체(Table) 에서 팔로우의 방향성(친구신청자->친구수락자를, 친구수락자->친구신청자를)이 있기 때문에 팔로우 맺기를 희망한 주체가 누구인지 follower 항목을 파라미터로 받는다.
-	 * 
-	 * @param	friend	 : applierId(친구신청자), acceptorId(친구수락자) 만 입력받는다.
-	 * @param 	follower : 팔로우의 주체자, 'applierId' 값이 넘어온다면 친구신청자가 친구수락자를 팔로우 한다.
-	 * @return	친구 관계끼리 팔로우가 맺어진 객체를 리턴받는다.
-	 */
-	@RequestMapping(value = "/v1/follow", method = RequestMethod.POST)
-	public Friend follow(Friend friend, String follower) {
-		if (friendService.isInvalidFollowAgent(follower) || friendService.isInvalidUnFollower(friend, follower)) {
-			log.info(INVALID_FRIEND_AND_ABUSE_MESSAGE + " : {}, {}", friend.getApplierId(), friend.getAcceptorId());
-			throw new IllegalStateException(INVALID_FRIEND_AND_ABUSE_MESSAGE);
-		}
-
-		return friendService.follow(friend, follower);
-	}
-
-	/**
-	 * 9. 친구 관계에 있는 사람 팔로우 끊기
-	 * 친구 관계이면 자동으로 팔로우가 맺어진 상태이며, 해당 유저의 타임라인에는 친구들의 Post 목록을 받아볼 수 있다.
-	 * Post 목록을 받아보지 않기 위해 팔로우 끊기 기능이 존재한다.
-	 * 
-	 * @param	friend	 : applierId(친구신청자), acceptorId(친구수락자) 만 입력받는다.
-	 * @param 	unfollower : 팔로우 끊기의 주체자, 'applierId' 값이 넘어온다면 친구신청자가 친구수락자를 팔로우를 끊는다.
-	 * @return	친구 관계끼리 팔로우가 맺어진 객체를 리턴받는다.
-	 */
-	@RequestMapping(value = "/v1/follow", method = RequestMethod.DELETE)
-	public Friend unFollow(Friend friend, String unfollower) {
-		if (friendService.isInvalidFollowAgent(unfollower) || friendService.isInvalidFollwer(friend, unfollower)) {
-			log.info(INVALID_FRIEND_AND_ABUSE_MESSAGE + " : {}, {}", friend.getApplierId(), friend.getAcceptorId());
-			throw new IllegalStateException(INVALID_FRIEND_AND_ABUSE_MESSAGE);
-		}
-
-		return friendService.unfollow(friend, unfollower);
-	}
-
-	/**
-	 * 10. Post 작성
-	 * Post 의 작성은 자기 자신 또는 친구의 타임라인에 작성할 수 있으며 이후 뉴스피드 목록에 노출될 영역이다.
-	 * 그리고, 자기 자신의 소유인 타임라인과 타임라인이 모인 뉴스피드와 구분될 수 있도록 Post 의 주인을 명시하는 ownerId 프로퍼티가 존재한다.
-	 * 
-	 * @param 	post	: ownerId(Post의 주인), creatorId(작성자 : Post의 주인, 친구), content(내용)
-	 * @return	작성된 Post 의 객체를 리턴한다.
-	 */
-	@RequestMapping(value = "/v1/post", method = RequestMethod.POST)
-	public Post write(Post post) {
-		if (postService.isInvalidWrite(post)) {
-			log.info(INVALID_FRIEND_MESSAGE + " : {}, {}", post.getOwnerId(), post.getCreatorId());
-			throw new IllegalStateException(INVALID_FRIEND_MESSAGE);
-		} 
-
-		return postService.write(post);
-	}
-
-	/**
-	 * 11. Post 수정
-	 * 
-	 * @param	post 객체의 날짜를 제외한 모든 항목을 받는다.
-	 * @return	수정된 Post 객체를 리턴한다.
-	 */
-	@RequestMapping(value = "/v1/post", method = RequestMethod.PUT)	
-	public Post modify(Post post) {
-		if (postService.isInvalidModify(post)) {
-			log.info(INVALID_FRIEND_MESSAGE + " : {}, {}", post.getOwnerId(), post.getModifierId());
-			throw new IllegalStateException(INVALID_FRIEND_MESSAGE);
-		}
-
-		return postService.modify(post);
-	}
-
-	/**
-	 * 12. Post 삭제
-	 * 
-	 * @param post 객체 항목을 받는다.
-	 */
-	@RequestMapping(value = "/v1/post", method = RequestMethod.DELETE)
-	public void delete(Post post) {
-		if (postService.isInvalidDelete(post)) {
-			log.info(INVALID_FRIEND_MESSAGE + " : {}, {}", post.getOwnerId(), post.getModifierId());
-			throw new IllegalStateException(INVALID_FRIEND_MESSAGE);
-		}
-
-		postService.delete(post);		
-	}
-
-	/**
-	 * 예외 발생시 메세지 세팅
-	 * 
-	 * @param exception
-	 * @return
-	 */
-	@ExceptionHandler({IllegalArgumentException.class, IllegalStateException.class})
-	@ResponseStatus(HttpStatus.BAD_REQUEST)
-	public ExceptionMessage exceptionMessage(Exception exception) {
-		String message = StringUtils.defaultIfBlank(exception.getMessage(), SERVER_ERROR);
-
-		return new ExceptionMessage(message);
-	}
+package com.pacebookcorp.doragee.controller;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.pacebookcorp.doragee.dto.FriendBatchResult;
+import com.pacebookcorp.doragee.dto.FriendRelation;
+import com.pacebookcorp.doragee.dto.MutualFriendPage;
+import com.pacebookcorp.doragee.dto.NewsfeedDelta;
+import com.pacebookcorp.doragee.dto.PostPage;
+import com.pacebookcorp.doragee.dto.Suggestion;
+import com.pacebookcorp.doragee.entity.Friend;
+import com.pacebookcorp.doragee.entity.Post;
+import com.pacebookcorp.doragee.entity.User;
+import com.pacebookcorp.doragee.entity.UserCount;
+import com.pacebookcorp.doragee.exception.ExceptionMessage;
+import com.pacebookcorp.doragee.executor.FeedExecutor;
+import com.pacebookcorp.doragee.service.FriendService;
+import com.pacebookcorp.doragee.service.PostService;
+import com.pacebookcorp.doragee.service.SuggestionService;
+import com.pacebookcorp.doragee.service.UserCountService;
+import com.pacebookcorp.doragee.service.UserService;
+import com.pacebookcorp.doragee.util.NdjsonWriter;
+import com.pacebookcorp.doragee.util.PaceBookUtils;
+import com.pacebookcorp.doragee.util.PostSummaryFilter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * @author Kwon Young
+ */
+@RestController
+@Slf4j
+public class PaceBookController {
+	private static final String INVALID_FRIEND_MESSAGE = "In Friend Relation, acceptorId or applierId is not Friend.";
+	private static final String INVALID_FRIEND_AND_ABUSE_MESSAGE = "In Friend Relation, acceptorId or applierId is not Friend, or follwer is not acceptable.";
+	private static final String USERID_IS_ILLEGAL = "userId is illegal.";
+	private static final String PAGE_SIZE_IS_ILLEGAL = "size is illegal.";
+	private static final String WATERMARK_IS_ILLEGAL = "since is illegal.";
+	private static final String FIELDS_IS_ILLEGAL = "fields is illegal.";
+	private static final String NOT_FRIEND_EACH_OTHER = "In Friend Relation, acceptorId or applierId is not acceptable each other.";
+	private static final String USER_ID_NAME_IS_ILLEGAL = "userId or userName is illegal.";
+	private static final String APPLIER_OR_ACCEPTOR_ILLEGAL_OR_EXIST_FRIEND = "applierId or acceptorId is illegal or Exist friend each other.";
+	private static final String MUTUAL_FRIENDS_IS_ILLEGAL = "userId, otherId or cursor is illegal.";
+	private static final String FRIEND_BATCH_IS_ILLEGAL = "userId is illegal, or friend ids are empty or more than 500.";
+	private static final String SERVER_ERROR = "Server Error";
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private FriendService friendService;
+
+	@Autowired
+	private PostService postService;
+
+	@Autowired
+	private SuggestionService suggestionService;
+
+	@Autowired
+	private UserCountService userCountService;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private FeedExecutor feedExecutor;
+
+	/**
+	 * 1. 모든 사용자 정보 조회
+	 *
+	 * @return	서비스에 등록된 모든 사용자 정보
+	 */
+	@RequestMapping(value = "/v1/users", method = RequestMethod.GET)
+	public List<User> users() {
+		return userService.findAll();
+	}
+
+	/**
+	 * 2. 특정 유저의 뉴스피드 조회
+	 *
+	 * @param 	userId 특정 유저 계정(id)
+	 * @return	userId 와 친구관계를 맺은 사람들이 작성한 Post 목록을 가져오는데, 친구 관계더라도 팔로우가 활성화 된 친구의 Post만 가져온다. 정렬 기준은 Post 가 수정된 날짜 기준이다.(수정일이 작성일보다 최근)
+	 */
+	@RequestMapping(value = "/v1/newsfeed/{userId}", method = RequestMethod.GET)
+	public CompletableFuture<List<Post>> newsfeed(@PathVariable String userId) {
+		if (PaceBookUtils.isInvalidUserId(userId)) {
+			log.info(USERID_IS_ILLEGAL + " : {}", userId);
+			throw new IllegalArgumentException(USERID_IS_ILLEGAL);
+		}
+
+		return feedExecutor.supply(() -> postService.newsfeed(userId));
+	}
+
+	/**
+	 * 2-1. 특정 유저의 뉴스피드 페이지 조회
+	 * size 파라미터가 넘어오면 뉴스피드 전체가 아닌 (수정일, PK) 기준 keyset 페이지 단위로 조회한다.
+	 *
+	 * @param 	userId	특정 유저 계정(id)
+	 * @param 	cursor	이전 페이지에서 리턴받은 nextCursor, 첫 페이지라면 비워둔다.
+	 * @param 	size	한 페이지에 담을 Post 수(1~100)
+	 * @return	수정일 최신순으로 정렬된 뉴스피드 한 페이지와 다음 페이지 커서(nextCursor), 마지막 페이지라면 nextCursor 는 null 이다.
+	 */
+	@RequestMapping(value = "/v1/newsfeed/{userId}", method = RequestMethod.GET, params = "size")
+	public CompletableFuture<PostPage> newsfeed(@PathVariable String userId, String cursor, Integer size) {
+		if (PaceBookUtils.isInvalidUserId(userId)) {
+			log.info(USERID_IS_ILLEGAL + " : {}", userId);
+			throw new IllegalArgumentException(USERID_IS_ILLEGAL);
+		}
+
+		if (PaceBookUtils.isInvalidPageSize(size)) {
+			log.info(PAGE_SIZE_IS_ILLEGAL + " : {}", size);
+			throw new IllegalArgumentException(PAGE_SIZE_IS_ILLEGAL);
+		}
+
+		return feedExecutor.supply(() -> postService.newsfeed(userId, cursor, size));
+	}
+
+	/**
+	 * 2-4. 특정 유저의 뉴스피드 요약 페이지 조회
+	 * view=summary 라면 내용을 잘라낸 요약으로 조회하며, fields 로 요청한 필드만 내려준다.
+	 *
+	 * @param 	userId	특정 유저 계정(id)
+	 * @param 	cursor	이전 페이지에서 리턴받은 nextCursor, 첫 페이지라면 비워둔다.
+	 * @param 	size	한 페이지에 담을 Post 수(1~100)
+	 * @param 	fields	콤마로 구분된 필드 목록(postPk, ownerId, creatorId, content, modifiedDate), 비어있다면 모든 필드
+	 * @return	수정일 최신순으로 정렬된 Post 요약 한 페이지와 다음 페이지 커서(nextCursor)
+	 */
+	@RequestMapping(value = "/v1/newsfeed/{userId}", method = RequestMethod.GET, params = {"size", "view=summary"})
+	public CompletableFuture<MappingJacksonValue> newsfeedSummary(@PathVariable String userId, String cursor, Integer size, String fields) {
+		if (PaceBookUtils.isInvalidUserId(userId)) {
+			log.info(USERID_IS_ILLEGAL + " : {}", userId);
+			throw new IllegalArgumentException(USERID_IS_ILLEGAL);
+		}
+
+		if (PaceBookUtils.isInvalidPageSize(size)) {
+			log.info(PAGE_SIZE_IS_ILLEGAL + " : {}", size);
+			throw new IllegalArgumentException(PAGE_SIZE_IS_ILLEGAL);
+		}
+
+		if (PostSummaryFilter.isInvalidFields(fields)) {
+			log.info(FIELDS_IS_ILLEGAL + " : {}", fields);
+			throw new IllegalArgumentException(FIELDS_IS_ILLEGAL);
+		}
+
+		return feedExecutor.supply(() -> PostSummaryFilter.filter(postService.newsfeedSummary(userId, cursor, size), fields));
+	}
+
+	/**
+	 * 2-4. 특정 유저의 뉴스피드 요약 페이지 조회 : size 가 없다면 기본값(20)
+	 * size 가 없는 view=summary 요청이 엔티티 목록을 그대로 내려주지 않도록 요약 페이지 조회로 보낸다.
+	 *
+	 * @param 	userId	특정 유저 계정(id)
+	 * @param 	cursor	이전 페이지에서 리턴받은 nextCursor, 첫 페이지라면 비워둔다.
+	 * @param 	fields	콤마로 구분된 필드 목록(postPk, ownerId, creatorId, content, modifiedDate), 비어있다면 모든 필드
+	 * @return	수정일 최신순으로 정렬된 Post 요약 한 페이지와 다음 페이지 커서(nextCursor)
+	 */
+	@RequestMapping(value = "/v1/newsfeed/{userId}", method = RequestMethod.GET, params = "view=summary")
+	public CompletableFuture<MappingJacksonValue> newsfeedSummary(@PathVariable String userId, String cursor, String fields) {
+		return newsfeedSummary(userId, cursor, null, fields);
+	}
+
+	/**
+	 * 2-2. 특정 유저의 뉴스피드 변경분 조회
+	 * 이전 응답의 watermark 를 since 로 넘기면 그 이후 작성, 수정된 Post 와 삭제된 Post PK 만 조회한다.
+	 *
+	 * @param 	userId	특정 유저 계정(id)
+	 * @param 	since	이전 응답의 watermark(epoch millis), 첫 조회라면 비워둔다.
+	 * @return	변경된 Post, 삭제된 Post PK, 다음 요청에 넘길 watermark, reset 이 true 라면 클라이언트는 가진 뉴스피드를 posts 로 교체한다.
+	 */
+	@RequestMapping(value = "/v1/newsfeed/{userId}/delta", method = RequestMethod.GET)
+	public CompletableFuture<NewsfeedDelta> newsfeedDelta(@PathVariable String userId, Long since) {
+		if (PaceBookUtils.isInvalidUserId(userId)) {
+			log.info(USERID_IS_ILLEGAL + " : {}", userId);
+			throw new IllegalArgumentException(USERID_IS_ILLEGAL);
+		}
+
+		if (PaceBookUtils.isInvalidWatermark(since)) {
+			log.info(WATERMARK_IS_ILLEGAL + " : {}", since);
+			throw new IllegalArgumentException(WATERMARK_IS_ILLEGAL);
+		}
+
+		return feedExecutor.supply(() -> postService.newsfeedDelta(userId, since));
+	}
+
+	/**
+	 * 2-3. 특정 유저의 뉴스피드 스트리밍 조회
+	 * 뉴스피드 전체를 목록으로 만들지 않고, 병합되는 순서대로 한 줄에 Post 하나씩 NDJSON 으로 내려준다.
+	 *
+	 * @param 	userId 특정 유저 계정(id)
+	 * @return	수정일 최신순 Post 의 NDJSON 스트림
+	 */
+	@RequestMapping(value = "/v1/newsfeed/{userId}/stream", method = RequestMethod.GET, produces = NdjsonWriter.MEDIA_TYPE)
+	public StreamingResponseBody newsfeedStream(@PathVariable String userId) {
+		if (PaceBookUtils.isInvalidUserId(userId)) {
+			log.info(USERID_IS_ILLEGAL + " : {}", userId);
+			throw new IllegalArgumentException(USERID_IS_ILLEGAL);
+		}
+
+		return outputStream -> postService.streamNewsfeed(userId, new NdjsonWriter<>(objectMapper, outputStream));
+	}
+
+	/**
+	 * 3. 특정 유저의 타임라인 조회
+	 *
+	 * @param	userId 특정 유저 계정(id)
+	 * @return	userId 의 타임라인에 게시된 Post를 가져오는데, 자신이 작성한 것과 친구가 자신에게 남긴 글을 가져온다. 
+	 */
+	@RequestMapping(value = "/v1/timeline/{userId}", method = RequestMethod.GET)
+	public CompletableFuture<List<Post>> timeline(@PathVariable String userId) {
+		if (PaceBookUtils.isInvalidUserId(userId)) {
+			log.info(USERID_IS_ILLEGAL + " : {}", userId);
+			throw new IllegalArgumentException(USERID_IS_ILLEGAL);
+		}
+
+		return feedExecutor.supply(() -> postService.timeline(userId));
+	}
+
+	/**
+	 * 3-3. 특정 유저의 타임라인 페이지 조회
+	 * size 파라미터가 넘어오면 타임라인 전체가 아닌 (수정일, PK) 기준 keyset 페이지 단위로 조회한다.
+	 *
+	 * @param 	userId	특정 유저 계정(id)
+	 * @param 	cursor	이전 페이지에서 리턴받은 nextCursor, 첫 페이지라면 비워둔다.
+	 * @param 	size	한 페이지에 담을 Post 수(1~100)
+	 * @return	수정일 최신순으로 정렬된 타임라인 한 페이지와 다음 페이지 커서(nextCursor), 마지막 페이지라면 nextCursor 는 null 이다.
+	 */
+	@RequestMapping(value = "/v1/timeline/{userId}", method = RequestMethod.GET, params = "size")
+	public CompletableFuture<PostPage> timeline(@PathVariable String userId, String cursor, Integer size) {
+		if (PaceBookUtils.isInvalidUserId(userId)) {
+			log.info(USERID_IS_ILLEGAL + " : {}", userId);
+			throw new IllegalArgumentException(USERID_IS_ILLEGAL);
+		}
+
+		if (PaceBookUtils.isInvalidPageSize(size)) {
+			log.info(PAGE_SIZE_IS_ILLEGAL + " : {}", size);
+			throw new IllegalArgumentException(PAGE_SIZE_IS_ILLEGAL);
+		}
+
+		return feedExecutor.supply(() -> postService.timeline(userId, cursor, size));
+	}
+
+	/**
+	 * 3-4. 특정 유저의 타임라인 요약 페이지 조회
+	 * view=summary 라면 내용을 잘라낸 요약으로 조회하며, fields 로 요청한 필드만 내려준다.
+	 *
+	 * @param 	userId	특정 유저 계정(id)
+	 * @param 	cursor	이전 페이지에서 리턴받은 nextCursor, 첫 페이지라면 비워둔다.
+	 * @param 	size	한 페이지에 담을 Post 수(1~100)
+	 * @param 	fields	콤마로 구분된 필드 목록(postPk, ownerId, creatorId, content, modifiedDate), 비어있다면 모든 필드
+	 * @return	수정일 최신순으로 정렬된 Post 요약 한 페이지와 다음 페이지 커서(nextCursor)
+	 */
+	@RequestMapping(value = "/v1/timeline/{userId}", method = RequestMethod.GET, params = {"size", "view=summary"})
+	public CompletableFuture<MappingJacksonValue> timelineSummary(@PathVariable String userId, String cursor, Integer size, String fields) {
+		if (PaceBookUtils.isInvalidUserId(userId)) {
+			log.info(USERID_IS_ILLEGAL + " : {}", userId);
+			throw new IllegalArgumentException(USERID_IS_ILLEGAL);
+		}
+
+		if (PaceBookUtils.isInvalidPageSize(size)) {
+			log.info(PAGE_SIZE_IS_ILLEGAL + " : {}", size);
+			throw new IllegalArgumentException(PAGE_SIZE_IS_ILLEGAL);
+		}
+
+		if (PostSummaryFilter.isInvalidFields(fields)) {
+			log.info(FIELDS_IS_ILLEGAL + " : {}", fields);
+			throw new IllegalArgumentException(FIELDS_IS_ILLEGAL);
+		}
+
+		return feedExecutor.supply(() -> PostSummaryFilter.filter(postService.timelineSummary(userId, cursor, size), fields));
+	}
+
+	/**
+	 * 3-2. 특정 유저의 타임라인 요약 조회
+	 * view=summary 라면 내용을 잘라낸 요약으로 조회하며, fields 로 요청한 필드만 내려준다.
+	 *
+	 * @param 	userId	특정 유저 계정(id)
+	 * @param 	fields	콤마로 구분된 필드 목록(postPk, ownerId, creatorId, content, modifiedDate), 비어있다면 모든 필드
+	 * @return	수정일 최신순 Post 요약 목록
+	 */
+	@RequestMapping(value = "/v1/timeline/{userId}", method = RequestMethod.GET, params = "view=summary")
+	public CompletableFuture<MappingJacksonValue> timelineSummary(@PathVariable String userId, String fields) {
+		if (PaceBookUtils.isInvalidUserId(userId)) {
+			log.info(USERID_IS_ILLEGAL + " : {}", userId);
+			throw new IllegalArgumentException(USERID_IS_ILLEGAL);
+		}
+
+		if (PostSummaryFilter.isInvalidFields(fields)) {
+			log.info(FIELDS_IS_ILLEGAL + " : {}", fields);
+			throw new IllegalArgumentException(FIELDS_IS_ILLEGAL);
+		}
+
+		return feedExecutor.supply(() -> PostSummaryFilter.filter(postService.timelineSummary(userId), fields));
+	}
+
+	/**
+	 * 3-1. 특정 유저의 타임라인 스트리밍 조회
+	 * 타임라인 전체를 목록으로 만들지 않고, DB 에서 읽는 즉시 한 줄에 Post 하나씩 NDJSON 으로 내려준다.
+	 *
+	 * @param 	userId 특정 유저 계정(id)
+	 * @return	수정일 최신순 Post 의 NDJSON 스트림
+	 */
+	@RequestMapping(value = "/v1/timeline/{userId}/stream", method = RequestMethod.GET, produces = NdjsonWriter.MEDIA_TYPE)
+	public StreamingResponseBody timelineStream(@PathVariable String userId) {
+		if (PaceBookUtils.isInvalidUserId(userId)) {
+			log.info(USERID_IS_ILLEGAL + " : {}", userId);
+			throw new IllegalArgumentException(USERID_IS_ILLEGAL);
+		}
+
+		return outputStream -> postService.streamTimeline(userId, new NdjsonWriter<>(objectMapper, outputStream));
+	}
+
+	/**
+	 * 4. 유저 가입
+	 *
+	 * @param 	user	: userId, userName 만 입력받는다.
+	 * @return	유저 가입은 계정과 이름만 받는다. 단, 유저 계정은 영문/숫자 5~45자 이내, 유저 이름은 영문/숫자/한글 1~45자 이내이며 유저 계정은 기존 User table 에 있는지 중복체크를 한다. 
+	 */
+	@RequestMapping(value = "/v1/regist", method = RequestMethod.POST)
+	public User regist(User user) {
+		if (userService.isInvalidRegistration(user.getUserId(), user.getUserName())) {
+			log.info(USER_ID_NAME_IS_ILLEGAL + " : {}, {}", user.getUserId(), user.getUserName());
+			throw new IllegalArgumentException(USER_ID_NAME_IS_ILLEGAL);
+		}
+
+		return userService.regist(user);
+	}
+
+	/**
+	 * 5. 친구 신청
+	 *
+	 * @param	friend	 : applierId(친구신청자), acceptorId(친구수락자) 만 입력받는다.
+	 * @return	친구신청자가 친구수락자에게 친구 신청을 보내고 친구 신청 이력을 리턴받는다. 리턴받는 항목은 아직 친구 수락 전이므로 수락여부(acceptYn=n), 친구신청자가 친구수락자를 팔로우 여부(applierFollowYn=n), 친구수락자가 친구신청자를 팔로우 여부(acceptFollowYn=n) 이다. 추후, 친구수락자가 승인을 해야 수락 및 팔로우 모두 y로 바뀐다.
+	 */
+	@RequestMapping(value = "/v1/friend", method = RequestMethod.POST)
+	public Friend apply(Friend friend) {
+		if (friendService.isInvalidApply(friend)) {
+			log.info(APPLIER_OR_ACCEPTOR_ILLEGAL_OR_EXIST_FRIEND + " : {}, {}", friend.getApplierId(), friend.getAcceptorId());
+			throw new IllegalArgumentException(APPLIER_OR_ACCEPTOR_ILLEGAL_OR_EXIST_FRIEND);
+		}
+
+		return friendService.apply(friend);
+	}
+
+	/**
+	 * 5-1. 친구 일괄 신청
+	 * 가입, 온보딩 때 여러 명에게 한 번에 친구 신청을 보낸다. 상대별로 신청 가능 여부를 체크하여 가능한 건만 입력하고 처리 결과를 리턴한다.
+	 *
+	 * @param 	applierId		친구신청자
+	 * @param 	acceptorIds		친구수락자 목록(최대 500 명)
+	 * @return	친구수락자별 처리 결과, 신청되었다면 친구 신청 이력이, 아니라면 거절 사유가 담긴다.
+	 */
+	@RequestMapping(value = "/v1/friends", method = RequestMethod.POST)
+	public List<FriendBatchResult> applyAll(String applierId, @RequestParam(required = false) List<String> acceptorIds) {
+		if (friendService.isInvalidBatch(applierId, acceptorIds)) {
+			log.info(FRIEND_BATCH_IS_ILLEGAL + " : {}", applierId);
+			throw new IllegalArgumentException(FRIEND_BATCH_IS_ILLEGAL);
+		}
+
+		return friendService.applyAll(applierId, acceptorIds);
+	}
+
+	/**
+	 * 6. 친구 수락
+	 *
+	 * @param	friend	 : applierId(친구신청자), acceptorId(친구수락자) 만 입력받는다.
+	 * @return	친구수락자가 친구신청자의 친구 신청을 수락하며 쌍방간에 팔로우가 활성화 된다. 친구수락여부(acceptYn=y), 친구신청자가 친구수락자를 팔로우 여부(applierFollowYn=y), 친구수락자가 친구신청자를 팔로우 여부(acceptFollowYn=y) 이다. 
+	 */
+	@RequestMapping(value = "/v1/friend", method = RequestMethod.PUT)
+	public Friend accept(Friend friend) {
+		FriendRelation relation = friendService.relation(friend.getApplierId(), friend.getAcceptorId());
+
+		if (friendService.isInvalidAccept(relation)) {
+			log.info(NOT_FRIEND_EACH_OTHER + " : {}, {}", friend.getApplierId(), friend.getAcceptorId());
+			throw new IllegalStateException(NOT_FRIEND_EACH_OTHER);
+		}
+
+		return friendService.accept(relation);		
+	}
+
+	/**
+	 * 6-1. 친구 일괄 수락
+	 *
+	 * @param 	acceptorId		친구수락자
+	 * @param 	applierIds		친구신청자 목록(최대 500 명)
+	 * @return	친구신청자별 처리 결과, 수락되었다면 친구 관계가, 아니라면 거절 사유가 담긴다.
+	 */
+	@RequestMapping(value = "/v1/friends", method = RequestMethod.PUT)
+	public List<FriendBatchResult> acceptAll(String acceptorId, @RequestParam(required = false) List<String> applierIds) {
+		if (friendService.isInvalidBatch(acceptorId, applierIds)) {
+			log.info(FRIEND_BATCH_IS_ILLEGAL + " : {}", acceptorId);
+			throw new IllegalArgumentException(FRIEND_BATCH_IS_ILLEGAL);
+		}
+
+		return friendService.acceptAll(acceptorId, applierIds);
+	}
+
+	/**
+	 * 7. 친구 끊기
+	 *
+	 * @param	friend	 : applierId(친구신청자), acceptorId(친구수락자) 만 입력받는다.
+	 * @return	친구 관계가 끊긴다면 친구신청자, 친구수락자 서로를 팔로우 하지 않고 친구 관계 여부도 n 으로 변경된다.
+	 */
+	@RequestMapping(value = "/v1/friend", method = RequestMethod.DELETE)
+	public Friend end(Friend friend) {
+		FriendRelation relation = friendService.relation(friend.getApplierId(), friend.getAcceptorId());
+
+		if (friendService.isInvalidEnd(relation)) {
+			log.info(NOT_FRIEND_EACH_OTHER + " : {}, {}", friend.getApplierId(), friend.getAcceptorId());
+			throw new IllegalStateException(NOT_FRIEND_EACH_OTHER);
+		}
+
+		return friendService.end(relation);
+	}
+
+	/**
+	 * 7-1. 친구 일괄 끊기
+	 *
+	 * @param 	userId		유저 계정
+	 * @param 	friendIds	친구 계정 목록(최대 500 명), 누가 신청했든 상관없다.
+	 * @return	친구별 처리 결과, 끊겼다면 친구 관계가, 아니라면 거절 사유가 담긴다.
+	 */
+	@RequestMapping(value = "/v1/friends", method = RequestMethod.DELETE)
+	public List<FriendBatchResult> endAll(String userId, @RequestParam(required = false) List<String> friendIds) {
+		if (friendService.isInvalidBatch(userId, friendIds)) {
+			log.info(FRIEND_BATCH_IS_ILLEGAL + " : {}", userId);
+			throw new IllegalArgumentException(FRIEND_BATCH_IS_ILLEGAL);
+		}
+
+		return friendService.endAll(userId, friendIds);
+	}
+
+	/**
+	 * 8. 친구 관계에 있는 사람 팔로우 맺기
+	 * 친구 관계가 수락된다면 자동으로 서로 팔로우는 맺어지지만, 친구 관계더라도 팔로우는 끊고 다시 맺을 수 있기 때문에 팔로우 맺는 기능이 있어야 한다.
+	 * 단, Friend 객체(Table) 에서 팔로우의 방향성(친구신청자->친구수락자를, 친구수락자->친구신청자를)이 있기 때문에 팔로우 맺기를 희망한 주체가 누구인지 follower 항목을 파라미터로 받는다.
+	 *
+	 * @param	friend	 : applierId(친구신청자), acceptorId(친구수락자) 만 입력받는다.
+	 * @param 	follower : 팔로우의 주체자, 'applierId' 값이 넘어온다면 친구신청자가 친구수락자를 팔로우 한다.
+	 * @return	친구 관계끼리 팔로우가 맺어진 객체를 리턴받는다.
+	 */
+	@RequestMapping(value = "/v1/follow", method = RequestMethod.POST)
+	public Friend follow(Friend friend, String follower) {
+		if (friendService.isInvalidFollowAgent(follower)) {
+			log.info(INVALID_FRIEND_AND_ABUSE_MESSAGE + " : {}, {}", friend.getApplierId(), friend.getAcceptorId());
+			throw new IllegalStateException(INVALID_FRIEND_AND_ABUSE_MESSAGE);
+		}
+
+		FriendRelation relation = friendService.relation(friend.getApplierId(), friend.getAcceptorId());
+
+		if (friendService.isInvalidFollow(relation, follower)) {
+			log.info(INVALID_FRIEND_AND_ABUSE_MESSAGE + " : {}, {}", friend.getApplierId(), friend.getAcceptorId());
+			throw new IllegalStateException(INVALID_FRIEND_AND_ABUSE_MESSAGE);
+		}
+
+		return friendService.follow(relation, follower);
+	}
+
+	/**
+	 * 9. 친구 관계에 있는 사람 팔로우 끊기
+	 * 친구 관계이면 자동으로 팔로우가 맺어진 상태이며, 해당 유저의 타임라인에는 친구들의 Post 목록을 받아볼 수 있다.
+	 * Post 목록을 받아보지 않기 위해 팔로우 끊기 기능이 존재한다.
+	 *
+	 * @param	friend	 : applierId(친구신청자), acceptorId(친구수락자) 만 입력받는다.
+	 * @param 	unfollower : 팔로우 끊기의 주체자, 'applierId' 값이 넘어온다면 친구신청자가 친구수락자를 팔로우를 끊는다.
+	 * @return	친구 관계끼리 팔로우가 맺어진 객체를 리턴받는다.
+	 */
+	@RequestMapping(value = "/v1/follow", method = RequestMethod.DELETE)
+	public Friend unFollow(Friend friend, String unfollower) {
+		if (friendService.isInvalidFollowAgent(unfollower)) {
+			log.info(INVALID_FRIEND_AND_ABUSE_MESSAGE + " : {}, {}", friend.getApplierId(), friend.getAcceptorId());
+			throw new IllegalStateException(INVALID_FRIEND_AND_ABUSE_MESSAGE);
+		}
+
+		FriendRelation relation = friendService.relation(friend.getApplierId(), friend.getAcceptorId());
+
+		if (friendService.isInvalidUnfollow(relation, unfollower)) {
+			log.info(INVALID_FRIEND_AND_ABUSE_MESSAGE + " : {}, {}", friend.getApplierId(), friend.getAcceptorId());
+			throw new IllegalStateException(INVALID_FRIEND_AND_ABUSE_MESSAGE);
+		}
+
+		return friendService.unfollow(relation, unfollower);
+	}
+
+	/**
+	 * 10. Post 작성
+	 * Post 의 작성은 자기 자신 또는 친구의 타임라인에 작성할 수 있으며 이후 뉴스피드 목록에 노출될 영역이다.
+	 * 그리고, 자기 자신의 소유인 타임라인과 타임라인이 모인 뉴스피드와 구분될 수 있도록 Post 의 주인을 명시하는 ownerId 프로퍼티가 존재한다.
+	 *
+	 * @param 	post	: ownerId(Post의 주인), creatorId(작성자 : Post의 주인, 친구), content(내용)
+	 * @return	작성된 Post 의 객체를 리턴한다.
+	 */
+	@RequestMapping(value = "/v1/post", method = RequestMethod.POST)
+	public Post write(Post post) {
+		if (postService.isInvalidWrite(post)) {
+			log.info(INVALID_FRIEND_MESSAGE + " : {}, {}", post.getOwnerId(), post.getCreatorId());
+			throw new IllegalStateException(INVALID_FRIEND_MESSAGE);
+		} 
+
+		return postService.write(post);
+	}
+
+	/**
+	 * 11. Post 수정
+	 *
+	 * @param	post 객체의 날짜를 제외한 모든 항목을 받는다.
+	 * @return	수정된 Post 객체를 리턴한다.
+	 */
+	@RequestMapping(value = "/v1/post", method = RequestMethod.PUT)	
+	public Post modify(Post post) {
+		if (postService.isInvalidModify(post)) {
+			log.info(INVALID_FRIEND_MESSAGE + " : {}, {}", post.getOwnerId(), post.getModifierId());
+			throw new IllegalStateException(INVALID_FRIEND_MESSAGE);
+		}
+
+		return postService.modify(post);
+	}
+
+	/**
+	 * 12. Post 삭제
+	 *
+	 * @param post 객체 항목을 받는다.
+	 */
+	@RequestMapping(value = "/v1/post", method = RequestMethod.DELETE)
+	public void delete(Post post) {
+		if (postService.isInvalidDelete(post)) {
+			log.info(INVALID_FRIEND_MESSAGE + " : {}, {}", post.getOwnerId(), post.getModifierId());
+			throw new IllegalStateException(INVALID_FRIEND_MESSAGE);
+		}
+
+		postService.delete(post);		
+	}
+
+	/**
+	 * 13. 친구 추천 조회
+	 * 아직 관계(신청, 수락, 끊기 모두)가 없는 친구의 친구를 함께 아는 친구 수 순서로 추천한다.
+	 *
+	 * @param 	userId	특정 유저 계정(id)
+	 * @return	함께 아는 친구 수가 많은 순으로 정렬된 추천 유저와 함께 아는 친구 수
+	 */
+	@RequestMapping(value = "/v1/suggestions/{userId}", method = RequestMethod.GET)
+	public CompletableFuture<List<Suggestion>> suggestions(@PathVariable String userId) {
+		if (PaceBookUtils.isInvalidUserId(userId)) {
+			log.info(USERID_IS_ILLEGAL + " : {}", userId);
+			throw new IllegalArgumentException(USERID_IS_ILLEGAL);
+		}
+
+		return feedExecutor.supply(() -> suggestionService.suggestions(userId));
+	}
+
+	/**
+	 * 14. 함께 아는 친구 조회
+	 * 프로필 화면에서 두 유저 모두와 수락된 친구 관계인 유저 수와 목록을 보여준다.
+	 *
+	 * @param 	userId	유저 계정
+	 * @param 	otherId	상대 계정
+	 * @param 	cursor	이전 페이지에서 리턴받은 nextCursor, 첫 페이지라면 비워둔다.
+	 * @param 	size	한 페이지에 담을 친구 수(1~100, 기본 20)
+	 * @return	함께 아는 친구 수(count)와 친구 계정 한 페이지, 마지막 페이지라면 nextCursor 는 null 이다.
+	 */
+	@RequestMapping(value = "/v1/friends/{userId}/mutual/{otherId}", method = RequestMethod.GET)
+	public MutualFriendPage mutualFriends(@PathVariable String userId, @PathVariable String otherId, String cursor, Integer size) {
+		if (friendService.isInvalidMutualFriends(userId, otherId, cursor)) {
+			log.info(MUTUAL_FRIENDS_IS_ILLEGAL + " : {}, {}, {}", userId, otherId, cursor);
+			throw new IllegalArgumentException(MUTUAL_FRIENDS_IS_ILLEGAL);
+		}
+
+		if (PaceBookUtils.isInvalidPageSize(size)) {
+			log.info(PAGE_SIZE_IS_ILLEGAL + " : {}", size);
+			throw new IllegalArgumentException(PAGE_SIZE_IS_ILLEGAL);
+		}
+
+		return friendService.mutualFriends(userId, otherId, cursor, size);
+	}
+
+	/**
+	 * 15. 유저 집계 조회
+	 * 프로필 화면에 보여줄 친구, 팔로워, 팔로잉, Post 수를 목록을 세지 않고 한 행으로 가져온다.
+	 *
+	 * @param 	userId	특정 유저 계정(id)
+	 * @return	친구, 팔로워, 팔로잉, Post 수
+	 */
+	@RequestMapping(value = "/v1/users/{userId}/counts", method = RequestMethod.GET)
+	public UserCount counts(@PathVariable String userId) {
+		if (PaceBookUtils.isInvalidUserId(userId)) {
+			log.info(USERID_IS_ILLEGAL + " : {}", userId);
+			throw new IllegalArgumentException(USERID_IS_ILLEGAL);
+		}
+
+		return userCountService.counts(userId);
+	}
+
+	/**
+	 * 예외 발생시 메세지 세팅
+	 *
+	 * @param exception
+	 * @return
+	 */
+	@ExceptionHandler({IllegalArgumentException.class, IllegalStateException.class})
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	public ExceptionMessage exceptionMessage(Exception exception) {
+		String message = StringUtils.defaultIfBlank(exception.getMessage(), SERVER_ERROR);
+
+		return new ExceptionMessage(message);
+	}
+
+	/**
+	 * 뉴스피드, 타임라인 조회 스레드 풀의 대기열이 가득 찬 경우
+	 *
+	 * @param exception
+	 * @return
+	 */
+	@ExceptionHandler(RejectedExecutionException.class)
+	@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+	public ExceptionMessage busyMessage(RejectedExecutionException exception) {
+		return new ExceptionMessage(FeedExecutor.FEED_EXECUTOR_IS_BUSY);
+	}
 }
\ No newline at end of file
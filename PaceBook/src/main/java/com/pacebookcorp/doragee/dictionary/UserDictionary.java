@@ -0,0 +1,115 @@
+package com.pacebookcorp.doragee.dictionary;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import com.pacebookcorp.doragee.util.PaceBookUtils;
+
+/**
+ * 유저 계정(varchar 45)과 서버 내부 유저 번호(int)를 서로 바꿔주는 사전
+ * 친구 관계 그래프, 친구 추천처럼 유저를 많이 담거나 자주 비교하는 메모리 구조는 계정 문자열 대신 이 번호를 쓰고,
+ * REST API 와 테이블은 계정을 그대로 쓴다.
+ *
+ * 번호는 처음 담긴(intern) 순서대로 0 부터 빈틈없이 붙으므로 메모리 구조가 번호를 그대로 배열 위치로 쓸 수 있다.
+ * 한 번 붙은 번호는 서버가 떠 있는 동안 바뀌지 않으며, 저장하지 않으므로 서버마다 다를 수 있다.
+ * 계정 문자열은 사전에 한 번만 담기고, 번호로 찾은 계정은 모두 같은 객체를 가리킨다.
+ * t_user 와 같이 대소문자를 구분하지 않으므로(PaceBookUtils.userIdKey) Doragee 와 doragee 는 같은 번호이며, 번호로 찾은 계정은 처음 담긴 표기이다.
+ *
+ * @author Kwon Young
+ */
+@Component
+public class UserDictionary {
+	private static final int INITIAL_USERS = 1024;
+
+	private final Map<String, Integer> numbers = new HashMap<>();
+	private String[] userIds = new String[INITIAL_USERS];
+	private int size;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * @param 	userId	유저 계정
+	 * @return	유저 번호, 처음 담는 계정이라면 다음 번호를 붙여 리턴한다.
+	 */
+	public int intern(String userId) {
+		int number = numberOf(userId);
+
+		if (number >= 0) {
+			return number;
+		}
+
+		Lock writeLock = lock.writeLock();
+
+		writeLock.lock();
+		try {
+			String key = PaceBookUtils.userIdKey(userId);
+			Integer interned = numbers.get(key);
+
+			if (Objects.nonNull(interned)) {
+				return interned;
+			}
+
+			if (size == userIds.length) {
+				userIds = Arrays.copyOf(userIds, size * 2);
+			}
+
+			userIds[size] = userId;
+			numbers.put(key, size);
+
+			return size++;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * @param 	userId	유저 계정
+	 * @return	유저 번호, 담기지 않은 계정이라면 -1
+	 */
+	public int numberOf(String userId) {
+		Lock readLock = lock.readLock();
+
+		readLock.lock();
+		try {
+			return numbers.getOrDefault(PaceBookUtils.userIdKey(userId), -1);
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * @param 	number	유저 번호
+	 * @return	유저 계정, 붙지 않은 번호라면 null
+	 */
+	public String userIdOf(int number) {
+		Lock readLock = lock.readLock();
+
+		readLock.lock();
+		try {
+			return number >= 0 && number < size ? userIds[number] : null;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * @return	담긴 계정 수(다음에 붙일 번호)
+	 */
+	public int size() {
+		Lock readLock = lock.readLock();
+
+		readLock.lock();
+		try {
+			return size;
+		} finally {
+			readLock.unlock();
+		}
+	}
+}
\ No newline at end of file
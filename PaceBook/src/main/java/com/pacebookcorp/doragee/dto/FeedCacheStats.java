@@ -0,0 +1,26 @@
+package com.pacebookcorp.doragee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 뉴스피드 키 캐시의 운영 지표
+ *
+ * @author Kwon Young
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedCacheStats {
+	private long hits;				// 캐시만으로 조회된 횟수
+	private long misses;			// t_feed 를 읽은 횟수
+	private long evictions;			// LRU 로 비운 유저 수
+	private int cachedUsers;		// 현재 캐시된 유저 수
+	private int maxUsers;			// 캐시할 수 있는 최대 유저 수
+	private int feedSize;			// 유저 한 명당 담아두는 뉴스피드 키 수
+	private long offHeapBytes;		// 힙 밖에 할당된 크기
+	private long precomputedLoads;	// 미리 담아둔(FeedPrecomputeService) 뉴스피드 수
+	private long precomputedHits;	// 그 중 조회 때 캐시만으로 조회된 뉴스피드 수
+	private long staleLoads;		// t_feed 를 읽는 도중 뉴스피드가 바뀌어 담지 않은 횟수
+}
\ No newline at end of file
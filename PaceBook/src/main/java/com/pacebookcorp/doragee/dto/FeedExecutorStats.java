@@ -0,0 +1,24 @@
+package com.pacebookcorp.doragee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 뉴스피드, 타임라인 조회 스레드 풀의 운영 지표
+ *
+ * @author Kwon Young
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedExecutorStats {
+	private int poolSize;				// 스레드 수
+	private int queueCapacity;			// 대기열 크기
+	private String rejectionPolicy;		// 대기열이 찼을 때 처리 방식(abort, caller-runs)
+	private int activeThreads;			// 실행 중인 작업 수
+	private int queuedTasks;			// 대기 중인 작업 수
+	private long completedTasks;		// 완료된 작업 수
+	private long rejectedTasks;			// 대기열이 차서 풀이 받지 못한 작업 수
+	private long callerRunsTasks;		// 그 중 요청 스레드에서 실행한 작업 수(caller-runs)
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.pacebookcorp.doragee.dto;
+
+import java.util.Date;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 뉴스피드 미리 담기(precompute) 작업의 운영 지표
+ *
+ * @author Kwon Young
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedPrecomputeStats {
+	private Date lastStartedDate;		// 마지막 작업 시작 시각
+	private long lastElapsedMillis;		// 마지막 작업 소요 시간(ms)
+	private int lastActiveUsers;		// 마지막 작업에서 찾은 최근 활동 유저 수
+	private long lastPrecomputed;		// 마지막 작업에서 미리 담은 뉴스피드 수
+	private long lastFailed;			// 마지막 작업에서 실패한 유저 수
+	private long precomputedLoads;		// 서버 기동 후 미리 담은 뉴스피드 수
+	private long precomputedHits;		// 그 중 조회 때 캐시만으로 조회된 뉴스피드 수
+	private double hitRate;				// precomputedHits / precomputedLoads
+}
\ No newline at end of file
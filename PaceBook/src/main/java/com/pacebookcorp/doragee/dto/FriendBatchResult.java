@@ -0,0 +1,31 @@
+package com.pacebookcorp.doragee.dto;
+
+import com.pacebookcorp.doragee.entity.Friend;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 친구 일괄 신청, 수락, 끊기의 상대 한 명당 처리 결과
+ * 처리되었다면 friend 에 저장된 친구 관계가, 아니라면 message 에 거절 사유가 담긴다.
+ *
+ * @author Kwon Young
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FriendBatchResult {
+	private String friendId;
+	private boolean success;
+	private Friend friend;
+	private String message;
+
+	public static FriendBatchResult success(String friendId, Friend friend) {
+		return new FriendBatchResult(friendId, true, friend, null);
+	}
+
+	public static FriendBatchResult failure(String friendId, String message) {
+		return new FriendBatchResult(friendId, false, null, message);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,131 @@
+package com.pacebookcorp.doragee.dto;
+
+import java.util.Date;
+import java.util.Objects;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.pacebookcorp.doragee.entity.Friend;
+import com.pacebookcorp.doragee.util.PaceBookUtils;
+
+import lombok.Value;
+
+/**
+ * 친구 요청 한 건이 다루는 친구 관계(t_frnd 의 한 행)의 상태
+ * 요청마다 한 번만 조회하여 유효성 체크와 변경 모두 이 객체로 처리하며, 변경은 새 상태 객체를 리턴한다.
+ * 친구 관계가 없다면 friendPk 가 null 이다.
+ * 변경은 조회한 버전(version)의 행만 수정하므로, 바뀐 상태 객체의 버전은 조회한 버전 + 1 이다.
+ *
+ * @author Kwon Young
+ */
+@Value
+public class FriendRelation {
+	private String friendPk;
+	private String applierId;				// 친구 신청자
+	private String acceptorId;				// 친구 수락자
+	private String pairKey;					// 친구 관계 쌍 키
+	private boolean requestedByApplier;		// 요청의 applierId 가 친구 신청자와 같은지 여부
+	private boolean accepted;				// 친구 관계 여부
+	private boolean applierFollows;			// 신청자가 수락자를 팔로우 여부
+	private boolean acceptorFollows;		// 수락자가 신청자를 팔로우 여부
+	private Date createdDate;
+	private Date modifiedDate;
+	private Integer version;				// 조회한 행의 버전, 관계가 없다면 null
+
+	/**
+	 * @param 	friend				t_frnd 에서 조회한 친구 관계, 없다면 null
+	 * @param 	requestApplierId	요청의 applierId
+	 * @param 	requestAcceptorId	요청의 acceptorId
+	 * @return	친구 관계의 상태
+	 */
+	public static FriendRelation of(Friend friend, String requestApplierId, String requestAcceptorId) {
+		if (Objects.isNull(friend)) {
+			return new FriendRelation(null, requestApplierId, requestAcceptorId, null, true, false, false, false, null, null, null);
+		}
+
+		return new FriendRelation(friend.getFriendPk(),
+								  friend.getApplierId(),
+								  friend.getAcceptorId(),
+								  friend.getPairKey(),
+								  StringUtils.equals(friend.getApplierId(), requestApplierId),
+								  isYes(friend.getAcceptYn()),
+								  isYes(friend.getApplierFollowYn()),
+								  isYes(friend.getAcceptFollowYn()),
+								  friend.getCreatedDate(),
+								  friend.getModifiedDate(),
+								  friend.getVersion());
+	}
+
+	/**
+	 * 다른 요청이 먼저 바꿔 다시 조회한 행으로, 같은 요청(신청자, 수락자 방향)의 상태를 만든다.
+	 *
+	 * @param 	friend	t_frnd 에서 다시 조회한 친구 관계, 없다면 null
+	 * @return	다시 조회한 친구 관계의 상태
+	 */
+	public FriendRelation reload(Friend friend) {
+		String requestApplierId = requestedByApplier ? applierId : acceptorId;
+		String requestAcceptorId = requestedByApplier ? acceptorId : applierId;
+
+		return of(friend, requestApplierId, requestAcceptorId);
+	}
+
+	/**
+	 * @return	t_frnd 에 친구 관계가 있다면 true 를 리턴한다.
+	 */
+	public boolean exists() {
+		return Objects.nonNull(friendPk);
+	}
+
+	/**
+	 * @param 	applier	팔로우 주체가 신청자라면 true, 수락자라면 false
+	 * @return	팔로우 주체가 상대를 팔로우 중이라면 true 를 리턴한다.
+	 */
+	public boolean follows(boolean applier) {
+		return applier ? applierFollows : acceptorFollows;
+	}
+
+	/**
+	 * 친구 수락(y), 끊기(n) : 친구 관계 여부와 양방향 팔로우 여부를 함께 바꾼다.
+	 *
+	 * @param 	accepted		수락이라면 true, 끊기라면 false
+	 * @param 	modifiedDate	수정일
+	 * @return	바뀐 상태
+	 */
+	public FriendRelation withStatus(boolean accepted, Date modifiedDate) {
+		return new FriendRelation(friendPk, applierId, acceptorId, pairKey, requestedByApplier, accepted, accepted, accepted, createdDate, modifiedDate, nextVersion());
+	}
+
+	/**
+	 * 팔로우(y), 언팔로우(n) : 한 방향의 팔로우 여부만 바꾼다.
+	 *
+	 * @param 	applier			팔로우 주체가 신청자라면 true, 수락자라면 false
+	 * @param 	follows			팔로우라면 true, 언팔로우라면 false
+	 * @param 	modifiedDate	수정일
+	 * @return	바뀐 상태
+	 */
+	public FriendRelation withFollow(boolean applier, boolean follows, Date modifiedDate) {
+		return new FriendRelation(friendPk, applierId, acceptorId, pairKey, requestedByApplier, accepted,
+								  applier ? follows : applierFollows,
+								  applier ? acceptorFollows : follows,
+								  createdDate, modifiedDate, nextVersion());
+	}
+
+	/**
+	 * @return	t_frnd 에 저장될(응답으로 내려줄) 친구 관계 객체
+	 */
+	public Friend toFriend() {
+		return new Friend(friendPk, applierId, acceptorId, pairKey, yn(accepted), yn(applierFollows), yn(acceptorFollows), createdDate, modifiedDate, version);
+	}
+
+	private Integer nextVersion() {
+		return Objects.isNull(version) ? null : version + 1;
+	}
+
+	private static boolean isYes(String yn) {
+		return StringUtils.equals(PaceBookUtils.YES, yn);
+	}
+
+	private static String yn(boolean yes) {
+		return yes ? PaceBookUtils.YES : PaceBookUtils.NO;
+	}
+}
\ No newline at end of file
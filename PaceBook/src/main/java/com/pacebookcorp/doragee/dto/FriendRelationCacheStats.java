@@ -0,0 +1,25 @@
+package com.pacebookcorp.doragee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 친구 관계 조회 캐시의 운영 지표
+ *
+ * @author Kwon Young
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FriendRelationCacheStats {
+	private long hits;					// 담긴 관계로 조회된 횟수
+	private long negativeHits;			// 관계가 없다는 결과로 조회된 횟수
+	private long misses;				// t_frnd 를 읽은 횟수
+	private long invalidations;			// 관계가 바뀌어 비운 횟수
+	private long evictions;				// LRU 로 비운 쌍 수
+	private int entries;				// 현재 담긴 쌍 수
+	private int maxEntries;				// 담을 수 있는 최대 쌍 수
+	private long ttlMillis;				// 관계가 있는 쌍을 담아두는 시간
+	private long negativeTtlMillis;		// 관계가 없는 쌍을 담아두는 시간
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.pacebookcorp.doragee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 친구 관계 상태 변경(수락, 끊기, 팔로우, 언팔로우)의 낙관적 잠금 운영 지표
+ *
+ * @author Kwon Young
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FriendUpdateStats {
+	private int maxAttempts;		// 요청 하나의 최대 수정 시도 횟수
+	private long updates;			// 수정된 행 수
+	private long conflicts;			// 다른 요청이 먼저 버전을 올려 수정된 행이 없던 횟수
+	private long retries;			// 다시 조회하여 다시 수정한 횟수
+	private long rejections;		// 다시 조회한 상태로는 유효하지 않아 거절한 횟수(일괄 처리의 충돌 포함)
+	private long exhaustions;		// 최대 시도 횟수를 넘어 거절한 횟수
+}
\ No newline at end of file
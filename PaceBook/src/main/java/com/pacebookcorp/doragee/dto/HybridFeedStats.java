@@ -0,0 +1,23 @@
+package com.pacebookcorp.doragee.dto;
+
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * push / pull 혼합 뉴스피드의 운영 지표
+ *
+ * @author Kwon Young
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HybridFeedStats {
+	private int heavyFollowerThreshold;		// 이 팔로워 수 이상이면 heavy 유저(pull 대상)
+	private Set<String> heavyUserIds;		// heavy 유저 목록
+	private long mergeCount;				// 조회 시점 병합 횟수
+	private double averageMergeMillis;		// 조회 시점 병합에 추가된 평균 시간
+	private double maxMergeMillis;			// 조회 시점 병합에 추가된 최대 시간
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.pacebookcorp.doragee.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 두 유저의 함께 아는 친구 수와 친구 계정 한 페이지
+ * nextCursor 가 null 이라면 마지막 페이지이다.
+ *
+ * @author Kwon Young
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MutualFriendPage {
+	private int count;					// 함께 아는 친구 전체 수
+	private List<String> friendIds;		// 함께 아는 친구 계정
+	private String nextCursor;
+
+	/**
+	 * size + 1 명 담은 결과를 페이지로 자른다.
+	 *
+	 * @param 	count		함께 아는 친구 전체 수
+	 * @param 	friendIds	커서 다음부터 size + 1 명까지 담긴 친구 계정
+	 * @param 	pageSize	한 페이지에 담을 친구 수
+	 * @return	size 명을 넘게 담겼다면 size 번째 친구 계정을 다음 페이지 커서로 리턴한다.
+	 */
+	public static MutualFriendPage of(int count, List<String> friendIds, int pageSize) {
+		if (friendIds.size() <= pageSize) {
+			return new MutualFriendPage(count, friendIds, null);
+		}
+
+		List<String> pageFriendIds = friendIds.subList(0, pageSize);
+
+		return new MutualFriendPage(count, pageFriendIds, pageFriendIds.get(pageSize - 1));
+	}
+}
\ No newline at end of file
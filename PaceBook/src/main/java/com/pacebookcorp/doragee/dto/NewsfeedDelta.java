@@ -0,0 +1,24 @@
+package com.pacebookcorp.doragee.dto;
+
+import java.util.List;
+
+import com.pacebookcorp.doragee.entity.Post;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 워터마크 이후 바뀐 뉴스피드(delta)
+ *
+ * @author Kwon Young
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NewsfeedDelta {
+	private List<Post> posts;				// 워터마크 이후 작성, 수정된 Post (수정일 최신순)
+	private List<String> deletedPostPks;	// 워터마크 이후 삭제된 Post PK
+	private long watermark;					// 다음 요청의 since 로 넘길 워터마크(epoch millis)
+	private boolean reset;					// true 라면 클라이언트가 가진 뉴스피드를 버리고 posts 로 교체한다.
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.pacebookcorp.doragee.dto;
+
+import java.util.List;
+
+import com.pacebookcorp.doragee.entity.Post;
+import com.pacebookcorp.doragee.util.FeedCursor;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * keyset 페이지네이션으로 조회한 Post 한 페이지
+ * nextCursor 가 null 이라면 마지막 페이지이다.
+ *
+ * @author Kwon Young
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostPage {
+	private List<Post> posts;
+	private String nextCursor;
+
+	/**
+	 * size + 1 건 조회한 결과를 페이지로 자른다.
+	 *
+	 * @param 	posts		수정일 최신순으로 size + 1 건까지 조회된 Post 목록
+	 * @param 	pageSize	한 페이지에 담을 Post 수
+	 * @return	size 건을 넘게 조회되었다면 size 번째 Post 를 다음 페이지 커서로 리턴한다.
+	 */
+	public static PostPage of(List<Post> posts, int pageSize) {
+		if (posts.size() <= pageSize) {
+			return new PostPage(posts, null);
+		}
+
+		List<Post> pagePosts = posts.subList(0, pageSize);
+
+		return new PostPage(pagePosts, FeedCursor.encode(pagePosts.get(pageSize - 1)));
+	}
+}
\ No newline at end of file
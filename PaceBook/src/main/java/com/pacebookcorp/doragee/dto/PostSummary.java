@@ -0,0 +1,53 @@
+package com.pacebookcorp.doragee.dto;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.pacebookcorp.doragee.entity.Post;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 뉴스피드, 타임라인 목록용 Post 요약(읽기 전용)
+ * 목록에 필요한 컬럼만 담고 내용(content)은 앞 CONTENT_LENGTH 자만 담는다. 클라이언트가 요청한 필드(fields)만 직렬화된다.
+ *
+ * @author Kwon Young
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonFilter(PostSummary.FILTER)
+public class PostSummary {
+	public static final String FILTER = "postSummaryFilter";
+	public static final int CONTENT_LENGTH = 100;
+	/**
+	 * 뉴스피드 정렬 기준(FeedCursor.NEWEST_FIRST)과 같다 : 수정일 최신순, 수정일이 같다면 PK 역순
+	 */
+	public static final Comparator<PostSummary> NEWEST_FIRST = Comparator.comparing(PostSummary::getModifiedDate)
+																		.thenComparing(PostSummary::getPostPk)
+																		.reversed();
+	public static final Set<String> FIELDS = Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList("postPk", "ownerId", "creatorId", "content", "modifiedDate")));
+
+	private String postPk;
+	private String ownerId;			// Post 의 주인
+	private String creatorId;		// 작성자
+	private String content;			// 앞 CONTENT_LENGTH 자까지만 담긴 내용
+	private Date modifiedDate;		// 수정일
+
+	/**
+	 * @param 	post 조회된 Post
+	 * @return	내용을 CONTENT_LENGTH 자로 자른 요약
+	 */
+	public static PostSummary of(Post post) {
+		return new PostSummary(post.getPostPk(), post.getOwnerId(), post.getCreatorId(), StringUtils.left(post.getContent(), CONTENT_LENGTH), post.getModifiedDate());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.pacebookcorp.doragee.dto;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.pacebookcorp.doragee.util.FeedCursor;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * keyset 페이지네이션으로 조회한 Post 요약 한 페이지
+ * nextCursor 가 null 이라면 마지막 페이지이다.
+ *
+ * @author Kwon Young
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostSummaryPage {
+	private List<PostSummary> posts;
+	private String nextCursor;
+
+	/**
+	 * @param 	page Post 한 페이지
+	 * @return	내용을 잘라낸 Post 요약 한 페이지, 다음 페이지 커서는 그대로 담는다.
+	 */
+	public static PostSummaryPage of(PostPage page) {
+		List<PostSummary> summaries = page.getPosts()
+										  .stream()
+										  .map(PostSummary::of)
+										  .collect(Collectors.toList());
+
+		return new PostSummaryPage(summaries, page.getNextCursor());
+	}
+
+	/**
+	 * size + 1 건 조회한 요약을 페이지로 자른다.
+	 *
+	 * @param 	summaries	수정일 최신순으로 size + 1 건까지 조회된 Post 요약 목록
+	 * @param 	pageSize	한 페이지에 담을 Post 수
+	 * @return	size 건을 넘게 조회되었다면 size 번째 요약을 다음 페이지 커서로 리턴한다.
+	 */
+	public static PostSummaryPage of(List<PostSummary> summaries, int pageSize) {
+		if (summaries.size() <= pageSize) {
+			return new PostSummaryPage(summaries, null);
+		}
+
+		List<PostSummary> pageSummaries = summaries.subList(0, pageSize);
+		PostSummary last = pageSummaries.get(pageSize - 1);
+
+		return new PostSummaryPage(pageSummaries, FeedCursor.encode(last.getModifiedDate(), last.getPostPk()));
+	}
+}
\ No newline at end of file
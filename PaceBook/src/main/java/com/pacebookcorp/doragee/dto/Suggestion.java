@@ -0,0 +1,18 @@
+package com.pacebookcorp.doragee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 친구 추천 한 건 : 아직 관계가 없는 유저와 함께 아는 친구 수
+ *
+ * @author Kwon Young
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Suggestion {
+	private String userId;			// 추천 유저
+	private int mutualFriends;		// 함께 아는 친구 수
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.pacebookcorp.doragee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 친구 추천 캐시의 운영 지표
+ *
+ * @author Kwon Young
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionStats {
+	private long hits;						// 캐시만으로 조회된 횟수
+	private long computations;				// 2 단계 탐색으로 계산한 횟수
+	private double averageComputeMillis;	// 계산 한 번의 평균 소요 시간
+	private long refreshes;					// 친구 수락, 끊기로 캐시된 추천 목록을 그 자리에서 고친 횟수
+	private long invalidations;				// 친구 신청, 수락, 끊기로 비운 추천 목록 수
+	private long evictions;					// LRU 로 비운 유저 수
+	private int cachedUsers;				// 현재 캐시된 유저 수
+	private int maxUsers;					// 캐시할 최대 유저 수
+	private int size;						// 추천 목록 크기
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.pacebookcorp.doragee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 타임라인 첫 페이지 캐시의 운영 지표
+ *
+ * @author Kwon Young
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelineCacheStats {
+	private long hits;				// 캐시만으로 조회된 횟수
+	private long misses;			// t_post 를 읽은 횟수
+	private long evictions;			// LRU 로 비운 주인 수
+	private int cachedOwners;		// 현재 캐시된 타임라인 주인 수
+	private int pageSize;			// 캐시로 조회할 수 있는 최대 페이지 크기
+	private long usedBytes;			// 담긴 Post 의 대략적인 힙 사용량
+	private long maxBytes;			// 힙 사용량 상한
+	private long staleLoads;		// t_post 를 읽는 도중 타임라인이 바뀌어 담지 않은 횟수
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.pacebookcorp.doragee.entity;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 삭제된 Post 의 PK 를 남겨두는 테이블(tombstone)
+ * 뉴스피드 변경분(delta) 조회시 클라이언트가 가진 Post 중 지워야 할 PK 를 알려주기 위함이며, 보관 기간이 지나면 지운다.
+ *
+ * @author Kwon Young
+ */
+@Entity
+@Table(name = "t_post_del")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeletedPost {
+	@Id
+	@Column(name = "post_pk")
+	private String postPk;
+
+	@Column(name = "ownr_id")
+	private String ownerId;			// 삭제된 Post 의 주인
+
+	@Column(name = "del_ymdt")
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date deletedDate;		// 삭제일
+}
\ No newline at end of file
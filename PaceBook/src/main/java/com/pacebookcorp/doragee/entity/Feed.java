@@ -0,0 +1,45 @@
+package com.pacebookcorp.doragee.entity;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 뉴스피드 구독자(viewer)별로 미리 펼쳐둔(fan-out) 뉴스피드 테이블
+ * Post 가 작성되는 시점에 Post 주인과 Post 주인을 팔로우하는 친구들에게 한 건씩 입력되므로,
+ * 뉴스피드 조회는 t_frnd / t_user 조인 없이 viewer_id 인덱스 탐색 한번으로 끝난다.
+ *
+ * @author Kwon Young
+ */
+@Entity
+@Table(name = "t_feed")
+@IdClass(FeedId.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Feed {
+	@Id
+	@Column(name = "viewer_id")
+	private String viewerId;		// 뉴스피드를 보는 유저
+
+	@Id
+	@Column(name = "post_pk")
+	private String postPk;
+
+	@Column(name = "ownr_id")
+	private String ownerId;			// Post 의 주인
+
+	@Column(name = "mod_ymdt")
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date modifiedDate;		// Post 의 수정일
+}
\ No newline at end of file
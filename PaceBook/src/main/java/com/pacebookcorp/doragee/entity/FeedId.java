@@ -0,0 +1,22 @@
+package com.pacebookcorp.doragee.entity;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Feed 의 복합키(viewer_id, post_pk)
+ *
+ * @author Kwon Young
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FeedId implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private String viewerId;
+	private String postPk;
+}
\ No newline at end of file
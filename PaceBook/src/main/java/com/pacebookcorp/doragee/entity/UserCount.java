@@ -0,0 +1,47 @@
+package com.pacebookcorp.doragee.entity;
+
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 유저별 친구, 팔로워, 팔로잉, Post 수
+ * 친구, 팔로워, 팔로잉은 수락된 친구 관계만 센다. Post 수는 유저의 타임라인(ownr_id)에 있는 Post 수이다.
+ *
+ * @author Kwon Young
+ */
+@Entity
+@Table(name = "t_user_cnt")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCount {
+	@Id
+	@Column(name = "user_id")
+	private String userId;
+
+	@Column(name = "frnd_cnt")
+	private int friendCount;		// 수락된 친구 수
+
+	@Column(name = "folwr_cnt")
+	private int followerCount;		// 이 유저를 팔로우 중인 친구 수
+
+	@Column(name = "folwg_cnt")
+	private int followingCount;		// 이 유저가 팔로우 중인 친구 수
+
+	@Column(name = "post_cnt")
+	private int postCount;			// 타임라인의 Post 수
+
+	@Column(name = "mod_ymdt")
+	@Temporal(TemporalType.TIMESTAMP)
+	private Date modifiedDate;
+}
\ No newline at end of file
@@ -1,13 +1,13 @@
-package com.pacebookcorp.doragee.exception;
-
-import lombok.AllArgsConstructor;
-import lombok.Data;
-
-/**
- * @author Kwon Young
- */
-@Data
-@AllArgsConstructor
-public class ExceptionMessage {
-	private String message;
+package com.pacebookcorp.doragee.exception;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * @author Kwon Young
+ */
+@Data
+@AllArgsConstructor
+public class ExceptionMessage {
+	private String message;
 }
\ No newline at end of file
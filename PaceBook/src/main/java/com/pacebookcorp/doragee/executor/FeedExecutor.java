@@ -0,0 +1,127 @@
+package com.pacebookcorp.doragee.executor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.pacebookcorp.doragee.dto.FeedExecutorStats;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 뉴스피드, 타임라인 조회 전용 스레드 풀
+ * 조회 요청은 Tomcat 스레드에서 검증만 하고 이 풀에서 실행(CompletableFuture)하므로, 느린 조회가 몰려도 Tomcat 스레드는 바로 반환되어 쓰기 요청이 밀리지 않는다.
+ * 스레드 수와 대기열 크기가 고정되어 있어 조회가 몰리면 대기열이 찬 뒤부터는 rejectionPolicy 에 따라 처리한다.
+ * - abort : RejectedExecutionException 을 던지고 503 으로 응답한다.
+ * - caller-runs : 요청한 Tomcat 스레드에서 바로 실행하여 요청 속도를 늦춘다.
+ *
+ * @author Kwon Young
+ */
+@Component
+@Slf4j
+public class FeedExecutor {
+	public static final String FEED_EXECUTOR_IS_BUSY = "feed executor is busy.";
+	private static final String THREAD_NAME_PREFIX = "feed-executor-";
+
+	public enum RejectionPolicy {
+		ABORT, CALLER_RUNS;
+
+		public static RejectionPolicy of(String name) {
+			return valueOf(StringUtils.upperCase(StringUtils.replace(StringUtils.trim(name), "-", "_")));
+		}
+	}
+
+	private final int poolSize;
+	private final int queueCapacity;
+	private final RejectionPolicy rejectionPolicy;
+	private final ThreadPoolExecutor executor;
+
+	private final LongAdder rejections = new LongAdder();
+	private final LongAdder callerRuns = new LongAdder();
+
+	@Autowired
+	public FeedExecutor(@Value("${pacebook.feed.executor.pool-size:16}") int poolSize,
+						@Value("${pacebook.feed.executor.queue-capacity:200}") int queueCapacity,
+						@Value("${pacebook.feed.executor.rejection-policy:abort}") String rejectionPolicy) {
+		if (poolSize < 1 || queueCapacity < 1) {
+			throw new IllegalArgumentException("feed executor size is illegal.");
+		}
+
+		this.poolSize = poolSize;
+		this.queueCapacity = queueCapacity;
+		this.rejectionPolicy = RejectionPolicy.of(rejectionPolicy);
+		this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), threadFactory(), this::reject);
+	}
+
+	private static ThreadFactory threadFactory() {
+		AtomicInteger threadNumber = new AtomicInteger();
+
+		return runnable -> {
+			Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+
+			return thread;
+		};
+	}
+
+	/**
+	 * 풀에서 supplier 를 실행하는 CompletableFuture 를 리턴한다.
+	 *
+	 * @param 	supplier	조회 작업
+	 * @return	조회 결과, 작업 중 예외가 발생하면 예외로 완료된다.
+	 * @throws	RejectedExecutionException 대기열이 가득 찼고 rejectionPolicy 가 abort 인 경우
+	 */
+	public <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+		return CompletableFuture.supplyAsync(supplier, executor);
+	}
+
+	/**
+	 * 대기열이 가득 차 받지 못한 작업을 rejectionPolicy 에 따라 처리한다.
+	 */
+	private void reject(Runnable task, ThreadPoolExecutor rejectedExecutor) {
+		rejections.increment();
+
+		if (rejectionPolicy == RejectionPolicy.CALLER_RUNS && rejectedExecutor.isShutdown() == false) {
+			callerRuns.increment();
+			task.run();
+
+			return;
+		}
+
+		log.warn(FEED_EXECUTOR_IS_BUSY + " : active {}, queued {}", rejectedExecutor.getActiveCount(), rejectedExecutor.getQueue().size());
+
+		throw new RejectedExecutionException(FEED_EXECUTOR_IS_BUSY);
+	}
+
+	/**
+	 * @return	설정값과 실행 중, 대기 중, 완료, 거절된 작업 수
+	 */
+	public FeedExecutorStats stats() {
+		return new FeedExecutorStats(poolSize,
+									 queueCapacity,
+									 StringUtils.replace(StringUtils.lowerCase(rejectionPolicy.name()), "_", "-"),
+									 executor.getActiveCount(),
+									 executor.getQueue().size(),
+									 executor.getCompletedTaskCount(),
+									 rejections.sum(),
+									 callerRuns.sum());
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,554 @@
+package com.pacebookcorp.doragee.graph;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.pacebookcorp.doragee.dictionary.UserDictionary;
+import com.pacebookcorp.doragee.entity.Friend;
+import com.pacebookcorp.doragee.util.PaceBookUtils;
+
+/**
+ * 친구 관계(t_frnd)를 메모리에 담아두는 그래프
+ * 친구 신청 이력, 친구 여부, 팔로우 여부 확인과 팔로우 대상 목록 조회를 t_frnd 조회 없이 메모리에서 처리한다.
+ *
+ * 유저 계정은 UserDictionary 의 유저 번호(int)로 바꾸어 배열 위치로 쓰고, 유저 한 명당 상대 번호 집합 세 개를 압축 비트맵(RoaringBitmap)으로 둔다.
+ * 관계 한 건은 양쪽 유저에 한 번씩 담기며, 집합은 관계가 있는 유저에게만 만들어지고 담긴 상대 수만큼만 메모리를 쓴다.
+ * - related : 관계(신청, 수락, 끊기 모두)가 있는 상대
+ * - friends : 수락된 친구
+ * - followees : 수락된 친구 중 이 유저가 팔로우 중인 상대(FriendRepository.findFolloweeIds)
+ * 서버 기동 때 FriendService 가 t_frnd 전체를 담고, 이후 친구 신청, 수락, 끊기, 팔로우, 언팔로우 때마다 바뀐 관계를 다시 담는다.
+ * 스냅샷(FollowGraphSnapshot)이 있다면 t_frnd 전체 대신 스냅샷을 담은 뒤 워터마크 이후 바뀐 관계만 다시 담는다.
+ *
+ * @author Kwon Young
+ */
+@Component
+public class FollowGraph {
+	private static final int INITIAL_USERS = 1024;
+
+	private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+	private final UserDictionary userDictionary;
+
+	private RoaringBitmap[] related = new RoaringBitmap[INITIAL_USERS];
+	private RoaringBitmap[] friends = new RoaringBitmap[INITIAL_USERS];
+	private RoaringBitmap[] followees = new RoaringBitmap[INITIAL_USERS];
+	private int users;
+	private int relations;
+	private long watermark;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	@Autowired
+	public FollowGraph(UserDictionary userDictionary) {
+		this.userDictionary = userDictionary;
+	}
+
+	/**
+	 * 친구 관계 한 건의 현재 상태를 담는다. 이미 담긴 관계라면 상태를 바꾼다.
+	 *
+	 * @param friend t_frnd 에 저장된 친구 관계
+	 */
+	public void put(Friend friend) {
+		boolean accepted = StringUtils.equals(PaceBookUtils.YES, friend.getAcceptYn());
+		boolean applierFollows = accepted && StringUtils.equals(PaceBookUtils.YES, friend.getApplierFollowYn());
+		boolean acceptorFollows = accepted && StringUtils.equals(PaceBookUtils.YES, friend.getAcceptFollowYn());
+
+		Lock writeLock = lock.writeLock();
+
+		writeLock.lock();
+		try {
+			int applier = add(friend.getApplierId());
+			int acceptor = add(friend.getAcceptorId());
+
+			if (relate(applier, acceptor)) {
+				relations++;
+			}
+
+			relate(acceptor, applier);
+
+			set(friends, applier, acceptor, accepted);
+			set(friends, acceptor, applier, accepted);
+			set(followees, applier, acceptor, applierFollows);
+			set(followees, acceptor, applier, acceptorFollows);
+
+			if (Objects.nonNull(friend.getModifiedDate())) {
+				watermark = Math.max(watermark, friend.getModifiedDate().getTime());
+			}
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * 모든 관계를 비운다. 유저 번호는 UserDictionary 에 그대로 남는다.
+	 */
+	public void clear() {
+		Lock writeLock = lock.writeLock();
+
+		writeLock.lock();
+		try {
+			related = new RoaringBitmap[INITIAL_USERS];
+			friends = new RoaringBitmap[INITIAL_USERS];
+			followees = new RoaringBitmap[INITIAL_USERS];
+			users = 0;
+			relations = 0;
+			watermark = 0;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * 담긴 관계를 스냅샷 파일로 쓴다. 잠금은 집합을 CSR 배열로 복사하는 동안만 잡고, 파일은 잠금 밖에서 쓴다.
+	 *
+	 * @param 	path	스냅샷 파일 경로
+	 * @return	스냅샷의 워터마크(epoch millis)
+	 * @throws 	IOException 파일을 쓰지 못한 경우
+	 */
+	public long save(Path path) throws IOException {
+		String[] userIds;
+		int[][] offsets = new int[3][];
+		int[][] neighbors = new int[3][];
+		int savedRelations;
+		long savedWatermark;
+
+		Lock readLock = lock.readLock();
+
+		readLock.lock();
+		try {
+			userIds = new String[userDictionary.size()];
+
+			for (int user = 0; user < userIds.length; user++) {
+				userIds[user] = userDictionary.userIdOf(user);
+			}
+
+			toCsr(related, userIds.length, FollowGraphSnapshot.RELATED, offsets, neighbors);
+			toCsr(friends, userIds.length, FollowGraphSnapshot.FRIENDS, offsets, neighbors);
+			toCsr(followees, userIds.length, FollowGraphSnapshot.FOLLOWEES, offsets, neighbors);
+			savedRelations = relations;
+			savedWatermark = watermark;
+		} finally {
+			readLock.unlock();
+		}
+
+		FollowGraphSnapshot.write(path, savedWatermark, savedRelations, userIds, offsets, neighbors);
+
+		return savedWatermark;
+	}
+
+	/**
+	 * 담긴 관계를 모두 비우고 스냅샷 파일의 관계를 담는다.
+	 * 스냅샷의 계정은 UserDictionary 에 스냅샷의 번호 순서대로 담으므로, 사전이 비어있다면 번호가 스냅샷과 같다.
+	 *
+	 * @param 	path	스냅샷 파일 경로
+	 * @return	스냅샷의 워터마크(epoch millis), 이후 바뀐 관계는 put 으로 다시 담아야 한다.
+	 * @throws 	IOException 파일을 읽지 못했거나 깨진 경우, 그래프는 바뀌지 않는다.
+	 */
+	public long load(Path path) throws IOException {
+		FollowGraphSnapshot snapshot = FollowGraphSnapshot.read(path);
+		int[] numbers = new int[snapshot.userCount()];
+
+		for (int user = 0; user < numbers.length; user++) {
+			numbers[user] = userDictionary.intern(snapshot.userId(user));
+		}
+
+		Lock writeLock = lock.writeLock();
+
+		writeLock.lock();
+		try {
+			int length = Math.max(INITIAL_USERS, userDictionary.size());
+
+			related = new RoaringBitmap[length];
+			friends = new RoaringBitmap[length];
+			followees = new RoaringBitmap[length];
+			users = 0;
+
+			for (int user = 0; user < numbers.length; user++) {
+				if (snapshot.degree(FollowGraphSnapshot.RELATED, user) > 0) {
+					users++;
+				}
+
+				related[numbers[user]] = fromSnapshot(snapshot, FollowGraphSnapshot.RELATED, user, numbers);
+				friends[numbers[user]] = fromSnapshot(snapshot, FollowGraphSnapshot.FRIENDS, user, numbers);
+				followees[numbers[user]] = fromSnapshot(snapshot, FollowGraphSnapshot.FOLLOWEES, user, numbers);
+			}
+
+			relations = snapshot.relationCount();
+			watermark = snapshot.watermark();
+
+			return watermark;
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	/**
+	 * 둘 중 누가 신청했든 친구 신청 이력이 있는지 확인한다.
+	 *
+	 * @param 	userId		유저 계정
+	 * @param 	otherId		상대 계정
+	 * @return	친구 관계(신청, 수락, 끊기 모두)가 있다면 true 를 리턴한다.
+	 */
+	public boolean isRelated(String userId, String otherId) {
+		return contains(related, userId, otherId);
+	}
+
+	/**
+	 * 둘 중 누가 신청했든 수락된 친구인지 확인한다.
+	 *
+	 * @param 	userId		유저 계정
+	 * @param 	otherId		상대 계정
+	 * @return	친구라면 true 를 리턴한다.
+	 */
+	public boolean isFriend(String userId, String otherId) {
+		return contains(friends, userId, otherId);
+	}
+
+	/**
+	 * @param 	followerId	팔로우 주체
+	 * @param 	followeeId	팔로우 대상
+	 * @return	followerId 가 수락된 친구인 followeeId 를 팔로우 중이라면 true 를 리턴한다.
+	 */
+	public boolean follows(String followerId, String followeeId) {
+		return contains(followees, followerId, followeeId);
+	}
+
+	/**
+	 * 팔로우 대상 목록 : 수락된 친구 중 userId 가 팔로우 중인 유저(FriendRepository.findFolloweeIds)
+	 *
+	 * @param 	userId 유저 계정
+	 * @return	팔로우 대상 계정 목록(유저 번호 순)
+	 */
+	public List<String> followeeIds(String userId) {
+		Lock readLock = lock.readLock();
+
+		readLock.lock();
+		try {
+			return userIds(bitmap(followees, user(userId)));
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * 팔로우 대상 중 userNumbers 에 담긴 유저만 : 팔로우 대상 집합과 userNumbers 의 교집합
+	 *
+	 * @param 	userId		유저 계정
+	 * @param 	userNumbers	유저 번호 집합(heavy 유저 등)
+	 * @return	팔로우 대상 계정 목록(유저 번호 순)
+	 */
+	public List<String> followeeIds(String userId, RoaringBitmap userNumbers) {
+		Lock readLock = lock.readLock();
+
+		readLock.lock();
+		try {
+			return userIds(RoaringBitmap.and(bitmap(followees, user(userId)), userNumbers));
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * 뉴스피드에 Post 가 노출되는 작성자 목록 : 팔로우 대상 집합과 본인의 합집합
+	 *
+	 * @param 	userId	뉴스피드를 보는 유저
+	 * @return	작성자 계정 목록(유저 번호 순), 관계가 담긴 적 없는 유저라면 본인만
+	 */
+	public List<String> authorIds(String userId) {
+		Lock readLock = lock.readLock();
+
+		readLock.lock();
+		try {
+			int user = user(userId);
+
+			if (user < 0) {
+				return new ArrayList<>(Arrays.asList(userId));
+			}
+
+			RoaringBitmap self = new RoaringBitmap();
+
+			self.add(user);
+
+			return userIds(RoaringBitmap.or(bitmap(followees, user), self));
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * 두 유저의 함께 아는 친구(양쪽 모두와 수락된 친구) 수를 센다.
+	 *
+	 * @param 	userId		유저 계정
+	 * @param 	otherId		상대 계정
+	 * @return	함께 아는 친구 수
+	 */
+	public int mutualFriendCount(String userId, String otherId) {
+		return mutualFriends(userId, otherId, null, 0, null);
+	}
+
+	/**
+	 * 두 유저의 함께 아는 친구 전체 수를 세고, 유저 번호 순서로 afterId 다음부터 limit 명까지 friendIds 에 담는다.
+	 * 교집합을 만들지 않는다. 수는 같은 구간끼리 겹치는 수만 세고(RoaringBitmap.andCardinality),
+	 * 페이지는 afterId 의 구간부터 훑다가 limit 명이 차면 멈춘다.(RoaringBitmap.andForEach : 한쪽이 훨씬 많다면 건너뛰며 찾는다.)
+	 *
+	 * @param 	userId		유저 계정
+	 * @param 	otherId		상대 계정
+	 * @param 	afterId		이전 페이지의 마지막 친구 계정, 처음부터라면 null
+	 * @param 	limit		담을 최대 수
+	 * @param 	friendIds	함께 아는 친구 계정을 담을 목록, limit 이 0 이라면 null 이어도 된다.
+	 * @return	함께 아는 친구 전체 수
+	 */
+	public int mutualFriends(String userId, String otherId, String afterId, int limit, List<String> friendIds) {
+		Lock readLock = lock.readLock();
+
+		readLock.lock();
+		try {
+			int user = user(userId);
+			int other = user(otherId);
+
+			if (user < 0 || other < 0) {
+				return 0;
+			}
+
+			RoaringBitmap userFriends = bitmap(friends, user);
+			RoaringBitmap otherFriends = bitmap(friends, other);
+			int after = Objects.isNull(afterId) ? -1 : userDictionary.numberOf(afterId);
+
+			if (limit > 0) {
+				RoaringBitmap.andForEach(userFriends, otherFriends, after, limit, friend -> friendIds.add(userDictionary.userIdOf(friend)));
+			}
+
+			return RoaringBitmap.andCardinality(userFriends, otherFriends);
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * @param 	userId 유저 계정
+	 * @return	수락된 친구 계정 목록(유저 번호 순)
+	 */
+	public List<String> friendIds(String userId) {
+		Lock readLock = lock.readLock();
+
+		readLock.lock();
+		try {
+			return userIds(bitmap(friends, user(userId)));
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * 친구 추천처럼 여러 유저의 관계 목록을 훑는 계산은 계정 대신 UserDictionary 의 유저 번호로 다룬다.
+	 *
+	 * @param 	user		유저 번호
+	 * @param 	accepted	수락된 친구만이라면 true, 관계(신청, 수락, 끊기 모두)가 있는 모든 상대라면 false
+	 * @return	상대 번호의 정렬된 복사본
+	 */
+	public int[] neighborIndexes(int user, boolean accepted) {
+		Lock readLock = lock.readLock();
+
+		readLock.lock();
+		try {
+			return bitmap(accepted ? friends : related, user).toArray();
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * user 의 수락된 친구 번호를 정렬 순서대로 넘긴다. 복사본을 만들지 않고 친구 집합을 그대로 훑는다.
+	 *
+	 * @param user		유저 번호
+	 * @param consumer	친구 번호를 받을 함수
+	 */
+	public void forEachFriend(int user, IntConsumer consumer) {
+		Lock readLock = lock.readLock();
+
+		readLock.lock();
+		try {
+			bitmap(friends, user).forEach(consumer);
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * @return	관계가 담긴 유저 수
+	 */
+	public int userCount() {
+		Lock readLock = lock.readLock();
+
+		readLock.lock();
+		try {
+			return users;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * @return	담긴 친구 관계 수
+	 */
+	public int relationCount() {
+		Lock readLock = lock.readLock();
+
+		readLock.lock();
+		try {
+			return relations;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * @return	담긴 관계의 mod_ymdt 최댓값(epoch millis), 없다면 0
+	 */
+	public long watermark() {
+		Lock readLock = lock.readLock();
+
+		readLock.lock();
+		try {
+			return watermark;
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	private boolean contains(RoaringBitmap[] bitmaps, String userId, String otherId) {
+		Lock readLock = lock.readLock();
+
+		readLock.lock();
+		try {
+			int other = user(otherId);
+
+			return other >= 0 && bitmap(bitmaps, user(userId)).contains(other);
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	/**
+	 * @return	관계가 담긴 유저의 번호, 사전에 없거나 관계가 담긴 적 없는 유저라면 -1
+	 */
+	private int user(String userId) {
+		int user = userDictionary.numberOf(userId);
+
+		return user < related.length ? user : -1;
+	}
+
+	/**
+	 * @return	user 의 상대 번호 집합, 없다면(번호가 -1 이거나 배열 범위 밖이거나 만들어지지 않았다면) 빈 집합
+	 */
+	private static RoaringBitmap bitmap(RoaringBitmap[] bitmaps, int user) {
+		if (user < 0 || user >= bitmaps.length || Objects.isNull(bitmaps[user])) {
+			return EMPTY;
+		}
+
+		return bitmaps[user];
+	}
+
+	private List<String> userIds(RoaringBitmap bitmap) {
+		List<String> userIds = new ArrayList<>(bitmap.cardinality());
+
+		bitmap.forEach(user -> userIds.add(userDictionary.userIdOf(user)));
+
+		return userIds;
+	}
+
+	/**
+	 * 계정을 사전에 담아 번호를 받고, 번호가 배열 범위를 넘으면 배열을 늘린다.
+	 */
+	private int add(String userId) {
+		int user = userDictionary.intern(userId);
+
+		if (user >= related.length) {
+			int length = Math.max(user + 1, related.length * 2);
+
+			related = Arrays.copyOf(related, length);
+			friends = Arrays.copyOf(friends, length);
+			followees = Arrays.copyOf(followees, length);
+		}
+
+		return user;
+	}
+
+	/**
+	 * user 의 관계 집합에 other 를 담는다. 처음 관계가 담기는 유저라면 집합을 만든다.
+	 *
+	 * @return	새로 담았다면 true 를 리턴한다.
+	 */
+	private boolean relate(int user, int other) {
+		if (Objects.isNull(related[user])) {
+			related[user] = new RoaringBitmap();
+			users++;
+		}
+
+		return related[user].add(other);
+	}
+
+	/**
+	 * 유저 번호 0 ~ userCount - 1 의 집합을 이어붙여 CSR 배열(offsets, neighbors)로 만든다.
+	 */
+	private static void toCsr(RoaringBitmap[] bitmaps, int userCount, int set, int[][] offsets, int[][] neighbors) {
+		int[] setOffsets = new int[userCount + 1];
+
+		for (int user = 0; user < userCount; user++) {
+			setOffsets[user + 1] = setOffsets[user] + bitmap(bitmaps, user).cardinality();
+		}
+
+		int[] setNeighbors = new int[setOffsets[userCount]];
+
+		for (int user = 0; user < userCount; user++) {
+			int[] position = {setOffsets[user]};
+
+			bitmap(bitmaps, user).forEach(other -> setNeighbors[position[0]++] = other);
+		}
+
+		offsets[set] = setOffsets;
+		neighbors[set] = setNeighbors;
+	}
+
+	/**
+	 * 스냅샷의 user 집합을 현재 유저 번호로 바꾸어 만든다. 상대가 없다면 null(집합을 만들지 않음)
+	 */
+	private static RoaringBitmap fromSnapshot(FollowGraphSnapshot snapshot, int set, int user, int[] numbers) {
+		if (snapshot.degree(set, user) == 0) {
+			return null;
+		}
+
+		RoaringBitmap bitmap = new RoaringBitmap();
+
+		snapshot.forEachNeighbor(set, user, other -> bitmap.add(numbers[other]));
+
+		return bitmap;
+	}
+
+	/**
+	 * contained 라면 user 의 집합에 other 를 담고(집합이 없다면 만들고), 아니라면 뺀다.
+	 */
+	private static void set(RoaringBitmap[] bitmaps, int user, int other, boolean contained) {
+		if (contained) {
+			if (Objects.isNull(bitmaps[user])) {
+				bitmaps[user] = new RoaringBitmap();
+			}
+
+			bitmaps[user].add(other);
+		} else if (Objects.nonNull(bitmaps[user])) {
+			bitmaps[user].remove(other);
+		}
+	}
+}
\ No newline at end of file
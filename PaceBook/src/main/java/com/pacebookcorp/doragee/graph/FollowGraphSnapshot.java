@@ -0,0 +1,250 @@
+package com.pacebookcorp.doragee.graph;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * FollowGraph 를 파일로 떠둔 바이너리 스냅샷
+ * 서버 기동 때 t_frnd 전체를 JPA 로 읽는 대신 스냅샷을 메모리 매핑(mmap)하여 그래프를 채우고, 워터마크 이후 바뀐 행만 t_frnd 에서 다시 읽는다.
+ *
+ * 유저 번호 순서의 계정 목록(UserDictionary)과, 상대 번호 집합 세 개(related, friends, followees)를 CSR(offsets + neighbors) 배열로 담는다.
+ * 유저 user 의 상대 번호는 neighbors[offsets[user]] ~ neighbors[offsets[user + 1] - 1] 이며 정렬되어 있다.
+ * - header : magic, version, watermark(t_frnd mod_ymdt 최댓값, epoch millis), 관계 수, 유저 수
+ * - 계정 목록 : 유저 번호 순으로 UTF-8 바이트 수(short) + 바이트
+ * - 집합 세 개 : 상대 번호 수, offsets(유저 수 + 1 개), neighbors (4 byte 정렬)
+ * - trailer : 앞선 모든 바이트의 CRC32
+ *
+ * 쓰기는 임시 파일에 쓴 뒤 이름을 바꾸므로(atomic move) 읽는 쪽은 이전 스냅샷이나 완성된 스냅샷만 본다.
+ *
+ * @author Kwon Young
+ */
+public final class FollowGraphSnapshot {
+	public static final int RELATED = 0;
+	public static final int FRIENDS = 1;
+	public static final int FOLLOWEES = 2;
+
+	private static final int SETS = 3;
+	private static final int MAGIC = 0x50424647;	// "PBFG"
+	private static final int VERSION = 1;
+	private static final int HEADER_BYTES = 24;
+	private static final int TRAILER_BYTES = 8;
+
+	private final long watermark;
+	private final int relations;
+	private final String[] userIds;
+	private final IntBuffer[] offsets = new IntBuffer[SETS];
+	private final IntBuffer[] neighbors = new IntBuffer[SETS];
+
+	private FollowGraphSnapshot(long watermark, int relations, String[] userIds) {
+		this.watermark = watermark;
+		this.relations = relations;
+		this.userIds = userIds;
+	}
+
+	/**
+	 * 스냅샷을 파일로 쓴다. 같은 디렉토리의 임시 파일에 다 쓴 뒤 path 로 이름을 바꾼다.
+	 *
+	 * @param path		스냅샷 파일 경로
+	 * @param watermark	담긴 관계의 mod_ymdt 최댓값(epoch millis)
+	 * @param relations	담긴 관계 수
+	 * @param userIds	유저 번호 순서의 계정 목록
+	 * @param offsets	집합별(RELATED, FRIENDS, FOLLOWEES) 유저의 시작 위치, 유저 수 + 1 개
+	 * @param neighbors	집합별 유저 번호 순으로 이어붙인 정렬된 상대 번호
+	 * @throws IOException 파일을 쓰지 못한 경우
+	 */
+	public static void write(Path path, long watermark, int relations, String[] userIds, int[][] offsets, int[][] neighbors) throws IOException {
+		Path absolutePath = path.toAbsolutePath();
+
+		Files.createDirectories(absolutePath.getParent());
+
+		Path temporaryPath = Files.createTempFile(absolutePath.getParent(), absolutePath.getFileName().toString(), ".tmp");
+		CRC32 crc = new CRC32();
+
+		try {
+			try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryPath)))) {
+				DataOutputStream checked = new DataOutputStream(new CheckedOutputStream(output, crc));
+
+				checked.writeInt(MAGIC);
+				checked.writeInt(VERSION);
+				checked.writeLong(watermark);
+				checked.writeInt(relations);
+				checked.writeInt(userIds.length);
+
+				for (String userId : userIds) {
+					byte[] bytes = userId.getBytes(StandardCharsets.UTF_8);
+
+					checked.writeShort(bytes.length);
+					checked.write(bytes);
+				}
+
+				while (checked.size() % Integer.BYTES != 0) {
+					checked.writeByte(0);
+				}
+
+				for (int set = 0; set < SETS; set++) {
+					checked.writeInt(neighbors[set].length);
+					writeInts(checked, offsets[set]);
+					writeInts(checked, neighbors[set]);
+				}
+
+				checked.flush();
+				output.writeLong(crc.getValue());
+			}
+
+			Files.move(temporaryPath, absolutePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporaryPath);
+		}
+	}
+
+	/**
+	 * 스냅샷 파일을 메모리 매핑하여 읽는다. 상대 번호 배열은 복사하지 않고 매핑된 버퍼를 그대로 본다.
+	 *
+	 * @param 	path	스냅샷 파일 경로
+	 * @return	스냅샷
+	 * @throws 	IOException 파일을 읽지 못했거나, 형식이 다르거나 CRC 가 맞지 않는 경우
+	 */
+	public static FollowGraphSnapshot read(Path path) throws IOException {
+		MappedByteBuffer buffer;
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_BYTES + TRAILER_BYTES || channel.size() > Integer.MAX_VALUE) {
+				throw new IOException("follow graph snapshot size is illegal : " + channel.size());
+			}
+
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+
+		int bodyBytes = buffer.capacity() - TRAILER_BYTES;
+		ByteBuffer body = buffer.duplicate();
+		CRC32 crc = new CRC32();
+
+		body.limit(bodyBytes);
+		crc.update(body);
+
+		if (crc.getValue() != buffer.getLong(bodyBytes)) {
+			throw new IOException("follow graph snapshot checksum mismatch : " + path);
+		}
+
+		if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+			throw new IOException("follow graph snapshot format is not supported : " + path);
+		}
+
+		long watermark = buffer.getLong();
+		int relations = buffer.getInt();
+		String[] userIds = new String[buffer.getInt()];
+
+		for (int user = 0; user < userIds.length; user++) {
+			byte[] bytes = new byte[buffer.getShort()];
+
+			buffer.get(bytes);
+			userIds[user] = new String(bytes, StandardCharsets.UTF_8);
+		}
+
+		while (buffer.position() % Integer.BYTES != 0) {
+			buffer.get();
+		}
+
+		FollowGraphSnapshot snapshot = new FollowGraphSnapshot(watermark, relations, userIds);
+
+		for (int set = 0; set < SETS; set++) {
+			int edges = buffer.getInt();
+
+			snapshot.offsets[set] = slice(buffer, userIds.length + 1);
+			snapshot.neighbors[set] = slice(buffer, edges);
+		}
+
+		return snapshot;
+	}
+
+	/**
+	 * @return	담긴 관계의 mod_ymdt 최댓값(epoch millis), 관계가 없었다면 0
+	 */
+	public long watermark() {
+		return watermark;
+	}
+
+	/**
+	 * @return	담긴 관계 수
+	 */
+	public int relationCount() {
+		return relations;
+	}
+
+	/**
+	 * @return	담긴 유저 수(스냅샷을 뜰 때 UserDictionary 의 크기)
+	 */
+	public int userCount() {
+		return userIds.length;
+	}
+
+	/**
+	 * @param 	user	스냅샷의 유저 번호
+	 * @return	유저 계정
+	 */
+	public String userId(int user) {
+		return userIds[user];
+	}
+
+	/**
+	 * @param 	set		RELATED, FRIENDS, FOLLOWEES 중 하나
+	 * @param 	user	스냅샷의 유저 번호
+	 * @return	user 의 상대 수
+	 */
+	public int degree(int set, int user) {
+		return offsets[set].get(user + 1) - offsets[set].get(user);
+	}
+
+	/**
+	 * user 의 상대 번호(스냅샷의 유저 번호)를 정렬 순서대로 넘긴다.
+	 *
+	 * @param set		RELATED, FRIENDS, FOLLOWEES 중 하나
+	 * @param user		스냅샷의 유저 번호
+	 * @param consumer	상대 번호를 받을 함수
+	 */
+	public void forEachNeighbor(int set, int user, IntConsumer consumer) {
+		IntBuffer setNeighbors = neighbors[set];
+		int end = offsets[set].get(user + 1);
+
+		for (int i = offsets[set].get(user); i < end; i++) {
+			consumer.accept(setNeighbors.get(i));
+		}
+	}
+
+	private static void writeInts(DataOutputStream output, int[] values) throws IOException {
+		for (int value : values) {
+			output.writeInt(value);
+		}
+	}
+
+	/**
+	 * buffer 의 현재 위치부터 int count 개를 보는 IntBuffer 를 만들고 위치를 그 뒤로 옮긴다.
+	 */
+	private static IntBuffer slice(ByteBuffer buffer, int count) throws IOException {
+		int bytes = count * Integer.BYTES;
+
+		if (count < 0 || buffer.remaining() - TRAILER_BYTES < bytes) {
+			throw new IOException("follow graph snapshot is truncated.");
+		}
+
+		ByteBuffer slice = buffer.slice();
+
+		slice.limit(bytes);
+		buffer.position(buffer.position() + bytes);
+
+		return slice.asIntBuffer();
+	}
+}
\ No newline at end of file
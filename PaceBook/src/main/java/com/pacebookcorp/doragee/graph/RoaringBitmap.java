@@ -0,0 +1,715 @@
+package com.pacebookcorp.doragee.graph;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntConsumer;
+
+/**
+ * 0 이상의 int(유저 번호) 집합을 담는 압축 비트맵(roaring bitmap)
+ * 번호의 상위 16 bit 로 구간(container)을 나누고, 구간마다 담긴 수가 4096 개 이하라면 하위 16 bit 의 정렬된 char 배열로,
+ * 넘는다면 65536 bit 의 비트맵으로 담는다. 담긴 수만큼만 메모리를 쓰면서(2 byte / 개, 구간당 최대 8KB)
+ * 포함 여부, 교집합, 합집합, 개수 세기를 구간끼리 바로 계산한다.
+ *
+ * 같은 값이 이어지는 구간의 run 압축은 하지 않는다. 동기화하지 않으므로 FollowGraph 처럼 담는 쪽에서 잠근다.
+ *
+ * @author Kwon Young
+ */
+public class RoaringBitmap {
+	private static final int ARRAY_MAX = 4096;
+	private static final int BITMAP_WORDS = 1 << 10;
+	private static final int GALLOP_RATIO = 32;
+	private static final long HEADER_BYTES = 32L;
+
+	private char[] keys = new char[0];
+	private Container[] containers = new Container[0];
+	private int size;
+
+	/**
+	 * @param 	value	0 이상의 정수
+	 * @return	새로 담았다면 true 를 리턴한다.
+	 */
+	public boolean add(int value) {
+		char key = high(value);
+		int position = find(key);
+
+		if (position < 0) {
+			position = -(position + 1);
+			insert(position, key, new ArrayContainer());
+		}
+
+		int cardinality = containers[position].cardinality;
+
+		containers[position] = containers[position].add(low(value));
+
+		return containers[position].cardinality > cardinality;
+	}
+
+	/**
+	 * @param 	value	0 이상의 정수
+	 * @return	담겨 있어서 뺐다면 true 를 리턴한다.
+	 */
+	public boolean remove(int value) {
+		int position = find(high(value));
+
+		if (position < 0 || containers[position].contains(low(value)) == false) {
+			return false;
+		}
+
+		containers[position] = containers[position].remove(low(value));
+
+		if (containers[position].cardinality == 0) {
+			System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+			System.arraycopy(containers, position + 1, containers, position, size - position - 1);
+			containers[--size] = null;
+		}
+
+		return true;
+	}
+
+	/**
+	 * @param 	value	0 이상의 정수
+	 * @return	담겨 있다면 true 를 리턴한다.
+	 */
+	public boolean contains(int value) {
+		int position = find(high(value));
+
+		return position >= 0 && containers[position].contains(low(value));
+	}
+
+	/**
+	 * @return	담긴 수
+	 */
+	public int cardinality() {
+		int cardinality = 0;
+
+		for (int i = 0; i < size; i++) {
+			cardinality += containers[i].cardinality;
+		}
+
+		return cardinality;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * 담긴 수를 작은 수부터 차례로 넘긴다.
+	 *
+	 * @param consumer	수를 받을 함수
+	 */
+	public void forEach(IntConsumer consumer) {
+		for (int i = 0; i < size; i++) {
+			containers[i].forEach(keys[i] << 16, consumer);
+		}
+	}
+
+	/**
+	 * @return	담긴 수의 정렬된 배열
+	 */
+	public int[] toArray() {
+		int[] values = new int[cardinality()];
+		int[] length = new int[1];
+
+		forEach(value -> values[length[0]++] = value);
+
+		return values;
+	}
+
+	/**
+	 * @return	대략적인 힙 사용량(byte)
+	 */
+	public long sizeInBytes() {
+		long bytes = HEADER_BYTES + 2L * keys.length + 4L * containers.length;
+
+		for (int i = 0; i < size; i++) {
+			bytes += containers[i].sizeInBytes();
+		}
+
+		return bytes;
+	}
+
+	/**
+	 * 같은 상위 16 bit 구간끼리만 교집합하므로, 한쪽에만 있는 구간은 읽지 않는다.
+	 *
+	 * @return	두 집합의 교집합(새 비트맵)
+	 */
+	public static RoaringBitmap and(RoaringBitmap left, RoaringBitmap right) {
+		RoaringBitmap result = new RoaringBitmap();
+		int i = 0;
+		int j = 0;
+
+		while (i < left.size && j < right.size) {
+			if (left.keys[i] < right.keys[j]) {
+				i++;
+			} else if (left.keys[i] > right.keys[j]) {
+				j++;
+			} else {
+				Container container = left.containers[i].and(right.containers[j]);
+
+				if (container.cardinality > 0) {
+					result.insert(result.size, left.keys[i], container);
+				}
+
+				i++;
+				j++;
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * 교집합을 만들지 않고 같은 구간끼리 겹치는 수만 센다.(비트맵끼리는 word 단위 bitCount)
+	 *
+	 * @return	두 집합의 교집합의 수
+	 */
+	public static int andCardinality(RoaringBitmap left, RoaringBitmap right) {
+		int cardinality = 0;
+		int i = 0;
+		int j = 0;
+
+		while (i < left.size && j < right.size) {
+			if (left.keys[i] < right.keys[j]) {
+				i++;
+			} else if (left.keys[i] > right.keys[j]) {
+				j++;
+			} else {
+				cardinality += left.containers[i].andCardinality(right.containers[j]);
+				i++;
+				j++;
+			}
+		}
+
+		return cardinality;
+	}
+
+	/**
+	 * 두 집합의 교집합 중 after 보다 큰 수를 작은 수부터 limit 개까지 넘긴다.
+	 * 교집합을 만들지 않고 after 가 속한 구간부터 훑으며, limit 개를 넘기면 남은 구간은 읽지 않는다.
+	 *
+	 * @param 	after		이 수보다 큰 수부터 넘긴다, 처음부터라면 -1
+	 * @param 	limit		넘길 최대 수
+	 * @param 	consumer	수를 받을 함수
+	 * @return	넘긴 수
+	 */
+	public static int andForEach(RoaringBitmap left, RoaringBitmap right, int after, int limit, IntConsumer consumer) {
+		if (limit <= 0 || after == Integer.MAX_VALUE) {
+			return 0;
+		}
+
+		int next = Math.max(0, after + 1);
+		char startKey = high(next);
+		int i = left.lowerBound(startKey);
+		int j = right.lowerBound(startKey);
+		int count = 0;
+
+		while (i < left.size && j < right.size && count < limit) {
+			if (left.keys[i] < right.keys[j]) {
+				i++;
+			} else if (left.keys[i] > right.keys[j]) {
+				j++;
+			} else {
+				int high = left.keys[i] << 16;
+				int from = left.keys[i] == startKey ? low(next) : 0;
+
+				count += left.containers[i].andForEach(right.containers[j], from, limit - count, value -> consumer.accept(high | value));
+				i++;
+				j++;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * @return	두 집합의 합집합(새 비트맵)
+	 */
+	public static RoaringBitmap or(RoaringBitmap left, RoaringBitmap right) {
+		RoaringBitmap result = new RoaringBitmap();
+		int i = 0;
+		int j = 0;
+
+		while (i < left.size || j < right.size) {
+			if (j >= right.size || (i < left.size && left.keys[i] < right.keys[j])) {
+				result.insert(result.size, left.keys[i], left.containers[i].or(new ArrayContainer()));
+				i++;
+			} else if (i >= left.size || left.keys[i] > right.keys[j]) {
+				result.insert(result.size, right.keys[j], right.containers[j].or(new ArrayContainer()));
+				j++;
+			} else {
+				result.insert(result.size, left.keys[i], left.containers[i].or(right.containers[j]));
+				i++;
+				j++;
+			}
+		}
+
+		return result;
+	}
+
+	private static char high(int value) {
+		return (char) (value >>> 16);
+	}
+
+	private static char low(int value) {
+		return (char) value;
+	}
+
+	private int find(char key) {
+		return Arrays.binarySearch(keys, 0, size, key);
+	}
+
+	/**
+	 * @return	key 이상인 첫 구간의 위치, 없다면 size
+	 */
+	private int lowerBound(char key) {
+		int position = find(key);
+
+		return position >= 0 ? position : -(position + 1);
+	}
+
+	private void insert(int position, char key, Container container) {
+		if (size == keys.length) {
+			int length = Math.max(1, size * 2);
+
+			keys = Arrays.copyOf(keys, length);
+			containers = Arrays.copyOf(containers, length);
+		}
+
+		System.arraycopy(keys, position, keys, position + 1, size - position);
+		System.arraycopy(containers, position, containers, position + 1, size - position);
+
+		keys[position] = key;
+		containers[position] = container;
+		size++;
+	}
+
+	/**
+	 * 상위 16 bit 가 같은 수들의 하위 16 bit 집합, 담긴 수에 따라 배열과 비트맵을 오가므로 바뀐 container 를 리턴한다.
+	 */
+	private abstract static class Container {
+		protected int cardinality;
+
+		abstract Container add(char value);
+
+		abstract Container remove(char value);
+
+		abstract boolean contains(char value);
+
+		abstract void forEach(int high, IntConsumer consumer);
+
+		abstract Container and(Container other);
+
+		abstract int andCardinality(Container other);
+
+		/**
+		 * 교집합 중 하위 16 bit 가 from 이상인 수를 작은 수부터 limit 개까지 하위 16 bit 로 넘기고, 넘긴 수를 리턴한다.
+		 */
+		abstract int andForEach(Container other, int from, int limit, IntConsumer consumer);
+
+		abstract Container or(Container other);
+
+		abstract long sizeInBytes();
+	}
+
+	/**
+	 * 4096 개 이하 : 하위 16 bit 의 정렬된 배열
+	 */
+	private static final class ArrayContainer extends Container {
+		private char[] values;
+
+		private ArrayContainer() {
+			this(new char[4]);
+		}
+
+		private ArrayContainer(char[] values) {
+			this.values = values;
+		}
+
+		@Override
+		Container add(char value) {
+			int position = Arrays.binarySearch(values, 0, cardinality, value);
+
+			if (position >= 0) {
+				return this;
+			}
+
+			if (cardinality == ARRAY_MAX) {
+				return toBitmap().add(value);
+			}
+
+			int insertion = -(position + 1);
+
+			if (cardinality == values.length) {
+				values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+			}
+
+			System.arraycopy(values, insertion, values, insertion + 1, cardinality - insertion);
+			values[insertion] = value;
+			cardinality++;
+
+			return this;
+		}
+
+		@Override
+		Container remove(char value) {
+			int position = Arrays.binarySearch(values, 0, cardinality, value);
+
+			if (position >= 0) {
+				System.arraycopy(values, position + 1, values, position, cardinality - position - 1);
+				cardinality--;
+			}
+
+			if (cardinality < values.length / 4) {
+				values = Arrays.copyOf(values, values.length / 2);
+			}
+
+			return this;
+		}
+
+		@Override
+		boolean contains(char value) {
+			return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+		}
+
+		@Override
+		void forEach(int high, IntConsumer consumer) {
+			for (int i = 0; i < cardinality; i++) {
+				consumer.accept(high | values[i]);
+			}
+		}
+
+		@Override
+		Container and(Container other) {
+			if (other instanceof BitmapContainer) {
+				return other.and(this);
+			}
+
+			ArrayContainer right = (ArrayContainer) other;
+			ArrayContainer result = new ArrayContainer(new char[Math.max(1, Math.min(cardinality, right.cardinality))]);
+
+			intersect(this, right, 0, ARRAY_MAX, value -> result.values[result.cardinality++] = (char) value);
+
+			return result;
+		}
+
+		@Override
+		int andCardinality(Container other) {
+			if (other instanceof BitmapContainer) {
+				return other.andCardinality(this);
+			}
+
+			return intersect(this, (ArrayContainer) other, 0, ARRAY_MAX, null);
+		}
+
+		@Override
+		int andForEach(Container other, int from, int limit, IntConsumer consumer) {
+			if (other instanceof BitmapContainer) {
+				return other.andForEach(this, from, limit, consumer);
+			}
+
+			return intersect(this, (ArrayContainer) other, from, limit, consumer);
+		}
+
+		/**
+		 * 두 배열의 교집합 중 from 이상인 수를 작은 수부터 limit 개까지 넘긴다. consumer 가 null 이라면 세기만 한다.
+		 * 정렬된 두 배열을 from 의 위치부터 함께 훑고(merge), 한쪽이 GALLOP_RATIO 배 넘게 길다면
+		 * 짧은 쪽의 수마다 긴 쪽을 두배씩 건너뛰고 그 구간만 이진 탐색한다.(galloping)
+		 *
+		 * @return	넘긴(센) 수
+		 */
+		private static int intersect(ArrayContainer left, ArrayContainer right, int from, int limit, IntConsumer consumer) {
+			ArrayContainer small = left;
+			ArrayContainer large = right;
+
+			if (small.cardinality > large.cardinality) {
+				small = right;
+				large = left;
+			}
+
+			boolean gallop = (long) small.cardinality * GALLOP_RATIO < large.cardinality;
+			int count = 0;
+			int j = lowerBound(large.values, large.cardinality, from);
+
+			for (int i = lowerBound(small.values, small.cardinality, from); i < small.cardinality && j < large.cardinality && count < limit; i++) {
+				char value = small.values[i];
+
+				if (gallop) {
+					j = gallop(large.values, j, large.cardinality, value);
+				} else {
+					while (j < large.cardinality && large.values[j] < value) {
+						j++;
+					}
+				}
+
+				if (j < large.cardinality && large.values[j] == value) {
+					if (Objects.nonNull(consumer)) {
+						consumer.accept(value);
+					}
+
+					count++;
+					j++;
+				}
+			}
+
+			return count;
+		}
+
+		@Override
+		Container or(Container other) {
+			if (other instanceof BitmapContainer) {
+				return other.or(this);
+			}
+
+			ArrayContainer right = (ArrayContainer) other;
+
+			if (cardinality + right.cardinality > ARRAY_MAX) {
+				return toBitmap().or(right);
+			}
+
+			ArrayContainer result = new ArrayContainer(new char[Math.max(1, cardinality + right.cardinality)]);
+			int i = 0;
+			int j = 0;
+
+			while (i < cardinality || j < right.cardinality) {
+				if (j >= right.cardinality || (i < cardinality && values[i] < right.values[j])) {
+					result.values[result.cardinality++] = values[i++];
+				} else if (i >= cardinality || values[i] > right.values[j]) {
+					result.values[result.cardinality++] = right.values[j++];
+				} else {
+					result.values[result.cardinality++] = values[i++];
+					j++;
+				}
+			}
+
+			return result;
+		}
+
+		@Override
+		long sizeInBytes() {
+			return HEADER_BYTES + 2L * values.length;
+		}
+
+		private BitmapContainer toBitmap() {
+			BitmapContainer bitmap = new BitmapContainer();
+
+			for (int i = 0; i < cardinality; i++) {
+				bitmap.add(values[i]);
+			}
+
+			return bitmap;
+		}
+
+		/**
+		 * @return	array 의 [0, length) 에서 from 이상인 첫 위치, 없다면 length
+		 */
+		private static int lowerBound(char[] array, int length, int from) {
+			int position = Arrays.binarySearch(array, 0, length, (char) from);
+
+			return position >= 0 ? position : -(position + 1);
+		}
+
+		/**
+		 * array 의 [from, to) 에서 target 이상인 첫 위치를 찾는다. from 부터 1, 2, 4 ... 칸씩 건너뛰어 target 을 넘는 구간을 찾은 뒤 그 구간만 이진 탐색한다.
+		 *
+		 * @return	target 이상인 첫 위치, 없다면 to
+		 */
+		private static int gallop(char[] array, int from, int to, char target) {
+			int bound = 1;
+
+			while (from + bound < to && array[from + bound] < target) {
+				bound <<= 1;
+			}
+
+			int position = Arrays.binarySearch(array, from + bound / 2, Math.min(from + bound, to), target);
+
+			return position >= 0 ? position : -(position + 1);
+		}
+	}
+
+	/**
+	 * 4096 개 초과 : 65536 bit 비트맵
+	 */
+	private static final class BitmapContainer extends Container {
+		private final long[] words;
+
+		private BitmapContainer() {
+			this(new long[BITMAP_WORDS]);
+		}
+
+		private BitmapContainer(long[] words) {
+			this.words = words;
+		}
+
+		@Override
+		Container add(char value) {
+			long word = words[value >>> 6];
+			long bit = 1L << value;
+
+			if ((word & bit) == 0) {
+				words[value >>> 6] = word | bit;
+				cardinality++;
+			}
+
+			return this;
+		}
+
+		@Override
+		Container remove(char value) {
+			long word = words[value >>> 6];
+			long bit = 1L << value;
+
+			if ((word & bit) != 0) {
+				words[value >>> 6] = word & ~bit;
+				cardinality--;
+			}
+
+			return cardinality <= ARRAY_MAX ? toArray() : this;
+		}
+
+		@Override
+		boolean contains(char value) {
+			return (words[value >>> 6] & (1L << value)) != 0;
+		}
+
+		@Override
+		void forEach(int high, IntConsumer consumer) {
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				long word = words[i];
+
+				while (word != 0) {
+					consumer.accept(high | (i << 6) | Long.numberOfTrailingZeros(word));
+					word &= word - 1;
+				}
+			}
+		}
+
+		@Override
+		Container and(Container other) {
+			if (other instanceof ArrayContainer) {
+				ArrayContainer array = (ArrayContainer) other;
+				ArrayContainer result = new ArrayContainer(new char[Math.max(1, array.cardinality)]);
+
+				for (int i = 0; i < array.cardinality; i++) {
+					if (contains(array.values[i])) {
+						result.values[result.cardinality++] = array.values[i];
+					}
+				}
+
+				return result;
+			}
+
+			long[] otherWords = ((BitmapContainer) other).words;
+			BitmapContainer result = new BitmapContainer();
+
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				result.words[i] = words[i] & otherWords[i];
+				result.cardinality += Long.bitCount(result.words[i]);
+			}
+
+			return result.cardinality <= ARRAY_MAX ? result.toArray() : result;
+		}
+
+		@Override
+		int andCardinality(Container other) {
+			if (other instanceof ArrayContainer) {
+				ArrayContainer array = (ArrayContainer) other;
+				int cardinality = 0;
+
+				for (int i = 0; i < array.cardinality; i++) {
+					if (contains(array.values[i])) {
+						cardinality++;
+					}
+				}
+
+				return cardinality;
+			}
+
+			long[] otherWords = ((BitmapContainer) other).words;
+			int cardinality = 0;
+
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				cardinality += Long.bitCount(words[i] & otherWords[i]);
+			}
+
+			return cardinality;
+		}
+
+		@Override
+		int andForEach(Container other, int from, int limit, IntConsumer consumer) {
+			int count = 0;
+
+			if (other instanceof ArrayContainer) {
+				ArrayContainer array = (ArrayContainer) other;
+
+				for (int i = ArrayContainer.lowerBound(array.values, array.cardinality, from); i < array.cardinality && count < limit; i++) {
+					if (contains(array.values[i])) {
+						consumer.accept(array.values[i]);
+						count++;
+					}
+				}
+
+				return count;
+			}
+
+			long[] otherWords = ((BitmapContainer) other).words;
+
+			for (int i = from >>> 6; i < BITMAP_WORDS && count < limit; i++) {
+				long word = words[i] & otherWords[i];
+
+				if (i == from >>> 6) {
+					word &= -1L << from;
+				}
+
+				while (word != 0 && count < limit) {
+					consumer.accept((i << 6) | Long.numberOfTrailingZeros(word));
+					word &= word - 1;
+					count++;
+				}
+			}
+
+			return count;
+		}
+
+		@Override
+		Container or(Container other) {
+			BitmapContainer result = new BitmapContainer(words.clone());
+
+			result.cardinality = cardinality;
+
+			if (other instanceof ArrayContainer) {
+				ArrayContainer array = (ArrayContainer) other;
+
+				for (int i = 0; i < array.cardinality; i++) {
+					result.add(array.values[i]);
+				}
+
+				return result;
+			}
+
+			long[] otherWords = ((BitmapContainer) other).words;
+
+			result.cardinality = 0;
+
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				result.words[i] |= otherWords[i];
+				result.cardinality += Long.bitCount(result.words[i]);
+			}
+
+			return result;
+		}
+
+		@Override
+		long sizeInBytes() {
+			return HEADER_BYTES + 8L * BITMAP_WORDS;
+		}
+
+		private ArrayContainer toArray() {
+			ArrayContainer array = new ArrayContainer(new char[Math.max(1, cardinality)]);
+
+			forEach(0, value -> array.values[array.cardinality++] = (char) value);
+
+			return array;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.pacebookcorp.doragee.repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.pacebookcorp.doragee.entity.DeletedPost;
+
+/**
+ * @author Kwon Young
+ */
+public interface DeletedPostRepository extends JpaRepository<DeletedPost, String> {
+	@Query("SELECT d.postPk FROM DeletedPost d "
+		  + "WHERE d.ownerId IN :ownerIds "
+		    + "AND d.deletedDate >= :since "
+		    + "AND d.deletedDate < :until")
+	List<String> findDeletedPostPks(@Param("ownerIds") Collection<String> ownerIds, @Param("since") Date since, @Param("until") Date until);
+
+	@Modifying
+	@Query("DELETE FROM DeletedPost d WHERE d.deletedDate < :before")
+	int purge(@Param("before") Date before);
+}
\ No newline at end of file
@@ -0,0 +1,126 @@
+package com.pacebookcorp.doragee.repository;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.pacebookcorp.doragee.dto.PostSummary;
+import com.pacebookcorp.doragee.entity.Feed;
+import com.pacebookcorp.doragee.entity.FeedId;
+import com.pacebookcorp.doragee.entity.Post;
+
+/**
+ * @author Kwon Young
+ */
+public interface FeedRepository extends JpaRepository<Feed, FeedId> {
+	@QueryHints(@QueryHint(name = HibernateHints.READ_ONLY, value = "true"))
+	@Query("SELECT p FROM Feed f, Post p "
+		  + "WHERE f.viewerId=:userId "
+		    + "AND p.postPk=f.postPk "
+		  + "ORDER BY f.modifiedDate DESC, f.postPk DESC")
+	List<Post> newsfeedFirstPage(@Param("userId") String userId, Pageable pageable);
+
+	@QueryHints(@QueryHint(name = HibernateHints.READ_ONLY, value = "true"))
+	@Query("SELECT p FROM Feed f, Post p "
+		  + "WHERE f.viewerId=:userId "
+		    + "AND (f.modifiedDate < :modifiedDate OR (f.modifiedDate = :modifiedDate AND f.postPk < :postPk)) "
+		    + "AND p.postPk=f.postPk "
+		  + "ORDER BY f.modifiedDate DESC, f.postPk DESC")
+	List<Post> newsfeedNextPage(@Param("userId") String userId, @Param("modifiedDate") Date modifiedDate, @Param("postPk") String postPk, Pageable pageable);
+
+	@Query("SELECT new com.pacebookcorp.doragee.dto.PostSummary(p.postPk, p.ownerId, p.creatorId, SUBSTRING(p.content, 1, " + PostSummary.CONTENT_LENGTH + "), p.modifiedDate) "
+		   + "FROM Feed f, Post p "
+		  + "WHERE f.viewerId=:userId "
+		    + "AND p.postPk=f.postPk "
+		  + "ORDER BY f.modifiedDate DESC, f.postPk DESC")
+	List<PostSummary> newsfeedSummaryFirstPage(@Param("userId") String userId, Pageable pageable);
+
+	@Query("SELECT new com.pacebookcorp.doragee.dto.PostSummary(p.postPk, p.ownerId, p.creatorId, SUBSTRING(p.content, 1, " + PostSummary.CONTENT_LENGTH + "), p.modifiedDate) "
+		   + "FROM Feed f, Post p "
+		  + "WHERE f.viewerId=:userId "
+		    + "AND (f.modifiedDate < :modifiedDate OR (f.modifiedDate = :modifiedDate AND f.postPk < :postPk)) "
+		    + "AND p.postPk=f.postPk "
+		  + "ORDER BY f.modifiedDate DESC, f.postPk DESC")
+	List<PostSummary> newsfeedSummaryNextPage(@Param("userId") String userId, @Param("modifiedDate") Date modifiedDate, @Param("postPk") String postPk, Pageable pageable);
+
+	@QueryHints(@QueryHint(name = HibernateHints.READ_ONLY, value = "true"))
+	@Query("SELECT f FROM Feed f WHERE f.viewerId=:userId ORDER BY f.modifiedDate DESC, f.postPk DESC")
+	List<Feed> findLatest(@Param("userId") String userId, Pageable pageable);
+
+	@Query("SELECT f.viewerId FROM Feed f WHERE f.postPk=:postPk")
+	List<String> findViewerIds(@Param("postPk") String postPk);
+
+	@Modifying
+	@Query(value = "INSERT IGNORE INTO t_feed (viewer_id, post_pk, ownr_id, mod_ymdt) "
+				   + "SELECT viewer.user_id, :postPk, :ownerId, :modifiedDate "
+				   + "FROM ("
+				   		+ "(SELECT accp_id AS user_id "
+				   		   + "FROM t_frnd "
+				   		  + "WHERE accp_yn = 'y' "
+				   		  	+ "AND accp_folw_yn = 'y' "
+				   		  	+ "AND aply_id=:ownerId"
+				   		+ ") "
+				   		+ "UNION ALL "
+				   		+ "(SELECT aply_id AS user_id "
+				   		   + "FROM t_frnd "
+				   		  + "WHERE accp_yn = 'y' "
+				   		    + "AND aply_folw_yn = 'y' "
+				   		    + "AND accp_id=:ownerId"
+				   		+ ") "
+				   		+ "UNION ALL "
+				   		+ "(SELECT user_id "
+				   		   + "FROM t_user "
+				   		  + "WHERE user_id=:ownerId"
+				   		+ ") "
+				   + ") viewer", nativeQuery = true)
+	int push(@Param("postPk") String postPk, @Param("ownerId") String ownerId, @Param("modifiedDate") Date modifiedDate);
+
+	@Modifying
+	@Query(value = "INSERT IGNORE INTO t_feed (viewer_id, post_pk, ownr_id, mod_ymdt) "
+				   + "SELECT :viewerId, post_pk, ownr_id, mod_ymdt "
+				   + "FROM t_post "
+				  + "WHERE ownr_id=:ownerId", nativeQuery = true)
+	int pushAll(@Param("viewerId") String viewerId, @Param("ownerId") String ownerId);
+
+	@Modifying
+	@Query("UPDATE Feed f SET f.modifiedDate=:modifiedDate WHERE f.postPk=:postPk")
+	int refresh(@Param("postPk") String postPk, @Param("modifiedDate") Date modifiedDate);
+
+	@Modifying
+	@Query("DELETE FROM Feed f WHERE f.postPk=:postPk")
+	int remove(@Param("postPk") String postPk);
+
+	@Modifying
+	@Query("DELETE FROM Feed f WHERE f.viewerId=:viewerId AND f.ownerId=:ownerId")
+	int removeAll(@Param("viewerId") String viewerId, @Param("ownerId") String ownerId);
+
+	@Modifying
+	@Query(value = "INSERT IGNORE INTO t_feed (viewer_id, post_pk, ownr_id, mod_ymdt) "
+				   + "SELECT viewer.user_id, post.post_pk, post.ownr_id, post.mod_ymdt "
+				   + "FROM t_post post"
+				   	  + ", ("
+				   	  		+ "(SELECT accp_id AS user_id "
+				   	  		   + "FROM t_frnd "
+				   	  		  + "WHERE accp_yn = 'y' "
+				   	  		  	+ "AND accp_folw_yn = 'y' "
+				   	  		  	+ "AND aply_id=:ownerId"
+				   	  		+ ") "
+				   	  		+ "UNION ALL "
+				   	  		+ "(SELECT aply_id AS user_id "
+				   	  		   + "FROM t_frnd "
+				   	  		  + "WHERE accp_yn = 'y' "
+				   	  		    + "AND aply_folw_yn = 'y' "
+				   	  		    + "AND accp_id=:ownerId"
+				   	  		+ ") "
+				   	  + ") viewer "
+				  + "WHERE post.ownr_id=:ownerId", nativeQuery = true)
+	int pushAllToFollowers(@Param("ownerId") String ownerId);
+}
\ No newline at end of file
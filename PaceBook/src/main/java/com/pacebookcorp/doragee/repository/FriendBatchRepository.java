@@ -0,0 +1,71 @@
+package com.pacebookcorp.doragee.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.pacebookcorp.doragee.entity.Friend;
+
+/**
+ * 친구 일괄 신청, 수락, 끊기를 JDBC batch 로 t_frnd 에 반영한다.
+ * 건마다 영속성 컨텍스트를 거치지 않고(save 의 merge 조회 없이) 한 번에 보낸다.
+ * datasource url 의 rewriteBatchedStatements=true 로 MySQL 드라이버가 여러 행을 한 번의 왕복으로 묶는다.
+ *
+ * @author Kwon Young
+ */
+@Repository
+public class FriendBatchRepository {
+	private static final String INSERT = "INSERT INTO t_frnd "
+										 + "(frnd_pk, aply_id, accp_id, pair_key, accp_yn, aply_folw_yn, accp_folw_yn, cre_ymdt, mod_ymdt) "
+										 + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) "
+										 + "ON DUPLICATE KEY UPDATE frnd_pk=frnd_pk";
+
+	private static final String UPDATE_STATUS = "UPDATE t_frnd "
+												+ "SET accp_yn=?, aply_folw_yn=?, accp_folw_yn=?, mod_ymdt=?, version=version + 1 "
+												+ "WHERE frnd_pk=? AND version=?";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * 친구 관계를 일괄 입력한다. 같은 쌍(pair_key) 또는 PK 가 이미 있는 행은 바꾸지 않고 건너뛴다(ON DUPLICATE KEY UPDATE). 버전은 0 으로 입력된다.
+	 * INSERT IGNORE 와 달리 유니크 키 충돌 외의 오류(길이 초과, NOT NULL 등)는 경고로 삼키지 않고 예외로 던진다.
+	 * 여러 행을 묶어 보내면 드라이버가 행별 입력 건수를 돌려주지 않으므로, 입력 여부와 충돌한 키는 pair_key 로 다시 조회하여 확인한다.
+	 *
+	 * @param friends 입력할 친구 관계 목록
+	 */
+	public void insertAll(List<Friend> friends) {
+		List<Object[]> rows = friends.stream()
+									 .map(friend -> new Object[] {friend.getFriendPk(), friend.getApplierId(), friend.getAcceptorId(), friend.getPairKey(),
+																  friend.getAcceptYn(), friend.getApplierFollowYn(), friend.getAcceptFollowYn(),
+																  friend.getCreatedDate(), friend.getModifiedDate()})
+									 .collect(Collectors.toList());
+
+		jdbcTemplate.batchUpdate(INSERT, rows);
+	}
+
+	/**
+	 * 조회한 버전 그대로인 행만 바뀐 상태로 일괄 수정하고 버전을 1 올린다.(FriendRepository.updateStatus 의 batch 판)
+	 *
+	 * @param 	loaded		조회한 친구 관계 목록
+	 * @param 	changed		같은 순서의 바뀐 친구 관계 목록
+	 * @return	같은 순서의 행별 수정 건수, 조회 이후 다른 요청이 먼저 바꿨다면 0
+	 */
+	public int[] updateStatusAll(List<Friend> loaded, List<Friend> changed) {
+		List<Object[]> rows = new ArrayList<>(changed.size());
+
+		for (int i = 0; i < changed.size(); i++) {
+			Friend from = loaded.get(i);
+			Friend to = changed.get(i);
+
+			rows.add(new Object[] {to.getAcceptYn(), to.getApplierFollowYn(), to.getAcceptFollowYn(), to.getModifiedDate(),
+								   to.getFriendPk(), from.getVersion()});
+		}
+
+		return jdbcTemplate.batchUpdate(UPDATE_STATUS, rows);
+	}
+}
\ No newline at end of file
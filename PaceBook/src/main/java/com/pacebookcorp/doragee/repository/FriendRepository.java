@@ -1,32 +1,106 @@
-package com.pacebookcorp.doragee.repository;
-
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
-import com.pacebookcorp.doragee.entity.Friend;
-
-/**
- * @author Kwon Young
- */
-public interface FriendRepository extends JpaRepository<Friend, String> {
-	@Query("SELECT x FROM Friend x WHERE x.applierId=:applierId AND x.acceptorId=:acceptorId AND x.acceptYn='n'")
-	Friend findNotAccptedFriendRelation(@Param("applierId") String applierId, @Param("acceptorId") String acceptorId);
-
-	@Query("SELECT x FROM Friend x WHERE (x.applierId=:applierId AND x.acceptorId=:acceptorId AND x.acceptYn='y') OR (x.applierId=:acceptorId AND x.acceptorId=:applierId AND x.acceptYn='y')")
-	Friend findAcceptedFriendRelation(@Param("applierId") String applierId, @Param("acceptorId") String acceptorId);
-
-	@Query("SELECT x FROM Friend x WHERE x.applierId=:applierId AND x.acceptorId=:acceptorId AND x.applierFollowYn='y'")
-	Friend existApplierIsFollower(@Param("applierId") String applierId, @Param("acceptorId") String acceptorId);
-
-	@Query("SELECT x FROM Friend x WHERE x.applierId=:applierId AND x.acceptorId=:acceptorId AND x.acceptFollowYn='y'")
-	Friend existAcceptorIsFollower(@Param("applierId") String applierId, @Param("acceptorId") String acceptorId);
-
-	@Query("SELECT x FROM Friend x WHERE x.applierId=:applierId AND x.acceptorId=:acceptorId AND x.applierFollowYn='n'")
-	Friend existApplierIsUnFollower(@Param("applierId") String applierId, @Param("acceptorId") String acceptorId);
-
-	@Query("SELECT x FROM Friend x WHERE x.applierId=:applierId AND x.acceptorId=:acceptorId AND x.acceptFollowYn='n'")
-	Friend existAcceptorIsUnFollower(@Param("applierId") String applierId, @Param("acceptorId") String acceptorId);
-
-	@Query("SELECT x FROM Friend x WHERE (x.applierId=:applierId AND x.acceptorId=:acceptorId) OR (x.applierId=:acceptorId AND x.acceptorId=:applierId) ")
-	Friend existFriendRelation(@Param("applierId") String applierId, @Param("acceptorId") String acceptorId);
+package com.pacebookcorp.doragee.repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import com.pacebookcorp.doragee.entity.Friend;
+
+/**
+ * @author Kwon Young
+ */
+public interface FriendRepository extends JpaRepository<Friend, String> {
+	@Query("SELECT x FROM Friend x WHERE x.pairKey=:pairKey")
+	Friend findRelation(@Param("pairKey") String pairKey);
+
+	@Query("SELECT x FROM Friend x WHERE x.pairKey IN :pairKeys")
+	List<Friend> findRelations(@Param("pairKeys") Collection<String> pairKeys);
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT x FROM Friend x WHERE x.pairKey IN :pairKeys")
+	List<Friend> lockRelations(@Param("pairKeys") Collection<String> pairKeys);
+
+	@Modifying(clearAutomatically = true)
+	@Query("UPDATE Friend x "
+		   + "SET x.acceptYn=:acceptYn, x.applierFollowYn=:applierFollowYn, x.acceptFollowYn=:acceptFollowYn, x.modifiedDate=:modifiedDate, "
+		   + "x.version=x.version + 1 "
+		   + "WHERE x.friendPk=:friendPk AND x.version=:version")
+	int updateStatus(@Param("friendPk") String friendPk,
+					 @Param("version") Integer version,
+					 @Param("acceptYn") String acceptYn,
+					 @Param("applierFollowYn") String applierFollowYn,
+					 @Param("acceptFollowYn") String acceptFollowYn,
+					 @Param("modifiedDate") Date modifiedDate);
+
+	@QueryHints({
+		@QueryHint(name = HibernateHints.READ_ONLY, value = "true"),
+		@QueryHint(name = HibernateHints.FETCH_SIZE, value = HibernateHints.STREAMING_FETCH_SIZE)
+	})
+	@Query("SELECT x FROM Friend x")
+	Stream<Friend> streamAll();
+
+	@QueryHints({
+		@QueryHint(name = HibernateHints.READ_ONLY, value = "true"),
+		@QueryHint(name = HibernateHints.FETCH_SIZE, value = HibernateHints.STREAMING_FETCH_SIZE)
+	})
+	@Query("SELECT x FROM Friend x WHERE x.modifiedDate >= :since")
+	Stream<Friend> streamModifiedSince(@Param("since") Date since);
+
+	@Query(value = "(SELECT accp_id AS user_id "
+				   	 + "FROM t_frnd "
+				   	+ "WHERE aply_id=:userId "
+				   	  + "AND accp_yn = 'y' "
+				   	  + "AND aply_folw_yn = 'y'"
+				   + ") "
+				   + "UNION ALL "
+				   + "(SELECT aply_id AS user_id "
+				   	 + "FROM t_frnd "
+				   	+ "WHERE accp_id=:userId "
+				   	  + "AND accp_yn = 'y' "
+				   	  + "AND accp_folw_yn = 'y'"
+				   + ")", nativeQuery = true)
+	List<String> findFolloweeIds(@Param("userId") String userId);
+
+	@Query(value = "(SELECT frnd_pk "
+				   	 + "FROM t_frnd "
+				   	+ "WHERE aply_id=:userId "
+				   	  + "AND mod_ymdt >= :since "
+				   	+ "LIMIT 1"
+				   + ") "
+				   + "UNION ALL "
+				   + "(SELECT frnd_pk "
+				   	 + "FROM t_frnd "
+				   	+ "WHERE accp_id=:userId "
+				   	  + "AND mod_ymdt >= :since "
+				   	+ "LIMIT 1"
+				   + ")", nativeQuery = true)
+	List<String> findModifiedRelationPks(@Param("userId") String userId, @Param("since") Date since);
+
+	@Query(value = "SELECT frnd.user_id "
+				   + "FROM ("
+				   		+ "(SELECT accp_id AS user_id "
+				   		   + "FROM t_frnd "
+				   		  + "WHERE accp_yn = 'y' "
+				   		  	+ "AND aply_folw_yn = 'y'"
+				   		+ ") "
+				   		+ "UNION ALL "
+				   		+ "(SELECT aply_id AS user_id "
+				   		   + "FROM t_frnd "
+				   		  + "WHERE accp_yn = 'y' "
+				   		    + "AND accp_folw_yn = 'y'"
+				   		+ ") "
+				   + ") frnd "
+				  + "GROUP BY frnd.user_id "
+				  + "HAVING COUNT(*) >= :threshold", nativeQuery = true)
+	List<String> findHeavyUserIds(@Param("threshold") int threshold);
 }
\ No newline at end of file
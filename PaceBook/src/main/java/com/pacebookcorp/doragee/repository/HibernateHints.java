@@ -0,0 +1,22 @@
+package com.pacebookcorp.doragee.repository;
+
+/**
+ * 조회 쿼리에 붙이는 Hibernate 힌트
+ *
+ * @author Kwon Young
+ */
+public final class HibernateHints {
+	/**
+	 * 읽기 전용 엔티티로 조회하여 영속성 컨텍스트에 스냅샷을 남기지 않으므로 dirty checking 대상이 아니다.
+	 */
+	public static final String READ_ONLY = "org.hibernate.readOnly";
+
+	/**
+	 * MySQL 드라이버는 fetch size 가 Integer.MIN_VALUE 일 때만 결과를 한 행씩 읽어온다(forward-only 스트리밍).
+	 */
+	public static final String FETCH_SIZE = "org.hibernate.fetchSize";
+	public static final String STREAMING_FETCH_SIZE = "" + Integer.MIN_VALUE;
+
+	private HibernateHints() {
+	}
+}
\ No newline at end of file
@@ -1,43 +1,73 @@
-package com.pacebookcorp.doragee.repository;
-
-import java.util.List;
-
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
-
-import com.pacebookcorp.doragee.entity.Post;
-
-/**
- * @author Kwon Young
- */
-public interface PostRepository extends JpaRepository<Post, String> {
-	@Query(value = "SELECT post.* "
-				   + "FROM t_post post"
-				   	  + ", ("
-				   	  		+ "(SELECT accp_id AS user_id "
-				   	  		   + "FROM t_frnd "
-				   	  		  + "WHERE accp_yn = 'y' "
-				   	  		  	+ "AND aply_folw_yn = 'y' "
-				   	  		  	+ "AND aply_id=:userId"
-				   	  		+ ") "
-				   	  		+ "UNION ALL "
-				   	  		+ "(SELECT aply_id AS user_id "
-				   	  		   + "FROM t_frnd "
-				   	  		  + "WHERE accp_yn = 'y' "
-				   	  		    + "AND accp_folw_yn = 'y'"
-				   	  		    + "AND accp_id=:userId"
-				   	  		+ ") "
-				   	  		+ "UNION ALL "
-				   	  		+ "(SELECT user_id "
-				   	  		   + "FROM t_user "
-				   	  		  + "WHERE user_id=:userId"
-				   	  		+ ") "
-				   	  	+ ") frnd "
-				  + "WHERE post.ownr_id = frnd.user_Id "
-				  + "ORDER BY post.mod_ymdt DESC", nativeQuery = true) 
-	List<Post> newsfeed(@Param("userId") String userId);
-
-	@Query("SELECT p FROM Post p WHERE p.ownerId=:userId")
-	List<Post> timeline(@Param("userId") String userId);
+package com.pacebookcorp.doragee.repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.pacebookcorp.doragee.dto.PostSummary;
+import com.pacebookcorp.doragee.entity.Post;
+
+/**
+ * 뉴스피드, 타임라인 조회 쿼리는 읽기 전용(HibernateHints.READ_ONLY)으로 조회한다.
+ *
+ * @author Kwon Young
+ */
+public interface PostRepository extends JpaRepository<Post, String> {
+	@QueryHints(@QueryHint(name = HibernateHints.READ_ONLY, value = "true"))
+	@Query("SELECT p FROM Post p WHERE p.ownerId=:userId ORDER BY p.modifiedDate DESC, p.postPk DESC")
+	List<Post> timeline(@Param("userId") String userId);
+
+	@Query("SELECT new com.pacebookcorp.doragee.dto.PostSummary(p.postPk, p.ownerId, p.creatorId, SUBSTRING(p.content, 1, " + PostSummary.CONTENT_LENGTH + "), p.modifiedDate) "
+		   + "FROM Post p "
+		  + "WHERE p.ownerId=:userId "
+		  + "ORDER BY p.modifiedDate DESC, p.postPk DESC")
+	List<PostSummary> timelineSummary(@Param("userId") String userId);
+
+	@QueryHints({
+		@QueryHint(name = HibernateHints.READ_ONLY, value = "true"),
+		@QueryHint(name = HibernateHints.FETCH_SIZE, value = HibernateHints.STREAMING_FETCH_SIZE)
+	})
+	@Query("SELECT p FROM Post p WHERE p.ownerId=:userId ORDER BY p.modifiedDate DESC, p.postPk DESC")
+	Stream<Post> streamTimeline(@Param("userId") String userId);
+
+	@QueryHints(@QueryHint(name = HibernateHints.READ_ONLY, value = "true"))
+	@Query("SELECT p FROM Post p WHERE p.postPk IN :postPks")
+	List<Post> findByPostPks(@Param("postPks") Collection<String> postPks);
+
+	@Query("SELECT new com.pacebookcorp.doragee.dto.PostSummary(p.postPk, p.ownerId, p.creatorId, SUBSTRING(p.content, 1, " + PostSummary.CONTENT_LENGTH + "), p.modifiedDate) "
+		   + "FROM Post p "
+		  + "WHERE p.postPk IN :postPks")
+	List<PostSummary> findSummariesByPostPks(@Param("postPks") Collection<String> postPks);
+
+	@QueryHints(@QueryHint(name = HibernateHints.READ_ONLY, value = "true"))
+	@Query("SELECT p FROM Post p "
+		  + "WHERE p.ownerId=:ownerId "
+		  + "ORDER BY p.modifiedDate DESC, p.postPk DESC")
+	List<Post> findLatestByOwner(@Param("ownerId") String ownerId, Pageable pageable);
+
+	@QueryHints(@QueryHint(name = HibernateHints.READ_ONLY, value = "true"))
+	@Query("SELECT p FROM Post p "
+		  + "WHERE p.ownerId=:ownerId "
+		    + "AND (p.modifiedDate < :modifiedDate OR (p.modifiedDate = :modifiedDate AND p.postPk < :postPk)) "
+		  + "ORDER BY p.modifiedDate DESC, p.postPk DESC")
+	List<Post> findOlderByOwner(@Param("ownerId") String ownerId, @Param("modifiedDate") Date modifiedDate, @Param("postPk") String postPk, Pageable pageable);
+
+	@QueryHints(@QueryHint(name = HibernateHints.READ_ONLY, value = "true"))
+	@Query("SELECT p FROM Post p "
+		  + "WHERE p.ownerId IN :ownerIds "
+		    + "AND p.modifiedDate >= :since "
+		    + "AND p.modifiedDate < :until")
+	List<Post> findModifiedByOwners(@Param("ownerIds") Collection<String> ownerIds, @Param("since") Date since, @Param("until") Date until);
+
+	@Query("SELECT DISTINCT p.modifierId FROM Post p WHERE p.modifiedDate >= :since")
+	List<String> findActiveUserIds(@Param("since") Date since, Pageable pageable);
 }
\ No newline at end of file
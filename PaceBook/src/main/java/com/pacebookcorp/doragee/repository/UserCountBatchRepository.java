@@ -0,0 +1,120 @@
+package com.pacebookcorp.doragee.repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pacebookcorp.doragee.entity.UserCount;
+
+/**
+ * 유저별 집계(t_user_cnt)를 JDBC 로 일괄 반영한다.
+ * 변화량은 행이 없다면 입력하고 있다면 더하며(ON DUPLICATE KEY UPDATE), 재집계는 유저 계정 구간별로 t_frnd / t_post 를 잠금 없이 다시 세어 따로 덮어쓴다.
+ *
+ * @author Kwon Young
+ */
+@Repository
+public class UserCountBatchRepository {
+	private static final String ADD = "INSERT INTO t_user_cnt (user_id, frnd_cnt, folwr_cnt, folwg_cnt, post_cnt, mod_ymdt) "
+									  + "VALUES (?, ?, ?, ?, ?, ?) "
+									  + "ON DUPLICATE KEY UPDATE "
+									  + "frnd_cnt=frnd_cnt+VALUES(frnd_cnt), folwr_cnt=folwr_cnt+VALUES(folwr_cnt), "
+									  + "folwg_cnt=folwg_cnt+VALUES(folwg_cnt), post_cnt=post_cnt+VALUES(post_cnt), mod_ymdt=VALUES(mod_ymdt)";
+
+	private static final String SET = "INSERT INTO t_user_cnt (user_id, frnd_cnt, folwr_cnt, folwg_cnt, post_cnt, mod_ymdt) "
+									  + "VALUES (?, ?, ?, ?, ?, ?) "
+									  + "ON DUPLICATE KEY UPDATE "
+									  + "frnd_cnt=VALUES(frnd_cnt), folwr_cnt=VALUES(folwr_cnt), folwg_cnt=VALUES(folwg_cnt), "
+									  + "post_cnt=VALUES(post_cnt), mod_ymdt=VALUES(mod_ymdt)";
+
+	private static final String USER_IDS = "SELECT user_id FROM t_user WHERE user_id > ? ORDER BY user_id LIMIT ?";
+
+	private static final String COUNT = "SELECT u.user_id, "
+											+ "COALESCE(SUM(cnt.frnd), 0), COALESCE(SUM(cnt.folwr), 0), "
+											+ "COALESCE(SUM(cnt.folwg), 0), COALESCE(SUM(cnt.post), 0) "
+									   + "FROM t_user u "
+									   + "LEFT JOIN ("
+											+ "(SELECT aply_id AS user_id, 1 AS frnd, IF(accp_folw_yn = 'y', 1, 0) AS folwr, IF(aply_folw_yn = 'y', 1, 0) AS folwg, 0 AS post "
+											   + "FROM t_frnd "
+											  + "WHERE aply_id BETWEEN ? AND ? "
+												+ "AND accp_yn = 'y'"
+											+ ") "
+											+ "UNION ALL "
+											+ "(SELECT accp_id, 1, IF(aply_folw_yn = 'y', 1, 0), IF(accp_folw_yn = 'y', 1, 0), 0 "
+											   + "FROM t_frnd "
+											  + "WHERE accp_id BETWEEN ? AND ? "
+												+ "AND accp_yn = 'y'"
+											+ ") "
+											+ "UNION ALL "
+											+ "(SELECT ownr_id, 0, 0, 0, 1 "
+											   + "FROM t_post "
+											  + "WHERE ownr_id BETWEEN ? AND ?"
+											+ ")"
+									   + ") cnt ON cnt.user_id = u.user_id "
+									  + "WHERE u.user_id BETWEEN ? AND ? "
+									  + "GROUP BY u.user_id";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/**
+	 * 유저별 변화량을 일괄 더한다. 행이 없는 유저는 변화량으로 입력한다.
+	 * 한 트랜잭션으로 반영하므로 일부만 더해지지 않는다.(실패하면 모두 롤백된다.)
+	 *
+	 * @param deltas 유저별 변화량
+	 */
+	@Transactional
+	public void addAll(List<UserCount> deltas) {
+		List<Object[]> rows = deltas.stream()
+									.map(delta -> new Object[] {delta.getUserId(), delta.getFriendCount(), delta.getFollowerCount(),
+																delta.getFollowingCount(), delta.getPostCount(), delta.getModifiedDate()})
+									.collect(Collectors.toList());
+
+		jdbcTemplate.batchUpdate(ADD, rows);
+	}
+
+	/**
+	 * 유저별 집계를 덮어쓴다. 행이 없는 유저는 입력한다.
+	 *
+	 * @param counts 유저별 집계
+	 */
+	@Transactional
+	public void setAll(List<UserCount> counts) {
+		List<Object[]> rows = counts.stream()
+									.map(count -> new Object[] {count.getUserId(), count.getFriendCount(), count.getFollowerCount(),
+																count.getFollowingCount(), count.getPostCount(), count.getModifiedDate()})
+									.collect(Collectors.toList());
+
+		jdbcTemplate.batchUpdate(SET, rows);
+	}
+
+	/**
+	 * 가입된 유저 계정을 계정 순으로 조회한다.(재집계 구간 나누기)
+	 *
+	 * @param 	after	이 계정 다음부터 조회(처음이면 "")
+	 * @param 	limit	조회할 수
+	 * @return	유저 계정 목록
+	 */
+	public List<String> userIds(String after, int limit) {
+		return jdbcTemplate.queryForList(USER_IDS, String.class, after, limit);
+	}
+
+	/**
+	 * first ~ last 계정 구간 유저들의 집계를 t_frnd / t_post 로 다시 센다.
+	 * 트랜잭션 밖(autocommit)의 잠금 없는 SELECT 이므로 다시 세는 동안 t_frnd / t_post 의 쓰기를 막지 않는다.(INSERT ... SELECT 는 읽는 행에 공유 잠금을 건다.)
+	 *
+	 * @param 	first			구간 첫 계정
+	 * @param 	last			구간 마지막 계정
+	 * @param 	modifiedDate	수정일
+	 * @return	구간 유저별 집계
+	 */
+	public List<UserCount> count(String first, String last, Date modifiedDate) {
+		return jdbcTemplate.query(COUNT,
+								  (rs, rowNum) -> new UserCount(rs.getString(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getInt(5), modifiedDate),
+								  first, last, first, last, first, last, first, last);
+	}
+}
\ No newline at end of file
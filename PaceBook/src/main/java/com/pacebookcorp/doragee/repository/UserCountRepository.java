@@ -0,0 +1,11 @@
+package com.pacebookcorp.doragee.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.pacebookcorp.doragee.entity.UserCount;
+
+/**
+ * @author Kwon Young
+ */
+public interface UserCountRepository extends JpaRepository<UserCount, String> {
+}
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.pacebookcorp.doragee.service;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pacebookcorp.doragee.dto.NewsfeedDelta;
+import com.pacebookcorp.doragee.entity.DeletedPost;
+import com.pacebookcorp.doragee.entity.Post;
+import com.pacebookcorp.doragee.repository.DeletedPostRepository;
+import com.pacebookcorp.doragee.repository.FriendRepository;
+import com.pacebookcorp.doragee.repository.PostRepository;
+import com.pacebookcorp.doragee.util.FeedCursor;
+import com.pacebookcorp.doragee.util.PaceBookUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 워터마크 이후 바뀐 뉴스피드(delta)만 조회하는 클래스
+ * 클라이언트가 뉴스피드 전체를 주기적으로 다시 받는 대신, 이전 응답의 워터마크 이후 작성, 수정된 Post 와 삭제된 Post PK 만 받는다.
+ * 조회 범위는 [since, until) 이며 until 이 다음 워터마크가 된다.
+ * until 은 현재 시각에서 lag 만큼 뺀 초 단위 시각이므로, 아직 커밋되지 않았거나 같은 초에 이어서 입력될 Post 를 놓치지 않는다.
+ * 단, 워터마크는 커밋 순서가 아닌 수정일(mod_ymdt, 트랜잭션 안에서 정한 시각) 기준이므로, 수정일을 정한 뒤 커밋까지 lag 보다 오래 걸린 Post 는 변경분에서 빠진다.
+ * 이런 Post 는 다음 reset(전체 조회)에서 다시 받는다.
+ *
+ * 변경분은 현재 작성자(팔로우 대상)의 Post 만 보므로, 워터마크 이후 유저의 친구 관계(t_frnd)가 바뀌었다면(수락, 끊기, 팔로우, 언팔로우)
+ * 새 작성자의 이전 Post 와 빠진 작성자의 Post 를 알 수 없다. 이때는 뉴스피드 전체를 리턴하고 reset 으로 표시한다.
+ *
+ * @author Kwon Young
+ */
+@Service
+@Slf4j
+public class FeedDeltaService {
+	private static final long MILLIS_PER_SECOND = 1000L;
+
+	@Value("${pacebook.feed.delta.lag-ms:1000}")
+	private long lagMillis;
+
+	@Value("${pacebook.feed.delta.retention-days:30}")
+	private int retentionDays;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private DeletedPostRepository deletedPostRepository;
+
+	@Autowired
+	private FriendRepository friendRepository;
+
+	@Autowired
+	private FeedMergeService feedMergeService;
+
+	/**
+	 * 2-2. 특정 유저의 뉴스피드 변경분 조회
+	 * 워터마크가 없거나 삭제 이력 보관 기간보다 오래되었다면, 또는 워터마크 이후 유저의 친구 관계가 바뀌었다면 뉴스피드 전체를 리턴하고 reset 을 true 로 표시한다.
+	 *
+	 * @param 	userId	특정 유저 계정(id)
+	 * @param 	since	이전 응답의 워터마크(epoch millis), 첫 조회라면 null
+	 * @return	워터마크 이후 작성, 수정된 Post 와 삭제된 Post PK, 다음 워터마크
+	 */
+	@Transactional(readOnly = true)
+	public NewsfeedDelta delta(String userId, Long since) {
+		Date until = watermark(PaceBookUtils.nowDateTime());
+		Set<String> authorIds = feedMergeService.authorIds(userId);
+
+		if (isReset(userId, since, until)) {
+			return new NewsfeedDelta(modified(authorIds, new Date(0L), until), Collections.emptyList(), until.getTime(), true);
+		}
+
+		Date sinceDate = new Date(since);
+
+		return new NewsfeedDelta(modified(authorIds, sinceDate, until),
+								 deletedPostRepository.findDeletedPostPks(authorIds, sinceDate, until),
+								 until.getTime(),
+								 false);
+	}
+
+	/**
+	 * 작성자들의 Post 중 [since, until) 에 작성, 수정된 Post 를 수정일 최신순으로 리턴한다.
+	 * 여러 작성자에 걸친 정렬은 MySQL 에서 filesort 가 되므로, 작성자별 (수정일, PK) 인덱스 범위만 읽고 정렬은 메모리에서 한다.
+	 *
+	 * @param 	authorIds	작성자(Post 주인) 목록
+	 * @param 	since		조회 시작 시각(포함)
+	 * @param 	until		조회 끝 시각(제외)
+	 * @return	수정일 최신순으로 정렬된 Post 목록
+	 */
+	private List<Post> modified(Set<String> authorIds, Date since, Date until) {
+		List<Post> posts = postRepository.findModifiedByOwners(authorIds, since, until);
+
+		posts.sort(FeedCursor.NEWEST_FIRST);
+
+		return posts;
+	}
+
+	/**
+	 * 삭제된 Post 의 PK 를 남긴다.
+	 *
+	 * @param post 삭제된 Post
+	 */
+	@Transactional
+	public void tombstone(Post post) {
+		deletedPostRepository.save(new DeletedPost(post.getPostPk(), post.getOwnerId(), PaceBookUtils.nowDateTime()));
+	}
+
+	/**
+	 * 보관 기간이 지난 삭제 이력을 지운다. 그보다 오래된 워터마크로 조회하면 reset 된다.
+	 */
+	@Scheduled(fixedDelayString = "${pacebook.feed.delta.purge-ms:3600000}")
+	@Transactional
+	public void purge() {
+		int purgedCount = deletedPostRepository.purge(retentionStart(PaceBookUtils.nowDateTime()));
+
+		log.info("deleted post tombstones purged : {}", purgedCount);
+	}
+
+	private boolean isReset(String userId, Long since, Date until) {
+		if (Objects.isNull(since) || since < retentionStart(until).getTime()) {
+			return true;
+		}
+
+		return friendRepository.findModifiedRelationPks(userId, new Date(since)).isEmpty() == false;
+	}
+
+	private Date retentionStart(Date now) {
+		return new Date(now.getTime() - TimeUnit.DAYS.toMillis(retentionDays));
+	}
+
+	/**
+	 * t_post.mod_ymdt(datetime) 와 같은 초 단위로 자른 (현재 - lag) 시각
+	 */
+	private Date watermark(Date now) {
+		return new Date((now.getTime() - lagMillis) / MILLIS_PER_SECOND * MILLIS_PER_SECOND);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,239 @@
+package com.pacebookcorp.doragee.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pacebookcorp.doragee.entity.Post;
+import com.pacebookcorp.doragee.graph.FollowGraph;
+import com.pacebookcorp.doragee.repository.PostRepository;
+import com.pacebookcorp.doragee.util.FeedCursor;
+
+/**
+ * 작성자(Post 주인)별 타임라인을 병합하여 뉴스피드를 만드는 클래스
+ * 친구들의 Post 전체를 조인하여 MySQL 에서 정렬(ORDER BY mod_ymdt)하는 대신,
+ * 팔로우 대상 목록을 한번 구한 뒤 작성자별 최신 Post 를 (수정일, PK) 인덱스 순서 그대로 조금씩 읽어(stream)
+ * 작성자 수만큼의 우선순위 큐로 병합하고, 요청한 건수가 채워지면 바로 멈춘다.
+ * 정렬 비용이 O(전체 Post 수) 에서 O(페이지 크기 * log 작성자 수) 로 줄어든다.
+ *
+ * @author Kwon Young
+ */
+@Service
+public class FeedMergeService {
+	private static final int MAX_CHUNK_SIZE = 200;
+
+	private static final Comparator<AuthorStream> NEWEST_HEAD_FIRST = (left, right) -> FeedCursor.NEWEST_FIRST.compare(left.peek(), right.peek());
+
+	@Value("${pacebook.feed.merge.chunk-size:10}")
+	private int chunkSize;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private FollowGraph followGraph;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * 2. 특정 유저의 뉴스피드 조회
+	 * 팔로우 중인 친구들과 본인의 타임라인을 수정일 최신순으로 모두 병합한다.
+	 *
+	 * @param 	userId 특정 유저 계정(id)
+	 * @return	수정일 최신순으로 정렬된 Post 목록
+	 */
+	@Transactional(readOnly = true)
+	public List<Post> newsfeed(String userId) {
+		return merge(authorIds(userId), null, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * 2-3. 특정 유저의 뉴스피드 스트리밍 조회
+	 * 병합되는 순서대로 consumer 에 넘기고 영속성 컨텍스트에서 떼어내므로, 뉴스피드 크기와 무관하게 작성자별 묶음만큼의 메모리만 쓴다.
+	 *
+	 * @param userId	특정 유저 계정(id)
+	 * @param consumer	Post 를 받아 쓰는 Consumer
+	 */
+	@Transactional(readOnly = true)
+	public void streamNewsfeed(String userId, Consumer<Post> consumer) {
+		iterator(authorIds(userId), null, chunkSize).forEachRemaining(post -> {
+			consumer.accept(post);
+			entityManager.detach(post);
+		});
+	}
+
+	/**
+	 * 뉴스피드에 Post 가 노출되는 작성자 목록 : 팔로우 중인 친구들과 본인
+	 * t_frnd 를 조회하지 않고 메모리의 FollowGraph 에서 팔로우 대상 집합과 본인의 합집합으로 가져온다.
+	 *
+	 * @param 	userId 뉴스피드를 보는 유저
+	 * @return	작성자(Post 주인) 목록
+	 */
+	public Set<String> authorIds(String userId) {
+		return new LinkedHashSet<>(followGraph.authorIds(userId));
+	}
+
+	/**
+	 * 작성자들의 타임라인을 커서 다음부터 수정일 최신순으로 병합하여 limit 건을 리턴한다.
+	 *
+	 * @param 	authorIds	작성자(Post 주인) 목록
+	 * @param 	feedCursor	커서, 첫 페이지라면 null
+	 * @param 	limit		최대 건수
+	 * @return	수정일 최신순으로 정렬된 Post 목록
+	 */
+	@Transactional(readOnly = true)
+	public List<Post> merge(Collection<String> authorIds, FeedCursor feedCursor, int limit) {
+		List<Post> merged = new ArrayList<>(Math.min(limit, MAX_CHUNK_SIZE));
+		Iterator<Post> posts = iterator(authorIds, feedCursor, limit);
+
+		while (merged.size() < limit && posts.hasNext()) {
+			merged.add(posts.next());
+		}
+
+		return merged;
+	}
+
+	/**
+	 * 작성자들의 타임라인을 수정일 최신순으로 하나씩 꺼내는 Iterator 를 리턴한다.
+	 * 작성자별로 읽어둔 Post 를 다 꺼낸 뒤에야 다음 묶음을 읽으므로, 메모리에는 작성자 수만큼의 묶음만 올라간다.
+	 *
+	 * @param 	authorIds		작성자(Post 주인) 목록
+	 * @param 	feedCursor		커서, 첫 페이지라면 null
+	 * @param 	expectedSize	꺼낼 것으로 예상되는 건수, 첫 묶음의 크기를 정하는데 쓴다.
+	 * @return	수정일 최신순 Iterator
+	 */
+	public Iterator<Post> iterator(Collection<String> authorIds, FeedCursor feedCursor, int expectedSize) {
+		int firstChunkSize = Math.max(1, Math.min(expectedSize, chunkSize));
+
+		return new MergeIterator(authorIds, feedCursor, firstChunkSize);
+	}
+
+	/**
+	 * 작성자들의 스트림 중 맨 앞 Post 가 가장 최신인 스트림부터 꺼내는 Iterator
+	 * 방금 꺼낸 스트림은 다음 hasNext() 에서 큐에 다시 넣으므로, 필요한 건수를 채운 뒤에는 더 읽지 않는다.
+	 */
+	private class MergeIterator implements Iterator<Post> {
+		private final PriorityQueue<AuthorStream> heads;
+		private AuthorStream polled;
+
+		private MergeIterator(Collection<String> authorIds, FeedCursor feedCursor, int firstChunkSize) {
+			heads = new PriorityQueue<>(Math.max(1, authorIds.size()), NEWEST_HEAD_FIRST);
+
+			for (String authorId : authorIds) {
+				AuthorStream stream = new AuthorStream(authorId, feedCursor, firstChunkSize);
+
+				if (stream.hasNext()) {
+					heads.add(stream);
+				}
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (Objects.nonNull(polled)) {
+				if (polled.hasNext()) {
+					heads.add(polled);
+				}
+
+				polled = null;
+			}
+
+			return heads.isEmpty() == false;
+		}
+
+		@Override
+		public Post next() {
+			if (hasNext() == false) {
+				throw new NoSuchElementException();
+			}
+
+			polled = heads.poll();
+
+			return polled.next();
+		}
+	}
+
+	/**
+	 * 작성자 한 명의 타임라인을 (수정일, PK) keyset 으로 묶음씩 읽는 스트림
+	 * 묶음 크기는 읽을 때마다 두배씩 늘려(MAX_CHUNK_SIZE 까지) Post 가 많은 작성자도 쿼리 횟수가 log 로 늘어난다.
+	 */
+	private class AuthorStream {
+		private final String authorId;
+		private List<Post> chunk;
+		private int index;
+		private int nextChunkSize;
+		private Date lastModifiedDate;
+		private String lastPostPk;
+		private boolean exhausted;
+
+		private AuthorStream(String authorId, FeedCursor feedCursor, int firstChunkSize) {
+			this.authorId = authorId;
+			this.nextChunkSize = firstChunkSize;
+
+			if (Objects.nonNull(feedCursor)) {
+				this.lastModifiedDate = feedCursor.getModifiedDate();
+				this.lastPostPk = feedCursor.getPostPk();
+			}
+		}
+
+		private boolean hasNext() {
+			if (Objects.nonNull(chunk) && index < chunk.size()) {
+				return true;
+			}
+
+			if (exhausted) {
+				return false;
+			}
+
+			read();
+
+			return index < chunk.size();
+		}
+
+		private Post peek() {
+			return chunk.get(index);
+		}
+
+		private Post next() {
+			Post post = chunk.get(index++);
+
+			lastModifiedDate = post.getModifiedDate();
+			lastPostPk = post.getPostPk();
+
+			return post;
+		}
+
+		private void read() {
+			PageRequest pageRequest = new PageRequest(0, nextChunkSize);
+
+			if (Objects.isNull(lastPostPk)) {
+				chunk = postRepository.findLatestByOwner(authorId, pageRequest);
+			} else {
+				chunk = postRepository.findOlderByOwner(authorId, lastModifiedDate, lastPostPk, pageRequest);
+			}
+
+			index = 0;
+			exhausted = chunk.size() < nextChunkSize;
+			nextChunkSize = Math.min(nextChunkSize * 2, MAX_CHUNK_SIZE);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.pacebookcorp.doragee.service;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.pacebookcorp.doragee.cache.FeedCache;
+import com.pacebookcorp.doragee.dto.FeedCacheStats;
+import com.pacebookcorp.doragee.dto.FeedPrecomputeStats;
+import com.pacebookcorp.doragee.repository.PostRepository;
+import com.pacebookcorp.doragee.util.PaceBookUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 한산한 시간(기본 새벽 5시)에 최근 활동한 유저들의 뉴스피드 첫 페이지 키를 미리 캐시(FeedCache)에 담는 클래스
+ * 아침 조회가 몰리는 시간에 캐시가 비어있어 t_feed 를 한꺼번에 읽는 것(cold start)을 막는다.
+ * 유저별 적재는 뉴스피드 페이지 조회의 캐시 적재(FeedService.warm)와 같은 경로이며, 크기가 정해진 ForkJoinPool 에서 병렬로 실행한다.
+ *
+ * @author Kwon Young
+ */
+@Service
+@Slf4j
+public class FeedPrecomputeService {
+	@Value("${pacebook.feed.precompute.active-hours:24}")
+	private int activeHours;
+
+	@Value("${pacebook.feed.precompute.max-users:10000}")
+	private int maxUsers;
+
+	@Value("${pacebook.feed.precompute.parallelism:4}")
+	private int parallelism;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private FeedService feedService;
+
+	@Autowired
+	private FeedCache feedCache;
+
+	private volatile FeedPrecomputeStats lastRun = new FeedPrecomputeStats();
+
+	/**
+	 * 최근 activeHours 시간 안에 Post 를 작성, 수정한 유저를 최대 maxUsers 명(캐시 크기 이하) 찾아 뉴스피드 첫 페이지 키를 미리 담는다.
+	 * 한 유저의 적재가 실패해도 나머지 유저는 계속 담는다.
+	 */
+	@Scheduled(cron = "${pacebook.feed.precompute.cron:0 0 5 * * *}")
+	public void precompute() {
+		long start = System.nanoTime();
+		Date startedDate = PaceBookUtils.nowDateTime();
+		Date since = new Date(startedDate.getTime() - TimeUnit.HOURS.toMillis(activeHours));
+		int limit = Math.max(1, Math.min(maxUsers, feedCache.getMaxUsers()));
+		List<String> userIds = postRepository.findActiveUserIds(since, new PageRequest(0, limit));
+		LongAdder precomputed = new LongAdder();
+		LongAdder failed = new LongAdder();
+		ForkJoinPool pool = new ForkJoinPool(Math.max(1, parallelism));
+
+		try {
+			pool.submit(() -> userIds.parallelStream().forEach(userId -> {
+				try {
+					feedService.warm(userId);
+					precomputed.increment();
+				} catch (RuntimeException e) {
+					failed.increment();
+					log.warn("newsfeed precompute failed : {}", userId, e);
+				}
+			})).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			log.error("newsfeed precompute stopped", e);
+		} finally {
+			pool.shutdown();
+		}
+
+		long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		lastRun = new FeedPrecomputeStats(startedDate, elapsedMillis, userIds.size(), precomputed.sum(), failed.sum(), 0L, 0L, 0.0);
+
+		log.info("newsfeed precomputed : {} of {} active users, {} failed, {} ms", precomputed.sum(), userIds.size(), failed.sum(), elapsedMillis);
+	}
+
+	/**
+	 * @return	마지막 작업의 시작 시각, 소요 시간, 미리 담은 뉴스피드 수와 미리 담은 뉴스피드의 적중률
+	 */
+	public FeedPrecomputeStats stats() {
+		FeedPrecomputeStats run = lastRun;
+		FeedCacheStats cacheStats = feedCache.stats();
+		long loads = cacheStats.getPrecomputedLoads();
+		long hits = cacheStats.getPrecomputedHits();
+
+		return new FeedPrecomputeStats(run.getLastStartedDate(),
+									   run.getLastElapsedMillis(),
+									   run.getLastActiveUsers(),
+									   run.getLastPrecomputed(),
+									   run.getLastFailed(),
+									   loads,
+									   hits,
+									   loads == 0L ? 0.0 : (double) hits / loads);
+	}
+}
\ No newline at end of file
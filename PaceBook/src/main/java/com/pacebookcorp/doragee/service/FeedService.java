@@ -0,0 +1,348 @@
+package com.pacebookcorp.doragee.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pacebookcorp.doragee.cache.FeedCache;
+import com.pacebookcorp.doragee.dto.PostPage;
+import com.pacebookcorp.doragee.dto.PostSummary;
+import com.pacebookcorp.doragee.dto.PostSummaryPage;
+import com.pacebookcorp.doragee.entity.Feed;
+import com.pacebookcorp.doragee.entity.Post;
+import com.pacebookcorp.doragee.repository.FeedRepository;
+import com.pacebookcorp.doragee.repository.PostRepository;
+import com.pacebookcorp.doragee.util.FeedCursor;
+import com.pacebookcorp.doragee.util.PaceBookUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 뉴스피드 테이블(t_feed)을 관리하는 클래스
+ * Post 가 작성, 수정, 삭제되거나 팔로우 관계가 바뀌는 시점(쓰기)에 뉴스피드를 미리 펼쳐두어(fan-out on write),
+ * 읽기가 훨씬 많은 뉴스피드 조회는 viewer_id 인덱스 탐색 한번으로 끝나도록 한다.
+ * 뉴스피드 키 캐시(FeedCache)는 롤백되지 않으므로 t_feed 를 바꾼 트랜잭션이 커밋된 뒤에 고친다.
+ *
+ * @author Kwon Young
+ */
+@Service
+@Slf4j
+public class FeedService {
+	@Autowired
+	private FeedRepository feedRepository;
+
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private HeavyUserService heavyUserService;
+
+	@Autowired
+	private FeedCache feedCache;
+
+	@Autowired
+	private FeedMergeService feedMergeService;
+
+	/**
+	 * 2-1. 특정 유저의 뉴스피드 페이지 조회
+	 * t_feed 에서 viewer_id 로 (수정일, PK) 인덱스 범위를 커서부터 size + 1 건만 읽는다.
+	 * 캐시(FeedCache)에 담긴 최신 N 건으로 채울 수 있는 페이지라면 t_feed 를 읽지 않고 t_post 를 PK 로만 조회한다.
+	 * 팔로우 중인 heavy 유저가 있다면 그 유저들의 타임라인도 커서부터 같은 건수만큼 가져와(pull) 병합한다.
+	 *
+	 * @param 	userId	특정 유저 계정(id)
+	 * @param 	cursor	이전 페이지에서 리턴받은 커서, 비어있다면 첫 페이지를 조회한다.
+	 * @param 	size	한 페이지에 담을 Post 수, 비어있다면 기본값(20)
+	 * @return	뉴스피드 한 페이지와 다음 페이지 커서, 마지막 페이지라면 다음 페이지 커서는 null 이다.
+	 */
+	@Transactional(readOnly = true)
+	public PostPage newsfeed(String userId, String cursor, Integer size) {
+		int pageSize = PaceBookUtils.pageSize(size);
+		PageRequest pageRequest = new PageRequest(0, pageSize + 1);
+		FeedCursor feedCursor = FeedCursor.isFirstPage(cursor) ? null : FeedCursor.decode(cursor);
+		List<String> postPks = cachedPostPks(userId, feedCursor, pageSize + 1);
+		List<Post> posts;
+
+		if (Objects.nonNull(postPks)) {
+			log.debug("newsfeed cache hit : {}", userId);
+
+			posts = postPks.isEmpty() ? new ArrayList<>() : ordered(postPks, postRepository.findByPostPks(postPks), Post::getPostPk);
+		} else if (Objects.isNull(feedCursor)) {
+			posts = feedRepository.newsfeedFirstPage(userId, pageRequest);
+		} else {
+			posts = feedRepository.newsfeedNextPage(userId, feedCursor.getModifiedDate(), feedCursor.getPostPk(), pageRequest);
+		}
+
+		Set<String> heavyFolloweeIds = heavyUserService.heavyFolloweeIds(userId);
+
+		if (heavyFolloweeIds.isEmpty() == false) {
+			long start = System.nanoTime();
+
+			posts = merge(posts, feedMergeService.merge(heavyFolloweeIds, feedCursor, pageSize + 1), pageSize + 1, FeedCursor.NEWEST_FIRST, Post::getPostPk);
+
+			heavyUserService.recordMerge(System.nanoTime() - start);
+		}
+
+		return PostPage.of(posts, pageSize);
+	}
+
+	/**
+	 * 2-1-1. 특정 유저의 뉴스피드 요약 페이지 조회
+	 * 뉴스피드 페이지 조회와 같은 경로(캐시, t_feed 인덱스 범위)로 읽되, 엔티티 대신 요약 컬럼만 projection 으로 조회하여
+	 * 내용(content)은 앞 PostSummary.CONTENT_LENGTH 자만 읽는다.
+	 * heavy 유저에게서 가져오는(pull) Post 는 FeedMergeService 가 엔티티로 읽으므로 병합 전에 요약으로 바꾼다.
+	 *
+	 * @param 	userId	특정 유저 계정(id)
+	 * @param 	cursor	이전 페이지에서 리턴받은 커서, 비어있다면 첫 페이지를 조회한다.
+	 * @param 	size	한 페이지에 담을 Post 수, 비어있다면 기본값(20)
+	 * @return	뉴스피드 요약 한 페이지와 다음 페이지 커서, 마지막 페이지라면 다음 페이지 커서는 null 이다.
+	 */
+	@Transactional(readOnly = true)
+	public PostSummaryPage newsfeedSummary(String userId, String cursor, Integer size) {
+		int pageSize = PaceBookUtils.pageSize(size);
+		PageRequest pageRequest = new PageRequest(0, pageSize + 1);
+		FeedCursor feedCursor = FeedCursor.isFirstPage(cursor) ? null : FeedCursor.decode(cursor);
+		List<String> postPks = cachedPostPks(userId, feedCursor, pageSize + 1);
+		List<PostSummary> summaries;
+
+		if (Objects.nonNull(postPks)) {
+			log.debug("newsfeed summary cache hit : {}", userId);
+
+			summaries = postPks.isEmpty() ? new ArrayList<>() : ordered(postPks, postRepository.findSummariesByPostPks(postPks), PostSummary::getPostPk);
+		} else if (Objects.isNull(feedCursor)) {
+			summaries = feedRepository.newsfeedSummaryFirstPage(userId, pageRequest);
+		} else {
+			summaries = feedRepository.newsfeedSummaryNextPage(userId, feedCursor.getModifiedDate(), feedCursor.getPostPk(), pageRequest);
+		}
+
+		Set<String> heavyFolloweeIds = heavyUserService.heavyFolloweeIds(userId);
+
+		if (heavyFolloweeIds.isEmpty() == false) {
+			long start = System.nanoTime();
+			List<PostSummary> pulled = feedMergeService.merge(heavyFolloweeIds, feedCursor, pageSize + 1)
+													   .stream()
+													   .map(PostSummary::of)
+													   .collect(Collectors.toList());
+
+			summaries = merge(summaries, pulled, pageSize + 1, PostSummary.NEWEST_FIRST, PostSummary::getPostPk);
+
+			heavyUserService.recordMerge(System.nanoTime() - start);
+		}
+
+		return PostSummaryPage.of(summaries, pageSize);
+	}
+
+	/**
+	 * 캐시에 담긴 뉴스피드 Post PK 를 조회한다.
+	 * 캐시되지 않은 유저의 첫 페이지 조회라면 t_feed 에서 최신 N 건의 키를 읽어 캐시에 담는다.
+	 *
+	 * @param 	userId		뉴스피드를 보는 유저
+	 * @param 	feedCursor	커서, 첫 페이지라면 null
+	 * @param 	limit		size + 1 건
+	 * @return	수정일 최신순으로 정렬된 Post PK 목록, 캐시로 채울 수 없는 페이지라면 null
+	 */
+	private List<String> cachedPostPks(String userId, FeedCursor feedCursor, int limit) {
+		if (limit > feedCache.getFeedSize()) {
+			return null;
+		}
+
+		List<String> postPks = feedCache.window(userId, feedCursor, limit);
+
+		if (Objects.isNull(postPks) && Objects.isNull(feedCursor)) {
+			List<Feed> feeds = loadCache(userId, false);
+
+			postPks = feeds.stream()
+						   .limit(limit)
+						   .map(Feed::getPostPk)
+						   .collect(Collectors.toList());
+		}
+
+		return postPks;
+	}
+
+	/**
+	 * PK 로 조회한 결과(순서 없음)를 캐시에 담긴 PK 순서대로 정렬한다. 그 사이 삭제된 Post 는 빠진다.
+	 *
+	 * @param 	postPks	수정일 최신순으로 정렬된 Post PK 목록
+	 * @param 	found	PK 로 조회된 Post 또는 요약
+	 * @param 	postPk	Post PK 를 꺼내는 함수
+	 * @return	postPks 순서대로 정렬된 목록
+	 */
+	private <T> List<T> ordered(List<String> postPks, List<T> found, Function<T, String> postPk) {
+		Map<String, T> byPostPk = found.stream()
+									   .collect(Collectors.toMap(postPk, Function.identity()));
+
+		return postPks.stream()
+					  .map(byPostPk::get)
+					  .filter(Objects::nonNull)
+					  .collect(Collectors.toList());
+	}
+
+	/**
+	 * t_feed 에서 최신 N 건의 키를 읽어 캐시에 담는다.
+	 * 읽기 전에 스탬프를 받아두어, 읽는 도중 커밋된 쓰기가 캐시를 고쳤다면(빠진 채로 읽었을 수 있으므로) 담지 않는다.
+	 *
+	 * @param 	userId		뉴스피드를 보는 유저
+	 * @param 	precomputed	조회 전에 미리 담아두는 것이라면 true
+	 * @return	수정일 최신순으로 정렬된 최대 N 건의 뉴스피드
+	 */
+	private List<Feed> loadCache(String userId, boolean precomputed) {
+		long stamp = feedCache.stamp(userId);
+		List<Feed> feeds = feedRepository.findLatest(userId, new PageRequest(0, feedCache.getFeedSize()));
+
+		feedCache.load(userId, feeds, feeds.size() == feedCache.getFeedSize(), precomputed, stamp);
+
+		return feeds;
+	}
+
+	/**
+	 * 뉴스피드 첫 페이지 조회가 읽을 최신 N 건의 키를 미리 캐시에 담는다.
+	 * 뉴스피드 페이지 조회의 캐시 적재와 같은 경로이므로, 이후 첫 페이지 조회는 t_feed 를 읽지 않고 t_post 를 PK 로만 조회한다.
+	 *
+	 * @param userId 뉴스피드를 보는 유저
+	 */
+	@Transactional(readOnly = true)
+	public void warm(String userId) {
+		loadCache(userId, true);
+	}
+
+	/**
+	 * 정렬된 두 목록을 수정일 최신순으로 병합하며 limit 건이 차면 멈춘다.
+	 * heavy 로 분류되기 전에 펼쳐둔 Post 가 양쪽에 모두 있을 수 있으므로 PK 로 중복을 제거한다.
+	 *
+	 * @param 	pushed	t_feed 에서 읽은 Post(또는 요약) 목록
+	 * @param 	pulled	heavy 유저들에게서 가져온 Post(또는 요약) 목록
+	 * @param 	limit	최대 건수
+	 * @param 	order	정렬 기준(수정일 최신순)
+	 * @param 	postPk	Post PK 를 꺼내는 함수
+	 * @return	병합된 목록
+	 */
+	private <T> List<T> merge(List<T> pushed, List<T> pulled, int limit, Comparator<T> order, Function<T, String> postPk) {
+		List<T> merged = new ArrayList<>(limit);
+		Set<String> postPks = new HashSet<>();
+		int i = 0;
+		int j = 0;
+
+		while (merged.size() < limit && (i < pushed.size() || j < pulled.size())) {
+			T next;
+
+			if (j >= pulled.size() || (i < pushed.size() && order.compare(pushed.get(i), pulled.get(j)) <= 0)) {
+				next = pushed.get(i++);
+			} else {
+				next = pulled.get(j++);
+			}
+
+			if (postPks.add(postPk.apply(next))) {
+				merged.add(next);
+			}
+		}
+
+		return merged;
+	}
+
+	/**
+	 * 작성된 Post 를 Post 주인과, Post 주인을 팔로우하는 친구들의 뉴스피드에 펼친다.
+	 * Post 주인이 heavy 유저라면 Post 주인의 뉴스피드에만 넣고, 팔로워들은 조회 시점에 가져간다(pull).
+	 * 펼쳐진 뉴스피드가 캐시된 유저라면 커밋된 뒤 캐시에도 넣는다.
+	 *
+	 * @param post 작성된 Post
+	 */
+	@Transactional
+	public void push(Post post) {
+		if (heavyUserService.isHeavy(post.getOwnerId())) {
+			feedRepository.save(new Feed(post.getOwnerId(), post.getPostPk(), post.getOwnerId(), post.getModifiedDate()));
+			putCache(Arrays.asList(post.getOwnerId()), post);
+
+			return;
+		}
+
+		int viewerCount = feedRepository.push(post.getPostPk(), post.getOwnerId(), post.getModifiedDate());
+
+		putCache(feedRepository.findViewerIds(post.getPostPk()), post);
+
+		log.debug("push feed : {}, {} viewers", post.getPostPk(), viewerCount);
+	}
+
+	/**
+	 * 커밋된 뒤 Post 가 펼쳐진 뉴스피드 중 캐시된 유저의 캐시에 넣는다(이미 있다면 수정일 위치로 옮긴다).
+	 *
+	 * @param viewerIds	Post 가 펼쳐진 뉴스피드의 유저 목록
+	 * @param post		작성, 수정된 Post
+	 */
+	private void putCache(List<String> viewerIds, Post post) {
+		String postPk = post.getPostPk();
+		Date modifiedDate = post.getModifiedDate();
+
+		PaceBookUtils.afterCommit(() -> viewerIds.forEach(viewerId -> feedCache.put(viewerId, postPk, modifiedDate)));
+	}
+
+	/**
+	 * 수정된 Post 의 수정일을 이미 펼쳐진 뉴스피드에 반영하여 뉴스피드 최상단으로 올린다.
+	 *
+	 * @param post 수정된 Post
+	 */
+	@Transactional
+	public void refresh(Post post) {
+		feedRepository.refresh(post.getPostPk(), post.getModifiedDate());
+
+		putCache(feedRepository.findViewerIds(post.getPostPk()), post);
+	}
+
+	/**
+	 * 삭제된 Post 를 모든 뉴스피드에서 지우고, 커밋된 뒤 캐시에서도 뺀다.
+	 *
+	 * @param post 삭제된 Post
+	 */
+	@Transactional
+	public void remove(Post post) {
+		List<String> viewerIds = feedRepository.findViewerIds(post.getPostPk());
+
+		feedRepository.remove(post.getPostPk());
+
+		String postPk = post.getPostPk();
+
+		PaceBookUtils.afterCommit(() -> viewerIds.forEach(viewerId -> feedCache.remove(viewerId, postPk)));
+	}
+
+	/**
+	 * 팔로우가 활성화 되면 팔로우 대상(ownerId)의 기존 Post 를 팔로우 주체(viewerId)의 뉴스피드에 채운다.
+	 * 팔로우 대상이 heavy 유저라면 조회 시점에 가져가므로 채우지 않는다.
+	 * 기존 Post 가 뉴스피드 중간중간에 채워지므로 팔로우 주체의 캐시는 커밋된 뒤 비운다.
+	 *
+	 * @param viewerId	팔로우 주체
+	 * @param ownerId	팔로우 대상
+	 */
+	@Transactional
+	public void follow(String viewerId, String ownerId) {
+		if (heavyUserService.isHeavy(ownerId)) {
+			return;
+		}
+
+		feedRepository.pushAll(viewerId, ownerId);
+		PaceBookUtils.afterCommit(() -> feedCache.invalidate(viewerId));
+	}
+
+	/**
+	 * 팔로우가 비활성화 되면 팔로우 대상(ownerId)의 Post 를 팔로우 주체(viewerId)의 뉴스피드에서 지우고 커밋된 뒤 캐시를 비운다.
+	 *
+	 * @param viewerId	팔로우 주체
+	 * @param ownerId	팔로우 대상
+	 */
+	@Transactional
+	public void unfollow(String viewerId, String ownerId) {
+		feedRepository.removeAll(viewerId, ownerId);
+		PaceBookUtils.afterCommit(() -> feedCache.invalidate(viewerId));
+	}
+}
\ No newline at end of file
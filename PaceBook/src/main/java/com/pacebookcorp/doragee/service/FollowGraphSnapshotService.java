@@ -0,0 +1,109 @@
+package com.pacebookcorp.doragee.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Date;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.pacebookcorp.doragee.graph.FollowGraph;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 친구 관계 그래프(FollowGraph)의 스냅샷 파일을 주기적으로, 그리고 서버 종료 때 쓰고, 서버 기동 때 읽는 클래스
+ * 서버 기동 때 FriendService 가 t_frnd 전체 대신 스냅샷을 담고, 워터마크 이후 바뀐 관계만 t_frnd 에서 다시 읽는다.
+ *
+ * mod_ymdt 는 초 단위이고 커밋 순서와 다를 수 있으므로, 워터마크보다 replayLag 만큼 앞선 시각부터 다시 읽는다.
+ * 관계를 다시 담는 것(FollowGraph.put)은 몇 번이든 결과가 같다.
+ * 경로가 비어있다면 스냅샷을 쓰지 않는다.
+ *
+ * @author Kwon Young
+ */
+@Service
+@Slf4j
+public class FollowGraphSnapshotService {
+	@Value("${pacebook.follow-graph.snapshot.path:}")
+	private String path;
+
+	@Value("${pacebook.follow-graph.snapshot.replay-lag-ms:60000}")
+	private long replayLagMillis;
+
+	@Autowired
+	private FollowGraph followGraph;
+
+	private volatile boolean started;
+
+	/**
+	 * 스냅샷 파일을 FollowGraph 에 담는다.
+	 *
+	 * @return	t_frnd 에서 다시 읽어야 할 시작 시각(mod_ymdt), 스냅샷이 없거나 깨졌거나 비어있다면 null(t_frnd 전체를 읽어야 한다.)
+	 */
+	public Date restore() {
+		if (StringUtils.isBlank(path) || Files.notExists(Paths.get(path))) {
+			return null;
+		}
+
+		long startNanos = System.nanoTime();
+		long watermark;
+
+		try {
+			watermark = followGraph.load(Paths.get(path));
+		} catch (IOException | RuntimeException e) {
+			log.warn("follow graph snapshot is not loaded : {}", path, e);
+			return null;
+		}
+
+		if (watermark <= 0) {
+			return null;
+		}
+
+		log.info("follow graph snapshot loaded : {}, {} users, {} relations, {} ms", path, followGraph.userCount(), followGraph.relationCount(),
+				 (System.nanoTime() - startNanos) / 1_000_000);
+
+		return new Date(watermark - replayLagMillis);
+	}
+
+	/**
+	 * 서버 기동 때 그래프를 모두 담은 뒤 호출한다. 이 전에는 담다 만 그래프로 스냅샷을 덮어쓰지 않도록 쓰지 않는다.
+	 */
+	public void start() {
+		started = true;
+	}
+
+	/**
+	 * 현재 그래프를 스냅샷 파일로 쓴다. 실패하면 이전 스냅샷이 그대로 남는다.
+	 */
+	@Scheduled(fixedDelayString = "${pacebook.follow-graph.snapshot.interval-ms:600000}")
+	public void save() {
+		if (StringUtils.isBlank(path) || started == false) {
+			return;
+		}
+
+		Path snapshotPath = Paths.get(path);
+
+		try {
+			long watermark = followGraph.save(snapshotPath);
+
+			log.info("follow graph snapshot saved : {}, watermark {}", snapshotPath, watermark);
+		} catch (IOException e) {
+			log.error("follow graph snapshot is not saved : {}", snapshotPath, e);
+		}
+	}
+
+	/**
+	 * 서버 종료 전 스냅샷을 쓴다.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		save();
+	}
+}
\ No newline at end of file
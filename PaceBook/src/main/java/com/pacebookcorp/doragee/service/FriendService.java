@@ -1,352 +1,900 @@
-package com.pacebookcorp.doragee.service;
-
-import java.util.Objects;
-
-import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.StringUtils;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Service;
-
-import com.pacebookcorp.doragee.entity.Friend;
-import com.pacebookcorp.doragee.repository.FriendRepository;
-import com.pacebookcorp.doragee.repository.UserRepository;
-import com.pacebookcorp.doragee.util.PaceBookUtils;
-
-/**
- * PaceBook 서비스의 친구 관련 기능(맺기, 끊기, 팔로우, 언팔로우)을 담당하는 클래스
- * 
- * @author Kwon Young
- */
-@Service
-public class FriendService {
-	private static final int VALID_APLLY_FRIEND_COUNT = 2;
-	private static final String FRIEND_PK_PREFIX = "frnd";
-
-	private static final String APPLIERID = "applierId";
-	private static final String ACCEPTORID = "acceptorId";
-
-	@Autowired
-	private UserRepository userRepository;
-
-	@Autowired
-	private FriendRepository friendRepository;
-
-	/**
-	 * 친구를 신청하기전 신청자, 수락자의 유효성 체크를 한다.
-	 * 1. 첫번째 IF : 아이디의 유효성,
-	 * 2. 두번째 IF : 신청자 및 수락자 모두 User Table 에 존재해야 하므로 리턴값이 2명이어야 한다,
-	 * 3. 세번째 IF : 기존에 둘중 하나가 친구 신청한 이력이 없어야 한다.
-	 *  
-	 * @param 	friend	 : applierId(신청자), acceptorId(수락자) 만 입력받는다.
-	 * @return	true 를 리턴한다면 친구 신청이 가능하다.
-	 */
-	public boolean isValidApply(Friend friend) {
-		String applierId = friend.getApplierId();
-		String acceptorId = friend.getAcceptorId();
-
-		if (PaceBookUtils.isInvalidUserIds(applierId, acceptorId)) {
-			return false;
-		}
-
-		if (CollectionUtils.size(userRepository.findUsers(applierId, acceptorId)) != VALID_APLLY_FRIEND_COUNT) {
-			return false;
-		}
- 
-		if (Objects.isNull(friendRepository.existFriendRelation(applierId, acceptorId)) == false) {
-			return false;
-		}
-
-		return true;
-	}
-
-	/**
-	 * isValidApplyFriend 의 부정 함수 : 친구 신청 불가능 여부를 리턴한다.
-	 * 
-	 * @param 	friend	 : applierId(신청자), acceptorId(수락자) 만 입력받는다.
-	 * @return	true 를 리턴한다면 친구 신청이 불가능하다.
-	 */
-	public boolean isInvalidApply(Friend friend) {
-		return isValidApply(friend) == false;
-	}
-	
-	/**
-	 * 5. 친구 신청
-	 * 
-	 * @param	friend	 : applierId(친구신청자), acceptorId(친구수락자) 만 입력받는다.
-	 * @return	친구신청자가 친구수락자에게 친구 신청을 보내고 친구 신청 이력을 리턴받는다. 리턴받는 항목은 아직 친구 수락 전이므로 수락여부(acceptYn=n), 친구신청자가 친구수락자를 팔로우 여부(applierFollowYn=n), 친구수락자가 친구신청자를 팔로우 여부(acceptFollowYn=n) 이다. 추후, 친구수락자가 승인을 해야 수락 및 팔로우 모두 y로 바뀐다.
-	 */
-	public Friend apply(Friend friend) {
-		setCreate(friend);
-
-		return friendRepository.save(friend);
-	}	
-
-	/**
-	 * Friend 테이블에 입력될 친구관계 객체 정보
-	 * 
-	 * @param 	friend	 : applierId(신청자), acceptorId(수락자) 만 입력받는다.
-	 * @return	신청자가 수락자에게 친구 신청을 보낸 상태를 리턴받고 리턴받는 항목은 수락여부(n), 신청자가 수락자를 팔로우 여부(n), 수락자가 신청자를 팔로우 여부(n) 이다. 추후, 수락자가 승인을 해야 수락 및 팔로우 모두 y로 바뀐다.
-	 */
-	private void setCreate(Friend friend) {
-		friend.setFriendPk(PaceBookUtils.generatePrivateKey(FRIEND_PK_PREFIX));
-		friend.setAcceptYn(PaceBookUtils.NO);
-		friend.setAcceptFollowYn(PaceBookUtils.NO);
-		friend.setApplierFollowYn(PaceBookUtils.NO);
-		friend.setCreatedDate(PaceBookUtils.nowDateTime());
-		friend.setModifiedDate(PaceBookUtils.nowDateTime());
-	}
-
-	/**
-	 * 친구 신청을 수락하기 전 유효성 체크
-	 * 첫번째 IF : 신청자, 수락자 아이디의 유효성 체크,
-	 * 두번째 IF : 친구 신청이 수락에 앞서 먼저 친구 신청한 이력이 있어야 한다.
-	 * 
-	 * @param	friend	 : applierId(신청자), acceptorId(수락자) 만 입력받는다.
-	 * @return	친구 신청한 이력이 있다면 true 를 리턴한다.
-	 */
-	public boolean existNotAccptedFriendRelation(String applierId, String acceptorId) {
-		if (PaceBookUtils.isInvalidUserIds(applierId, acceptorId)) {
-			return false;
-		}
-
-		if (Objects.isNull(friendRepository.findNotAccptedFriendRelation(applierId, acceptorId))) {
-			return false;
-		}
-
-		return true;
-	}
-
-	/**
-	 * existNotAccptedFriendRelation 의 부정 함수
-	 * 
-	 * @param	friend	 : applierId(신청자), acceptorId(수락자) 만 입력받는다.
-	 * @return	친구 신청한 이력이 없다면 true 를 리턴한다.
-	 */
-	public boolean notExistNotAccptedFriendRelation(String applierId, String acceptorId) {
-		return existNotAccptedFriendRelation(applierId, acceptorId) == false;
-	}
-
-	/**
-	 * 6. 친구 수락
-	 * 
-	 * @param	friend	 : applierId(친구신청자), acceptorId(친구수락자) 만 입력받는다.
-	 * @return	친구수락자가 친구신청자의 친구 신청을 수락하며 쌍방간에 팔로우가 활성화 된다. 친구수락여부(acceptYn=y), 친구신청자가 친구수락자를 팔로우 여부(applierFollowYn=y), 친구수락자가 친구신청자를 팔로우 여부(acceptFollowYn=y) 이다. 
-	 */
-	public Friend accept(Friend friend) {
-		Friend findFriend = friendRepository.findNotAccptedFriendRelation(friend.getApplierId(), friend.getAcceptorId());
-
-		setFriendStatus(findFriend, PaceBookUtils.YES);
-
-		return friendRepository.save(findFriend);
-	}
-
-	/**
-	 * 친구 관계의 항목값을 변경한다.
-	 * 
-	 * @param friend	: 친구 수락, 신청자가 수락자를 팔로우, 수락자가 신청자를 팔로우 여부를 변경한다.
-	 * @param acceptYn	: 수락(y), 끊기(n)
-	 */	
-	private void setFriendStatus(Friend friend, String acceptYn) {
-		friend.setAcceptYn(acceptYn);
-		friend.setApplierFollowYn(acceptYn);
-		friend.setAcceptFollowYn(acceptYn);
-		friend.setModifiedDate(PaceBookUtils.nowDateTime());
-	}
-	
-	/**
-	 * 친구 관계를 끊거나 언팔, 팔로우 하기 위해선 먼저 '친구' 였는지부터 검사하는 함수
-	 * 기존에 친구 관계라면 true 를 리턴한다.
-	 * 첫번째 IF : 아이디의 유효성 체크
-	 * 두번째 IF : 기존에 친구 관계가 존재해야 언팔, 및 친구 관계를 끊을 수 있다.
-	 * 
-	 * @param	friend	 : applierId(신청자), acceptorId(수락자) 만 입력받는다.
-	 * @return	
-	 */
-	public boolean isValidAccepted(Friend friend) {
-		String applierId = friend.getApplierId();
-		String acceptorId = friend.getAcceptorId();	
-		
-		if (PaceBookUtils.isInvalidUserIds(applierId, acceptorId)) {
-			return false;
-		}
-
-		if (Objects.isNull(friendRepository.findAcceptedFriendRelation(applierId, acceptorId))){
-			return false;
-		}
-		
-		return true;
-	}
-
-	/**
-	 * isValidAcceptedFriend 의 부정 함수
-	 * 
-	 * @param	friend	 : applierId(신청자), acceptorId(수락자) 만 입력받는다.
-	 * @return	기존에 친구 관계가 아니라면 true 를 리턴한다.
-	 */
-	public boolean isInvalidAccepted(Friend friend) {
-		return isValidAccepted(friend) == false;
-	}
-	
-	/**
-	 * 팔로우를 맺기전 친구 관계에서 팔로우 여부가 아닌지 체크하는 함수
-	 * 
-	 * @param friend	 : applierId(신청자), acceptorId(수락자) 만 입력받는다.
-	 * @param follower	팔로우 주체를 리턴받는다.
-	 * @return
-	 */
-	public boolean isValidUnFollower(Friend friend, String follower) {
-		String applierId = friend.getApplierId();
-		String acceptorId = friend.getAcceptorId();	
-
-		if (PaceBookUtils.isInvalidUserIds(applierId, acceptorId)) {
-			return false;
-		}
-
-		if (StringUtils.equals(APPLIERID, follower) && Objects.isNull(friendRepository.existApplierIsUnFollower(applierId, acceptorId)) == false) {
-			return true;
-		}
-
-		if (StringUtils.equals(ACCEPTORID, follower) && Objects.isNull(friendRepository.existAcceptorIsUnFollower(applierId, acceptorId)) == false) {
-			return true;
-		}
-		
-		return false;
-	}
-
-	/**
-	 * isValidUnFollower 의 부정함수
-	 * 
-	 * @param friend	 : applierId(신청자), acceptorId(수락자) 만 입력받는다.
-	 * @param follower	 팔로우 주체를 리턴받는다.
-	 */
-	public boolean isInvalidUnFollower(Friend friend, String follower) {
-		return isValidUnFollower(friend, follower) == false;
-	}
-	/**
-	 * 팔로우를 끊기전 친구 관계에서 팔로우 여부인지 체크하는 함수 
-	 * 
-	 * @param friend	 : applierId(신청자), acceptorId(수락자) 만 입력받는다.
-	 * @param unfollower	언팔할 주체를 리턴받는다.
-	 * @return
-	 */
-	public boolean isValidFollower(Friend friend, String unfollower) {
-		String applierId = friend.getApplierId();
-		String acceptorId = friend.getAcceptorId();	
-
-		if (PaceBookUtils.isInvalidUserIds(applierId, acceptorId)) {
-			return false;
-		}
-
-		if (StringUtils.equals(APPLIERID, unfollower) && Objects.isNull(friendRepository.existApplierIsFollower(applierId, acceptorId)) == false) {
-			return true;
-		}
-
-		if (StringUtils.equals(ACCEPTORID, unfollower) && Objects.isNull(friendRepository.existAcceptorIsFollower(applierId, acceptorId)) == false) {
-			return true;
-		}
-		
-		return false;
-	}
-
-	/**
-	 * isValidFollower 의 부정함수
-	 * 
-	 * @param friend	 : applierId(신청자), acceptorId(수락자) 만 입력받는다.
-	 * @param unfollower	언팔할 주체를 리턴받는다.
-	 */
-	public boolean isInvalidFollwer(Friend friend, String unfollower) {
-		return isValidFollower(friend, unfollower) == false;
-	}
-	/**
-	 * Follower 의 주체가 신청자인지 수락자인지 명확해야 한다. 파라메터 어뷰징 방지 가드로직
-	 * 
-	 * @param 	follower	: applierId or acceptorId 
-	 * @return	주체가 신청자, 수락자 중 하나라면 true 를 리턴한다.
-	 */
-	public boolean isValidFollowAgent(String follower) {
-		if (StringUtils.equals(APPLIERID, follower)) {
-			return true;
-		}
-
-		if (StringUtils.equals(ACCEPTORID, follower)) {
-			return true;
-		}
-		
-		return false;
-	}
-
-	/**
-	 * isValidFollowAgent 의 부정 함수
-	 * 
-	 * @param 	follower	: applierId or acceptorId 
-	 * @return	주체가 신청자, 수락자도 아닌 어뷰징 파라미터라면 true 를 리턴한다.
-	 */
-	public boolean isInvalidFollowAgent(String follower) {
-		return isValidFollowAgent(follower) == false;
-	}
-
-	/**
-	 * 7. 친구 끊기
-	 * 
-	 * @param	friend	 : applierId(친구신청자), acceptorId(친구수락자) 만 입력받는다.
-	 * @return	친구 관계가 끊긴다면 친구신청자, 친구수락자 서로를 팔로우 하지 않고 친구 관계 여부도 n 으로 변경된다.
-	 */
-	public Friend end(Friend friend) {
-		Friend endfriend = friendRepository.findAcceptedFriendRelation(friend.getApplierId(), friend.getAcceptorId());
-
-		setFriendStatus(endfriend, PaceBookUtils.NO);
-
-		return friendRepository.save(endfriend);
-	}
-
-	/**
-	 * 8. 친구 관계에 있는 사람 팔로우 맺기
-	 * 친구 관계가 수락된다면 자동으로 서로 팔로우는 맺어지지만, 친구 관계더라도 팔로우는 끊고 다시 맺을 수 있기 때문에 팔로우 맺는 기능이 있어야 한다.
-	 * 단, Friend 객체(Table) 에서 팔로우의 방향성(친구신청자->친구수락자를, 친구수락자->친구신청자를)이 있기 때문에 팔로우 맺기를 희망한 주체가 누구인지 follower 항목을 파라미터로 받는다.
-	 * 
-	 * @param	friend	 : applierId(친구신청자), acceptorId(친구수락자) 만 입력받는다.
-	 * @param 	follower : 팔로우의 주체자, 'applierId' 값이 넘어온다면 친구신청자가 친구수락자를 팔로우 한다.
-	 * @return	친구 관계끼리 팔로우가 맺어진 객체를 리턴받는다.
-	 */
-	public Friend follow(Friend friend, String follower) {
-		Friend followFriend = friendRepository.findAcceptedFriendRelation(friend.getApplierId(), friend.getAcceptorId());
-
-		setFollowFriendStatus(followFriend, follower, PaceBookUtils.YES);
-
-		return friendRepository.save(followFriend);
-	}
-
-	/**
-	 * 친구 관계에서 팔로우 항목값을 변경한다.
-	 *  	
-	 * @param 	friend	 		: applierId(신청자), acceptorId(수락자) 만 입력받는다.
-	 * @param 	follower		: 팔로우의 주체(applierId, acceptorId)
-	 * @param 	followStatus	: 팔로우 여부(y/n)
-	 */
-	private void setFollowFriendStatus(Friend friend, String follower, String followStatus) {	
-		if (StringUtils.equals(APPLIERID, follower)) {
-			friend.setApplierFollowYn(followStatus);
-		} else {
-			friend.setAcceptFollowYn(followStatus);			
-		}
-
-		friend.setModifiedDate(PaceBookUtils.nowDateTime());
-	}
-
-	/**
-	 * 9. 친구 관계에 있는 사람 팔로우 끊기
-	 * 친구 관계이면 자동으로 팔로우가 맺어진 상태이며, 해당 유저의 타임라인에는 친구들의 Post 목록을 받아볼 수 있다.
-	 * Post 목록을 받아보지 않기 위해 팔로우 끊기 기능이 존재한다.
-	 * 
-	 * @param	friend	 : applierId(친구신청자), acceptorId(친구수락자) 만 입력받는다.
-	 * @param 	unfollower : 팔로우 끊기의 주체자, 'applierId' 값이 넘어온다면 친구신청자가 친구수락자를 팔로우를 끊는다.
-	 * @return	친구 관계끼리 팔로우가 맺어진 객체를 리턴받는다.
-	 */
-	public Friend unfollow(Friend friend, String unfollower) {
-		Friend unFollowFriend = friendRepository.findAcceptedFriendRelation(friend.getApplierId(), friend.getAcceptorId());
-
-		setFollowFriendStatus(unFollowFriend, unfollower, PaceBookUtils.NO);
-
-		return friendRepository.save(unFollowFriend);
-	}
+package com.pacebookcorp.doragee.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pacebookcorp.doragee.cache.FriendRelationCache;
+import com.pacebookcorp.doragee.dictionary.UserDictionary;
+import com.pacebookcorp.doragee.dto.FriendBatchResult;
+import com.pacebookcorp.doragee.dto.FriendRelation;
+import com.pacebookcorp.doragee.dto.FriendUpdateStats;
+import com.pacebookcorp.doragee.dto.MutualFriendPage;
+import com.pacebookcorp.doragee.entity.Friend;
+import com.pacebookcorp.doragee.graph.FollowGraph;
+import com.pacebookcorp.doragee.repository.FriendBatchRepository;
+import com.pacebookcorp.doragee.repository.FriendRepository;
+import com.pacebookcorp.doragee.repository.UserRepository;
+import com.pacebookcorp.doragee.util.PaceBookUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * PaceBook 서비스의 친구 관련 기능(맺기, 끊기, 팔로우, 언팔로우)을 담당하는 클래스
+ * 친구 신청 전 관계 확인은 메모리에 담아둔 FollowGraph 로 처리하고, 관계가 바뀔 때마다 FollowGraph 에도 반영한다.
+ * 수락, 끊기, 팔로우, 언팔로우는 요청마다 친구 관계를 한 번만 조회(FriendRelation)하여 유효성 체크와 수정에 함께 쓴다.
+ * 관계 조회 결과는 FriendRelationCache 에 담아두고, 관계를 바꿀 때마다(실패 포함) 그 쌍을 비운다.
+ *
+ * @author Kwon Young
+ */
+@Service
+@Slf4j
+public class FriendService {
+	private static final int VALID_APLLY_FRIEND_COUNT = 2;
+	private static final String FRIEND_PK_PREFIX = "frnd";
+
+	private static final String APPLIERID = "applierId";
+	private static final String ACCEPTORID = "acceptorId";
+	private static final String FRIEND_RELATION_CHANGED = "Friend Relation is changed by another request.";
+	private static final String FRIEND_RELATION_EXISTS = "Friend Relation already exists.";
+	private static final String FRIEND_ID_IS_ILLEGAL = "friendId is illegal or not registered.";
+	private static final String FRIEND_RELATION_NOT_ACCEPTABLE = "Friend Relation is not acceptable.";
+	private static final String FRIEND_PK_CONFLICT = "Friend PK conflicts with another relation.";
+	private static final int MAX_BATCH_SIZE = 500;
+	private static final int MAX_INSERT_ATTEMPTS = 3;
+
+	@Value("${pacebook.friend.update.max-attempts:3}")
+	private int maxUpdateAttempts;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private FriendRepository friendRepository;
+
+	@Autowired
+	private FriendBatchRepository friendBatchRepository;
+
+	@Autowired
+	private FeedService feedService;
+
+	@Autowired
+	private FollowGraph followGraph;
+
+	@Autowired
+	private FollowGraphSnapshotService followGraphSnapshotService;
+
+	@Autowired
+	private UserDictionary userDictionary;
+
+	@Autowired
+	private SuggestionService suggestionService;
+
+	@Autowired
+	private FriendRelationCache friendRelationCache;
+
+	@Autowired
+	private UserCountService userCountService;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	private final LongAdder updates = new LongAdder();
+	private final LongAdder conflicts = new LongAdder();
+	private final LongAdder retries = new LongAdder();
+	private final LongAdder rejections = new LongAdder();
+	private final LongAdder exhaustions = new LongAdder();
+
+	/**
+	 * 서버 기동 때 t_frnd 전체를 한 행씩 읽어(forward-only 스트리밍) FollowGraph 에 담는다.
+	 * 스냅샷이 있다면 스냅샷을 담고 워터마크 이후 바뀐 행만 읽는다.
+	 * 요청을 받기 시작하기 전(ContextRefreshedEvent)에 실행된다.
+	 * 자식 컨텍스트가 refresh 될 때도 이벤트가 전파되므로, 루트 컨텍스트의 이벤트에서만 한번 담는다.
+	 *
+	 * @param event refresh 된 컨텍스트의 이벤트
+	 */
+	@EventListener
+	@Transactional(readOnly = true)
+	public void loadFollowGraph(ContextRefreshedEvent event) {
+		if (Objects.nonNull(event.getApplicationContext().getParent())) {
+			log.debug("skip loading follow graph on child context refresh : {}", event.getApplicationContext().getId());
+			return;
+		}
+
+		Date since = followGraphSnapshotService.restore();
+
+		if (Objects.isNull(since)) {
+			followGraph.clear();
+		}
+
+		try (Stream<Friend> friends = Objects.isNull(since) ? friendRepository.streamAll() : friendRepository.streamModifiedSince(since)) {
+			friends.forEach(friend -> {
+				followGraph.put(friend);
+				entityManager.detach(friend);
+			});
+		}
+
+		suggestionService.clear();
+		friendRelationCache.clear();
+		followGraphSnapshotService.start();
+
+		log.info("follow graph loaded : {} users, {} relations, replayed since {}", followGraph.userCount(), followGraph.relationCount(), since);
+	}
+
+	/**
+	 * 친구를 신청하기전 신청자, 수락자의 유효성 체크를 한다.
+	 * 1. 첫번째 IF : 아이디의 유효성,
+	 * 2. 두번째 IF : 신청자 및 수락자 모두 User Table 에 존재해야 하므로 리턴값이 2명이어야 한다,
+	 * 3. 세번째 IF : 기존에 둘중 하나가 친구 신청한 이력이 없어야 한다.
+	 *  
+	 * @param 	friend	 : applierId(신청자), acceptorId(수락자) 만 입력받는다.
+	 * @return	true 를 리턴한다면 친구 신청이 가능하다.
+	 */
+	public boolean isValidApply(Friend friend) {
+		String applierId = friend.getApplierId();
+		String acceptorId = friend.getAcceptorId();
+
+		if (PaceBookUtils.isInvalidUserIds(applierId, acceptorId)) {
+			return false;
+		}
+
+		if (CollectionUtils.size(userRepository.findUsers(applierId, acceptorId)) != VALID_APLLY_FRIEND_COUNT) {
+			return false;
+		}
+ 
+		if (followGraph.isRelated(applierId, acceptorId)) {
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * isValidApplyFriend 의 부정 함수 : 친구 신청 불가능 여부를 리턴한다.
+	 *
+	 * @param 	friend	 : applierId(신청자), acceptorId(수락자) 만 입력받는다.
+	 * @return	true 를 리턴한다면 친구 신청이 불가능하다.
+	 */
+	public boolean isInvalidApply(Friend friend) {
+		return isValidApply(friend) == false;
+	}
+	
+	/**
+	 * 5. 친구 신청
+	 *
+	 * @param	friend	 : applierId(친구신청자), acceptorId(친구수락자) 만 입력받는다.
+	 * @return	친구신청자가 친구수락자에게 친구 신청을 보내고 친구 신청 이력을 리턴받는다. 리턴받는 항목은 아직 친구 수락 전이므로 수락여부(acceptYn=n), 친구신청자가 친구수락자를 팔로우 여부(applierFollowYn=n), 친구수락자가 친구신청자를 팔로우 여부(acceptFollowYn=n) 이다. 추후, 친구수락자가 승인을 해야 수락 및 팔로우 모두 y로 바뀐다.
+	 * 			같은 두 유저가 동시에 서로 신청했다면 친구 관계 쌍 키(pair_key) 유니크 인덱스로 한 건만 저장되고 나머지는 거절된다.
+	 */
+	public Friend apply(Friend friend) {
+		setCreate(friend);
+
+		Friend appliedFriend = insert(friend);
+
+		friendRelationCache.invalidate(appliedFriend.getPairKey());
+		PaceBookUtils.afterCommit(() -> {
+			followGraph.put(appliedFriend);
+			suggestionService.applied(appliedFriend.getApplierId(), appliedFriend.getAcceptorId());
+		});
+
+		return appliedFriend;
+	}	
+
+	/**
+	 * 친구 관계를 입력한다. 유니크 키에 걸리면 같은 쌍이 이미 있는지, 다른 서버가 생성한 PK 와 겹쳤는지 구분한다.
+	 * 같은 쌍이 있다면 FRIEND_RELATION_EXISTS, PK 만 겹쳤다면 새 PK 로 MAX_INSERT_ATTEMPTS 번까지 다시 입력한다.
+	 *
+	 * @param 	friend	입력할 친구 관계
+	 * @return	입력된 친구 관계
+	 */
+	private Friend insert(Friend friend) {
+		for (int attempt = 1; ; attempt++) {
+			try {
+				return friendRepository.save(friend);
+			} catch (DataIntegrityViolationException e) {
+				friendRelationCache.invalidate(friend.getPairKey());
+
+				if (Objects.nonNull(friendRepository.findRelation(friend.getPairKey()))) {
+					log.info(FRIEND_RELATION_EXISTS + " : {}", friend.getPairKey());
+					throw new IllegalStateException(FRIEND_RELATION_EXISTS, e);
+				}
+
+				if (friendRepository.exists(friend.getFriendPk()) == false) {
+					throw e;
+				}
+
+				if (attempt >= MAX_INSERT_ATTEMPTS) {
+					log.warn(FRIEND_PK_CONFLICT + " : {}", friend.getFriendPk());
+					throw new IllegalStateException(FRIEND_PK_CONFLICT, e);
+				}
+
+				log.info(FRIEND_PK_CONFLICT + " : {}, attempt {}", friend.getFriendPk(), attempt);
+				friend.setFriendPk(PaceBookUtils.generatePrivateKey(FRIEND_PK_PREFIX));
+			}
+		}
+	}
+
+	/**
+	 * Friend 테이블에 입력될 친구관계 객체 정보
+	 *
+	 * @param 	friend	 : applierId(신청자), acceptorId(수락자) 만 입력받는다.
+	 * @return	신청자가 수락자에게 친구 신청을 보낸 상태를 리턴받고 리턴받는 항목은 수락여부(n), 신청자가 수락자를 팔로우 여부(n), 수락자가 신청자를 팔로우 여부(n) 이다. 추후, 수락자가 승인을 해야 수락 및 팔로우 모두 y로 바뀐다.
+	 */
+	private void setCreate(Friend friend) {
+		friend.setFriendPk(PaceBookUtils.generatePrivateKey(FRIEND_PK_PREFIX));
+		friend.setPairKey(PaceBookUtils.friendPairKey(friend.getApplierId(), friend.getAcceptorId()));
+		friend.setAcceptYn(PaceBookUtils.NO);
+		friend.setAcceptFollowYn(PaceBookUtils.NO);
+		friend.setApplierFollowYn(PaceBookUtils.NO);
+		friend.setVersion(null);
+		friend.setCreatedDate(PaceBookUtils.nowDateTime());
+		friend.setModifiedDate(PaceBookUtils.nowDateTime());
+	}
+
+	/**
+	 * 친구 수락, 끊기, 팔로우, 언팔로우 요청이 다룰 친구 관계를 t_frnd 에서 한 번만 조회한다.
+	 * 이후 유효성 체크와 변경 모두 리턴된 상태 객체로 처리하므로 요청마다 t_frnd 조회 한 번, 수정 한 번으로 끝난다.
+	 * 아이디가 유효하지 않다면 조회하지 않고 관계 없음을 리턴한다.
+	 *
+	 * @param 	applierId	친구신청자
+	 * @param 	acceptorId	친구수락자
+	 * @return	둘 중 누가 신청했든 두 유저 사이의 친구 관계 상태, 친구 관계 쌍 키(pair_key) 유니크 인덱스 한 번으로 찾는다.
+	 * 			쌍 키별 조회 결과(관계가 없다는 결과 포함)는 FriendRelationCache 에 담아두고 관계가 바뀔 때마다 비운다.
+	 */
+	@Transactional(readOnly = true)
+	public FriendRelation relation(String applierId, String acceptorId) {
+		if (PaceBookUtils.isInvalidUserIds(applierId, acceptorId)) {
+			return FriendRelation.of(null, applierId, acceptorId);
+		}
+
+		Friend friend = friendRelationCache.get(PaceBookUtils.friendPairKey(applierId, acceptorId), friendRepository::findRelation);
+
+		return FriendRelation.of(friend, applierId, acceptorId);
+	}
+
+	/**
+	 * 친구 신청을 수락하기 전 유효성 체크
+	 * 요청의 applierId 가 친구 신청한 이력이 있고, 아직 수락되지 않은(또는 끊긴) 관계여야 한다.
+	 *
+	 * @param	relation	요청의 친구 관계 상태
+	 * @return	수락할 수 있다면 true 를 리턴한다.
+	 */
+	public boolean isValidAccept(FriendRelation relation) {
+		return relation.exists() && relation.isRequestedByApplier() && relation.isAccepted() == false;
+	}
+
+	/**
+	 * isValidAccept 의 부정 함수
+	 *
+	 * @param	relation	요청의 친구 관계 상태
+	 * @return	수락할 수 없다면 true 를 리턴한다.
+	 */
+	public boolean isInvalidAccept(FriendRelation relation) {
+		return isValidAccept(relation) == false;
+	}
+
+	/**
+	 * 6. 친구 수락
+	 *
+	 * @param	relation	isValidAccept 로 체크한 친구 관계 상태
+	 * @return	친구수락자가 친구신청자의 친구 신청을 수락하며 쌍방간에 팔로우가 활성화 된다. 친구수락여부(acceptYn=y), 친구신청자가 친구수락자를 팔로우 여부(applierFollowYn=y), 친구수락자가 친구신청자를 팔로우 여부(acceptFollowYn=y) 이다. 
+	 */
+	@Transactional(isolation = Isolation.READ_COMMITTED)
+	public Friend accept(FriendRelation relation) {
+		Friend acceptedFriend = save(relation, this::isValidAccept, (loaded, modifiedDate) -> loaded.withStatus(true, modifiedDate));
+
+		feedService.follow(acceptedFriend.getApplierId(), acceptedFriend.getAcceptorId());
+		feedService.follow(acceptedFriend.getAcceptorId(), acceptedFriend.getApplierId());
+
+		return acceptedFriend;
+	}
+
+	/**
+	 * 조회한 버전 그대로인 행만 바뀐 상태로 수정하고 버전을 1 올린다.(수정 전에 t_frnd 를 다시 조회하지 않는다.)
+	 * 조회 이후 다른 요청이 먼저 바꿔 수정된 행이 없다면, 행을 다시 조회하여 요청이 여전히 유효한지 체크하고 최대 maxUpdateAttempts 번까지 다시 수정한다.
+	 * 다시 조회한 상태로는 유효하지 않거나 한도를 넘었다면 요청을 거절한다.
+	 * 다시 조회하는 행이 다른 요청의 커밋을 볼 수 있도록 호출하는 트랜잭션은 READ COMMITTED 로 연다.
+	 *
+	 * @param 	relation	조회한 친구 관계 상태
+	 * @param 	validator	다시 조회한 상태로 요청이 여전히 유효한지 체크하는 함수(isValidX)
+	 * @param 	transition	조회한 상태와 수정일로 바뀐 상태를 만드는 함수
+	 * @return	t_frnd 에 저장된 친구 관계 객체
+	 */
+	private Friend save(FriendRelation relation, Predicate<FriendRelation> validator, BiFunction<FriendRelation, Date, FriendRelation> transition) {
+		FriendRelation loaded = relation;
+
+		for (int attempt = 1; ; attempt++) {
+			FriendRelation changed = transition.apply(loaded, PaceBookUtils.nowDateTime());
+			Friend changedFriend = changed.toFriend();
+
+			int updated = friendRepository.updateStatus(changedFriend.getFriendPk(),
+														loaded.getVersion(),
+														changedFriend.getAcceptYn(),
+														changedFriend.getApplierFollowYn(),
+														changedFriend.getAcceptFollowYn(),
+														changedFriend.getModifiedDate());
+
+			friendRelationCache.invalidate(changedFriend.getPairKey());
+
+			if (updated > 0) {
+				updates.increment();
+				changed(loaded, changed, changedFriend);
+
+				return changedFriend;
+			}
+
+			conflicts.increment();
+
+			if (attempt >= maxUpdateAttempts) {
+				exhaustions.increment();
+				log.warn("friend relation update retries exhausted : {}, {} attempts", changedFriend.getFriendPk(), attempt);
+				throw new IllegalStateException(FRIEND_RELATION_CHANGED);
+			}
+
+			loaded = reload(loaded);
+
+			if (validator.test(loaded) == false) {
+				rejections.increment();
+				log.info("friend relation changed concurrently : {}", changedFriend.getFriendPk());
+				throw new IllegalStateException(FRIEND_RELATION_CHANGED);
+			}
+
+			retries.increment();
+		}
+	}
+
+	/**
+	 * 수정된 친구 관계를 FollowGraph, 유저 집계, 친구 추천에 반영한다.
+	 * 이후 뉴스피드 반영(FeedService)이 실패하면 t_frnd 수정도 롤백되므로, 메모리의 FollowGraph 와 친구 추천은 트랜잭션이 커밋된 뒤에 고친다.
+	 *
+	 * @param loaded		수정 전 친구 관계 상태
+	 * @param changed		수정된 친구 관계 상태
+	 * @param changedFriend	수정된 친구 관계 객체
+	 */
+	private void changed(FriendRelation loaded, FriendRelation changed, Friend changedFriend) {
+		userCountService.changed(loaded, changed);
+		PaceBookUtils.afterCommit(() -> {
+			followGraph.put(changedFriend);
+
+			if (loaded.isAccepted() != changed.isAccepted()) {
+				suggestionService.changed(changedFriend.getApplierId(), changedFriend.getAcceptorId());
+			}
+		});
+	}
+
+	/**
+	 * 다른 요청이 먼저 바꾼 행을 캐시를 거치지 않고 다시 조회한다.
+	 *
+	 * @param 	relation	수정하지 못한 친구 관계 상태
+	 * @return	같은 요청 방향의 다시 조회한 친구 관계 상태
+	 */
+	private FriendRelation reload(FriendRelation relation) {
+		Friend friend = friendRepository.findRelation(relation.getPairKey());
+
+		if (Objects.nonNull(friend)) {
+			entityManager.detach(friend);
+		}
+
+		return relation.reload(friend);
+	}
+
+	/**
+	 * @return	친구 수락, 끊기, 팔로우, 언팔로우의 수정, 충돌, 재시도, 거절 횟수
+	 */
+	public FriendUpdateStats updateStats() {
+		return new FriendUpdateStats(maxUpdateAttempts, updates.sum(), conflicts.sum(), retries.sum(), rejections.sum(), exhaustions.sum());
+	}
+
+	/**
+	 * 친구 관계를 끊기 전 유효성 체크 : 둘 중 누가 신청했든 수락된 친구 관계여야 한다.
+	 *
+	 * @param	relation	요청의 친구 관계 상태
+	 * @return	기존에 친구 관계라면 true 를 리턴한다.
+	 */
+	public boolean isValidEnd(FriendRelation relation) {
+		return relation.exists() && relation.isAccepted();
+	}
+
+	/**
+	 * isValidEnd 의 부정 함수
+	 *
+	 * @param	relation	요청의 친구 관계 상태
+	 * @return	기존에 친구 관계가 아니라면 true 를 리턴한다.
+	 */
+	public boolean isInvalidEnd(FriendRelation relation) {
+		return isValidEnd(relation) == false;
+	}
+
+	/**
+	 * 팔로우를 맺기전 친구 관계에서 팔로우 여부가 아닌지 체크하는 함수
+	 * 요청의 applierId 가 친구신청자인 수락된 관계여야 한다.
+	 *
+	 * @param 	relation	요청의 친구 관계 상태
+	 * @param 	follower	팔로우 주체(applierId, acceptorId)
+	 * @return	팔로우 주체가 아직 팔로우하지 않았다면 true 를 리턴한다.
+	 */
+	public boolean isValidFollow(FriendRelation relation, String follower) {
+		return isFollowable(relation) && relation.follows(isApplier(follower)) == false;
+	}
+
+	/**
+	 * isValidFollow 의 부정함수
+	 *
+	 * @param 	relation	요청의 친구 관계 상태
+	 * @param 	follower	팔로우 주체(applierId, acceptorId)
+	 */
+	public boolean isInvalidFollow(FriendRelation relation, String follower) {
+		return isValidFollow(relation, follower) == false;
+	}
+
+	/**
+	 * 팔로우를 끊기전 친구 관계에서 팔로우 여부인지 체크하는 함수
+	 * 요청의 applierId 가 친구신청자인 수락된 관계여야 한다.
+	 *
+	 * @param 	relation	요청의 친구 관계 상태
+	 * @param 	unfollower	언팔할 주체(applierId, acceptorId)
+	 * @return	언팔할 주체가 팔로우 중이라면 true 를 리턴한다.
+	 */
+	public boolean isValidUnfollow(FriendRelation relation, String unfollower) {
+		return isFollowable(relation) && relation.follows(isApplier(unfollower));
+	}
+
+	/**
+	 * isValidUnfollow 의 부정함수
+	 *
+	 * @param 	relation	요청의 친구 관계 상태
+	 * @param 	unfollower	언팔할 주체(applierId, acceptorId)
+	 */
+	public boolean isInvalidUnfollow(FriendRelation relation, String unfollower) {
+		return isValidUnfollow(relation, unfollower) == false;
+	}
+
+	private boolean isFollowable(FriendRelation relation) {
+		return relation.exists() && relation.isRequestedByApplier() && relation.isAccepted();
+	}
+
+	private boolean isApplier(String follower) {
+		return StringUtils.equals(APPLIERID, follower);
+	}
+
+	/**
+	 * Follower 의 주체가 신청자인지 수락자인지 명확해야 한다. 파라메터 어뷰징 방지 가드로직
+	 *
+	 * @param 	follower	: applierId or acceptorId 
+	 * @return	주체가 신청자, 수락자 중 하나라면 true 를 리턴한다.
+	 */
+	public boolean isValidFollowAgent(String follower) {
+		if (StringUtils.equals(APPLIERID, follower)) {
+			return true;
+		}
+
+		if (StringUtils.equals(ACCEPTORID, follower)) {
+			return true;
+		}
+		
+		return false;
+	}
+
+	/**
+	 * isValidFollowAgent 의 부정 함수
+	 *
+	 * @param 	follower	: applierId or acceptorId 
+	 * @return	주체가 신청자, 수락자도 아닌 어뷰징 파라미터라면 true 를 리턴한다.
+	 */
+	public boolean isInvalidFollowAgent(String follower) {
+		return isValidFollowAgent(follower) == false;
+	}
+
+	/**
+	 * 7. 친구 끊기
+	 *
+	 * @param	relation	isValidEnd 로 체크한 친구 관계 상태
+	 * @return	친구 관계가 끊긴다면 친구신청자, 친구수락자 서로를 팔로우 하지 않고 친구 관계 여부도 n 으로 변경된다.
+	 */
+	@Transactional(isolation = Isolation.READ_COMMITTED)
+	public Friend end(FriendRelation relation) {
+		Friend endedFriend = save(relation, this::isValidEnd, (loaded, modifiedDate) -> loaded.withStatus(false, modifiedDate));
+
+		feedService.unfollow(endedFriend.getApplierId(), endedFriend.getAcceptorId());
+		feedService.unfollow(endedFriend.getAcceptorId(), endedFriend.getApplierId());
+
+		return endedFriend;
+	}
+
+	/**
+	 * 8. 친구 관계에 있는 사람 팔로우 맺기
+	 * 친구 관계가 수락된다면 자동으로 서로 팔로우는 맺어지지만, 친구 관계더라도 팔로우는 끊고 다시 맺을 수 있기 때문에 팔로우 맺는 기능이 있어야 한다.
+	 * 단, Friend 객체(Table) 에서 팔로우의 방향성(친구신청자->친구수락자를, 친구수락자->친구신청자를)이 있기 때문에 팔로우 맺기를 희망한 주체가 누구인지 follower 항목을 파라미터로 받는다.
+	 *
+	 * @param	relation	isValidFollow 로 체크한 친구 관계 상태
+	 * @param 	follower 	팔로우의 주체자, 'applierId' 값이 넘어온다면 친구신청자가 친구수락자를 팔로우 한다.
+	 * @return	친구 관계끼리 팔로우가 맺어진 객체를 리턴받는다.
+	 */
+	@Transactional(isolation = Isolation.READ_COMMITTED)
+	public Friend follow(FriendRelation relation, String follower) {
+		Friend followedFriend = save(relation,
+									 loaded -> isValidFollow(loaded, follower),
+									 (loaded, modifiedDate) -> loaded.withFollow(isApplier(follower), true, modifiedDate));
+
+		feedService.follow(followAgentId(followedFriend, follower), followTargetId(followedFriend, follower));
+
+		return followedFriend;
+	}
+
+	/**
+	 * 팔로우 주체(follower)의 계정을 리턴한다.
+	 *
+	 * @param 	friend		친구 관계 객체
+	 * @param 	follower	팔로우의 주체(applierId, acceptorId)
+	 * @return	follower 가 applierId 라면 친구신청자, 아니라면 친구수락자 계정
+	 */
+	private String followAgentId(Friend friend, String follower) {
+		return isApplier(follower) ? friend.getApplierId() : friend.getAcceptorId();
+	}
+
+	/**
+	 * 팔로우 대상의 계정을 리턴한다.
+	 *
+	 * @param 	friend		친구 관계 객체
+	 * @param 	follower	팔로우의 주체(applierId, acceptorId)
+	 * @return	follower 가 applierId 라면 친구수락자, 아니라면 친구신청자 계정
+	 */
+	private String followTargetId(Friend friend, String follower) {
+		return isApplier(follower) ? friend.getAcceptorId() : friend.getApplierId();
+	}
+
+	/**
+	 * 9. 친구 관계에 있는 사람 팔로우 끊기
+	 * 친구 관계이면 자동으로 팔로우가 맺어진 상태이며, 해당 유저의 타임라인에는 친구들의 Post 목록을 받아볼 수 있다.
+	 * Post 목록을 받아보지 않기 위해 팔로우 끊기 기능이 존재한다.
+	 *
+	 * @param	relation	isValidUnfollow 로 체크한 친구 관계 상태
+	 * @param 	unfollower 	팔로우 끊기의 주체자, 'applierId' 값이 넘어온다면 친구신청자가 친구수락자를 팔로우를 끊는다.
+	 * @return	친구 관계끼리 팔로우가 맺어진 객체를 리턴받는다.
+	 */
+	@Transactional(isolation = Isolation.READ_COMMITTED)
+	public Friend unfollow(FriendRelation relation, String unfollower) {
+		Friend unFollowedFriend = save(relation,
+									   loaded -> isValidUnfollow(loaded, unfollower),
+									   (loaded, modifiedDate) -> loaded.withFollow(isApplier(unfollower), false, modifiedDate));
+
+		feedService.unfollow(followAgentId(unFollowedFriend, unfollower), followTargetId(unFollowedFriend, unfollower));
+
+		return unFollowedFriend;
+	}
+
+	/**
+	 * 친구 일괄 신청, 수락, 끊기 전 유효성 체크 : 요청한 유저 계정이 유효하고, 상대가 1 ~ 500 명이어야 한다.
+	 * 상대별 유효성은 건마다 체크하여 처리 결과(FriendBatchResult)에 담는다.
+	 *
+	 * @param 	userId		요청한 유저 계정
+	 * @param 	friendIds	상대 계정 목록
+	 * @return	일괄 처리할 수 있다면 true 를 리턴한다.
+	 */
+	public boolean isValidBatch(String userId, List<String> friendIds) {
+		if (PaceBookUtils.isInvalidUserId(userId)) {
+			return false;
+		}
+
+		if (CollectionUtils.isEmpty(friendIds) || friendIds.size() > MAX_BATCH_SIZE) {
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * isValidBatch 의 부정 함수
+	 *
+	 * @param 	userId		요청한 유저 계정
+	 * @param 	friendIds	상대 계정 목록
+	 * @return	일괄 처리할 수 없다면 true 를 리턴한다.
+	 */
+	public boolean isInvalidBatch(String userId, List<String> friendIds) {
+		return isValidBatch(userId, friendIds) == false;
+	}
+
+	/**
+	 * 5-1. 친구 일괄 신청
+	 * 가입 여부는 t_user IN 조회 한 번, 기존 친구 관계는 pair_key IN 조회 한 번으로 전체를 체크하고 JDBC batch 로 입력한다.
+	 * 입력 후 pair_key 로 잠그며 다시 조회하여, 그 사이 다른 요청이 먼저 입력한 쌍은 거절하고 다른 서버가 생성한 PK 와 겹쳐 입력되지 않은 건은 새 PK 로 다시 입력한다.
+	 *
+	 * @param 	applierId		친구신청자
+	 * @param 	acceptorIds		친구수락자 목록, 중복은 한 번만 처리한다.
+	 * @return	친구수락자별 처리 결과
+	 */
+	@Transactional
+	public List<FriendBatchResult> applyAll(String applierId, List<String> acceptorIds) {
+		Set<String> friendIds = new LinkedHashSet<>(acceptorIds);
+		Map<String, FriendBatchResult> results = new LinkedHashMap<>();
+		Set<String> userIds = registeredUserIds(applierId, friendIds);
+		Map<String, Friend> relations = relations(applierId, friendIds);
+		Iterator<String> friendPks = PaceBookUtils.generatePrivateKeys(FRIEND_PK_PREFIX, friendIds.size()).iterator();
+		List<Friend> friends = new ArrayList<>();
+
+		for (String acceptorId : friendIds) {
+			String friendPk = friendPks.next();
+
+			if (isInvalidPair(applierId, acceptorId) || userIds.contains(applierId) == false || userIds.contains(acceptorId) == false) {
+				results.put(acceptorId, FriendBatchResult.failure(acceptorId, FRIEND_ID_IS_ILLEGAL));
+				continue;
+			}
+
+			if (relations.containsKey(PaceBookUtils.friendPairKey(applierId, acceptorId))) {
+				results.put(acceptorId, FriendBatchResult.failure(acceptorId, FRIEND_RELATION_EXISTS));
+				continue;
+			}
+
+			Friend friend = new Friend();
+
+			friend.setApplierId(applierId);
+			friend.setAcceptorId(acceptorId);
+			setCreate(friend);
+			friend.setFriendPk(friendPk);
+
+			friends.add(friend);
+			results.put(acceptorId, null);
+		}
+
+		List<Friend> pending = friends;
+
+		for (int attempt = 1; pending.isEmpty() == false; attempt++) {
+			friendBatchRepository.insertAll(pending);
+			pending.forEach(friend -> friendRelationCache.invalidate(friend.getPairKey()));
+
+			Map<String, Friend> inserted = lockedRelations(pending);
+			List<Friend> pkConflicts = new ArrayList<>();
+
+			for (Friend friend : pending) {
+				Friend inDatabase = inserted.get(friend.getPairKey());
+
+				if (Objects.isNull(inDatabase)) {
+					// 쌍이 비어있는데 입력되지 않았다면 다른 서버가 생성한 PK 와 겹친 것이다.
+					if (attempt < MAX_INSERT_ATTEMPTS) {
+						pkConflicts.add(friend);
+					} else {
+						log.warn(FRIEND_PK_CONFLICT + " : {}", friend.getFriendPk());
+						results.put(friend.getAcceptorId(), FriendBatchResult.failure(friend.getAcceptorId(), FRIEND_PK_CONFLICT));
+					}
+				} else if (StringUtils.equals(inDatabase.getFriendPk(), friend.getFriendPk())) {
+					PaceBookUtils.afterCommit(() -> {
+						followGraph.put(friend);
+						suggestionService.applied(friend.getApplierId(), friend.getAcceptorId());
+					});
+					results.put(friend.getAcceptorId(), FriendBatchResult.success(friend.getAcceptorId(), friend));
+				} else {
+					results.put(friend.getAcceptorId(), FriendBatchResult.failure(friend.getAcceptorId(), FRIEND_RELATION_EXISTS));
+				}
+			}
+
+			Iterator<String> retryPks = PaceBookUtils.generatePrivateKeys(FRIEND_PK_PREFIX, pkConflicts.size()).iterator();
+
+			pkConflicts.forEach(friend -> friend.setFriendPk(retryPks.next()));
+			pending = pkConflicts;
+		}
+
+		log.info("apply friends : {}, {} requested, {} applied", applierId, friendIds.size(), friends.size());
+
+		return new ArrayList<>(results.values());
+	}
+
+	/**
+	 * 6-1. 친구 일괄 수락 : acceptorId 가 applierIds 각각의 친구 신청을 수락한다.
+	 *
+	 * @param 	acceptorId	친구수락자
+	 * @param 	applierIds	친구신청자 목록, 중복은 한 번만 처리한다.
+	 * @return	친구신청자별 처리 결과
+	 */
+	@Transactional
+	public List<FriendBatchResult> acceptAll(String acceptorId, List<String> applierIds) {
+		return changeAll(acceptorId, applierIds, true);
+	}
+
+	/**
+	 * 7-1. 친구 일괄 끊기 : userId 와 friendIds 각각의 친구 관계를 끊는다. 누가 신청했든 상관없다.
+	 *
+	 * @param 	userId		유저 계정
+	 * @param 	friendIds	친구 계정 목록, 중복은 한 번만 처리한다.
+	 * @return	친구별 처리 결과
+	 */
+	@Transactional
+	public List<FriendBatchResult> endAll(String userId, List<String> friendIds) {
+		return changeAll(userId, friendIds, false);
+	}
+
+	/**
+	 * 친구 관계를 pair_key IN 조회 한 번으로 읽어 건마다 수락(isValidAccept) 또는 끊기(isValidEnd)를 체크하고,
+	 * 조회한 버전 그대로인 행만 JDBC batch 로 일괄 수정한다. 다른 요청이 먼저 바꾼 행은 다시 시도하지 않고 FRIEND_RELATION_CHANGED 로 실패 처리한다.
+	 *
+	 * @param 	userId		요청한 유저(수락이라면 친구수락자)
+	 * @param 	friendIds	상대 계정 목록(수락이라면 친구신청자)
+	 * @param 	accept		수락이라면 true, 끊기라면 false
+	 * @return	상대별 처리 결과
+	 */
+	private List<FriendBatchResult> changeAll(String userId, List<String> friendIds, boolean accept) {
+		Set<String> distinctIds = new LinkedHashSet<>(friendIds);
+		Map<String, FriendBatchResult> results = new LinkedHashMap<>();
+		Map<String, Friend> relations = relations(userId, distinctIds);
+		List<FriendRelation> loaded = new ArrayList<>();
+		List<FriendRelation> changed = new ArrayList<>();
+
+		for (String friendId : distinctIds) {
+			Friend friend = isInvalidPair(userId, friendId) ? null : relations.get(PaceBookUtils.friendPairKey(userId, friendId));
+			FriendRelation relation = accept ? FriendRelation.of(friend, friendId, userId) : FriendRelation.of(friend, userId, friendId);
+
+			if (accept ? isInvalidAccept(relation) : isInvalidEnd(relation)) {
+				results.put(friendId, FriendBatchResult.failure(friendId, FRIEND_RELATION_NOT_ACCEPTABLE));
+				continue;
+			}
+
+			loaded.add(relation);
+			changed.add(relation.withStatus(accept, PaceBookUtils.nowDateTime()));
+			results.put(friendId, null);
+		}
+
+		if (changed.isEmpty()) {
+			return new ArrayList<>(results.values());
+		}
+
+		List<Friend> changedFriends = changed.stream().map(FriendRelation::toFriend).collect(Collectors.toList());
+		int[] updated = friendBatchRepository.updateStatusAll(loaded.stream().map(FriendRelation::toFriend).collect(Collectors.toList()), changedFriends);
+
+		for (int i = 0; i < changedFriends.size(); i++) {
+			Friend friend = changedFriends.get(i);
+			String friendId = StringUtils.equals(userId, friend.getApplierId()) ? friend.getAcceptorId() : friend.getApplierId();
+
+			friendRelationCache.invalidate(friend.getPairKey());
+
+			if (updated[i] == 0) {
+				conflicts.increment();
+				rejections.increment();
+				results.put(friendId, FriendBatchResult.failure(friendId, FRIEND_RELATION_CHANGED));
+				continue;
+			}
+
+			updates.increment();
+			changed(loaded.get(i), changed.get(i), friend);
+
+			if (accept) {
+				feedService.follow(friend.getApplierId(), friend.getAcceptorId());
+				feedService.follow(friend.getAcceptorId(), friend.getApplierId());
+			} else {
+				feedService.unfollow(friend.getApplierId(), friend.getAcceptorId());
+				feedService.unfollow(friend.getAcceptorId(), friend.getApplierId());
+			}
+
+			results.put(friendId, FriendBatchResult.success(friendId, friend));
+		}
+
+		log.info("{} friends : {}, {} requested, {} changed", accept ? "accept" : "end", userId, distinctIds.size(), changed.size());
+
+		return new ArrayList<>(results.values());
+	}
+
+	/**
+	 * 함께 아는 친구 조회 전 두 유저와 커서의 유효성 체크
+	 * 커서는 이전 페이지의 마지막 친구 계정이므로 유저 번호가 붙은(UserDictionary 에 담긴) 유저여야 한다.
+	 *
+	 * @param 	userId		유저 계정
+	 * @param 	otherId		상대 계정
+	 * @param 	cursor		이전 페이지에서 리턴받은 커서, 첫 페이지라면 비어있다.
+	 * @return	두 계정이 유효하고 서로 다르며, 커서가 비어있거나 담긴 유저라면 true 를 리턴한다.
+	 */
+	public boolean isValidMutualFriends(String userId, String otherId, String cursor) {
+		if (PaceBookUtils.isInvalidUserIds(userId, otherId) || StringUtils.equals(userId, otherId)) {
+			return false;
+		}
+
+		return StringUtils.isEmpty(cursor) || userDictionary.numberOf(cursor) >= 0;
+	}
+
+	/**
+	 * isValidMutualFriends 의 부정 함수
+	 *
+	 * @param 	userId		유저 계정
+	 * @param 	otherId		상대 계정
+	 * @param 	cursor		이전 페이지에서 리턴받은 커서
+	 * @return	조회할 수 없다면 true 를 리턴한다.
+	 */
+	public boolean isInvalidMutualFriends(String userId, String otherId, String cursor) {
+		return isValidMutualFriends(userId, otherId, cursor) == false;
+	}
+
+	/**
+	 * 14. 함께 아는 친구 조회
+	 * t_frnd 를 조인하지 않고 친구 관계 그래프에서 두 유저의 친구 번호 집합의 교집합 수를 세고, 교집합을 만들지 않고 커서 다음부터 한 페이지만 담는다.
+	 *
+	 * @param 	userId		유저 계정
+	 * @param 	otherId		상대 계정
+	 * @param 	cursor		이전 페이지에서 리턴받은 커서, 첫 페이지라면 비워둔다.
+	 * @param 	size		한 페이지에 담을 친구 수, 비어있다면 기본값(20)
+	 * @return	함께 아는 친구 수와 친구 계정 한 페이지(친구 관계 그래프에 담긴 순서), 마지막 페이지라면 다음 페이지 커서는 null 이다.
+	 */
+	public MutualFriendPage mutualFriends(String userId, String otherId, String cursor, Integer size) {
+		int pageSize = PaceBookUtils.pageSize(size);
+		List<String> friendIds = new ArrayList<>(pageSize + 1);
+		int count = followGraph.mutualFriends(userId, otherId, StringUtils.defaultIfEmpty(cursor, null), pageSize + 1, friendIds);
+
+		return MutualFriendPage.of(count, friendIds, pageSize);
+	}
+
+	/**
+	 * @return	userId 와 friendIds 중 t_user 에 가입된 계정, 유효한 계정만 IN 조회 한 번으로 찾는다.
+	 */
+	private Set<String> registeredUserIds(String userId, Collection<String> friendIds) {
+		Set<String> userIds = friendIds.stream()
+									   .filter(PaceBookUtils::isValidUserId)
+									   .collect(Collectors.toSet());
+
+		userIds.add(userId);
+
+		return new HashSet<>(userRepository.findUserIds(userIds));
+	}
+
+	/**
+	 * @return	userId 와 friendIds 사이의 친구 관계(pair_key 별), pair_key IN 조회 한 번으로 찾는다.
+	 */
+	private Map<String, Friend> relations(String userId, Collection<String> friendIds) {
+		List<String> pairKeys = friendIds.stream()
+										 .filter(friendId -> isInvalidPair(userId, friendId) == false)
+										 .map(friendId -> PaceBookUtils.friendPairKey(userId, friendId))
+										 .collect(Collectors.toList());
+
+		if (pairKeys.isEmpty()) {
+			return new HashMap<>();
+		}
+
+		return friendRepository.findRelations(pairKeys)
+							   .stream()
+							   .collect(Collectors.toMap(Friend::getPairKey, Function.identity()));
+	}
+
+	/**
+	 * 방금 입력한 친구 관계를 pair_key IN 조회로 잠그며 다시 읽는다.
+	 * 잠금 조회는 트랜잭션 시작 이후 다른 요청이 커밋한 행까지 읽으므로, 먼저 입력된 같은 쌍의 행을 놓치지 않는다.
+	 *
+	 * @param 	friends	입력한 친구 관계 목록
+	 * @return	pair_key 별 t_frnd 의 친구 관계
+	 */
+	private Map<String, Friend> lockedRelations(List<Friend> friends) {
+		return friendRepository.lockRelations(friends.stream().map(Friend::getPairKey).collect(Collectors.toList()))
+							   .stream()
+							   .collect(Collectors.toMap(Friend::getPairKey, Function.identity()));
+	}
+
+	/**
+	 * @return	계정이 유효하지 않거나 자기 자신이라면 true 를 리턴한다.
+	 */
+	private boolean isInvalidPair(String userId, String friendId) {
+		return PaceBookUtils.isInvalidUserIds(userId, friendId) || StringUtils.equals(userId, friendId);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,141 @@
+package com.pacebookcorp.doragee.service;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pacebookcorp.doragee.cache.FeedCache;
+import com.pacebookcorp.doragee.dictionary.UserDictionary;
+import com.pacebookcorp.doragee.dto.HybridFeedStats;
+import com.pacebookcorp.doragee.graph.FollowGraph;
+import com.pacebookcorp.doragee.graph.RoaringBitmap;
+import com.pacebookcorp.doragee.repository.FeedRepository;
+import com.pacebookcorp.doragee.repository.FriendRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 팔로워가 많은(heavy) 유저를 분류하는 클래스
+ * heavy 유저의 Post 는 작성 시점에 팔로워 수만큼 펼치지(push) 않고, 뉴스피드 조회 시점에 가져와(pull) 병합한다.
+ * 팔로워가 수만 명인 유저의 Post 한 건 때문에 Post 작성이 멈추는 것을 막기 위함이다.
+ *
+ * @author Kwon Young
+ */
+@Service
+@Slf4j
+public class HeavyUserService {
+	@Value("${pacebook.feed.heavy-follower-threshold:5000}")
+	private int heavyFollowerThreshold;
+
+	@Autowired
+	private FriendRepository friendRepository;
+
+	@Autowired
+	private FeedRepository feedRepository;
+
+	@Autowired
+	private FeedCache feedCache;
+
+	@Autowired
+	private FollowGraph followGraph;
+
+	@Autowired
+	private UserDictionary userDictionary;
+
+	private volatile Set<String> heavyUserIds = Collections.emptySet();
+	private volatile RoaringBitmap heavyUsers = new RoaringBitmap();
+
+	private final LongAdder mergeCount = new LongAdder();
+	private final LongAdder mergeNanos = new LongAdder();
+	private final LongAccumulator maxMergeNanos = new LongAccumulator(Long::max, 0L);
+
+	/**
+	 * 팔로워 수가 기준값 이상인 유저를 heavy 유저로 다시 분류한다. (서버 기동 직후, 이후 주기적으로)
+	 * heavy 에서 빠진 유저는 그동안 펼치지 않았던 Post 를 팔로워들의 뉴스피드에 채우고, 뉴스피드 캐시를 모두 비운다.
+	 * heavy 가 된 유저가 이전에 펼쳐둔 Post 는 조회 시점 병합에서 중복 제거된다.
+	 */
+	@Scheduled(fixedDelayString = "${pacebook.feed.heavy-user-refresh-ms:600000}")
+	@Transactional
+	public void refresh() {
+		Set<String> refreshedIds = new HashSet<>(friendRepository.findHeavyUserIds(heavyFollowerThreshold));
+		List<String> demotedIds = heavyUserIds.stream()
+											  .filter(userId -> refreshedIds.contains(userId) == false)
+											  .collect(Collectors.toList());
+
+		demotedIds.forEach(userId -> feedRepository.pushAllToFollowers(userId));
+
+		if (demotedIds.isEmpty() == false) {
+			feedCache.clear();
+		}
+
+		RoaringBitmap refreshedUsers = new RoaringBitmap();
+
+		refreshedIds.forEach(userId -> refreshedUsers.add(userDictionary.intern(userId)));
+
+		heavyUsers = refreshedUsers;
+		heavyUserIds = Collections.unmodifiableSet(refreshedIds);
+
+		log.info("heavy users refreshed : {} users, threshold {}", refreshedIds.size(), heavyFollowerThreshold);
+	}
+
+	/**
+	 * @param 	userId 유저 계정
+	 * @return	heavy 유저라면 true 를 리턴한다.
+	 */
+	public boolean isHeavy(String userId) {
+		return heavyUserIds.contains(userId);
+	}
+
+	/**
+	 * userId 가 팔로우 중인 heavy 유저 목록, heavy 유저가 없다면 바로 빈 목록을 리턴한다.
+	 * FollowGraph 의 팔로우 대상 집합과 heavy 유저 번호 집합을 교집합하므로, 팔로우 대상을 한 명씩 확인하지 않는다.
+	 *
+	 * @param 	userId 뉴스피드를 보는 유저
+	 * @return	조회 시점에 Post 를 가져와야(pull) 하는 유저 목록
+	 */
+	public Set<String> heavyFolloweeIds(String userId) {
+		Set<String> currentHeavyUserIds = heavyUserIds;
+
+		if (currentHeavyUserIds.isEmpty()) {
+			return Collections.emptySet();
+		}
+
+		return new HashSet<>(followGraph.followeeIds(userId, heavyUsers));
+	}
+
+	/**
+	 * 조회 시점 병합에 걸린 시간을 기록한다.
+	 *
+	 * @param elapsedNanos 병합에 걸린 시간(ns)
+	 */
+	public void recordMerge(long elapsedNanos) {
+		mergeCount.increment();
+		mergeNanos.add(elapsedNanos);
+		maxMergeNanos.accumulate(elapsedNanos);
+	}
+
+	/**
+	 * @return	heavy 유저 목록과 조회 시점 병합 지표
+	 */
+	public HybridFeedStats stats() {
+		long count = mergeCount.sum();
+		double averageMillis = count == 0 ? 0 : toMillis(mergeNanos.sum()) / count;
+
+		return new HybridFeedStats(heavyFollowerThreshold, heavyUserIds, count, averageMillis, toMillis(maxMergeNanos.get()));
+	}
+
+	private double toMillis(long nanos) {
+		return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+}
\ No newline at end of file
@@ -1,266 +1,461 @@
-package com.pacebookcorp.doragee.service;
-
-import java.util.List;
-import java.util.Objects;
-
-import org.apache.commons.lang3.StringUtils;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Service;
-
-import com.pacebookcorp.doragee.entity.Post;
-import com.pacebookcorp.doragee.repository.FriendRepository;
-import com.pacebookcorp.doragee.repository.PostRepository;
-import com.pacebookcorp.doragee.util.PaceBookUtils;
-
-/**
- * PaceBook 서비스의 Post 관련 기능을 담당하는 클래스(Post 의 CRUD)
- * 
- * @author Kwon Young
- */
-@Service
-public class PostService {	
-	private static final String POST_PK_PREFIX = "post";
-	private static final int MAX_CONTENT_SIZE = 500;
-	
-	@Autowired
-	private PostRepository postRepository;
-
-	@Autowired
-	private FriendRepository friendRepository;
-	
-	/**
-	 * 2. 특정 유저의 뉴스피드 조회
-	 * 
-	 * @param 	userId 특정 유저 계정(id)
-	 * @return	userId 와 친구관계를 맺은 사람들이 작성한 Post 목록을 가져오는데, 친구 관계더라도 팔로우가 활성화 된 친구의 Post만 가져온다. 정렬 기준은 Post 가 수정된 날짜 기준이다.(수정일이 작성일보다 최근)
-	 */
-	public List<Post> newsfeed(String userId) {
-		return postRepository.newsfeed(userId);
-	}
-	
-	/**
-	 * 3. 특정 유저의 타임라인 조회
-	 * 
-	 * @param	userId 특정 유저 계정(id)
-	 * @return	userId 의 타임라인에 게시된 Post를 가져오는데, 자신이 작성한 것과 친구가 자신에게 남긴 글을 가져온다. 
-	 */
-	public List<Post> timeline(String userId) {		
-		return postRepository.timeline(userId);
-	}
-
-	/**
-	 * Post 작성의 유효성 체크
-	 * 첫번째 IF : 아이디 유효성
-	 * 두번째 IF : 내용은 500자가 넘지 않아야 한다.
-	 * 세번째 IF : 자기 자신에게 쓰는 것이라면 네번째 IF(친구 관계) 필요없이 true 리턴한다.
-	 * 두번째 IF : 세번째 IF 를 통과했다면 친구에게 글을 남기는 것인데 친구 관계가 유효해야 한다.
-	 * 
-	 * @param 	post	: ownerId(Post의 주인), creatorId(작성자 : Post의 주인, 친구), content(내용)
-	 * @return	Post 작성을 할 수 있다면 true 를 리턴한다.
-	 */
-	public boolean isValidWrite(Post post) {		
-		String ownerId = post.getOwnerId();
-		String creatorId = post.getCreatorId();
-		String content = post.getContent();
-
-		if (PaceBookUtils.isInvalidUserIds(ownerId, creatorId)) {
-			return false;
-		}
-
-		if (StringUtils.length(content) >= MAX_CONTENT_SIZE) {
-			return false;
-		}
-		
-		if (StringUtils.equals(ownerId, creatorId)) {
-			return true;
-		}
- 
-		if (Objects.isNull(friendRepository.findAcceptedFriendRelation(ownerId, creatorId))) {
-			return false;
-		}
-		
-		return true;
-	}
-
-	/**
-	 * isInvalidWritePost 의 부정 함수
-	 * 
-	 * @param 	post	: owner(Post의 주인), creatorId(작성자 : Post의 주인, 친구), content(내용)
-	 * @return	Post 작성을 할 수 없다면 true 를 리턴한다.
-	 */
-	public boolean isInvalidWrite(Post post) {
-		return isValidWrite(post) == false;
-	}
-
-	/**
-	 * 10. Post 작성
-	 * Post 의 작성은 자기 자신 또는 친구의 타임라인에 작성할 수 있으며 이후 뉴스피드 목록에 노출될 영역이다.
-	 * 그리고, 자기 자신의 소유인 타임라인과 타임라인이 모인 뉴스피드와 구분될 수 있도록 Post 의 주인을 명시하는 ownerId 프로퍼티가 존재한다.
-	 * 
-	 * @param 	post	: ownerId(Post의 주인), creatorId(작성자 : Post의 주인, 친구), content(내용)
-	 * @return	작성된 Post 의 객체를 리턴한다.
-	 */
-	public Post write(Post post) {		
-		return postRepository.save(create(post));
-	}
-
-	/**
-	 * Post 테이블에 입력될 객체를 리턴한다.
-	 * 
-	 * @param 	post	: owner(Post의 주인), creatorId(작성자 : Post의 주인, 친구), content(내용)
-	 * @return	작성된 Post 의 객체를 리턴한다.
-	 */
-	private Post create(Post post) {
-		Post createdPost = new Post();
-
-		createdPost.setPostPk(PaceBookUtils.generatePrivateKey(POST_PK_PREFIX));
-		createdPost.setOwnerId(post.getOwnerId());
-		createdPost.setContent(post.getContent());
-		createdPost.setCreatorId(post.getCreatorId());
-		createdPost.setCreatedDate(PaceBookUtils.nowDateTime());
-		createdPost.setModifierId(post.getCreatorId());
-		createdPost.setModifiedDate(PaceBookUtils.nowDateTime());
-
-		return createdPost;
-	}
-
-	/**
-	 * Post 를 수정하기 전의 유효성 체크
-	 * 글을 수정 시도자는 modifierId 이다.
-	 * 
-	 * 첫번째 IF : 수정 시도자가 작성자가 아니면 수정할 수 없다.
-	 * 두번째 IF : PostPK 가 어뷰징이 아닌지 체크한다.
-	 * 세번째 IF : 아이디의 유효성 체크
-	 * 네번째 IF : Post 의 내용은 500자 이내여야 한다.
-	 * 다섯째 IF : 수정자와 ownerId가 같다면 본인이 본인이 남긴 글을 수정하는 것이므로 바로 true 를 리턴한다.
-	 * 마지막으로, 다섯번째 IF 를 통과했다면 친구가 남긴 글을 수정하는 것인데 친구관계가 성립되어있어야 한다.
-	 * 
-	 * @param 	post 객체의 날짜를 제외한 모든 항목을 받는다.
-	 * @return	post 객체를 수정할 수 있다면 true 를 리턴한다.
-	 */
-	public boolean isValidModify(Post post) {
-		String postPk = post.getPostPk();
-		String ownerId = post.getOwnerId();
-		String creatorId = post.getCreatorId();
-		String modifierId = post.getModifierId();
-		String content = post.getContent();
-		
-		if (StringUtils.equals(creatorId, modifierId) == false) {
-			return false;
-		}
-
-		if (PaceBookUtils.isInvalidPrivateKey(postPk, POST_PK_PREFIX)) {
-			return false;
-		}
-
-		if (PaceBookUtils.isInvalidUserIds(ownerId, modifierId)) {
-			return false;
-		}
-		
-		if (content.getBytes().length >= MAX_CONTENT_SIZE) {
-			return false;
-		}
-
-		if (StringUtils.equals(ownerId, modifierId)) {
-			return true;
-		}
-
-		return Objects.isNull(friendRepository.findAcceptedFriendRelation(ownerId, modifierId)) == false;
-	}
-
-	/**
-	 * isValidModifyPost 의 부정 함수, Post 를 수정하기 전의 유효성 체크
-	 * 
-	 * @param 	post 객체의 날짜를 제외한 모든 항목을 받는다.
-	 * @return	post 객체를 수정할 수 없다면 true 를 리턴한다.
-	 */
-	public boolean isInvalidModify(Post post) {
-		return isValidModify(post) == false;
-	}
-
-	/**
-	 * 11. Post 수정
-	 * 
-	 * @param	post 객체의 날짜를 제외한 모든 항목을 받는다.
-	 * @return	수정된 Post 객체를 리턴한다.
-	 */
-	public Post modify(Post inputPost) {
-		Post modifiedPost = postRepository.findOne(inputPost.getPostPk());
-
-		if (Objects.isNull(modifiedPost)) {
-			return new Post();
-		}
-
-		setModified(inputPost, modifiedPost);
-
-		return postRepository.save(modifiedPost);
-	}
-
-	/**
-	 * Post 를 수정할 객체를 세팅하며, 내용(content)과 수정일을 업데이트 한다.
-	 * 
-	 * @param post			수정할 내용으로 넘어온 Post 객체
-	 * @param modifiedPost	DB에 저장될 Post 객체
-	 */	
-	private void setModified(Post post, Post modifiedPost) {
-		modifiedPost.setContent(post.getContent());				
-		modifiedPost.setModifierId(post.getModifierId());
-		modifiedPost.setModifiedDate(PaceBookUtils.nowDateTime());
-	}
-
-	/**
-	 * Post 를 삭제하기 전의 유효성 체크
-	 * Post 는 본인이 본인 타임라인에 작성한 것을 삭제할 수 있으며, 삭제 시도자는 modifierId 이다.
-	 * 첫번째 IF : PostPK 가 어뷰징이 아닌지 체크한다.
-	 * 두번째 IF : 아이디의 유효성 체크
-	 * 세번째 IF : 본인이 자신에게 쓴 글은 삭제 가능하다.
-	 * 네번째 IF : 세번째 IF 를 통과했다면 친구가 남긴글인데 역시 친구관계가 유효해야 삭제할 수 있다.
-	 * 
-	 * @param 	post 객체
-	 * @return	post 객체를 삭제할 수 있다면 true 를 리턴한다.
-	 */
-	public boolean isValidDelete(Post post) {
-		String postPk = post.getPostPk();
-		String ownerId = post.getOwnerId();
-		String modifierId = post.getModifierId();	
-
-		if (PaceBookUtils.isInvalidPrivateKey(postPk, POST_PK_PREFIX)) {
-			return false;
-		}
-
-		if (PaceBookUtils.isInvalidUserIds(ownerId, modifierId)) {
-			return false;
-		}
-
-		if (StringUtils.equals(ownerId, modifierId)) {
-			return true;
-		}
-
-		if (Objects.isNull(friendRepository.findAcceptedFriendRelation(ownerId, modifierId))) {
-			return false;
-		}
-
-		return true;
-	}
-
-	/**
-	 * isValidDeletePost 의 부정 함수, Post 를 삭제하기 전의 유효성 체크
-	 * 
-	 * @param 	post 객체
-	 * @return	post 객체를 수정할 수 없다면 true 를 리턴한다.
-	 */
-	public boolean isInvalidDelete(Post post) {
-		return isValidDelete(post) == false;
-	}
-
-	/**
-	 * 12. Post 삭제
-	 * 
-	 * @param post 객체 항목을 받는다.
-	 */
-	public void delete(Post post) {
-		Post deletePost = postRepository.findOne(post.getPostPk());
-
-		postRepository.delete(deletePost);
-	}
+package com.pacebookcorp.doragee.service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.pacebookcorp.doragee.cache.TimelineCache;
+import com.pacebookcorp.doragee.dto.NewsfeedDelta;
+import com.pacebookcorp.doragee.dto.PostPage;
+import com.pacebookcorp.doragee.dto.PostSummary;
+import com.pacebookcorp.doragee.dto.PostSummaryPage;
+import com.pacebookcorp.doragee.entity.Post;
+import com.pacebookcorp.doragee.graph.FollowGraph;
+import com.pacebookcorp.doragee.repository.PostRepository;
+import com.pacebookcorp.doragee.util.FeedCursor;
+import com.pacebookcorp.doragee.util.PaceBookUtils;
+
+/**
+ * PaceBook 서비스의 Post 관련 기능을 담당하는 클래스(Post 의 CRUD)
+ *
+ * @author Kwon Young
+ */
+@Service
+public class PostService {	
+	private static final String POST_PK_PREFIX = "post";
+	private static final int MAX_CONTENT_SIZE = 500;
+	
+	@Autowired
+	private PostRepository postRepository;
+
+	@Autowired
+	private FollowGraph followGraph;
+
+	@Autowired
+	private FeedService feedService;
+
+	@Autowired
+	private FeedMergeService feedMergeService;
+
+	@Autowired
+	private FeedDeltaService feedDeltaService;
+
+	@Autowired
+	private TimelineCache timelineCache;
+
+	@Autowired
+	private UserCountService userCountService;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	/**
+	 * 2. 특정 유저의 뉴스피드 조회
+	 * 팔로우 대상들의 타임라인을 작성자별로 읽어 병합한다.(FeedMergeService)
+	 *
+	 * @param 	userId 특정 유저 계정(id)
+	 * @return	userId 와 친구관계를 맺은 사람들이 작성한 Post 목록을 가져오는데, 친구 관계더라도 팔로우가 활성화 된 친구의 Post만 가져온다. 정렬 기준은 Post 가 수정된 날짜 기준이다.(수정일이 작성일보다 최근)
+	 */
+	public List<Post> newsfeed(String userId) {
+		return feedMergeService.newsfeed(userId);
+	}
+
+	/**
+	 * 2-1. 특정 유저의 뉴스피드 페이지 조회
+	 * Post 작성 시점에 미리 펼쳐둔 뉴스피드 테이블(t_feed)에서 (수정일, PK) 기준 keyset 페이지 단위로 조회한다.
+	 *
+	 * @param 	userId	특정 유저 계정(id)
+	 * @param 	cursor	이전 페이지에서 리턴받은 커서, 비어있다면 첫 페이지를 조회한다.
+	 * @param 	size	한 페이지에 담을 Post 수, 비어있다면 기본값(20)
+	 * @return	뉴스피드 한 페이지와 다음 페이지 커서, 마지막 페이지라면 다음 페이지 커서는 null 이다.
+	 */
+	public PostPage newsfeed(String userId, String cursor, Integer size) {
+		return feedService.newsfeed(userId, cursor, size);
+	}
+
+	/**
+	 * 2-4. 특정 유저의 뉴스피드 요약 페이지 조회
+	 * 엔티티 대신 요약 컬럼만 조회한다.
+	 *
+	 * @param 	userId	특정 유저 계정(id)
+	 * @param 	cursor	이전 페이지에서 리턴받은 커서, 비어있다면 첫 페이지를 조회한다.
+	 * @param 	size	한 페이지에 담을 Post 수, 비어있다면 기본값(20)
+	 * @return	내용을 잘라낸 Post 요약 한 페이지와 다음 페이지 커서
+	 */
+	public PostSummaryPage newsfeedSummary(String userId, String cursor, Integer size) {
+		return feedService.newsfeedSummary(userId, cursor, size);
+	}
+
+	/**
+	 * 2-2. 특정 유저의 뉴스피드 변경분 조회
+	 * 워터마크(since) 이후 작성, 수정된 Post 와 삭제된 Post PK 만 조회한다.
+	 *
+	 * @param 	userId	특정 유저 계정(id)
+	 * @param 	since	이전 응답의 워터마크(epoch millis), 첫 조회라면 null
+	 * @return	변경된 Post, 삭제된 Post PK, 다음 요청에 넘길 워터마크
+	 */
+	public NewsfeedDelta newsfeedDelta(String userId, Long since) {
+		return feedDeltaService.delta(userId, since);
+	}
+	
+	/**
+	 * 3. 특정 유저의 타임라인 조회
+	 *
+	 * @param	userId 특정 유저 계정(id)
+	 * @return	userId 의 타임라인에 게시된 Post를 가져오는데, 자신이 작성한 것과 친구가 자신에게 남긴 글을 가져온다. 정렬 기준은 수정일 최신순이다.
+	 */
+	public List<Post> timeline(String userId) {		
+		return postRepository.timeline(userId);
+	}
+
+	/**
+	 * 3-3. 특정 유저의 타임라인 페이지 조회
+	 * t_post 의 (ownr_id, mod_ymdt, post_pk) 인덱스 범위를 커서부터 size + 1 건만 읽으므로, Post 가 많은 유저도 조회 비용이 일정하다.
+	 * 첫 페이지는 쓰기 시점에 함께 고쳐두는 캐시(TimelineCache)로 조회하고, 캐시되지 않은 주인이라면 최신 Post 를 읽어 캐시에 담는다.
+	 *
+	 * @param 	userId	특정 유저 계정(id)
+	 * @param 	cursor	이전 페이지에서 리턴받은 커서, 비어있다면 첫 페이지를 조회한다.
+	 * @param 	size	한 페이지에 담을 Post 수, 비어있다면 기본값(20)
+	 * @return	타임라인 한 페이지와 다음 페이지 커서, 마지막 페이지라면 다음 페이지 커서는 null 이다.
+	 */
+	public PostPage timeline(String userId, String cursor, Integer size) {
+		int pageSize = PaceBookUtils.pageSize(size);
+		List<Post> posts;
+
+		if (FeedCursor.isFirstPage(cursor)) {
+			posts = cachedFirstPage(userId, pageSize + 1);
+		} else {
+			FeedCursor feedCursor = FeedCursor.decode(cursor);
+
+			posts = postRepository.findOlderByOwner(userId, feedCursor.getModifiedDate(), feedCursor.getPostPk(), new PageRequest(0, pageSize + 1));
+		}
+
+		return PostPage.of(posts, pageSize);
+	}
+
+	/**
+	 * 캐시에 담긴 타임라인 첫 페이지를 조회한다.
+	 * 캐시로 채울 수 없다면 캐시가 담는 최신 pageSize + 1 건을 읽어 캐시에 담는다. 캐시 페이지 크기보다 큰 페이지는 캐시를 거치지 않는다.
+	 * 읽기 전에 스탬프를 받아두므로, 읽는 도중 커밋된 작성, 수정, 삭제가 빠진 목록은 캐시에 담기지 않는다.
+	 *
+	 * @param 	userId	타임라인 주인
+	 * @param 	limit	size + 1 건
+	 * @return	수정일 최신순으로 정렬된 최대 limit 건의 Post 목록
+	 */
+	private List<Post> cachedFirstPage(String userId, int limit) {
+		int cachedSize = timelineCache.getPageSize() + 1;
+
+		if (limit > cachedSize) {
+			return postRepository.findLatestByOwner(userId, new PageRequest(0, limit));
+		}
+
+		List<Post> posts = timelineCache.firstPage(userId, limit);
+
+		if (Objects.nonNull(posts)) {
+			return posts;
+		}
+
+		long stamp = timelineCache.stamp(userId);
+
+		posts = postRepository.findLatestByOwner(userId, new PageRequest(0, cachedSize));
+
+		timelineCache.load(userId, posts, posts.size() == cachedSize, stamp);
+
+		return posts.size() > limit ? posts.subList(0, limit) : posts;
+	}
+
+	/**
+	 * 3-4. 특정 유저의 타임라인 요약 페이지 조회
+	 *
+	 * @param 	userId	특정 유저 계정(id)
+	 * @param 	cursor	이전 페이지에서 리턴받은 커서, 비어있다면 첫 페이지를 조회한다.
+	 * @param 	size	한 페이지에 담을 Post 수, 비어있다면 기본값(20)
+	 * @return	내용을 잘라낸 Post 요약 한 페이지와 다음 페이지 커서
+	 */
+	public PostSummaryPage timelineSummary(String userId, String cursor, Integer size) {
+		return PostSummaryPage.of(timeline(userId, cursor, size));
+	}
+
+	/**
+	 * 2-3. 특정 유저의 뉴스피드 스트리밍 조회
+	 *
+	 * @param userId	특정 유저 계정(id)
+	 * @param consumer	수정일 최신순으로 Post 를 받아 쓰는 Consumer
+	 */
+	public void streamNewsfeed(String userId, Consumer<Post> consumer) {
+		feedMergeService.streamNewsfeed(userId, consumer);
+	}
+
+	/**
+	 * 3-2. 특정 유저의 타임라인 요약 조회
+	 * 엔티티 대신 필요한 컬럼과 잘라낸 내용만 조회(DTO projection)하므로 영속성 컨텍스트에 올라가지 않는다.
+	 *
+	 * @param 	userId 특정 유저 계정(id)
+	 * @return	수정일 최신순 Post 요약 목록
+	 */
+	public List<PostSummary> timelineSummary(String userId) {
+		return postRepository.timelineSummary(userId);
+	}
+
+	/**
+	 * 3-1. 특정 유저의 타임라인 스트리밍 조회
+	 * forward-only JDBC 커서로 한 행씩 읽어 consumer 에 넘기고 영속성 컨텍스트에서 떼어내므로, 타임라인 크기와 무관하게 메모리가 일정하다.
+	 *
+	 * @param userId	특정 유저 계정(id)
+	 * @param consumer	수정일 최신순으로 Post 를 받아 쓰는 Consumer
+	 */
+	@Transactional(readOnly = true)
+	public void streamTimeline(String userId, Consumer<Post> consumer) {
+		try (Stream<Post> posts = postRepository.streamTimeline(userId)) {
+			posts.forEach(post -> {
+				consumer.accept(post);
+				entityManager.detach(post);
+			});
+		}
+	}
+
+	/**
+	 * Post 작성의 유효성 체크
+	 * 첫번째 IF : 아이디 유효성
+	 * 두번째 IF : 내용은 500자가 넘지 않아야 한다.
+	 * 세번째 IF : 자기 자신에게 쓰는 것이라면 네번째 IF(친구 관계) 필요없이 true 리턴한다.
+	 * 두번째 IF : 세번째 IF 를 통과했다면 친구에게 글을 남기는 것인데 친구 관계가 유효해야 한다.
+	 *
+	 * @param 	post	: ownerId(Post의 주인), creatorId(작성자 : Post의 주인, 친구), content(내용)
+	 * @return	Post 작성을 할 수 있다면 true 를 리턴한다.
+	 */
+	public boolean isValidWrite(Post post) {		
+		String ownerId = post.getOwnerId();
+		String creatorId = post.getCreatorId();
+		String content = post.getContent();
+
+		if (PaceBookUtils.isInvalidUserIds(ownerId, creatorId)) {
+			return false;
+		}
+
+		if (StringUtils.length(content) >= MAX_CONTENT_SIZE) {
+			return false;
+		}
+		
+		if (StringUtils.equals(ownerId, creatorId)) {
+			return true;
+		}
+ 
+		if (followGraph.isFriend(ownerId, creatorId) == false) {
+			return false;
+		}
+		
+		return true;
+	}
+
+	/**
+	 * isInvalidWritePost 의 부정 함수
+	 *
+	 * @param 	post	: owner(Post의 주인), creatorId(작성자 : Post의 주인, 친구), content(내용)
+	 * @return	Post 작성을 할 수 없다면 true 를 리턴한다.
+	 */
+	public boolean isInvalidWrite(Post post) {
+		return isValidWrite(post) == false;
+	}
+
+	/**
+	 * 10. Post 작성
+	 * Post 의 작성은 자기 자신 또는 친구의 타임라인에 작성할 수 있으며 이후 뉴스피드 목록에 노출될 영역이다.
+	 * 그리고, 자기 자신의 소유인 타임라인과 타임라인이 모인 뉴스피드와 구분될 수 있도록 Post 의 주인을 명시하는 ownerId 프로퍼티가 존재한다.
+	 *
+	 * @param 	post	: ownerId(Post의 주인), creatorId(작성자 : Post의 주인, 친구), content(내용)
+	 * @return	작성된 Post 의 객체를 리턴한다.
+	 */
+	@Transactional
+	public Post write(Post post) {		
+		Post createdPost = postRepository.save(create(post));
+
+		feedService.push(createdPost);
+		PaceBookUtils.afterCommit(() -> timelineCache.put(createdPost));
+		userCountService.written(createdPost);
+
+		return createdPost;
+	}
+
+	/**
+	 * Post 테이블에 입력될 객체를 리턴한다.
+	 *
+	 * @param 	post	: owner(Post의 주인), creatorId(작성자 : Post의 주인, 친구), content(내용)
+	 * @return	작성된 Post 의 객체를 리턴한다.
+	 */
+	private Post create(Post post) {
+		Post createdPost = new Post();
+
+		createdPost.setPostPk(PaceBookUtils.generatePrivateKey(POST_PK_PREFIX));
+		createdPost.setOwnerId(post.getOwnerId());
+		createdPost.setContent(post.getContent());
+		createdPost.setCreatorId(post.getCreatorId());
+		createdPost.setCreatedDate(PaceBookUtils.nowDateTime());
+		createdPost.setModifierId(post.getCreatorId());
+		createdPost.setModifiedDate(PaceBookUtils.nowDateTime());
+
+		return createdPost;
+	}
+
+	/**
+	 * Post 를 수정하기 전의 유효성 체크
+	 * 글을 수정 시도자는 modifierId 이다.
+	 *
+	 * 첫번째 IF : 수정 시도자가 작성자가 아니면 수정할 수 없다.
+	 * 두번째 IF : PostPK 가 어뷰징이 아닌지 체크한다.
+	 * 세번째 IF : 아이디의 유효성 체크
+	 * 네번째 IF : Post 의 내용은 500자 이내여야 한다.
+	 * 다섯째 IF : 수정자와 ownerId가 같다면 본인이 본인이 남긴 글을 수정하는 것이므로 바로 true 를 리턴한다.
+	 * 마지막으로, 다섯번째 IF 를 통과했다면 친구가 남긴 글을 수정하는 것인데 친구관계가 성립되어있어야 한다.
+	 *
+	 * @param 	post 객체의 날짜를 제외한 모든 항목을 받는다.
+	 * @return	post 객체를 수정할 수 있다면 true 를 리턴한다.
+	 */
+	public boolean isValidModify(Post post) {
+		String postPk = post.getPostPk();
+		String ownerId = post.getOwnerId();
+		String creatorId = post.getCreatorId();
+		String modifierId = post.getModifierId();
+		String content = post.getContent();
+		
+		if (StringUtils.equals(creatorId, modifierId) == false) {
+			return false;
+		}
+
+		if (PaceBookUtils.isInvalidPrivateKey(postPk, POST_PK_PREFIX)) {
+			return false;
+		}
+
+		if (PaceBookUtils.isInvalidUserIds(ownerId, modifierId)) {
+			return false;
+		}
+		
+		if (content.getBytes().length >= MAX_CONTENT_SIZE) {
+			return false;
+		}
+
+		if (StringUtils.equals(ownerId, modifierId)) {
+			return true;
+		}
+
+		return followGraph.isFriend(ownerId, modifierId);
+	}
+
+	/**
+	 * isValidModifyPost 의 부정 함수, Post 를 수정하기 전의 유효성 체크
+	 *
+	 * @param 	post 객체의 날짜를 제외한 모든 항목을 받는다.
+	 * @return	post 객체를 수정할 수 없다면 true 를 리턴한다.
+	 */
+	public boolean isInvalidModify(Post post) {
+		return isValidModify(post) == false;
+	}
+
+	/**
+	 * 11. Post 수정
+	 *
+	 * @param	post 객체의 날짜를 제외한 모든 항목을 받는다.
+	 * @return	수정된 Post 객체를 리턴한다.
+	 */
+	@Transactional
+	public Post modify(Post inputPost) {
+		Post modifiedPost = postRepository.findOne(inputPost.getPostPk());
+
+		if (Objects.isNull(modifiedPost)) {
+			return new Post();
+		}
+
+		setModified(inputPost, modifiedPost);
+
+		Post savedPost = postRepository.save(modifiedPost);
+
+		feedService.refresh(savedPost);
+		PaceBookUtils.afterCommit(() -> timelineCache.put(savedPost));
+
+		return savedPost;
+	}
+
+	/**
+	 * Post 를 수정할 객체를 세팅하며, 내용(content)과 수정일을 업데이트 한다.
+	 *
+	 * @param post			수정할 내용으로 넘어온 Post 객체
+	 * @param modifiedPost	DB에 저장될 Post 객체
+	 */	
+	private void setModified(Post post, Post modifiedPost) {
+		modifiedPost.setContent(post.getContent());				
+		modifiedPost.setModifierId(post.getModifierId());
+		modifiedPost.setModifiedDate(PaceBookUtils.nowDateTime());
+	}
+
+	/**
+	 * Post 를 삭제하기 전의 유효성 체크
+	 * Post 는 본인이 본인 타임라인에 작성한 것을 삭제할 수 있으며, 삭제 시도자는 modifierId 이다.
+	 * 첫번째 IF : PostPK 가 어뷰징이 아닌지 체크한다.
+	 * 두번째 IF : 아이디의 유효성 체크
+	 * 세번째 IF : 본인이 자신에게 쓴 글은 삭제 가능하다.
+	 * 네번째 IF : 세번째 IF 를 통과했다면 친구가 남긴글인데 역시 친구관계가 유효해야 삭제할 수 있다.
+	 *
+	 * @param 	post 객체
+	 * @return	post 객체를 삭제할 수 있다면 true 를 리턴한다.
+	 */
+	public boolean isValidDelete(Post post) {
+		String postPk = post.getPostPk();
+		String ownerId = post.getOwnerId();
+		String modifierId = post.getModifierId();	
+
+		if (PaceBookUtils.isInvalidPrivateKey(postPk, POST_PK_PREFIX)) {
+			return false;
+		}
+
+		if (PaceBookUtils.isInvalidUserIds(ownerId, modifierId)) {
+			return false;
+		}
+
+		if (StringUtils.equals(ownerId, modifierId)) {
+			return true;
+		}
+
+		if (followGraph.isFriend(ownerId, modifierId) == false) {
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * isValidDeletePost 의 부정 함수, Post 를 삭제하기 전의 유효성 체크
+	 *
+	 * @param 	post 객체
+	 * @return	post 객체를 수정할 수 없다면 true 를 리턴한다.
+	 */
+	public boolean isInvalidDelete(Post post) {
+		return isValidDelete(post) == false;
+	}
+
+	/**
+	 * 12. Post 삭제
+	 * 뉴스피드 변경분 조회에서 삭제를 알 수 있도록 삭제 이력(tombstone)을 남긴다.
+	 *
+	 * @param post 객체 항목을 받는다.
+	 */
+	@Transactional
+	public void delete(Post post) {
+		Post deletePost = postRepository.findOne(post.getPostPk());
+
+		postRepository.delete(deletePost);
+		feedService.remove(post);
+		feedDeltaService.tombstone(deletePost);
+		PaceBookUtils.afterCommit(() -> timelineCache.remove(deletePost.getOwnerId(), deletePost.getPostPk()));
+		userCountService.deleted(deletePost);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,429 @@
+package com.pacebookcorp.doragee.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.pacebookcorp.doragee.dictionary.UserDictionary;
+import com.pacebookcorp.doragee.dto.Suggestion;
+import com.pacebookcorp.doragee.dto.SuggestionStats;
+import com.pacebookcorp.doragee.graph.FollowGraph;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 친구의 친구를 함께 아는 친구 수 순서로 추천하는 클래스
+ * t_frnd 를 조인하지 않고 메모리의 친구 관계 그래프(FollowGraph)를 유저 번호(UserDictionary)로 2 단계 훑어(친구 -> 친구의 친구) 후보별 함께 아는 친구 수를 센다.
+ *
+ * 친구가 많은 유저는 친구 목록을 나누어 크기가 정해진 ForkJoinPool 에서 병렬로 세고, 스레드마다 유저 번호로 바로 찾는 int 배열 계수기를 재사용한다.
+ * 센 후보는 이미 관계(신청, 수락, 끊기 모두)가 있는 유저를 빼고 크기 size 의 힙으로 상위 size 명만 고른다.
+ * 순서는 함께 아는 친구 수가 많은 순, 같다면 유저 번호가 작은(사전에 먼저 담긴) 유저 순이다.
+ *
+ * 계산한 추천 목록은 유저별로 담아두고(LRU), 친구 수락, 끊기 때는 바뀐 두 유저의 목록만 비우고
+ * 두 유저의 친구들 목록은 바뀐 후보 한 명의 함께 아는 친구 수만 다시 세어 그 자리에서 고친다.
+ *
+ * @author Kwon Young
+ */
+@Service
+@Slf4j
+public class SuggestionService {
+	private static final int PARALLEL_THRESHOLD = 64;
+	private static final int CHUNKS_PER_THREAD = 4;
+	private static final int INITIAL_USERS = 1024;
+	private static final String SUGGESTION_STOPPED = "Suggestion is stopped.";
+
+	private static final Comparator<int[]> WORST_FIRST = (left, right) -> left[1] != right[1] ? Integer.compare(left[1], right[1]) : Integer.compare(right[0], left[0]);
+
+	private final FollowGraph followGraph;
+	private final UserDictionary userDictionary;
+	private final int size;
+	private final int maxUsers;
+	private final int parallelism;
+	private final ForkJoinPool pool;
+	private final ThreadLocal<Counter> counters = ThreadLocal.withInitial(Counter::new);
+
+	private final Map<String, List<Candidate>> suggestions = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<String, Boolean> computing = new HashMap<>();
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder computations = new LongAdder();
+	private final LongAdder computeNanos = new LongAdder();
+	private final LongAdder refreshes = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	@Autowired
+	public SuggestionService(FollowGraph followGraph,
+							 UserDictionary userDictionary,
+							 @Value("${pacebook.suggestion.size:20}") int size,
+							 @Value("${pacebook.suggestion.cache.max-users:10000}") int maxUsers,
+							 @Value("${pacebook.suggestion.parallelism:4}") int parallelism) {
+		if (size < 1 || maxUsers < 1) {
+			throw new IllegalArgumentException("suggestion size is illegal.");
+		}
+
+		this.followGraph = followGraph;
+		this.userDictionary = userDictionary;
+		this.size = size;
+		this.maxUsers = maxUsers;
+		this.parallelism = Math.max(1, parallelism);
+		this.pool = new ForkJoinPool(this.parallelism);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * 13. 친구 추천 조회
+	 * 담아둔 추천 목록이 있다면 그대로, 없다면 2 단계 탐색으로 계산하여 담는다.
+	 * 계산하는 동안 친구 수락, 끊기로 목록이 바뀌었다면 계산한 목록은 담지 않는다.
+	 *
+	 * @param 	userId	유저 계정
+	 * @return	함께 아는 친구 수가 많은 순으로 최대 size 명의 추천
+	 */
+	public List<Suggestion> suggestions(String userId) {
+		synchronized (this) {
+			List<Candidate> cached = suggestions.get(userId);
+
+			if (Objects.nonNull(cached)) {
+				hits.increment();
+				return toSuggestions(cached);
+			}
+
+			computing.put(userId, false);
+		}
+
+		long start = System.nanoTime();
+		List<Candidate> computed = null;
+
+		try {
+			computed = compute(userId);
+		} finally {
+			synchronized (this) {
+				if (Boolean.FALSE.equals(computing.remove(userId)) && Objects.nonNull(computed)) {
+					suggestions.put(userId, computed);
+					evict();
+				}
+			}
+		}
+
+		computations.increment();
+		computeNanos.add(System.nanoTime() - start);
+
+		return toSuggestions(computed);
+	}
+
+	/**
+	 * 친구 신청 : 두 유저는 서로의 후보에서 빠지므로 두 유저의 목록만 비운다.
+	 *
+	 * @param applierId		친구신청자
+	 * @param acceptorId	친구수락자
+	 */
+	public synchronized void applied(String applierId, String acceptorId) {
+		invalidate(applierId);
+		invalidate(acceptorId);
+	}
+
+	/**
+	 * 친구 수락, 끊기 : FollowGraph 에 바뀐 관계가 담긴 뒤에 호출한다.
+	 * 두 유저의 목록은 비우고, 한쪽의 친구들 목록은 다른 쪽 유저 한 명의 함께 아는 친구 수만 다시 세어 고친다.
+	 *
+	 * @param applierId		친구신청자
+	 * @param acceptorId	친구수락자
+	 */
+	public synchronized void changed(String applierId, String acceptorId) {
+		invalidate(applierId);
+		invalidate(acceptorId);
+
+		followGraph.friendIds(applierId).forEach(friendId -> refresh(friendId, acceptorId));
+		followGraph.friendIds(acceptorId).forEach(friendId -> refresh(friendId, applierId));
+	}
+
+	/**
+	 * 모든 추천 목록을 비운다.
+	 */
+	public synchronized void clear() {
+		suggestions.clear();
+		computing.replaceAll((userId, stale) -> true);
+	}
+
+	/**
+	 * @return	적중, 계산, 고친 횟수와 평균 계산 시간, 캐시 사용량
+	 */
+	public synchronized SuggestionStats stats() {
+		long computed = computations.sum();
+
+		return new SuggestionStats(hits.sum(),
+								   computed,
+								   computed == 0L ? 0.0 : (double) TimeUnit.NANOSECONDS.toMicros(computeNanos.sum()) / 1000.0 / computed,
+								   refreshes.sum(),
+								   invalidations.sum(),
+								   evictions.sum(),
+								   suggestions.size(),
+								   maxUsers,
+								   size);
+	}
+
+	/**
+	 * 친구 목록을 나누어 친구의 친구를 세고 상위 size 명을 고른다. 친구가 PARALLEL_THRESHOLD 명 미만이라면 요청 스레드에서 바로 센다.
+	 */
+	private List<Candidate> compute(String userId) {
+		int user = userDictionary.numberOf(userId);
+
+		if (user < 0) {
+			return new ArrayList<>();
+		}
+
+		int[] friends = followGraph.neighborIndexes(user, true);
+		int[] related = followGraph.neighborIndexes(user, false);
+		Counter counter = counters.get();
+
+		if (friends.length < PARALLEL_THRESHOLD) {
+			count(friends, 0, friends.length, counter);
+		} else {
+			countParallel(friends).forEach(counter::addAll);
+		}
+
+		return top(user, related, counter.drain());
+	}
+
+	private List<int[][]> countParallel(int[] friends) {
+		int chunks = Math.min(friends.length, parallelism * CHUNKS_PER_THREAD);
+
+		try {
+			return pool.submit(() -> IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+				Counter counter = counters.get();
+
+				count(friends, (int) ((long) friends.length * chunk / chunks), (int) ((long) friends.length * (chunk + 1) / chunks), counter);
+
+				return counter.drain();
+			}).collect(Collectors.toList())).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(SUGGESTION_STOPPED, e);
+		} catch (ExecutionException e) {
+			log.error(SUGGESTION_STOPPED, e);
+			throw new IllegalStateException(SUGGESTION_STOPPED, e.getCause());
+		}
+	}
+
+	private void count(int[] friends, int from, int to, Counter counter) {
+		for (int i = from; i < to; i++) {
+			followGraph.forEachFriend(friends[i], counter::increment);
+		}
+	}
+
+	/**
+	 * 본인과 이미 관계가 있는 유저를 빼고, 가장 순위가 낮은 후보가 맨 위에 오는 크기 size 의 힙으로 상위 size 명을 고른다.
+	 *
+	 * @param 	user		유저 번호
+	 * @param 	related		관계가 있는 상대 번호(정렬)
+	 * @param 	counted		후보 번호와 함께 아는 친구 수
+	 * @return	순위 순서의 추천 목록
+	 */
+	private List<Candidate> top(int user, int[] related, int[][] counted) {
+		PriorityQueue<int[]> heap = new PriorityQueue<>(size + 1, WORST_FIRST);
+
+		for (int i = 0; i < counted[0].length; i++) {
+			int candidate = counted[0][i];
+
+			if (candidate == user || Arrays.binarySearch(related, candidate) >= 0) {
+				continue;
+			}
+
+			int[] entry = {candidate, counted[1][i]};
+
+			if (heap.size() < size) {
+				heap.add(entry);
+			} else if (WORST_FIRST.compare(entry, heap.peek()) > 0) {
+				heap.poll();
+				heap.add(entry);
+			}
+		}
+
+		List<Candidate> candidates = new ArrayList<>(heap.size());
+
+		while (heap.isEmpty() == false) {
+			int[] entry = heap.poll();
+
+			candidates.add(0, new Candidate(entry[0], userDictionary.userIdOf(entry[0]), entry[1]));
+		}
+
+		return candidates;
+	}
+
+	/**
+	 * userId 의 목록에서 candidateId 의 함께 아는 친구 수를 다시 세어 순위 위치로 옮긴다.
+	 * 목록이 size 명으로 가득 찬 상태에서 담긴 후보의 수가 줄었다면, 목록 밖의 후보가 앞설 수 있으므로 목록을 비운다.
+	 */
+	private void refresh(String userId, String candidateId) {
+		computing.replace(userId, true);
+
+		List<Candidate> cached = suggestions.get(userId);
+
+		if (Objects.isNull(cached) || StringUtils.equals(userId, candidateId)) {
+			return;
+		}
+
+		int mutualFriends = followGraph.isRelated(userId, candidateId) ? 0 : followGraph.mutualFriendCount(userId, candidateId);
+		boolean full = cached.size() == size;
+		Candidate previous = null;
+		Iterator<Candidate> iterator = cached.iterator();
+
+		while (iterator.hasNext()) {
+			Candidate candidate = iterator.next();
+
+			if (StringUtils.equals(candidate.userId, candidateId)) {
+				previous = candidate;
+				iterator.remove();
+				break;
+			}
+		}
+
+		if (Objects.nonNull(previous) && full && mutualFriends < previous.mutualFriends) {
+			invalidate(userId);
+			return;
+		}
+
+		refreshes.increment();
+
+		if (mutualFriends == 0) {
+			return;
+		}
+
+		Candidate changed = new Candidate(userDictionary.numberOf(candidateId), candidateId, mutualFriends);
+		int k = 0;
+
+		while (k < cached.size() && cached.get(k).isAhead(changed)) {
+			k++;
+		}
+
+		if (k == size) {
+			return;
+		}
+
+		cached.add(k, changed);
+
+		if (cached.size() > size) {
+			cached.remove(cached.size() - 1);
+		}
+	}
+
+	private void invalidate(String userId) {
+		computing.replace(userId, true);
+
+		if (Objects.nonNull(suggestions.remove(userId))) {
+			invalidations.increment();
+		}
+	}
+
+	private void evict() {
+		Iterator<List<Candidate>> eldest = suggestions.values().iterator();
+
+		while (suggestions.size() > maxUsers && eldest.hasNext()) {
+			eldest.next();
+			eldest.remove();
+			evictions.increment();
+		}
+	}
+
+	private static List<Suggestion> toSuggestions(List<Candidate> candidates) {
+		return candidates.stream()
+						 .map(candidate -> new Suggestion(candidate.userId, candidate.mutualFriends))
+						 .collect(Collectors.toList());
+	}
+
+	/**
+	 * 추천 후보 한 명 : 유저 번호, 계정, 함께 아는 친구 수
+	 */
+	private static class Candidate {
+		private final int user;
+		private final String userId;
+		private final int mutualFriends;
+
+		private Candidate(int user, String userId, int mutualFriends) {
+			this.user = user;
+			this.userId = userId;
+			this.mutualFriends = mutualFriends;
+		}
+
+		private boolean isAhead(Candidate other) {
+			return mutualFriends != other.mutualFriends ? mutualFriends > other.mutualFriends : user < other.user;
+		}
+	}
+
+	/**
+	 * 스레드마다 재사용하는 후보별 계수기
+	 * 유저 번호를 위치로 쓰는 int 배열에 세고, 센 번호를 따로 모아두어 다 쓴 뒤에는 센 위치만 0 으로 되돌린다.
+	 */
+	private static class Counter {
+		private int[] counts = new int[INITIAL_USERS];
+		private int[] touched = new int[INITIAL_USERS];
+		private int touchedSize;
+
+		private void increment(int user) {
+			add(user, 1);
+		}
+
+		private void addAll(int[][] counted) {
+			for (int i = 0; i < counted[0].length; i++) {
+				add(counted[0][i], counted[1][i]);
+			}
+		}
+
+		private void add(int user, int count) {
+			if (user >= counts.length) {
+				counts = Arrays.copyOf(counts, Math.max(user + 1, counts.length * 2));
+			}
+
+			if (counts[user] == 0) {
+				if (touchedSize == touched.length) {
+					touched = Arrays.copyOf(touched, touchedSize * 2);
+				}
+
+				touched[touchedSize++] = user;
+			}
+
+			counts[user] += count;
+		}
+
+		/**
+		 * @return	센 후보 번호와 같은 위치의 수, 계수기는 비워진다.
+		 */
+		private int[][] drain() {
+			int[][] counted = new int[2][touchedSize];
+
+			for (int i = 0; i < touchedSize; i++) {
+				counted[0][i] = touched[i];
+				counted[1][i] = counts[touched[i]];
+				counts[touched[i]] = 0;
+			}
+
+			touchedSize = 0;
+
+			return counted;
+		}
+	}
+}
\ No newline at end of file
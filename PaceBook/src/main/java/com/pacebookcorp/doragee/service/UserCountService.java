@@ -0,0 +1,308 @@
+package com.pacebookcorp.doragee.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.pacebookcorp.doragee.dto.FriendRelation;
+import com.pacebookcorp.doragee.entity.Post;
+import com.pacebookcorp.doragee.entity.UserCount;
+import com.pacebookcorp.doragee.repository.UserCountBatchRepository;
+import com.pacebookcorp.doragee.repository.UserCountRepository;
+import com.pacebookcorp.doragee.util.PaceBookUtils;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 유저별 친구, 팔로워, 팔로잉, Post 수를 관리하는 클래스
+ * 친구 관계나 Post 가 바뀔 때마다 t_user_cnt 를 수정하면 인기 유저의 행에 잠금이 몰리므로,
+ * 커밋된 변화량을 유저별 LongAdder 에 모아두었다가 주기적으로 한 번에 더한다.(flush)
+ * 조회는 t_user_cnt 의 값에 아직 더하지 않은 변화량을 합쳐 리턴하므로 flush 주기와 무관하게 최신이다.
+ *
+ * 변화량이 유실되거나(서버 비정상 종료) 어긋날 수 있으므로, 하루 한 번 유저 계정 구간별로 t_frnd / t_post 를 다시 세어 덮어쓴다.(reconcile)
+ *
+ * @author Kwon Young
+ */
+@Service
+@Slf4j
+public class UserCountService {
+	@Autowired
+	private UserCountRepository userCountRepository;
+
+	@Autowired
+	private UserCountBatchRepository userCountBatchRepository;
+
+	private static final int RECONCILE_CHUNK_SIZE = 1000;
+
+	private final ReadWriteLock pendingLock = new ReentrantReadWriteLock();
+	private final ReadWriteLock flushLock = new ReentrantReadWriteLock();		// 조회(read) / 떼어낸 변화량 반영(write)
+	private Map<String, Counter> pending = new ConcurrentHashMap<>();
+
+	/**
+	 * 친구 수락, 끊기, 팔로우, 언팔로우 : 바뀌기 전후 상태의 차이만큼 두 유저의 집계를 바꾼다.
+	 * 팔로우는 친구 관계일 때만 센다.
+	 *
+	 * @param loaded	조회한 친구 관계 상태
+	 * @param changed	바뀐 친구 관계 상태
+	 */
+	public void changed(FriendRelation loaded, FriendRelation changed) {
+		int friendDelta = count(changed.isAccepted()) - count(loaded.isAccepted());
+		int applierFollowsDelta = countFollow(changed, true) - countFollow(loaded, true);
+		int acceptorFollowsDelta = countFollow(changed, false) - countFollow(loaded, false);
+
+		if (friendDelta == 0 && applierFollowsDelta == 0 && acceptorFollowsDelta == 0) {
+			return;
+		}
+
+		PaceBookUtils.afterCommit(() -> {
+			add(changed.getApplierId(), friendDelta, acceptorFollowsDelta, applierFollowsDelta, 0);
+			add(changed.getAcceptorId(), friendDelta, applierFollowsDelta, acceptorFollowsDelta, 0);
+		});
+	}
+
+	/**
+	 * Post 작성 : Post 주인의 Post 수를 1 늘린다.
+	 *
+	 * @param post 작성된 Post
+	 */
+	public void written(Post post) {
+		PaceBookUtils.afterCommit(() -> add(post.getOwnerId(), 0, 0, 0, 1));
+	}
+
+	/**
+	 * Post 삭제 : Post 주인의 Post 수를 1 줄인다.
+	 *
+	 * @param post 삭제된 Post
+	 */
+	public void deleted(Post post) {
+		PaceBookUtils.afterCommit(() -> add(post.getOwnerId(), 0, 0, 0, -1));
+	}
+
+	/**
+	 * 15. 유저 집계 조회
+	 *
+	 * @param 	userId	유저 계정
+	 * @return	t_user_cnt 의 집계(없다면 0)에 아직 더하지 않은 변화량을 합친 집계
+	 */
+	public UserCount counts(String userId) {
+		flushLock.readLock().lock();
+
+		try {
+			UserCount stored = userCountRepository.findOne(userId);
+			UserCount counts = Objects.isNull(stored) ? new UserCount(userId, 0, 0, 0, 0, null) : copy(stored);
+			Counter counter = pending.get(userId);
+
+			if (Objects.nonNull(counter)) {
+				counts.setFriendCount(counts.getFriendCount() + counter.friends.intValue());
+				counts.setFollowerCount(counts.getFollowerCount() + counter.followers.intValue());
+				counts.setFollowingCount(counts.getFollowingCount() + counter.followings.intValue());
+				counts.setPostCount(counts.getPostCount() + counter.posts.intValue());
+			}
+
+			return counts;
+		} finally {
+			flushLock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 모아둔 변화량을 t_user_cnt 에 일괄 더한다.
+	 * 일괄 반영은 한 트랜잭션이므로 실패하면 더해진 행이 없다. 이때 변화량을 되돌려 다음 주기에 다시 더한다.
+	 * 떼어낸 변화량이 커밋되거나 되돌려질 때까지 조회는 기다린다.(떼어낸 변화량이 t_user_cnt 에도 pending 에도 없는 동안 조회하면 집계가 줄어든다.)
+	 */
+	@Scheduled(fixedDelayString = "${pacebook.user-count.flush-ms:5000}")
+	public void flush() {
+		flushLock.writeLock().lock();
+
+		try {
+			Map<String, Counter> flushing = swap();
+
+			if (flushing.isEmpty()) {
+				return;
+			}
+
+			Date modifiedDate = PaceBookUtils.nowDateTime();
+			List<UserCount> deltas = new ArrayList<>(flushing.size());
+
+			flushing.forEach((userId, counter) -> deltas.add(counter.toUserCount(userId, modifiedDate)));
+
+			try {
+				userCountBatchRepository.addAll(deltas);
+				log.debug("user counts flushed : {} users", deltas.size());
+			} catch (RuntimeException e) {
+				log.error("user counts flush failed : {} users", deltas.size(), e);
+				restore(flushing);
+			}
+		} finally {
+			flushLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 모든 유저의 집계를 유저 계정 RECONCILE_CHUNK_SIZE 명 구간별로 t_frnd / t_post 로 다시 세어 덮어쓴다.
+	 * 다시 세기는 잠금 없는 SELECT 이므로 t_frnd / t_post 의 쓰기를 막지 않으며, 덮어쓰기는 구간별 트랜잭션으로 따로 한다.
+	 * 구간마다 다시 세기 직전에 구간 유저의 모아둔 변화량을 떼어내고, 다시 센 값에 이미 들어있으므로 더하지 않고 버린다.
+	 * 떼어낸 뒤 커밋된 변화량은 새로 모아 다음 flush 에서 더한다. 따라서 떼어낸 시점과 다시 세는 쿼리가 읽는 시점 사이에 커밋된 변화량만 두 번 세어질 수 있다.
+	 * 구간을 다시 세지 못했다면 떼어낸 변화량을 되돌린다.(앞 구간은 이미 덮어썼다.)
+	 */
+	@Scheduled(cron = "${pacebook.user-count.reconcile-cron:0 30 4 * * *}")
+	public void reconcile() {
+		int reconciled = 0;
+		int discarded = 0;
+		List<String> userIds = userCountBatchRepository.userIds("", RECONCILE_CHUNK_SIZE);
+
+		while (userIds.isEmpty() == false) {
+			reconciled += userIds.size();
+			discarded += reconcile(userIds);
+
+			userIds = userCountBatchRepository.userIds(userIds.get(userIds.size() - 1), RECONCILE_CHUNK_SIZE);
+		}
+
+		log.info("user counts reconciled : {} users, {} pending users discarded", reconciled, discarded);
+	}
+
+	/**
+	 * 서버 종료 전 모아둔 변화량을 더한다.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		flush();
+	}
+
+	/**
+	 * 모아둔 변화량을 떼어내고 새로 모으기 시작한다. 떼어내는 동안 변화량을 더하는(add) 쓰레드는 기다린다.
+	 *
+	 * @return	떼어낸 유저별 변화량
+	 */
+	private Map<String, Counter> swap() {
+		pendingLock.writeLock().lock();
+
+		try {
+			Map<String, Counter> swapped = pending;
+
+			pending = new ConcurrentHashMap<>();
+
+			return swapped;
+		} finally {
+			pendingLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 한 구간 유저의 집계를 다시 세어 덮어쓴다. 떼어낸 변화량이 덮어써지거나 되돌려질 때까지 조회는 기다린다.
+	 *
+	 * @param 	userIds	계정 순으로 정렬된 구간 유저 계정
+	 * @return	떼어내고 버린 변화량의 유저 수
+	 */
+	private int reconcile(List<String> userIds) {
+		flushLock.writeLock().lock();
+
+		try {
+			Map<String, Counter> discarded = remove(userIds);
+
+			try {
+				List<UserCount> counts = userCountBatchRepository.count(userIds.get(0), userIds.get(userIds.size() - 1), PaceBookUtils.nowDateTime());
+
+				userCountBatchRepository.setAll(counts);
+			} catch (RuntimeException e) {
+				restore(discarded);
+				throw e;
+			}
+
+			return discarded.size();
+		} finally {
+			flushLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 유저들의 모아둔 변화량만 떼어낸다. 떼어내는 동안 변화량을 더하는(add) 쓰레드는 기다린다.
+	 *
+	 * @param 	userIds	유저 계정
+	 * @return	떼어낸 유저별 변화량
+	 */
+	private Map<String, Counter> remove(List<String> userIds) {
+		pendingLock.writeLock().lock();
+
+		try {
+			Map<String, Counter> removed = new HashMap<>();
+
+			for (String userId : userIds) {
+				Counter counter = pending.remove(userId);
+
+				if (Objects.nonNull(counter)) {
+					removed.put(userId, counter);
+				}
+			}
+
+			return removed;
+		} finally {
+			pendingLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 반영하지 못한 변화량을 다시 모은다.
+	 *
+	 * @param counters 떼어낸 유저별 변화량
+	 */
+	private void restore(Map<String, Counter> counters) {
+		counters.forEach((userId, counter) -> add(userId, counter.friends.intValue(), counter.followers.intValue(),
+												  counter.followings.intValue(), counter.posts.intValue()));
+	}
+
+	private void add(String userId, int friends, int followers, int followings, int posts) {
+		pendingLock.readLock().lock();
+
+		try {
+			Counter counter = pending.computeIfAbsent(userId, key -> new Counter());
+
+			counter.friends.add(friends);
+			counter.followers.add(followers);
+			counter.followings.add(followings);
+			counter.posts.add(posts);
+		} finally {
+			pendingLock.readLock().unlock();
+		}
+	}
+
+	private static int countFollow(FriendRelation relation, boolean applier) {
+		return count(relation.isAccepted() && relation.follows(applier));
+	}
+
+	private static int count(boolean counted) {
+		return counted ? 1 : 0;
+	}
+
+	private static UserCount copy(UserCount userCount) {
+		return new UserCount(userCount.getUserId(), userCount.getFriendCount(), userCount.getFollowerCount(),
+							 userCount.getFollowingCount(), userCount.getPostCount(), userCount.getModifiedDate());
+	}
+
+	/**
+	 * 유저 한 명의 아직 더하지 않은 변화량
+	 */
+	private static class Counter {
+		private final LongAdder friends = new LongAdder();
+		private final LongAdder followers = new LongAdder();
+		private final LongAdder followings = new LongAdder();
+		private final LongAdder posts = new LongAdder();
+
+		private UserCount toUserCount(String userId, Date modifiedDate) {
+			return new UserCount(userId, friends.intValue(), followers.intValue(), followings.intValue(), posts.intValue(), modifiedDate);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.pacebookcorp.doragee.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Date;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.pacebookcorp.doragee.entity.Post;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 뉴스피드 keyset 페이지네이션에서 사용하는 커서
+ * 마지막으로 내려준 Post 의 (수정일, PK) 를 담으며, 클라이언트에게는 불투명한 문자열로 인코딩하여 전달한다.
+ * 다음 페이지는 이 커서보다 '오래된' Post 부터 조회하므로 OFFSET 없이 인덱스 범위 스캔만으로 조회된다.
+ *
+ * @author Kwon Young
+ */
+@Data
+@AllArgsConstructor
+public class FeedCursor {
+	/**
+	 * 뉴스피드 정렬 기준 : 수정일 최신순, 수정일이 같다면 PK 역순
+	 */
+	public static final Comparator<Post> NEWEST_FIRST = Comparator.comparing(Post::getModifiedDate)
+																	.thenComparing(Post::getPostPk)
+																	.reversed();
+
+	private static final String SEPARATOR = ":";
+	private static final String INVALID_CURSOR = "cursor is illegal.";
+
+	private Date modifiedDate;
+	private String postPk;
+
+	/**
+	 * Post 의 위치를 커서 문자열로 인코딩한다.
+	 * Example : (1470471543000, post20160806171903000) -> 'MTQ3MDQ3MTU0MzAwMDpwb3N0MjAxNjA4MDYxNzE5MDMwMDA'
+	 *
+	 * @param 	post 페이지의 마지막 Post
+	 * @return	다음 페이지 조회에 사용할 커서 문자열
+	 */
+	public static String encode(Post post) {
+		return encode(post.getModifiedDate(), post.getPostPk());
+	}
+
+	/**
+	 * (수정일, PK) 를 커서 문자열로 인코딩한다. 엔티티 대신 요약(projection)으로 조회한 페이지에서 사용한다.
+	 *
+	 * @param 	modifiedDate	페이지의 마지막 Post 의 수정일
+	 * @param 	postPk			페이지의 마지막 Post 의 PK
+	 * @return	다음 페이지 조회에 사용할 커서 문자열
+	 */
+	public static String encode(Date modifiedDate, String postPk) {
+		String plain = modifiedDate.getTime() + SEPARATOR + postPk;
+
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(plain.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * 커서 문자열을 (수정일, PK) 로 디코딩한다. 파라미터 어뷰징 방지 가드로직
+	 *
+	 * @param 	cursor 클라이언트가 넘겨준 커서 문자열
+	 * @return	디코딩된 커서, 올바른 형태가 아니라면 IllegalArgumentException 이 발생한다.
+	 */
+	public static FeedCursor decode(String cursor) {
+		try {
+			String plain = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			String modifiedTime = StringUtils.substringBefore(plain, SEPARATOR);
+			String postPk = StringUtils.substringAfter(plain, SEPARATOR);
+
+			if (StringUtils.isEmpty(postPk)) {
+				throw new IllegalArgumentException(INVALID_CURSOR);
+			}
+
+			return new FeedCursor(new Date(Long.parseLong(modifiedTime)), postPk);
+		} catch (IllegalArgumentException | NullPointerException e) {
+			throw new IllegalArgumentException(INVALID_CURSOR);
+		}
+	}
+
+	/**
+	 * 커서가 비어있다면 첫 페이지 조회이다.
+	 *
+	 * @param 	cursor 클라이언트가 넘겨준 커서 문자열
+	 * @return	첫 페이지 조회라면 true 를 리턴한다.
+	 */
+	public static boolean isFirstPage(String cursor) {
+		return StringUtils.isEmpty(cursor);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.pacebookcorp.doragee.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * 객체를 한 줄에 하나씩 JSON 으로 써내려가는(NDJSON) Consumer
+ * 목록 전체를 메모리에 올려 한번에 직렬화하지 않고, 읽는 즉시 소켓에 쓰므로 요청당 메모리가 일정하고 첫 바이트가 빨리 나간다.
+ *
+ * @author Kwon Young
+ */
+public class NdjsonWriter<T> implements Consumer<T> {
+	public static final String MEDIA_TYPE = "application/x-ndjson";
+
+	private static final int LINE_SEPARATOR = '\n';
+	private static final int FLUSH_INTERVAL = 100;
+
+	private final ObjectWriter objectWriter;
+	private final OutputStream outputStream;
+	private int count;
+
+	public NdjsonWriter(ObjectMapper objectMapper, OutputStream outputStream) {
+		this.objectWriter = objectMapper.writer();
+		this.outputStream = outputStream;
+	}
+
+	/**
+	 * 한 줄을 쓴다. 첫 줄과 이후 FLUSH_INTERVAL 줄마다 flush 한다.
+	 *
+	 * @param value 직렬화할 객체
+	 */
+	@Override
+	public void accept(T value) {
+		try {
+			outputStream.write(objectWriter.writeValueAsBytes(value));
+			outputStream.write(LINE_SEPARATOR);
+
+			if (count++ % FLUSH_INTERVAL == 0) {
+				outputStream.flush();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
\ No newline at end of file
@@ -1,156 +1,293 @@
-package com.pacebookcorp.doragee.util;
-
-import java.text.SimpleDateFormat;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.util.Date;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
-
-import org.apache.commons.lang3.StringUtils;
-
-/**
- * Service 단에서 공통으로 쓰이는 유틸성 함수를 분리해둔 클래스
- * 
- * @author Kwon Young
- */
-public class PaceBookUtils {
-	public static final String NO = "n";
-	public static final String YES = "y";
-
-	private static final String USER_ID = "^[a-zA-Z]{1}[a-zA-Z0-9_]{5,44}$";
-	private static final String USER_NAME = "^[a-zA-Z0-9ㄱ-ㅎ가-힣]{1,44}$";
-	private static final String AFTER_PREFIX = "^[0-9]{17}$";
-	private static final int INVALID_USERID_COUNT_IS_ZERO = 0;
-	private static final int MAX_SIZE = 45;
-
-	/**
-	 * 현재 시간 가져오기 
-	 * Example : Sat Aug 06 17:49:03 KST 2016
-	 */
-	public static Date nowDateTime() {
-		return Date.from(LocalDateTime.now().atZone(ZoneId.systemDefault()).toInstant());
-	}
-
-	/**
-	 * 유저 id 등록시 유효성 체크 
-	 * Example : tjc(불가, 5자 이하), #doragee(불가, 특수문자), 342doragee(불가, 숫자 시작), doragee(가능)
-	 * 
-	 * @param userId : 입력받은 유저 계정
-	 * @return 유저 아이디는 영문/숫자, 시작은 영문자로만, "_"를 제외한 특수문자 불가, 5~45자 이하가 충족되면 true 를리턴한다.
-	 */
-	public static boolean isValidUserId(String userId) {
-		if (StringUtils.isEmpty(userId)) {
-  			return false;
-  		}
-
-		return Pattern.matches(USER_ID, userId);
-	}
-
-	/**
-	 * isValidUserId 의 부정 함수 
-	 * Example : tjc(불가, 5자 이하), #doragee(불가, 특수문자), 342doragee(불가, 숫자 시작), doragee(가능)
-	 * 
-	 * @param userId : 입력받은 유저 계정
-	 * @return 유저 아이디는 영문/숫자, 시작은 영문자로만, "_"를 제외한 특수문자 불가, 5~45 범위가 충족되지 않는다면 true 를 리턴한다.
-	 */
-	public static boolean isInvalidUserId(String userId) {
-		return isValidUserId(userId) == false;
-	}
-
-	/**
-	 * 유저 이름 등록시 유효성 체크 
-	 * Example : #DORAGE(불가, 특수문자), 도라지(가능)
-	 * 유저 이름에 한글이 포함된 경우 DB 컬럼(t_user.crer_nm)의 최대 사이즈 이내에 지정되어야 하므로 byte 길이 체크가 필요하다. 
-	 * 
-	 * @param userName : 입력받은 유저 이름
-	 * @return 유저 이름은 영문/숫자/한글, 1~45자 범위라면 true 를 리턴한다.
-	 */
-	public static boolean isValidUserName(String userName) {
-		if (StringUtils.isEmpty(userName)) {
-  			return false;
-  		}
-
-		if (userName.getBytes().length > MAX_SIZE) {
-			return false;
-		}
-
-		return Pattern.matches(USER_NAME, userName);
-	}
-
-	/**
-	 * isValidUserName 의 부정 함수
-	 * 
-	 * @param userName : 입력받은 유저 이름
-	 * @return 유저 이름은 영문/숫자/한글, 1~45자 범위가 충족되지 않는다면 true 를 리턴한다.
-	 */
-	public static boolean isInvalidUserName(String userName) {
-		return isValidUserName(userName) == false;
-	}
-
-	/**
-	 * 아이디 다중 입력 유효성 체크
-	 * 
-	 * @param userIds ('tjcky', 'doragee', 'gosari', ....)
-	 * @return
-	 */
-	public static boolean isValidUserIds(String... userIds) {
-		Stream<String> userIdStream = Stream.of(userIds);
-
-		return userIdStream.filter(w -> PaceBookUtils.isInvalidUserId(w)).count() == INVALID_USERID_COUNT_IS_ZERO;
-	}
-
-	/**
-	 * isValidUserIds 의 부정 함수
-	 * 
-	 * @param 설명 생략
-	 */
-	public static boolean isInvalidUserIds(String... userIds) {
-		return isValidUserIds(userIds) == false;
-	}
-
-	/**
-	 * Friend, Post 테이블에서 사용할 PK 생성 
-	 * Example : 'frnd' 를 입력받으면 frnd20160101011122333 을 리턴
-	 * 
-	 * @param PK의 prefix
-	 */
-	public static String generatePrivateKey(String prefix) {
-		Date now = Date.from(LocalDateTime.now().atZone(ZoneId.systemDefault()).toInstant());
-		SimpleDateFormat formatter = new SimpleDateFormat("yyyyMMddHHmmssSSS");
-
-		String nowDateTime = formatter.format(now);
-
-		return prefix + nowDateTime;
-	}
-
-	/**
-	 * Friend, Post 테이블에서 사용하는 PK 의 유효성 체크, 파라미터에서 PK 어뷰징 방지 가드로직 
-	 * Example : frnd20160804171109732 -> frnd + 숫자 17자리 정상 PK
-	 * 
-	 * @param privateKey 		PK 값
-	 * @param privateKeyPrefix 	PK Prefix
-	 * @return PK 가 올바른 형태라면 true 를 리턴한다.
-	 */
-	public static boolean isValidPrivateKey(String privateKey, String privateKeyPrefix) {
-		if (StringUtils.startsWith(privateKey, privateKeyPrefix) == false) {
-			return false;
-		}
-
-		String afterPrefix = StringUtils.substringAfter(privateKey, privateKeyPrefix);
-
-		return Pattern.matches(AFTER_PREFIX, afterPrefix);
-	}
-
-	/**
-	 * Friend, Post 테이블에서 사용하는 PK 의 유효성 체크, 파라미터에서 PK 어뷰징 방지 가드로직 
-	 * Example : frnd201608041711097321 -> frnd + 숫자 17자리 정상 PK
-	 * 
-	 * @param privateKey		PK 값
-	 * @param privateKeyPrefix	PK Prefix
-	 * @return PK 가 올바른 형태가 아니라면 true 를 리턴한다.
-	 */
-	public static boolean isInvalidPrivateKey(String privateKey, String privateKeyPrefix) {
-		return isValidPrivateKey(privateKey, privateKeyPrefix) == false;
-	}
+package com.pacebookcorp.doragee.util;
+
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Service 단에서 공통으로 쓰이는 유틸성 함수를 분리해둔 클래스
+ *
+ * @author Kwon Young
+ */
+public class PaceBookUtils {
+	public static final String NO = "n";
+	public static final String YES = "y";
+
+	private static final String USER_ID = "^[a-zA-Z]{1}[a-zA-Z0-9_]{5,44}$";
+	private static final String USER_NAME = "^[a-zA-Z0-9ㄱ-ㅎ가-힣]{1,44}$";
+	private static final String AFTER_PREFIX = "^[0-9]{17}$";
+	private static final String PAIR_KEY_SEPARATOR = ":";
+	private static final int INVALID_USERID_COUNT_IS_ZERO = 0;
+	private static final AtomicLong LAST_PRIVATE_KEY_MILLIS = new AtomicLong();
+	private static final int MAX_SIZE = 45;
+	private static final int MIN_PAGE_SIZE = 1;
+	private static final int MAX_PAGE_SIZE = 100;
+	private static final int DEFAULT_PAGE_SIZE = 20;
+
+	/**
+	 * 현재 시간 가져오기 
+	 * Example : Sat Aug 06 17:49:03 KST 2016
+	 * 테이블의 datetime 컬럼과 같도록 초 단위로 자른다. 밀리초를 남기면 DB 는 반올림하여 저장하므로 엔티티, 행, 캐시의 값이 달라진다.
+	 */
+	public static Date nowDateTime() {
+		return Date.from(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).atZone(ZoneId.systemDefault()).toInstant());
+	}
+
+	/**
+	 * 트랜잭션 안이라면 커밋된 뒤에, 아니라면 바로 실행한다.
+	 * 메모리의 캐시, 그래프처럼 롤백되지 않는 상태는 커밋된 변경만 반영해야 하므로 이 함수로 고친다.
+	 *
+	 * @param runnable 커밋된 뒤 실행할 함수
+	 */
+	public static void afterCommit(Runnable runnable) {
+		if (TransactionSynchronizationManager.isSynchronizationActive() == false) {
+			runnable.run();
+			return;
+		}
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override
+			public void afterCommit() {
+				runnable.run();
+			}
+		});
+	}
+
+	/**
+	 * 유저 id 등록시 유효성 체크 
+	 * Example : tjc(불가, 5자 이하), #doragee(불가, 특수문자), 342doragee(불가, 숫자 시작), doragee(가능)
+	 *
+	 * @param userId : 입력받은 유저 계정
+	 * @return 유저 아이디는 영문/숫자, 시작은 영문자로만, "_"를 제외한 특수문자 불가, 5~45자 이하가 충족되면 true 를리턴한다.
+	 */
+	public static boolean isValidUserId(String userId) {
+		if (StringUtils.isEmpty(userId)) {
+  			return false;
+  		}
+
+		return Pattern.matches(USER_ID, userId);
+	}
+
+	/**
+	 * isValidUserId 의 부정 함수 
+	 * Example : tjc(불가, 5자 이하), #doragee(불가, 특수문자), 342doragee(불가, 숫자 시작), doragee(가능)
+	 *
+	 * @param userId : 입력받은 유저 계정
+	 * @return 유저 아이디는 영문/숫자, 시작은 영문자로만, "_"를 제외한 특수문자 불가, 5~45 범위가 충족되지 않는다면 true 를 리턴한다.
+	 */
+	public static boolean isInvalidUserId(String userId) {
+		return isValidUserId(userId) == false;
+	}
+
+	/**
+	 * 유저 이름 등록시 유효성 체크 
+	 * Example : #DORAGE(불가, 특수문자), 도라지(가능)
+	 * 유저 이름에 한글이 포함된 경우 DB 컬럼(t_user.crer_nm)의 최대 사이즈 이내에 지정되어야 하므로 byte 길이 체크가 필요하다. 
+	 *
+	 * @param userName : 입력받은 유저 이름
+	 * @return 유저 이름은 영문/숫자/한글, 1~45자 범위라면 true 를 리턴한다.
+	 */
+	public static boolean isValidUserName(String userName) {
+		if (StringUtils.isEmpty(userName)) {
+  			return false;
+  		}
+
+		if (userName.getBytes().length > MAX_SIZE) {
+			return false;
+		}
+
+		return Pattern.matches(USER_NAME, userName);
+	}
+
+	/**
+	 * isValidUserName 의 부정 함수
+	 *
+	 * @param userName : 입력받은 유저 이름
+	 * @return 유저 이름은 영문/숫자/한글, 1~45자 범위가 충족되지 않는다면 true 를 리턴한다.
+	 */
+	public static boolean isInvalidUserName(String userName) {
+		return isValidUserName(userName) == false;
+	}
+
+	/**
+	 * 아이디 다중 입력 유효성 체크
+	 *
+	 * @param userIds ('tjcky', 'doragee', 'gosari', ....)
+	 * @return
+	 */
+	public static boolean isValidUserIds(String... userIds) {
+		Stream<String> userIdStream = Stream.of(userIds);
+
+		return userIdStream.filter(w -> PaceBookUtils.isInvalidUserId(w)).count() == INVALID_USERID_COUNT_IS_ZERO;
+	}
+
+	/**
+	 * isValidUserIds 의 부정 함수
+	 *
+	 * @param 설명 생략
+	 */
+	public static boolean isInvalidUserIds(String... userIds) {
+		return isValidUserIds(userIds) == false;
+	}
+
+	/**
+	 * Friend, Post 테이블에서 사용할 PK 생성 
+	 * 같은 서버에서 생성한 PK 는 단건, 일괄 생성 모두 겹치지 않도록 직전에 생성한 PK 의 밀리초보다 항상 크다.
+	 * Example : 'frnd' 를 입력받으면 frnd20160101011122333 을 리턴
+	 *
+	 * @param PK의 prefix
+	 */
+	public static String generatePrivateKey(String prefix) {
+		return generatePrivateKeys(prefix, 1).get(0);
+	}
+
+	/**
+	 * 일괄 입력할 Friend, Post 테이블의 PK 를 count 개 생성, 밀리초를 하나씩 늘려 한 번에 생성한 PK 끼리 겹치지 않는다.
+	 * 같은 밀리초에 여러 요청이 생성하더라도 이어지는 밀리초 구간을 요청마다 따로 잡으므로, 같은 서버에서 생성한 PK 끼리는 겹치지 않는다.
+	 * 순간적으로 초당 1000 개 넘게 생성하면 PK 의 시각이 현재 시각보다 조금 앞서며, 다른 서버가 생성한 PK 와의 충돌은 입력할 때 거른다.
+	 * Example : ('frnd', 2) 를 입력받으면 [frnd20160101011122333, frnd20160101011122334] 를 리턴
+	 *
+	 * @param prefix	PK의 prefix
+	 * @param count		생성할 PK 수
+	 */
+	public static List<String> generatePrivateKeys(String prefix, int count) {
+		long now = System.currentTimeMillis();
+		long first = LAST_PRIVATE_KEY_MILLIS.getAndUpdate(last -> Math.max(now, last + 1) + count - 1);
+		long start = Math.max(now, first + 1);
+		SimpleDateFormat formatter = new SimpleDateFormat("yyyyMMddHHmmssSSS");
+
+		return LongStream.range(0, count)
+						 .mapToObj(i -> prefix + formatter.format(new Date(start + i)))
+						 .collect(Collectors.toList());
+	}
+
+	/**
+	 * Friend 테이블의 친구 관계 쌍 키 생성, 누가 신청했든 두 계정 중 작은 값이 앞에 오므로 같은 키가 된다.
+	 * 계정은 대소문자를 구분하지 않으므로(userIdKey) 소문자로 바꾼 뒤 비교한다. 계정에는 ':' 가 들어갈 수 없으므로 구분자로 쓴다.
+	 * Example : ('gosari', 'doragee') -> doragee:gosari, ('Zebra1', 'apple1') -> apple1:zebra1
+	 *
+	 * @param userId	유저 계정
+	 * @param otherId	상대 계정
+	 */
+	public static String friendPairKey(String userId, String otherId) {
+		String userKey = userIdKey(userId);
+		String otherKey = userIdKey(otherId);
+
+		if (userKey.compareTo(otherKey) <= 0) {
+			return userKey + PAIR_KEY_SEPARATOR + otherKey;
+		}
+
+		return otherKey + PAIR_KEY_SEPARATOR + userKey;
+	}
+
+	/**
+	 * 유저 계정을 메모리 구조나 쌍 키의 키로 쓸 때의 표준형(소문자)
+	 * t_user 의 user_id 는 대소문자를 구분하지 않는 collation 이므로 Doragee 와 doragee 는 같은 유저이다.
+	 * Example : Doragee -> doragee
+	 *
+	 * @param 	userId	유저 계정
+	 * @return	소문자로 바꾼 계정
+	 */
+	public static String userIdKey(String userId) {
+		return StringUtils.lowerCase(userId, Locale.ROOT);
+	}
+
+	/**
+	 * Friend, Post 테이블에서 사용하는 PK 의 유효성 체크, 파라미터에서 PK 어뷰징 방지 가드로직 
+	 * Example : frnd20160804171109732 -> frnd + 숫자 17자리 정상 PK
+	 *
+	 * @param privateKey 		PK 값
+	 * @param privateKeyPrefix 	PK Prefix
+	 * @return PK 가 올바른 형태라면 true 를 리턴한다.
+	 */
+	public static boolean isValidPrivateKey(String privateKey, String privateKeyPrefix) {
+		if (StringUtils.startsWith(privateKey, privateKeyPrefix) == false) {
+			return false;
+		}
+
+		String afterPrefix = StringUtils.substringAfter(privateKey, privateKeyPrefix);
+
+		return Pattern.matches(AFTER_PREFIX, afterPrefix);
+	}
+
+	/**
+	 * Friend, Post 테이블에서 사용하는 PK 의 유효성 체크, 파라미터에서 PK 어뷰징 방지 가드로직 
+	 * Example : frnd201608041711097321 -> frnd + 숫자 17자리 정상 PK
+	 *
+	 * @param privateKey		PK 값
+	 * @param privateKeyPrefix	PK Prefix
+	 * @return PK 가 올바른 형태가 아니라면 true 를 리턴한다.
+	 */
+	public static boolean isInvalidPrivateKey(String privateKey, String privateKeyPrefix) {
+		return isValidPrivateKey(privateKey, privateKeyPrefix) == false;
+	}
+
+	/**
+	 * 페이지 조회시 한 페이지에 담을 Post 수의 유효성 체크
+	 * Example : null(가능, 기본값 사용), 0(불가), 20(가능), 101(불가)
+	 *
+	 * @param size 클라이언트가 요청한 페이지 크기
+	 * @return 페이지 크기가 비어있거나 1~100 범위라면 true 를 리턴한다.
+	 */
+	public static boolean isValidPageSize(Integer size) {
+		if (Objects.isNull(size)) {
+			return true;
+		}
+
+		return size >= MIN_PAGE_SIZE && size <= MAX_PAGE_SIZE;
+	}
+
+	/**
+	 * isValidPageSize 의 부정 함수
+	 *
+	 * @param size 클라이언트가 요청한 페이지 크기
+	 * @return 페이지 크기가 1~100 범위를 벗어난다면 true 를 리턴한다.
+	 */
+	public static boolean isInvalidPageSize(Integer size) {
+		return isValidPageSize(size) == false;
+	}
+
+	/**
+	 * 뉴스피드 변경분 조회시 워터마크의 유효성 체크
+	 * Example : null(가능, 전체 조회), -1(불가), 1470471543000(가능)
+	 *
+	 * @param since 클라이언트가 넘겨준 워터마크(epoch millis)
+	 * @return 워터마크가 비어있거나 0 이상이라면 true 를 리턴한다.
+	 */
+	public static boolean isValidWatermark(Long since) {
+		return Objects.isNull(since) || since >= 0;
+	}
+
+	/**
+	 * isValidWatermark 의 부정 함수
+	 *
+	 * @param since 클라이언트가 넘겨준 워터마크(epoch millis)
+	 * @return 워터마크가 음수라면 true 를 리턴한다.
+	 */
+	public static boolean isInvalidWatermark(Long since) {
+		return isValidWatermark(since) == false;
+	}
+
+	/**
+	 * 페이지 크기가 비어있다면 기본 페이지 크기(20)를 리턴한다.
+	 *
+	 * @param size 클라이언트가 요청한 페이지 크기
+	 */
+	public static int pageSize(Integer size) {
+		return Objects.isNull(size) ? DEFAULT_PAGE_SIZE : size;
+	}
 }
\ No newline at end of file
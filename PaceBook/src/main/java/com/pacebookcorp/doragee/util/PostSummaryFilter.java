@@ -0,0 +1,68 @@
+package com.pacebookcorp.doragee.util;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.pacebookcorp.doragee.dto.PostSummary;
+
+/**
+ * Post 요약(PostSummary)을 클라이언트가 요청한 필드(sparse fieldset)만 직렬화하도록 감싸는 클래스
+ * Example : fields=postPk,content -> {"postPk":"post20160806171903000","content":"..."}
+ *
+ * @author Kwon Young
+ */
+public final class PostSummaryFilter {
+	private static final String SEPARATOR = ",";
+
+	private PostSummaryFilter() {
+	}
+
+	/**
+	 * 요청한 필드 목록의 유효성 체크 : 비어있다면 모든 필드, 아니라면 PostSummary.FIELDS 에 있는 필드만 가능
+	 *
+	 * @param 	fields 콤마로 구분된 필드 목록
+	 * @return	유효하다면 true 를 리턴한다.
+	 */
+	public static boolean isValidFields(String fields) {
+		return StringUtils.isEmpty(fields) || PostSummary.FIELDS.containsAll(split(fields));
+	}
+
+	/**
+	 * isValidFields 의 부정 함수
+	 *
+	 * @param 	fields 콤마로 구분된 필드 목록
+	 * @return	PostSummary 에 없는 필드가 있다면 true 를 리턴한다.
+	 */
+	public static boolean isInvalidFields(String fields) {
+		return isValidFields(fields) == false;
+	}
+
+	/**
+	 * @param 	value	PostSummary 또는 PostSummary 를 담은 객체
+	 * @param 	fields	콤마로 구분된 필드 목록, 비어있다면 모든 필드
+	 * @return	요청한 필드만 직렬화되는 응답
+	 */
+	public static MappingJacksonValue filter(Object value, String fields) {
+		SimpleBeanPropertyFilter propertyFilter = StringUtils.isEmpty(fields) ? SimpleBeanPropertyFilter.serializeAll() : SimpleBeanPropertyFilter.filterOutAllExcept(split(fields));
+		MappingJacksonValue filteredValue = new MappingJacksonValue(value);
+
+		filteredValue.setFilters(new SimpleFilterProvider().addFilter(PostSummary.FILTER, propertyFilter));
+
+		return filteredValue;
+	}
+
+	private static Set<String> split(String fields) {
+		return Arrays.stream(StringUtils.split(fields, SEPARATOR))
+					 .map(StringUtils::trim)
+					 .filter(Objects::nonNull)
+					 .collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+-- 마이그레이션 도입 전 README 의 DDL 로만 만들던 뉴스피드 / 삭제 이력 테이블과 타임라인 인덱스
+-- V1 을 적용된 것으로 간주한 기존 DB 에는 이미 있을 수 있으므로 없을 때만 만든다.
+CREATE TABLE IF NOT EXISTS `t_feed` (
+  `viewer_id` varchar(45) NOT NULL,
+  `post_pk` varchar(40) NOT NULL,
+  `ownr_id` varchar(45) NOT NULL,
+  `mod_ymdt` datetime NOT NULL,
+  PRIMARY KEY (`viewer_id`,`post_pk`),
+  KEY `ix_feed_viewer_mod` (`viewer_id`,`mod_ymdt`,`post_pk`),
+  KEY `ix_feed_viewer_ownr` (`viewer_id`,`ownr_id`),
+  KEY `ix_feed_post` (`post_pk`)
+) DEFAULT CHARSET=utf8 COMMENT='pacebook 뉴스피드 테이블';
+
+CREATE TABLE IF NOT EXISTS `t_post_del` (
+  `post_pk` varchar(40) NOT NULL,
+  `ownr_id` varchar(45) NOT NULL,
+  `del_ymdt` datetime NOT NULL,
+  PRIMARY KEY (`post_pk`),
+  KEY `ix_post_del_ownr_del` (`ownr_id`,`del_ymdt`),
+  KEY `ix_post_del_del` (`del_ymdt`)
+) DEFAULT CHARSET=utf8 COMMENT='pacebook 삭제된 포스팅 테이블';
+
+-- 타임라인 페이지 조회 : PostRepository.findLatestByOwner, findOlderByOwner
+-- MySQL 은 ADD KEY IF NOT EXISTS 가 없으므로 information_schema 로 확인한 뒤 없을 때만 만든다.
+SET @ddl = IF((SELECT COUNT(*)
+                 FROM information_schema.statistics
+                WHERE table_schema = DATABASE()
+                  AND table_name = 't_post'
+                  AND index_name = 'ix_post_ownr_mod') = 0,
+              'ALTER TABLE `t_post` ADD KEY `ix_post_ownr_mod` (`ownr_id`,`mod_ymdt`,`post_pk`)',
+              'SELECT 1');
+
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
\ No newline at end of file
@@ -0,0 +1,34 @@
+-- 기준(baseline) 스키마 : 마이그레이션 도입 전부터 있던 t_user / t_post / t_frnd
+-- 이미 테이블이 있는 DB 는 이 버전을 적용된 것으로 간주(flyway.baseline-version: 1)하므로, 이후 추가된 테이블과 인덱스는 V1_1 부터 만든다.
+CREATE TABLE IF NOT EXISTS `t_user` (
+  `user_id` varchar(45) NOT NULL,
+  `user_nm` varchar(45) NOT NULL,
+  `crer_id` varchar(45) NOT NULL,
+  `cre_ymdt` datetime NOT NULL,
+  `modr_id` varchar(45) NOT NULL,
+  `mod_ymdt` datetime NOT NULL,
+  PRIMARY KEY (`user_id`)
+) DEFAULT CHARSET=utf8 COMMENT='pacebook 유저 테이블';
+
+CREATE TABLE IF NOT EXISTS `t_post` (
+  `post_pk` varchar(40) NOT NULL,
+  `ownr_id` varchar(45) NOT NULL,
+  `content` varchar(500) NOT NULL,
+  `crer_id` varchar(45) NOT NULL,
+  `cre_ymdt` datetime NOT NULL,
+  `modr_id` varchar(45) NOT NULL,
+  `mod_ymdt` datetime NOT NULL,
+  PRIMARY KEY (`post_pk`,`ownr_id`)
+) DEFAULT CHARSET=utf8 COMMENT='pacebook 포스팅 테이블';
+
+CREATE TABLE IF NOT EXISTS `t_frnd` (
+  `frnd_pk` varchar(45) NOT NULL,
+  `aply_id` varchar(45) NOT NULL,
+  `accp_id` varchar(45) NOT NULL,
+  `accp_yn` char(1) NOT NULL DEFAULT 'N',
+  `aply_folw_yn` char(1) NOT NULL DEFAULT 'N',
+  `accp_folw_yn` char(1) NOT NULL DEFAULT 'N',
+  `cre_ymdt` datetime DEFAULT NULL,
+  `mod_ymdt` datetime DEFAULT NULL,
+  PRIMARY KEY (`frnd_pk`)
+) DEFAULT CHARSET=utf8;
\ No newline at end of file
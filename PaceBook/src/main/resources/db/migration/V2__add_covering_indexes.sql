@@ -0,0 +1,15 @@
+-- 친구 관계 쌍 조회 : FriendRepository.findNotAccptedFriendRelation, findAcceptedFriendRelation, existFriendRelation, exist*Follower
+-- 양방향 조회 (aply_id=A AND accp_id=B) OR (aply_id=B AND accp_id=A) 는 이 인덱스의 두 구간 range 로 풀린다.
+ALTER TABLE `t_frnd`
+  ADD KEY `ix_frnd_aply_accp` (`aply_id`,`accp_id`,`accp_yn`);
+
+-- 팔로우 대상 / 팔로워 조회 : FriendRepository.findFolloweeIds, FeedRepository.push 의 UNION ALL 양쪽 쿼리
+-- 조건 컬럼 뒤에 상대방 아이디까지 담아 t_frnd 행을 읽지 않는다(Using index).
+ALTER TABLE `t_frnd`
+  ADD KEY `ix_frnd_aply_folw` (`aply_id`,`accp_yn`,`aply_folw_yn`,`accp_id`),
+  ADD KEY `ix_frnd_accp_folw` (`accp_id`,`accp_yn`,`accp_folw_yn`,`aply_id`);
+
+-- 뉴스피드 키 조회 : FeedRepository.findLatest 가 읽는 ownr_id 까지 담아 t_feed 행을 읽지 않는다(Using index).
+ALTER TABLE `t_feed`
+  DROP KEY `ix_feed_viewer_mod`,
+  ADD KEY `ix_feed_viewer_mod` (`viewer_id`,`mod_ymdt`,`post_pk`,`ownr_id`);
\ No newline at end of file
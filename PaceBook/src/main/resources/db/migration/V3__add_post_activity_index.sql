@@ -0,0 +1,4 @@
+-- 최근 활동 유저 조회 : PostRepository.findActiveUserIds (FeedPrecomputeService)
+-- 수정일 범위만 읽고 modr_id 까지 담아 t_post 행을 읽지 않는다(Using index).
+ALTER TABLE `t_post`
+  ADD KEY `ix_post_mod_modr` (`mod_ymdt`,`modr_id`);
\ No newline at end of file
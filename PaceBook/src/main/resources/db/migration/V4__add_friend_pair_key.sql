@@ -0,0 +1,25 @@
+-- 친구 관계 쌍 키 : 두 계정 중 작은 값 + ':' + 큰 값 (PaceBookUtils.friendPairKey, Java String.compareTo 와 같도록 BINARY 비교)
+-- 양방향 OR 조회 대신 FriendRepository.findRelation 이 유니크 인덱스 한 번으로 찾고, 한 쌍에 한 행만 있도록 DB 에서 막는다.
+-- 중복 정리용 인덱스(ix_frnd_pair_dedup)는 유니크 인덱스를 만들 때 지운다.
+ALTER TABLE `t_frnd`
+  ADD COLUMN `pair_key` varchar(91) DEFAULT NULL AFTER `accp_id`,
+  ADD KEY `ix_frnd_pair_dedup` (`pair_key`);
+
+UPDATE `t_frnd`
+   SET `pair_key` = IF(STRCMP(BINARY `aply_id`, BINARY `accp_id`) <= 0, CONCAT(`aply_id`, ':', `accp_id`), CONCAT(`accp_id`, ':', `aply_id`));
+
+-- 유니크 인덱스 이전에는 A -> B, B -> A 신청이 함께 저장될 수 있었다. MySQL 의 DDL 은 롤백되지 않으므로 유니크 인덱스를 만들다 실패하지 않도록 먼저 쌍마다 한 행만 남긴다.
+-- 남기는 행 : 수락된 행, 그다음 수정일(없다면 생성일)이 최신인 행, 그다음 PK 가 큰 행
+DELETE `d`
+  FROM `t_frnd` `d`
+  JOIN `t_frnd` `k`
+    ON `k`.`pair_key` = `d`.`pair_key`
+   AND (`k`.`accp_yn` = 'y', COALESCE(`k`.`mod_ymdt`, `k`.`cre_ymdt`, '1000-01-01'), `k`.`frnd_pk`)
+     > (`d`.`accp_yn` = 'y', COALESCE(`d`.`mod_ymdt`, `d`.`cre_ymdt`, '1000-01-01'), `d`.`frnd_pk`);
+
+-- 신청자, 수락자 쌍 조회 인덱스(ix_frnd_aply_accp)는 더 이상 쓰이지 않으므로 지운다.
+ALTER TABLE `t_frnd`
+  MODIFY COLUMN `pair_key` varchar(91) NOT NULL,
+  ADD UNIQUE KEY `ux_frnd_pair` (`pair_key`),
+  DROP KEY `ix_frnd_pair_dedup`,
+  DROP KEY `ix_frnd_aply_accp`;
\ No newline at end of file
@@ -0,0 +1,11 @@
+-- 유저별 친구 / 팔로워 / 팔로잉 / Post 수 : 프로필 화면이 목록 전체를 세지 않고 한 행만 읽는다.
+-- UserCountService 가 메모리에 모은 변화량을 주기적으로 더하고(ON DUPLICATE KEY UPDATE), 재집계 작업이 t_frnd / t_post 로 다시 센다.
+CREATE TABLE IF NOT EXISTS `t_user_cnt` (
+  `user_id` varchar(45) NOT NULL,
+  `frnd_cnt` int NOT NULL DEFAULT 0,
+  `folwr_cnt` int NOT NULL DEFAULT 0,
+  `folwg_cnt` int NOT NULL DEFAULT 0,
+  `post_cnt` int NOT NULL DEFAULT 0,
+  `mod_ymdt` datetime NOT NULL,
+  PRIMARY KEY (`user_id`)
+) DEFAULT CHARSET=utf8 COMMENT='pacebook 유저별 집계 테이블';
\ No newline at end of file
@@ -0,0 +1,3 @@
+-- 친구 관계 그래프 스냅샷의 워터마크 이후 바뀐 관계만 다시 읽는 FriendRepository.streamModifiedSince 의 범위 조회 인덱스
+ALTER TABLE `t_frnd`
+  ADD KEY `ix_frnd_mod` (`mod_ymdt`);
\ No newline at end of file
@@ -0,0 +1,4 @@
+-- 친구 관계 버전 : 수락 / 끊기 / 팔로우 / 언팔로우는 조회한 버전 그대로인 행만 수정하고 버전을 1 올린다.(Friend.version, 낙관적 잠금)
+-- 기존 행과 JDBC batch 로 입력되는 행은 0 부터 시작한다.
+ALTER TABLE `t_frnd`
+  ADD COLUMN `version` int NOT NULL DEFAULT 0;
\ No newline at end of file
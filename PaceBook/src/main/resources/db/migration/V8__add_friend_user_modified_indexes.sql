@@ -0,0 +1,4 @@
+-- 뉴스피드 변경분 조회 : FriendRepository.findModifiedRelationPks 가 유저의 친구 관계 중 워터마크 이후 바뀐 행이 있는지 인덱스만 읽고 확인한다.
+ALTER TABLE `t_frnd`
+  ADD KEY `ix_frnd_aply_mod` (`aply_id`,`mod_ymdt`),
+  ADD KEY `ix_frnd_accp_mod` (`accp_id`,`mod_ymdt`);
\ No newline at end of file
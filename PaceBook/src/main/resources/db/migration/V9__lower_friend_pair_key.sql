@@ -0,0 +1,24 @@
+-- 친구 관계 쌍 키를 대소문자 구분 없이 다시 만든다 : 소문자로 바꾼 두 계정 중 작은 값 + ':' + 큰 값 (PaceBookUtils.friendPairKey)
+-- user_id 는 대소문자를 구분하지 않으므로, 대소문자만 다른 계정으로 신청된 쌍(Zebra1:apple1, apple1:zebra1)이 서로 다른 키로 저장될 수 있었다.
+ALTER TABLE `t_frnd`
+  ADD COLUMN `lower_pair_key` varchar(91) DEFAULT NULL AFTER `pair_key`,
+  ADD KEY `ix_frnd_pair_dedup` (`lower_pair_key`);
+
+UPDATE `t_frnd`
+   SET `lower_pair_key` = IF(STRCMP(BINARY LOWER(`aply_id`), BINARY LOWER(`accp_id`)) <= 0, CONCAT(LOWER(`aply_id`), ':', LOWER(`accp_id`)), CONCAT(LOWER(`accp_id`), ':', LOWER(`aply_id`)));
+
+-- V4 와 같이 쌍마다 한 행만 남긴다 : 수락된 행, 그다음 수정일(없다면 생성일)이 최신인 행, 그다음 PK 가 큰 행
+DELETE `d`
+  FROM `t_frnd` `d`
+  JOIN `t_frnd` `k`
+    ON `k`.`lower_pair_key` = `d`.`lower_pair_key`
+   AND (`k`.`accp_yn` = 'y', COALESCE(`k`.`mod_ymdt`, `k`.`cre_ymdt`, '1000-01-01'), `k`.`frnd_pk`)
+     > (`d`.`accp_yn` = 'y', COALESCE(`d`.`mod_ymdt`, `d`.`cre_ymdt`, '1000-01-01'), `d`.`frnd_pk`);
+
+-- 남은 행의 새 키는 모두 다르므로 유니크 인덱스(ux_frnd_pair)를 그대로 둔 채 바꾼다.
+UPDATE `t_frnd`
+   SET `pair_key` = `lower_pair_key`;
+
+ALTER TABLE `t_frnd`
+  DROP KEY `ix_frnd_pair_dedup`,
+  DROP COLUMN `lower_pair_key`;
\ No newline at end of file
@@ -0,0 +1,188 @@
+package com.pacebookcorp.doragee.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.pacebookcorp.doragee.entity.Feed;
+import com.pacebookcorp.doragee.util.FeedCursor;
+
+/**
+ * FeedCache 단위 테스트
+ *
+ * @author Kwon Young
+ */
+public class FeedCacheTest {
+	/**
+	 * Post PK 의 숫자 부분을 long 으로 저장 : 정상 case, 비정상 case(형태가 다름)
+	 */
+	@Test
+	public void testPackPostPk() {
+		assertEquals("post20160806171903001", FeedCache.unpackPostPk(FeedCache.packPostPk("post20160806171903001")));
+		assertEquals("post00000000000000001", FeedCache.unpackPostPk(FeedCache.packPostPk("post00000000000000001")));
+		assertEquals(-1L, FeedCache.packPostPk("frnd20160806171903001"));
+		assertEquals(-1L, FeedCache.packPostPk("post2016080617190300a"));
+		assertEquals(-1L, FeedCache.packPostPk(null));
+	}
+
+	/**
+	 * 커서 위치부터 조회 : 캐시되지 않은 유저는 null, 뉴스피드 끝까지 담겨있다면 limit 보다 적어도 리턴
+	 */
+	@Test
+	public void testWindow() {
+		FeedCache sut = new FeedCache(10, 4);
+
+		assertNull(sut.window("doragee", null, 2));
+
+		sut.load("doragee", feeds(3, 2, 1), false, false, sut.stamp("doragee"));
+
+		assertEquals(Arrays.asList(postPk(3), postPk(2)), sut.window("doragee", null, 2));
+		assertEquals(Arrays.asList(postPk(1)), sut.window("doragee", cursor(2), 2));
+		assertEquals(Collections.emptyList(), sut.window("doragee", cursor(1), 2));
+	}
+
+	/**
+	 * 커서 위치부터 조회 : 뒤로 더 오래된 뉴스피드가 있는데 캐시만으로 limit 건을 채울 수 없다면 null
+	 */
+	@Test
+	public void testWindow_truncated() {
+		FeedCache sut = new FeedCache(10, 4);
+
+		sut.load("doragee", feeds(4, 3, 2, 1), true, false, sut.stamp("doragee"));
+
+		assertEquals(Arrays.asList(postPk(4), postPk(3)), sut.window("doragee", null, 2));
+		assertNull(sut.window("doragee", cursor(2), 2));
+	}
+
+	/**
+	 * 작성, 수정된 Post 넣기 : 최신 Post 는 맨 앞으로, 슬롯이 가득 찼다면 가장 오래된 Post 가 밀려남
+	 */
+	@Test
+	public void testPut() {
+		FeedCache sut = new FeedCache(10, 3);
+
+		sut.load("doragee", feeds(3, 2, 1), false, false, sut.stamp("doragee"));
+		sut.put("doragee", postPk(4), date(4));
+
+		assertEquals(Arrays.asList(postPk(4), postPk(3), postPk(2)), sut.window("doragee", null, 3));
+		assertNull(sut.window("doragee", cursor(3), 2));
+
+		sut.put("doragee", postPk(2), date(5));
+
+		assertEquals(Arrays.asList(postPk(2), postPk(4), postPk(3)), sut.window("doragee", null, 3));
+	}
+
+	/**
+	 * 가득 찬 슬롯보다 오래된 Post 는 버리고, 그 뒤 페이지는 t_feed 에서 읽음
+	 */
+	@Test
+	public void testPut_olderThanSlot() {
+		FeedCache sut = new FeedCache(10, 2);
+
+		sut.load("doragee", feeds(3), false, false, sut.stamp("doragee"));
+		sut.put("doragee", postPk(2), date(2));
+		sut.put("doragee", postPk(1), date(1));
+
+		assertEquals(Arrays.asList(postPk(3), postPk(2)), sut.window("doragee", null, 2));
+		assertNull(sut.window("doragee", cursor(2), 1));
+	}
+
+	/**
+	 * 삭제된 Post 빼기, 캐시되지 않은 유저는 무시
+	 */
+	@Test
+	public void testRemove() {
+		FeedCache sut = new FeedCache(10, 4);
+
+		sut.load("doragee", feeds(3, 2, 1), false, false, sut.stamp("doragee"));
+		sut.remove("doragee", postPk(2));
+		sut.remove("gosari", postPk(3));
+
+		assertEquals(Arrays.asList(postPk(3), postPk(1)), sut.window("doragee", null, 4));
+		assertNull(sut.window("gosari", null, 4));
+	}
+
+	/**
+	 * t_feed 를 읽는 도중 같은 유저의 뉴스피드가 바뀌었다면 담지 않음 : 슬롯이 없어 아무것도 하지 않은 put 도 스탬프를 올림
+	 */
+	@Test
+	public void testLoad_stale() {
+		FeedCache sut = new FeedCache(10, 4);
+		long stamp = sut.stamp("doragee");
+
+		sut.put("doragee", postPk(4), date(4));
+		sut.load("doragee", feeds(3, 2, 1), false, false, stamp);
+
+		assertNull(sut.window("doragee", null, 2));
+		assertEquals(1L, sut.stats().getStaleLoads());
+
+		sut.load("doragee", feeds(4, 3, 2, 1), false, false, sut.stamp("doragee"));
+
+		assertEquals(Arrays.asList(postPk(4), postPk(3)), sut.window("doragee", null, 2));
+	}
+
+	/**
+	 * 최대 유저 수를 넘으면 가장 오래 조회되지 않은 유저를 비움
+	 */
+	@Test
+	public void testLeastRecentlyUsedEviction() {
+		FeedCache sut = new FeedCache(2, 4);
+
+		sut.load("doragee", feeds(1), false, false, sut.stamp("doragee"));
+		sut.load("gosari", feeds(2), false, false, sut.stamp("gosari"));
+		sut.window("doragee", null, 1);
+		sut.load("celebrity", feeds(3), false, false, sut.stamp("celebrity"));
+
+		assertNull(sut.window("gosari", null, 1));
+		assertEquals(Arrays.asList(postPk(1)), sut.window("doragee", null, 1));
+		assertEquals(Arrays.asList(postPk(3)), sut.window("celebrity", null, 1));
+		assertEquals(1L, sut.stats().getEvictions());
+	}
+
+	/**
+	 * 미리 담아둔 뉴스피드 : 작성, 삭제로 바뀌어도 표시가 유지되고, 첫 조회 한번만 precomputedHits 로 센다.
+	 */
+	@Test
+	public void testPrecomputedHits() {
+		FeedCache sut = new FeedCache(10, 4);
+
+		sut.load("doragee", feeds(2, 1), false, true, sut.stamp("doragee"));
+		sut.load("gosari", feeds(2, 1), false, true, sut.stamp("gosari"));
+		sut.put("doragee", postPk(3), date(3));
+		sut.remove("doragee", postPk(1));
+
+		assertEquals(Arrays.asList(postPk(3), postPk(2)), sut.window("doragee", null, 2));
+		assertEquals(Arrays.asList(postPk(3), postPk(2)), sut.window("doragee", null, 2));
+		assertEquals(2L, sut.stats().getPrecomputedLoads());
+		assertEquals(1L, sut.stats().getPrecomputedHits());
+	}
+
+	private List<Feed> feeds(int... seconds) {
+		List<Feed> feeds = new ArrayList<>();
+
+		for (int second : seconds) {
+			feeds.add(new Feed("doragee", postPk(second), "doragee", date(second)));
+		}
+
+		return feeds;
+	}
+
+	private FeedCursor cursor(int second) {
+		return new FeedCursor(date(second), postPk(second));
+	}
+
+	private String postPk(int second) {
+		return String.format("post201608061719%02d000", second);
+	}
+
+	private Date date(int second) {
+		return new Date(1470471540000L + second * 1000L);
+	}
+}
\ No newline at end of file
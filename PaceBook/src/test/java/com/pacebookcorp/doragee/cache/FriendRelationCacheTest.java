@@ -0,0 +1,116 @@
+package com.pacebookcorp.doragee.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import com.pacebookcorp.doragee.dto.FriendRelationCacheStats;
+import com.pacebookcorp.doragee.entity.Friend;
+
+/**
+ * FriendRelationCache 단위 테스트
+ *
+ * @author Kwon Young
+ */
+public class FriendRelationCacheTest {
+	private final List<String> loadedPairKeys = new ArrayList<>();
+
+	/**
+	 * 관계가 있는 쌍 : 두 번째 조회는 t_frnd 를 읽지 않고, 첫 조회도 loader 가 리턴한 엔티티가 아닌 복사본을 리턴
+	 */
+	@Test
+	public void testGet() {
+		FriendRelationCache sut = new FriendRelationCache(10, 60000L, 60000L);
+		Friend friend = friend("doragee:gosari");
+
+		Friend first = sut.get("doragee:gosari", loader(friend));
+		Friend second = sut.get("doragee:gosari", loader(friend));
+
+		assertEquals(friend, first);
+		assertEquals(friend, second);
+		assertNotSame(friend, first);
+		assertNotSame(first, second);
+		assertEquals(1, loadedPairKeys.size());
+		assertEquals(1L, sut.stats().getHits());
+		assertEquals(1L, sut.stats().getMisses());
+	}
+
+	/**
+	 * 관계가 없는 쌍 : 없다는 결과도 담고, negativeTtl 이 지나면 다시 조회
+	 */
+	@Test
+	public void testGet_negative() throws InterruptedException {
+		FriendRelationCache sut = new FriendRelationCache(10, 60000L, 1L);
+
+		assertNull(sut.get("doragee:pacebook", loader(null)));
+		assertNull(sut.get("doragee:pacebook", loader(null)));
+
+		Thread.sleep(20L);
+
+		assertNull(sut.get("doragee:pacebook", loader(null)));
+
+		FriendRelationCacheStats stats = sut.stats();
+
+		assertEquals(2, loadedPairKeys.size());
+		assertEquals(1L, stats.getNegativeHits());
+		assertEquals(0L, stats.getHits());
+		assertEquals(2L, stats.getMisses());
+	}
+
+	/**
+	 * 관계가 바뀐 쌍은 비우고, 조회 도중 비워졌다면 조회 결과를 담지 않음
+	 */
+	@Test
+	public void testInvalidate() {
+		FriendRelationCache sut = new FriendRelationCache(10, 60000L, 60000L);
+
+		sut.get("doragee:gosari", loader(null));
+		sut.invalidate("doragee:gosari");
+
+		assertEquals(friend("doragee:gosari"), sut.get("doragee:gosari", loader(friend("doragee:gosari"))));
+
+		sut.get("doragee:pacebook", pairKey -> {
+			sut.invalidate("doragee:pacebook");
+			return null;
+		});
+
+		assertEquals(1, sut.stats().getEntries());
+		assertEquals(2L, sut.stats().getInvalidations());
+	}
+
+	/**
+	 * maxEntries 를 넘으면 가장 오래 조회되지 않은 쌍부터 비움
+	 */
+	@Test
+	public void testEvict() {
+		FriendRelationCache sut = new FriendRelationCache(2, 60000L, 60000L);
+
+		sut.get("a:b", loader(null));
+		sut.get("a:c", loader(null));
+		sut.get("a:b", loader(null));
+		sut.get("a:d", loader(null));
+		sut.get("a:b", loader(null));
+		sut.get("a:c", loader(null));
+
+		assertEquals(4, loadedPairKeys.size());
+		assertEquals(2L, sut.stats().getEvictions());
+		assertEquals(2, sut.stats().getEntries());
+	}
+
+	private Function<String, Friend> loader(Friend friend) {
+		return pairKey -> {
+			loadedPairKeys.add(pairKey);
+			return friend;
+		};
+	}
+
+	private static Friend friend(String pairKey) {
+		return new Friend("frnd20160806171903001", "doragee", "gosari", pairKey, "y", "y", "y", null, null, 0);
+	}
+}
\ No newline at end of file
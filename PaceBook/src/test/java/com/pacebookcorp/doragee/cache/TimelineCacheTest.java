@@ -0,0 +1,172 @@
+package com.pacebookcorp.doragee.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.pacebookcorp.doragee.dto.TimelineCacheStats;
+import com.pacebookcorp.doragee.entity.Post;
+
+/**
+ * TimelineCache 단위 테스트
+ *
+ * @author Kwon Young
+ */
+public class TimelineCacheTest {
+	/**
+	 * 첫 페이지 조회 : 캐시되지 않은 주인은 null, 타임라인 끝까지 담겨있다면 limit 보다 적어도 리턴
+	 */
+	@Test
+	public void testFirstPage() {
+		TimelineCache sut = new TimelineCache(1024 * 1024, 3);
+
+		assertNull(sut.firstPage("doragee", 4));
+
+		sut.load("doragee", posts(2, 1), false, sut.stamp("doragee"));
+
+		assertEquals(postPks(2, 1), postPks(sut.firstPage("doragee", 4)));
+		assertEquals(postPks(2), postPks(sut.firstPage("doragee", 1)));
+	}
+
+	/**
+	 * 첫 페이지 조회 : 뒤로 더 오래된 Post 가 있는데 캐시만으로 limit 건을 채울 수 없다면 null
+	 */
+	@Test
+	public void testFirstPage_truncated() {
+		TimelineCache sut = new TimelineCache(1024 * 1024, 1);
+
+		sut.load("doragee", posts(3, 2, 1), true, sut.stamp("doragee"));
+
+		assertEquals(postPks(3, 2), postPks(sut.firstPage("doragee", 2)));
+
+		sut.remove("doragee", postPk(2));
+
+		assertNull(sut.firstPage("doragee", 2));
+	}
+
+	/**
+	 * 작성, 수정된 Post 넣기 : 수정일 위치로 넣거나 옮기고, 가득 찼다면 가장 오래된 Post 가 밀려남
+	 */
+	@Test
+	public void testPut() {
+		TimelineCache sut = new TimelineCache(1024 * 1024, 2);
+
+		sut.load("doragee", posts(3, 2, 1), false, sut.stamp("doragee"));
+		sut.put(post(4, 4));
+
+		assertEquals(postPks(4, 3, 2), postPks(sut.firstPage("doragee", 3)));
+
+		sut.put(post(2, 5));
+
+		assertEquals(postPks(2, 4, 3), postPks(sut.firstPage("doragee", 3)));
+
+		sut.put(post(9, 0));
+
+		assertEquals(postPks(2, 4, 3), postPks(sut.firstPage("doragee", 3)));
+		assertNull(sut.firstPage("doragee", 4));
+	}
+
+	/**
+	 * 작성된 Post 넣기 : 캐시되지 않은 주인이라면 담지 않고, 이후 엔티티를 고쳐도 캐시는 바뀌지 않도록 복사본을 담는다.
+	 */
+	@Test
+	public void testPut_copy() {
+		TimelineCache sut = new TimelineCache(1024 * 1024, 2);
+		Post post = post(1, 1);
+
+		sut.put(post);
+
+		assertNull(sut.firstPage("doragee", 1));
+
+		sut.load("doragee", Collections.emptyList(), false, sut.stamp("doragee"));
+		sut.put(post);
+		post.setContent("수정된 글");
+
+		Post cachedPost = sut.firstPage("doragee", 1).get(0);
+
+		assertEquals(new Date(1000L), cachedPost.getModifiedDate());
+		assertEquals("글", cachedPost.getContent());
+	}
+
+	/**
+	 * t_post 를 읽는 도중 같은 주인의 타임라인이 바뀌었다면 담지 않음 : 캐시되지 않아 아무것도 하지 않은 put 도 스탬프를 올림
+	 */
+	@Test
+	public void testLoad_stale() {
+		TimelineCache sut = new TimelineCache(1024 * 1024, 3);
+		long stamp = sut.stamp("doragee");
+
+		sut.put(post(4, 4));
+		sut.load("doragee", posts(3, 2, 1), false, stamp);
+
+		assertNull(sut.firstPage("doragee", 2));
+		assertEquals(1L, sut.stats().getStaleLoads());
+
+		sut.load("doragee", posts(4, 3, 2, 1), false, sut.stamp("doragee"));
+
+		assertEquals(postPks(4, 3), postPks(sut.firstPage("doragee", 2)));
+	}
+
+	/**
+	 * 힙 사용량이 상한을 넘으면 가장 오래 조회되지 않은 주인부터 비움
+	 */
+	@Test
+	public void testEvict() {
+		long bytes = TimelineCache.weigh(post(1, 1));
+		TimelineCache sut = new TimelineCache(bytes * 4, 2);
+
+		sut.load("doragee", posts(2, 1), false, sut.stamp("doragee"));
+		sut.load("tjcky", Arrays.asList(post("tjcky", 1, 1)), false, sut.stamp("tjcky"));
+		sut.firstPage("doragee", 1);
+		sut.load("pacebook", Arrays.asList(post("pacebook", 1, 1)), false, sut.stamp("pacebook"));
+
+		assertNull(sut.firstPage("tjcky", 1));
+		assertEquals(postPks(2), postPks(sut.firstPage("doragee", 1)));
+
+		TimelineCacheStats stats = sut.stats();
+
+		assertEquals(1, stats.getEvictions());
+		assertEquals(2, stats.getCachedOwners());
+		assertEquals(2, stats.getHits());
+		assertEquals(1, stats.getMisses());
+	}
+
+	private static List<Post> posts(int... ids) {
+		return Arrays.stream(ids)
+					 .mapToObj(id -> post(id, id))
+					 .collect(Collectors.toList());
+	}
+
+	private static Post post(int id, int second) {
+		return post("doragee", id, second);
+	}
+
+	private static Post post(String ownerId, int id, int second) {
+		Date date = new Date(second * 1000L);
+
+		return new Post(postPk(id), ownerId, "글", ownerId, date, ownerId, date);
+	}
+
+	private static String postPk(int id) {
+		return String.format("post%017d", id);
+	}
+
+	private static List<String> postPks(int... ids) {
+		return Arrays.stream(ids)
+					 .mapToObj(TimelineCacheTest::postPk)
+					 .collect(Collectors.toList());
+	}
+
+	private static List<String> postPks(List<Post> posts) {
+		return posts.stream()
+					.map(Post::getPostPk)
+					.collect(Collectors.toList());
+	}
+}
\ No newline at end of file
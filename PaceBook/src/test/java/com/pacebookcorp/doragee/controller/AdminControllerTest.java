@@ -0,0 +1,176 @@
+package com.pacebookcorp.doragee.controller;
+
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.pacebookcorp.doragee.cache.FeedCache;
+import com.pacebookcorp.doragee.cache.FriendRelationCache;
+import com.pacebookcorp.doragee.cache.TimelineCache;
+import com.pacebookcorp.doragee.dto.FeedCacheStats;
+import com.pacebookcorp.doragee.dto.FeedExecutorStats;
+import com.pacebookcorp.doragee.dto.FeedPrecomputeStats;
+import com.pacebookcorp.doragee.dto.FriendRelationCacheStats;
+import com.pacebookcorp.doragee.dto.FriendUpdateStats;
+import com.pacebookcorp.doragee.dto.HybridFeedStats;
+import com.pacebookcorp.doragee.dto.SuggestionStats;
+import com.pacebookcorp.doragee.dto.TimelineCacheStats;
+import com.pacebookcorp.doragee.executor.FeedExecutor;
+import com.pacebookcorp.doragee.service.FeedPrecomputeService;
+import com.pacebookcorp.doragee.service.FriendService;
+import com.pacebookcorp.doragee.service.HeavyUserService;
+import com.pacebookcorp.doragee.service.SuggestionService;
+
+/**
+ * AdminController 단위 테스트
+ *
+ * @author Kwon Young
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class AdminControllerTest {
+	@InjectMocks
+	private AdminController sut;
+
+	@Mock
+	private HeavyUserService heavyUserService;
+
+	@Mock
+	private FeedCache feedCache;
+
+	@Mock
+	private FeedExecutor feedExecutor;
+
+	@Mock
+	private TimelineCache timelineCache;
+
+	@Mock
+	private FeedPrecomputeService feedPrecomputeService;
+
+	@Mock
+	private SuggestionService suggestionService;
+
+	@Mock
+	private FriendRelationCache friendRelationCache;
+
+	@Mock
+	private FriendService friendService;
+
+	/**
+	 * push / pull 혼합 뉴스피드 지표 조회
+	 */
+	@Test
+	public void testFeed() {
+		when(heavyUserService.stats()).thenReturn(new HybridFeedStats());
+
+		HybridFeedStats result = sut.feed();
+
+		verify(heavyUserService, times(1)).stats();
+
+		assertNotNull(result);
+	}
+
+	/**
+	 * 뉴스피드 키 캐시 지표 조회
+	 */
+	@Test
+	public void testFeedCache() {
+		when(feedCache.stats()).thenReturn(new FeedCacheStats());
+
+		FeedCacheStats result = sut.feedCache();
+
+		verify(feedCache, times(1)).stats();
+
+		assertNotNull(result);
+	}
+
+	/**
+	 * 타임라인 첫 페이지 캐시 지표 조회
+	 */
+	@Test
+	public void testTimelineCache() {
+		when(timelineCache.stats()).thenReturn(new TimelineCacheStats());
+
+		TimelineCacheStats result = sut.timelineCache();
+
+		verify(timelineCache, times(1)).stats();
+
+		assertNotNull(result);
+	}
+
+	/**
+	 * 뉴스피드, 타임라인 조회 스레드 풀 지표 조회
+	 */
+	@Test
+	public void testFeedExecutor() {
+		when(feedExecutor.stats()).thenReturn(new FeedExecutorStats());
+
+		FeedExecutorStats result = sut.feedExecutor();
+
+		verify(feedExecutor, times(1)).stats();
+
+		assertNotNull(result);
+	}
+
+	/**
+	 * 뉴스피드 미리 담기 지표 조회
+	 */
+	@Test
+	public void testFeedPrecompute() {
+		when(feedPrecomputeService.stats()).thenReturn(new FeedPrecomputeStats());
+
+		FeedPrecomputeStats result = sut.feedPrecompute();
+
+		verify(feedPrecomputeService, times(1)).stats();
+
+		assertNotNull(result);
+	}
+
+	/**
+	 * 친구 추천 캐시 지표 조회
+	 */
+	@Test
+	public void testSuggestions() {
+		when(suggestionService.stats()).thenReturn(new SuggestionStats());
+
+		SuggestionStats result = sut.suggestions();
+
+		verify(suggestionService, times(1)).stats();
+
+		assertNotNull(result);
+	}
+
+	/**
+	 * 친구 관계 조회 캐시 지표 조회
+	 */
+	@Test
+	public void testFriendRelationCache() {
+		when(friendRelationCache.stats()).thenReturn(new FriendRelationCacheStats());
+
+		FriendRelationCacheStats result = sut.friendRelationCache();
+
+		verify(friendRelationCache, times(1)).stats();
+
+		assertNotNull(result);
+	}
+
+	/**
+	 * 친구 관계 상태 변경 지표 조회
+	 */
+	@Test
+	public void testFriendUpdates() {
+		when(friendService.updateStats()).thenReturn(new FriendUpdateStats());
+
+		FriendUpdateStats result = sut.friendUpdates();
+
+		verify(friendService, times(1)).updateStats();
+
+		assertNotNull(result);
+	}
+}
\ No newline at end of file
@@ -1,416 +1,851 @@
-package com.pacebookcorp.doragee.controller;
-
-import static org.junit.Assert.assertNotNull;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
-
-import java.util.ArrayList;
-import java.util.List;
-
-import org.junit.Test;
-import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.runners.MockitoJUnitRunner;
-
-import com.pacebookcorp.doragee.entity.Friend;
-import com.pacebookcorp.doragee.entity.Post;
-import com.pacebookcorp.doragee.entity.User;
-import com.pacebookcorp.doragee.service.FriendService;
-import com.pacebookcorp.doragee.service.PostService;
-import com.pacebookcorp.doragee.service.UserService;
-
-/**
- * PaceBookController 단위 테스트
- * 
- * @author Kwon Young
- */
-@RunWith(MockitoJUnitRunner.class)
-public class PaceBookControllerTest {
-	@InjectMocks
-	private PaceBookController sut;
-
-	@Mock
-	private UserService userService;
-
-	@Mock
-	private FriendService friendService;
-
-	@Mock
-	private PostService postService;
-
-	/**
-	 * 1. 모든 사용자 정보 조회
-	 */
-	@Test
-	public void testUsers() {
-		List<User> allUser = new ArrayList<>();
-
-		when(userService.findAll()).thenReturn(allUser);
-
-		List<User> resultAllUser = sut.users();
-
-		verify(userService, times(1)).findAll();
-
-		assertNotNull(resultAllUser);
-	}
-
-	/**
-	 * 2-1. 특정 유저의 뉴스피드 조회 : 정상 case
-	 */
-	@Test
-	public void testNewsfeed() {
-		List<Post> newsfeed = new ArrayList<>();
-
-		when(postService.newsfeed("testUserId")).thenReturn(newsfeed);
-
-		List<Post> resultNewsfeed = sut.newsfeed("testUserId");
-
-		verify(postService, times(1)).newsfeed("testUserId");
-
-		assertNotNull(resultNewsfeed);
-	}
-
-	/**
-	 * 2-2. 특정 유저의 뉴스피드 조회 : 비정상 case (아이디 특수문자 불가)
-	 */
-	@Test(expected = IllegalArgumentException.class)
-	public void testNewsfeed_illegalUserId() {
-		sut.newsfeed("#doragee");
-	}
-
-	/**
-	 * 3-1. 특정 유저만의 타임라인(뉴스피드) 조회 : 정상 case
-	 */
-	@Test
-	public void testTimeline() {
-		List<Post> newsfeed = new ArrayList<>();
-
-		when(postService.timeline("testUserId")).thenReturn(newsfeed);
-
-		List<Post> resultNewsfeed = sut.timeline("testUserId");
-
-		verify(postService, times(1)).timeline("testUserId");
-
-		assertNotNull(resultNewsfeed);
-	}
-
-	/**
-	 * 3-2. 특정 유저만의 타임라인(뉴스피드) 조회 : 비정상 case (아이디 5자 이하)
-	 */
-	@Test(expected = IllegalArgumentException.class)
-	public void testTimeline_illegalUserId() {
-		sut.timeline("tj");
-	}
-
-	/**
-	 * 4-1. 유저 가입 : 정상 case
-	 */
-	@Test
-	public void testRegist() {
-		User user = new User();
-
-		user.setUserId("doragee");
-		user.setUserName("도라지의심장");
-
-		when(userService.isInvalidRegistration(user.getUserId(), user.getUserName())).thenReturn(false);
-		when(userService.regist(user)).thenReturn(new User());
-
-		User resultUser = sut.regist(user);
-
-		verify(userService, times(1)).regist(user);
-
-		assertNotNull(resultUser);
-	}
-
-	/**
-	 * 4-2. 유저 가입 : 비정상 case
-	 */
-	@Test(expected = IllegalArgumentException.class)
-	public void testRegist_illegalUserId() {
-		User user = new User();
-
-		user.setUserId("doragee");
-		user.setUserName("도라지의심장");
-
-		when(userService.isInvalidRegistration(user.getUserId(), user.getUserName())).thenReturn(true);
-
-		sut.regist(user);
-	}
-
-	/**
-	 * 5-1. 친구 신청 : 정상 case
-	 */
-	@Test
-	public void testApply() {
-		Friend friend = new Friend();
-
-		when(friendService.isInvalidApply(friend)).thenReturn(false);
-		when(friendService.apply(friend)).thenReturn(new Friend());
-
-		Friend resultFriend = sut.apply(friend);
-
-		verify(friendService, times(1)).isInvalidApply(friend);
-		verify(friendService, times(1)).apply(friend);
-
-		assertNotNull(resultFriend);
-	}
-
-	/**
-	 * 5-2. 친구 신청 : 비정상 case
-	 */
-	@Test(expected = IllegalArgumentException.class)
-	public void testApply_illegalFriend() {
-		Friend friend = new Friend();
-
-		when(friendService.isInvalidApply(friend)).thenReturn(true);
-
-		sut.apply(friend);
-	}
-
-	/**
-	 * 6-1. 친구 수락 : 정상 case
-	 */
-	@Test
-	public void testAccept() {
-		Friend friend = new Friend();
-
-		when(friendService.notExistNotAccptedFriendRelation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(false);
-		when(friendService.accept(friend)).thenReturn(new Friend());
-
-		Friend resultFriend = sut.accept(friend);
-
-		verify(friendService, times(1)).notExistNotAccptedFriendRelation(friend.getApplierId(), friend.getAcceptorId());
-		verify(friendService, times(1)).accept(friend);
-
-		assertNotNull(resultFriend);
-	}
-
-	/**
-	 * 6-2. 친구 수락 : 비정상 case
-	 */
-	@Test(expected = IllegalStateException.class)
-	public void testAccept_illegalFriend() {
-		Friend friend = new Friend();
-
-		when(friendService.notExistNotAccptedFriendRelation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(true);
-
-		sut.accept(friend);
-	}
-
-	/**
-	 * 7-1. 친구 끊기 : 정상 case
-	 */
-	@Test
-	public void testEnd() {
-		Friend friend = new Friend();
-
-		when(friendService.isInvalidAccepted(friend)).thenReturn(false);
-		when(friendService.end(friend)).thenReturn(new Friend());
-
-		Friend resultFriend = sut.end(friend);
-
-		verify(friendService, times(1)).isInvalidAccepted(friend);
-		verify(friendService, times(1)).end(friend);
-
-		assertNotNull(resultFriend);
-	}
-
-	/**
-	 * 7-2. 친구 끊기 : 비정상 case
-	 */
-	@Test(expected = IllegalStateException.class)
-	public void testEnd_illegalFriend() {
-		Friend friend = new Friend();
-
-		when(friendService.isInvalidAccepted(friend)).thenReturn(true);
-
-		sut.end(friend);
-	}
-
-	/**
-	 * 8-1. 팔로우 맺기 : 정상 case
-	 */
-	@Test
-	public void testFollow() {
-		Friend friend = new Friend();
-		String follower = "applierId";
-
-		when(friendService.isInvalidFollowAgent(follower)).thenReturn(false);
-		when(friendService.isInvalidUnFollower(friend, follower)).thenReturn(false);
-		when(friendService.follow(friend, follower)).thenReturn(new Friend());
-
-		Friend resultFriend = sut.follow(friend, follower);
-
-		verify(friendService, times(1)).isInvalidFollowAgent(follower);
-		verify(friendService, times(1)).isInvalidUnFollower(friend, follower);
-		verify(friendService, times(1)).follow(friend, follower);
-
-		assertNotNull(resultFriend);
-	}
-
-	/**
-	 * 8-2. 팔로우 맺기 : 비정상 case / follower 어뷰징
-	 */
-	@Test(expected = IllegalStateException.class)
-	public void testFollow_illegalFollower() {
-		Friend friend = new Friend();
-		String follower = "abuseFollower";
-
-		when(friendService.isInvalidFollowAgent(follower)).thenReturn(true);
-
-		sut.follow(friend, follower);
-	}
-
-	/**
-	 * 8-3. 팔로우 맺기 : 비정상 case / 친구 관계 아님
-	 */
-	@Test(expected = IllegalStateException.class)
-	public void testFollow_illegalFriend() {
-		Friend friend = new Friend();
-		String follower = "applierId";
-
-		when(friendService.isInvalidFollowAgent(follower)).thenReturn(false);
-		when(friendService.isInvalidUnFollower(friend, follower)).thenReturn(true);
-
-		sut.follow(friend, follower);
-	}
-
-	/**
-	 * 9-1. 팔로우 끊기 : 정상 case
-	 */
-	@Test
-	public void testUnFollow() {
-		Friend friend = new Friend();
-		String follower = "applierId";
-
-		when(friendService.isInvalidFollowAgent(follower)).thenReturn(false);
-		when(friendService.isInvalidFollwer(friend, follower)).thenReturn(false);
-		when(friendService.unfollow(friend, follower)).thenReturn(new Friend());
-
-		Friend resultFriend = sut.unFollow(friend, follower);
-
-		verify(friendService, times(1)).isInvalidFollowAgent(follower);
-		verify(friendService, times(1)).isInvalidFollwer(friend, follower);
-		verify(friendService, times(1)).unfollow(friend, follower);
-
-		assertNotNull(resultFriend);
-	}
-
-	/**
-	 * 9-2. 팔로우 끊기 : 비정상 case / follower 어뷰징
-	 */
-	@Test(expected = IllegalStateException.class)
-	public void testUnFollow_illegalFollower() {
-		Friend friend = new Friend();
-		String follower = "abuseFollower";
-
-		when(friendService.isInvalidFollowAgent(follower)).thenReturn(true);
-
-		sut.unFollow(friend, follower);
-	}
-
-	/**
-	 * 9-3. 팔로우 끊기 : 비정상 case / 친구 관계 아님
-	 */
-	@Test(expected = IllegalStateException.class)
-	public void testUnFollow_illegalFriend() {
-		Friend friend = new Friend();
-		String follower = "applierId";
-
-		when(friendService.isInvalidFollowAgent(follower)).thenReturn(false);
-		when(friendService.isInvalidFollwer(friend, follower)).thenReturn(true);
-
-		sut.unFollow(friend, follower);
-	}
-
-	/**
-	 * 10-1. Post 작성 : 정상 case
-	 */
-	@Test
-	public void testWrite() {
-		Post post = new Post();
-
-		when(postService.isInvalidWrite(post)).thenReturn(false);
-		when(postService.write(post)).thenReturn(new Post());
-
-		Post resultPost = sut.write(post);
-
-		verify(postService, times(1)).isInvalidWrite(post);
-		verify(postService, times(1)).write(post);
-
-		assertNotNull(resultPost);
-	}
-
-	/**
-	 * 10-2. Post 작성 : 비정상 case
-	 */
-	@Test(expected = IllegalStateException.class)
-	public void testWrite_illegalNotAccess() {
-		Post post = new Post();
-
-		when(postService.isInvalidWrite(post)).thenReturn(true);
-
-		sut.write(post);
-	}
-
-	/**
-	 * 11-1. Post 수정 : 정상 case
-	 */
-	@Test
-	public void testModify() {
-		Post post = new Post();
-
-		when(postService.isInvalidModify(post)).thenReturn(false);
-		when(postService.modify(post)).thenReturn(new Post());
-
-		Post resultPost = sut.modify(post);
-
-		verify(postService, times(1)).isInvalidModify(post);
-		verify(postService, times(1)).modify(post);
-
-		assertNotNull(resultPost);
-	}
-
-	/**
-	 * 11-2. Post 수정 : 비정상 case
-	 */
-	@Test(expected = IllegalStateException.class)
-	public void testModify_illegalNotAccess() {
-		Post post = new Post();
-
-		when(postService.isInvalidModify(post)).thenReturn(true);
-
-		sut.modify(post);
-	}
-
-	/**
-	 * 12-1. Post 삭제 : 정상 case
-	 */
-	@Test
-	public void testDelete() {
-		Post post = new Post();
-
-		when(postService.isInvalidDelete(post)).thenReturn(false);
-		doNothing().when(postService).delete(post);
-
-		sut.delete(post);
-
-		verify(postService, times(1)).isInvalidDelete(post);
-		verify(postService, times(1)).delete(post);
-	}
-
-	/**
-	 * 12-2. Post 삭제 : 비정상 case
-	 */
-	@Test(expected = IllegalStateException.class)
-	public void testDelete_illegalNotAccess() {
-		Post post = new Post();
-
-		when(postService.isInvalidDelete(post)).thenReturn(true);
-
-		sut.delete(post);
-	}
+package com.pacebookcorp.doragee.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.pacebookcorp.doragee.dto.FriendBatchResult;
+import com.pacebookcorp.doragee.dto.FriendRelation;
+import com.pacebookcorp.doragee.dto.MutualFriendPage;
+import com.pacebookcorp.doragee.dto.NewsfeedDelta;
+import com.pacebookcorp.doragee.dto.PostPage;
+import com.pacebookcorp.doragee.dto.PostSummary;
+import com.pacebookcorp.doragee.dto.PostSummaryPage;
+import com.pacebookcorp.doragee.dto.Suggestion;
+import com.pacebookcorp.doragee.entity.Friend;
+import com.pacebookcorp.doragee.entity.Post;
+import com.pacebookcorp.doragee.entity.User;
+import com.pacebookcorp.doragee.entity.UserCount;
+import com.pacebookcorp.doragee.exception.ExceptionMessage;
+import com.pacebookcorp.doragee.executor.FeedExecutor;
+import com.pacebookcorp.doragee.service.FriendService;
+import com.pacebookcorp.doragee.service.PostService;
+import com.pacebookcorp.doragee.service.SuggestionService;
+import com.pacebookcorp.doragee.service.UserCountService;
+import com.pacebookcorp.doragee.service.UserService;
+
+/**
+ * PaceBookController 단위 테스트
+ *
+ * @author Kwon Young
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class PaceBookControllerTest {
+	@InjectMocks
+	private PaceBookController sut;
+
+	@Mock
+	private UserService userService;
+
+	@Mock
+	private FriendService friendService;
+
+	@Mock
+	private PostService postService;
+
+	@Mock
+	private SuggestionService suggestionService;
+
+	@Mock
+	private UserCountService userCountService;
+
+	@Spy
+	private ObjectMapper objectMapper = new ObjectMapper();
+
+	@Spy
+	private FeedExecutor feedExecutor = new FeedExecutor(1, 10, "abort");
+
+	/**
+	 * 1. 모든 사용자 정보 조회
+	 */
+	@Test
+	public void testUsers() {
+		List<User> allUser = new ArrayList<>();
+
+		when(userService.findAll()).thenReturn(allUser);
+
+		List<User> resultAllUser = sut.users();
+
+		verify(userService, times(1)).findAll();
+
+		assertNotNull(resultAllUser);
+	}
+
+	/**
+	 * 2-1. 특정 유저의 뉴스피드 조회 : 정상 case
+	 */
+	@Test
+	public void testNewsfeed() {
+		List<Post> newsfeed = new ArrayList<>();
+
+		when(postService.newsfeed("testUserId")).thenReturn(newsfeed);
+
+		List<Post> resultNewsfeed = sut.newsfeed("testUserId").join();
+
+		verify(postService, times(1)).newsfeed("testUserId");
+
+		assertNotNull(resultNewsfeed);
+	}
+
+	/**
+	 * 2-2. 특정 유저의 뉴스피드 조회 : 비정상 case (아이디 특수문자 불가)
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNewsfeed_illegalUserId() {
+		sut.newsfeed("#doragee");
+	}
+
+	/**
+	 * 2-3. 특정 유저의 뉴스피드 페이지 조회 : 정상 case
+	 */
+	@Test
+	public void testNewsfeedPage() {
+		when(postService.newsfeed("testUserId", null, 20)).thenReturn(new PostPage());
+
+		PostPage resultPage = sut.newsfeed("testUserId", null, 20).join();
+
+		verify(postService, times(1)).newsfeed("testUserId", null, 20);
+
+		assertNotNull(resultPage);
+	}
+
+	/**
+	 * 2-4. 특정 유저의 뉴스피드 페이지 조회 : 비정상 case (페이지 크기 범위 초과)
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNewsfeedPage_illegalSize() {
+		sut.newsfeed("testUserId", null, 1000);
+	}
+
+	/**
+	 * 2-5. 특정 유저의 뉴스피드 변경분 조회 : 정상 case
+	 */
+	@Test
+	public void testNewsfeedDelta() {
+		when(postService.newsfeedDelta("testUserId", 1470471543000L)).thenReturn(new NewsfeedDelta());
+
+		NewsfeedDelta resultDelta = sut.newsfeedDelta("testUserId", 1470471543000L).join();
+
+		verify(postService, times(1)).newsfeedDelta("testUserId", 1470471543000L);
+
+		assertNotNull(resultDelta);
+	}
+
+	/**
+	 * 2-6. 특정 유저의 뉴스피드 변경분 조회 : 비정상 case (음수 워터마크)
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNewsfeedDelta_illegalWatermark() {
+		sut.newsfeedDelta("testUserId", -1L);
+	}
+
+	/**
+	 * 3-1. 특정 유저만의 타임라인(뉴스피드) 조회 : 정상 case
+	 */
+	@Test
+	public void testTimeline() {
+		List<Post> newsfeed = new ArrayList<>();
+
+		when(postService.timeline("testUserId")).thenReturn(newsfeed);
+
+		List<Post> resultNewsfeed = sut.timeline("testUserId").join();
+
+		verify(postService, times(1)).timeline("testUserId");
+
+		assertNotNull(resultNewsfeed);
+	}
+
+	/**
+	 * 3-2. 특정 유저만의 타임라인(뉴스피드) 조회 : 비정상 case (아이디 5자 이하)
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testTimeline_illegalUserId() {
+		sut.timeline("tj");
+	}
+
+	/**
+	 * 3-3. 특정 유저의 타임라인 스트리밍 조회 : 정상 case (한 줄에 Post 하나씩 NDJSON)
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testTimelineStream() throws IOException {
+		Post post = new Post();
+		post.setPostPk("post20160806171903001");
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		doAnswer(invocation -> {
+			Consumer<Post> consumer = (Consumer<Post>) invocation.getArguments()[1];
+
+			consumer.accept(post);
+			consumer.accept(post);
+
+			return null;
+		}).when(postService).streamTimeline(eq("testUserId"), (Consumer<Post>) anyObject());
+
+		sut.timelineStream("testUserId").writeTo(outputStream);
+
+		String[] lines = new String(outputStream.toByteArray(), StandardCharsets.UTF_8).split("\n");
+
+		assertEquals(2, lines.length);
+		assertEquals("post20160806171903001", objectMapper.readValue(lines[0], Post.class).getPostPk());
+	}
+
+	/**
+	 * 3-4. 특정 유저의 뉴스피드 스트리밍 조회 : 정상 case
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testNewsfeedStream() throws IOException {
+		sut.newsfeedStream("testUserId").writeTo(new ByteArrayOutputStream());
+
+		verify(postService, times(1)).streamNewsfeed(eq("testUserId"), (Consumer<Post>) anyObject());
+	}
+
+	/**
+	 * 3-5. 특정 유저의 뉴스피드 스트리밍 조회 : 비정상 case (아이디 5자 이하)
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNewsfeedStream_illegalUserId() {
+		sut.newsfeedStream("tj");
+	}
+
+	/**
+	 * 3-6. 특정 유저의 뉴스피드 요약 페이지 조회 : 정상 case (요청한 필드만 직렬화)
+	 */
+	@Test
+	public void testNewsfeedSummary() throws IOException {
+		PostSummary summary = new PostSummary("post20160806171903001", "testUserId", "testUserId", "content", new Date());
+
+		when(postService.newsfeedSummary("testUserId", null, 20)).thenReturn(new PostSummaryPage(Arrays.asList(summary), null));
+
+		MappingJacksonValue resultValue = sut.newsfeedSummary("testUserId", null, 20, "postPk,content").join();
+		String json = objectMapper.writer(resultValue.getFilters()).writeValueAsString(resultValue.getValue());
+
+		verify(postService, times(1)).newsfeedSummary("testUserId", null, 20);
+
+		assertEquals("{\"posts\":[{\"postPk\":\"post20160806171903001\",\"content\":\"content\"}],\"nextCursor\":null}", json);
+	}
+
+	/**
+	 * 3-7. 특정 유저의 뉴스피드 요약 페이지 조회 : 정상 case (size 가 없다면 기본값으로 요약 페이지 조회)
+	 */
+	@Test
+	public void testNewsfeedSummary_defaultSize() throws IOException {
+		PostSummary summary = new PostSummary("post20160806171903001", "testUserId", "testUserId", "content", new Date());
+
+		when(postService.newsfeedSummary("testUserId", null, null)).thenReturn(new PostSummaryPage(Arrays.asList(summary), null));
+
+		MappingJacksonValue resultValue = sut.newsfeedSummary("testUserId", null, "postPk").join();
+		String json = objectMapper.writer(resultValue.getFilters()).writeValueAsString(resultValue.getValue());
+
+		verify(postService, times(1)).newsfeedSummary("testUserId", null, null);
+		verify(postService, never()).newsfeed(anyString(), anyString(), (Integer) anyObject());
+
+		assertEquals("{\"posts\":[{\"postPk\":\"post20160806171903001\"}],\"nextCursor\":null}", json);
+	}
+
+	/**
+	 * 3-8. 특정 유저의 뉴스피드 요약 페이지 조회 : 비정상 case (PostSummary 에 없는 필드)
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNewsfeedSummary_illegalFields() {
+		sut.newsfeedSummary("testUserId", null, 20, "postPk,createdDate");
+	}
+
+	/**
+	 * 3-9. 특정 유저의 타임라인 요약 조회 : 정상 case (필드를 비워두면 모든 필드)
+	 */
+	@Test
+	public void testTimelineSummary() throws IOException {
+		PostSummary summary = new PostSummary("post20160806171903001", "testUserId", "testUserId", "content", new Date());
+
+		when(postService.timelineSummary("testUserId")).thenReturn(Arrays.asList(summary));
+
+		MappingJacksonValue resultValue = sut.timelineSummary("testUserId", null).join();
+		String json = objectMapper.writer(resultValue.getFilters()).writeValueAsString(resultValue.getValue());
+
+		verify(postService, times(1)).timelineSummary("testUserId");
+
+		assertFalse(json.contains("createdDate"));
+		assertEquals(summary, objectMapper.readValue(json, PostSummary[].class)[0]);
+	}
+
+	/**
+	 * 3-10. 특정 유저의 타임라인 페이지 조회 : 정상 case
+	 */
+	@Test
+	public void testTimelinePage() {
+		when(postService.timeline("testUserId", null, 20)).thenReturn(new PostPage());
+
+		PostPage resultPage = sut.timeline("testUserId", null, 20).join();
+
+		verify(postService, times(1)).timeline("testUserId", null, 20);
+
+		assertNotNull(resultPage);
+	}
+
+	/**
+	 * 3-11. 특정 유저의 타임라인 페이지 조회 : 비정상 case (페이지 크기 범위 초과)
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testTimelinePage_illegalSize() {
+		sut.timeline("testUserId", null, 0);
+	}
+
+	/**
+	 * 3-12. 특정 유저의 타임라인 요약 페이지 조회 : 정상 case
+	 */
+	@Test
+	public void testTimelineSummaryPage() {
+		when(postService.timelineSummary("testUserId", "cursor", 20)).thenReturn(new PostSummaryPage(new ArrayList<>(), null));
+
+		MappingJacksonValue resultValue = sut.timelineSummary("testUserId", "cursor", 20, "postPk").join();
+
+		verify(postService, times(1)).timelineSummary("testUserId", "cursor", 20);
+
+		assertNotNull(resultValue.getValue());
+	}
+
+	/**
+	 * 4-1. 유저 가입 : 정상 case
+	 */
+	@Test
+	public void testRegist() {
+		User user = new User();
+
+		user.setUserId("doragee");
+		user.setUserName("도라지의심장");
+
+		when(userService.isInvalidRegistration(user.getUserId(), user.getUserName())).thenReturn(false);
+		when(userService.regist(user)).thenReturn(new User());
+
+		User resultUser = sut.regist(user);
+
+		verify(userService, times(1)).regist(user);
+
+		assertNotNull(resultUser);
+	}
+
+	/**
+	 * 4-2. 유저 가입 : 비정상 case
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testRegist_illegalUserId() {
+		User user = new User();
+
+		user.setUserId("doragee");
+		user.setUserName("도라지의심장");
+
+		when(userService.isInvalidRegistration(user.getUserId(), user.getUserName())).thenReturn(true);
+
+		sut.regist(user);
+	}
+
+	/**
+	 * 5-1. 친구 신청 : 정상 case
+	 */
+	@Test
+	public void testApply() {
+		Friend friend = new Friend();
+
+		when(friendService.isInvalidApply(friend)).thenReturn(false);
+		when(friendService.apply(friend)).thenReturn(new Friend());
+
+		Friend resultFriend = sut.apply(friend);
+
+		verify(friendService, times(1)).isInvalidApply(friend);
+		verify(friendService, times(1)).apply(friend);
+
+		assertNotNull(resultFriend);
+	}
+
+	/**
+	 * 5-2. 친구 신청 : 비정상 case
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testApply_illegalFriend() {
+		Friend friend = new Friend();
+
+		when(friendService.isInvalidApply(friend)).thenReturn(true);
+
+		sut.apply(friend);
+	}
+
+	/**
+	 * 5-3. 친구 일괄 신청 : 정상 case
+	 */
+	@Test
+	public void testApplyAll() {
+		List<String> acceptorIds = Arrays.asList("gosari", "pacebook");
+		List<FriendBatchResult> results = Arrays.asList(FriendBatchResult.success("gosari", new Friend()), FriendBatchResult.failure("pacebook", "exists"));
+
+		when(friendService.isInvalidBatch("doragee", acceptorIds)).thenReturn(false);
+		when(friendService.applyAll("doragee", acceptorIds)).thenReturn(results);
+
+		List<FriendBatchResult> resultFriends = sut.applyAll("doragee", acceptorIds);
+
+		verify(friendService, times(1)).isInvalidBatch("doragee", acceptorIds);
+		verify(friendService, times(1)).applyAll("doragee", acceptorIds);
+
+		assertEquals(results, resultFriends);
+	}
+
+	/**
+	 * 5-4. 친구 일괄 신청 : 비정상 case / 상대가 없거나 500 명 초과
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testApplyAll_illegalBatch() {
+		when(friendService.isInvalidBatch("doragee", null)).thenReturn(true);
+
+		sut.applyAll("doragee", null);
+	}
+
+	/**
+	 * 6-1. 친구 수락 : 정상 case / 친구 관계를 한 번 조회하여 유효성 체크와 수락에 함께 씀
+	 */
+	@Test
+	public void testAccept() {
+		Friend friend = friend();
+		FriendRelation relation = FriendRelation.of(null, friend.getApplierId(), friend.getAcceptorId());
+
+		when(friendService.relation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(relation);
+		when(friendService.isInvalidAccept(relation)).thenReturn(false);
+		when(friendService.accept(relation)).thenReturn(new Friend());
+
+		Friend resultFriend = sut.accept(friend);
+
+		verify(friendService, times(1)).relation(friend.getApplierId(), friend.getAcceptorId());
+		verify(friendService, times(1)).isInvalidAccept(relation);
+		verify(friendService, times(1)).accept(relation);
+
+		assertNotNull(resultFriend);
+	}
+
+	/**
+	 * 6-2. 친구 수락 : 비정상 case
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testAccept_illegalFriend() {
+		Friend friend = friend();
+		FriendRelation relation = FriendRelation.of(null, friend.getApplierId(), friend.getAcceptorId());
+
+		when(friendService.relation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(relation);
+		when(friendService.isInvalidAccept(relation)).thenReturn(true);
+
+		sut.accept(friend);
+	}
+
+	/**
+	 * 6-3. 친구 일괄 수락 : 정상 case
+	 */
+	@Test
+	public void testAcceptAll() {
+		List<String> applierIds = Arrays.asList("doragee", "pacebook");
+
+		when(friendService.isInvalidBatch("gosari", applierIds)).thenReturn(false);
+		when(friendService.acceptAll("gosari", applierIds)).thenReturn(new ArrayList<>());
+
+		sut.acceptAll("gosari", applierIds);
+
+		verify(friendService, times(1)).acceptAll("gosari", applierIds);
+	}
+
+	/**
+	 * 6-4. 친구 일괄 수락 : 비정상 case
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testAcceptAll_illegalBatch() {
+		List<String> applierIds = Arrays.asList("doragee");
+
+		when(friendService.isInvalidBatch("tjc", applierIds)).thenReturn(true);
+
+		sut.acceptAll("tjc", applierIds);
+	}
+
+	/**
+	 * 7-1. 친구 끊기 : 정상 case
+	 */
+	@Test
+	public void testEnd() {
+		Friend friend = friend();
+		FriendRelation relation = FriendRelation.of(null, friend.getApplierId(), friend.getAcceptorId());
+
+		when(friendService.relation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(relation);
+		when(friendService.isInvalidEnd(relation)).thenReturn(false);
+		when(friendService.end(relation)).thenReturn(new Friend());
+
+		Friend resultFriend = sut.end(friend);
+
+		verify(friendService, times(1)).relation(friend.getApplierId(), friend.getAcceptorId());
+		verify(friendService, times(1)).isInvalidEnd(relation);
+		verify(friendService, times(1)).end(relation);
+
+		assertNotNull(resultFriend);
+	}
+
+	/**
+	 * 7-2. 친구 끊기 : 비정상 case
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testEnd_illegalFriend() {
+		Friend friend = friend();
+		FriendRelation relation = FriendRelation.of(null, friend.getApplierId(), friend.getAcceptorId());
+
+		when(friendService.relation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(relation);
+		when(friendService.isInvalidEnd(relation)).thenReturn(true);
+
+		sut.end(friend);
+	}
+
+	/**
+	 * 7-3. 친구 일괄 끊기 : 정상 case
+	 */
+	@Test
+	public void testEndAll() {
+		List<String> friendIds = Arrays.asList("gosari", "pacebook");
+
+		when(friendService.isInvalidBatch("doragee", friendIds)).thenReturn(false);
+		when(friendService.endAll("doragee", friendIds)).thenReturn(new ArrayList<>());
+
+		sut.endAll("doragee", friendIds);
+
+		verify(friendService, times(1)).endAll("doragee", friendIds);
+	}
+
+	/**
+	 * 7-4. 친구 일괄 끊기 : 비정상 case
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testEndAll_illegalBatch() {
+		List<String> friendIds = new ArrayList<>();
+
+		when(friendService.isInvalidBatch("doragee", friendIds)).thenReturn(true);
+
+		sut.endAll("doragee", friendIds);
+	}
+
+	/**
+	 * 8-1. 팔로우 맺기 : 정상 case
+	 */
+	@Test
+	public void testFollow() {
+		Friend friend = friend();
+		FriendRelation relation = FriendRelation.of(null, friend.getApplierId(), friend.getAcceptorId());
+		String follower = "applierId";
+
+		when(friendService.isInvalidFollowAgent(follower)).thenReturn(false);
+		when(friendService.relation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(relation);
+		when(friendService.isInvalidFollow(relation, follower)).thenReturn(false);
+		when(friendService.follow(relation, follower)).thenReturn(new Friend());
+
+		Friend resultFriend = sut.follow(friend, follower);
+
+		verify(friendService, times(1)).isInvalidFollowAgent(follower);
+		verify(friendService, times(1)).relation(friend.getApplierId(), friend.getAcceptorId());
+		verify(friendService, times(1)).isInvalidFollow(relation, follower);
+		verify(friendService, times(1)).follow(relation, follower);
+
+		assertNotNull(resultFriend);
+	}
+
+	/**
+	 * 8-2. 팔로우 맺기 : 비정상 case / follower 어뷰징
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testFollow_illegalFollower() {
+		Friend friend = friend();
+		String follower = "abuseFollower";
+
+		when(friendService.isInvalidFollowAgent(follower)).thenReturn(true);
+
+		sut.follow(friend, follower);
+	}
+
+	/**
+	 * 8-3. 팔로우 맺기 : 비정상 case / 친구 관계 아님
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testFollow_illegalFriend() {
+		Friend friend = friend();
+		FriendRelation relation = FriendRelation.of(null, friend.getApplierId(), friend.getAcceptorId());
+		String follower = "applierId";
+
+		when(friendService.isInvalidFollowAgent(follower)).thenReturn(false);
+		when(friendService.relation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(relation);
+		when(friendService.isInvalidFollow(relation, follower)).thenReturn(true);
+
+		sut.follow(friend, follower);
+	}
+
+	/**
+	 * 9-1. 팔로우 끊기 : 정상 case
+	 */
+	@Test
+	public void testUnFollow() {
+		Friend friend = friend();
+		FriendRelation relation = FriendRelation.of(null, friend.getApplierId(), friend.getAcceptorId());
+		String follower = "applierId";
+
+		when(friendService.isInvalidFollowAgent(follower)).thenReturn(false);
+		when(friendService.relation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(relation);
+		when(friendService.isInvalidUnfollow(relation, follower)).thenReturn(false);
+		when(friendService.unfollow(relation, follower)).thenReturn(new Friend());
+
+		Friend resultFriend = sut.unFollow(friend, follower);
+
+		verify(friendService, times(1)).isInvalidFollowAgent(follower);
+		verify(friendService, times(1)).relation(friend.getApplierId(), friend.getAcceptorId());
+		verify(friendService, times(1)).isInvalidUnfollow(relation, follower);
+		verify(friendService, times(1)).unfollow(relation, follower);
+
+		assertNotNull(resultFriend);
+	}
+
+	/**
+	 * 9-2. 팔로우 끊기 : 비정상 case / follower 어뷰징
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testUnFollow_illegalFollower() {
+		Friend friend = friend();
+		String follower = "abuseFollower";
+
+		when(friendService.isInvalidFollowAgent(follower)).thenReturn(true);
+
+		sut.unFollow(friend, follower);
+	}
+
+	/**
+	 * 9-3. 팔로우 끊기 : 비정상 case / 친구 관계 아님
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testUnFollow_illegalFriend() {
+		Friend friend = friend();
+		FriendRelation relation = FriendRelation.of(null, friend.getApplierId(), friend.getAcceptorId());
+		String follower = "applierId";
+
+		when(friendService.isInvalidFollowAgent(follower)).thenReturn(false);
+		when(friendService.relation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(relation);
+		when(friendService.isInvalidUnfollow(relation, follower)).thenReturn(true);
+
+		sut.unFollow(friend, follower);
+	}
+
+	/**
+	 * 10-1. Post 작성 : 정상 case
+	 */
+	@Test
+	public void testWrite() {
+		Post post = new Post();
+
+		when(postService.isInvalidWrite(post)).thenReturn(false);
+		when(postService.write(post)).thenReturn(new Post());
+
+		Post resultPost = sut.write(post);
+
+		verify(postService, times(1)).isInvalidWrite(post);
+		verify(postService, times(1)).write(post);
+
+		assertNotNull(resultPost);
+	}
+
+	/**
+	 * 10-2. Post 작성 : 비정상 case
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testWrite_illegalNotAccess() {
+		Post post = new Post();
+
+		when(postService.isInvalidWrite(post)).thenReturn(true);
+
+		sut.write(post);
+	}
+
+	/**
+	 * 11-1. Post 수정 : 정상 case
+	 */
+	@Test
+	public void testModify() {
+		Post post = new Post();
+
+		when(postService.isInvalidModify(post)).thenReturn(false);
+		when(postService.modify(post)).thenReturn(new Post());
+
+		Post resultPost = sut.modify(post);
+
+		verify(postService, times(1)).isInvalidModify(post);
+		verify(postService, times(1)).modify(post);
+
+		assertNotNull(resultPost);
+	}
+
+	/**
+	 * 11-2. Post 수정 : 비정상 case
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testModify_illegalNotAccess() {
+		Post post = new Post();
+
+		when(postService.isInvalidModify(post)).thenReturn(true);
+
+		sut.modify(post);
+	}
+
+	/**
+	 * 12-1. Post 삭제 : 정상 case
+	 */
+	@Test
+	public void testDelete() {
+		Post post = new Post();
+
+		when(postService.isInvalidDelete(post)).thenReturn(false);
+		doNothing().when(postService).delete(post);
+
+		sut.delete(post);
+
+		verify(postService, times(1)).isInvalidDelete(post);
+		verify(postService, times(1)).delete(post);
+	}
+
+	/**
+	 * 12-2. Post 삭제 : 비정상 case
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testDelete_illegalNotAccess() {
+		Post post = new Post();
+
+		when(postService.isInvalidDelete(post)).thenReturn(true);
+
+		sut.delete(post);
+	}
+
+	/**
+	 * 13-1. 친구 추천 조회 : 정상 case (조회 스레드 풀에서 실행)
+	 */
+	@Test
+	public void testSuggestions() {
+		List<Suggestion> suggestions = Arrays.asList(new Suggestion("pacebook", 2));
+
+		when(suggestionService.suggestions("testUserId")).thenReturn(suggestions);
+
+		List<Suggestion> resultSuggestions = sut.suggestions("testUserId").join();
+
+		verify(suggestionService, times(1)).suggestions("testUserId");
+
+		assertEquals(suggestions, resultSuggestions);
+	}
+
+	/**
+	 * 13-2. 친구 추천 조회 : 비정상 case (아이디 5자 이하)
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testSuggestions_illegalUserId() {
+		sut.suggestions("tj");
+	}
+
+	/**
+	 * 14-1. 함께 아는 친구 조회 : 정상 case
+	 */
+	@Test
+	public void testMutualFriends() {
+		MutualFriendPage page = new MutualFriendPage(1, Arrays.asList("pacebook"), null);
+
+		when(friendService.mutualFriends("doragee", "gosari", null, 20)).thenReturn(page);
+
+		MutualFriendPage resultPage = sut.mutualFriends("doragee", "gosari", null, 20);
+
+		verify(friendService, times(1)).isInvalidMutualFriends("doragee", "gosari", null);
+		verify(friendService, times(1)).mutualFriends("doragee", "gosari", null, 20);
+
+		assertEquals(page, resultPage);
+	}
+
+	/**
+	 * 14-2. 함께 아는 친구 조회 : 비정상 case (같은 유저이거나 커서가 유효하지 않음)
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testMutualFriends_illegal() {
+		when(friendService.isInvalidMutualFriends("doragee", "doragee", null)).thenReturn(true);
+
+		sut.mutualFriends("doragee", "doragee", null, 20);
+	}
+
+	/**
+	 * 14-3. 함께 아는 친구 조회 : 비정상 case (페이지 크기 범위 초과)
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testMutualFriends_illegalSize() {
+		sut.mutualFriends("doragee", "gosari", null, 101);
+	}
+
+	/**
+	 * 15-1. 유저 집계 조회 : 정상 case
+	 */
+	@Test
+	public void testCounts() {
+		UserCount userCount = new UserCount("doragee", 2, 1, 2, 10, null);
+
+		when(userCountService.counts("doragee")).thenReturn(userCount);
+
+		UserCount resultCount = sut.counts("doragee");
+
+		verify(userCountService, times(1)).counts("doragee");
+
+		assertEquals(userCount, resultCount);
+	}
+
+	/**
+	 * 15-2. 유저 집계 조회 : 비정상 case (유효하지 않은 계정)
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testCounts_illegalUserId() {
+		sut.counts("#doragee");
+	}
+
+	/**
+	 * 뉴스피드, 타임라인 조회 스레드 풀의 대기열이 가득 찬 경우 메세지
+	 */
+	@Test
+	public void testBusyMessage() {
+		ExceptionMessage resultMessage = sut.busyMessage(new RejectedExecutionException());
+
+		assertEquals(FeedExecutor.FEED_EXECUTOR_IS_BUSY, resultMessage.getMessage());
+	}
+
+	private static Friend friend() {
+		Friend friend = new Friend();
+
+		friend.setApplierId("doragee");
+		friend.setAcceptorId("gosari");
+
+		return friend;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.pacebookcorp.doragee.dictionary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * UserDictionary 단위 테스트
+ *
+ * @author Kwon Young
+ */
+public class UserDictionaryTest {
+	/**
+	 * 처음 담긴 순서대로 0 부터 번호가 붙고, 같은 계정은 같은 번호
+	 */
+	@Test
+	public void testIntern() {
+		UserDictionary sut = new UserDictionary();
+
+		assertEquals(0, sut.intern("doragee"));
+		assertEquals(1, sut.intern("gosari"));
+		assertEquals(0, sut.intern(new String("doragee")));
+		assertEquals(2, sut.size());
+	}
+
+	/**
+	 * 번호와 계정은 양방향으로 찾을 수 있고, 번호로 찾은 계정은 처음 담긴 객체
+	 */
+	@Test
+	public void testNumberOfAndUserIdOf() {
+		UserDictionary sut = new UserDictionary();
+		String userId = new String("doragee");
+
+		sut.intern(userId);
+
+		assertEquals(0, sut.numberOf("doragee"));
+		assertEquals(-1, sut.numberOf("unknown"));
+		assertSame(userId, sut.userIdOf(0));
+		assertNull(sut.userIdOf(1));
+		assertNull(sut.userIdOf(-1));
+	}
+
+	/**
+	 * 대소문자만 다른 계정은 같은 번호이며, 번호로 찾은 계정은 처음 담긴 표기
+	 */
+	@Test
+	public void testIntern_ignoreCase() {
+		UserDictionary sut = new UserDictionary();
+
+		assertEquals(0, sut.intern("Doragee"));
+		assertEquals(0, sut.intern("doragee"));
+		assertEquals(0, sut.numberOf("DORAGEE"));
+		assertEquals("Doragee", sut.userIdOf(0));
+		assertEquals(1, sut.size());
+	}
+
+	/**
+	 * 배열 크기를 넘어 담아도 번호가 빈틈없이 붙음
+	 */
+	@Test
+	public void testIntern_grow() {
+		UserDictionary sut = new UserDictionary();
+
+		for (int i = 0; i < 3000; i++) {
+			assertEquals(i, sut.intern(String.format("user%04d", i)));
+		}
+
+		assertEquals("user2999", sut.userIdOf(2999));
+		assertEquals(3000, sut.size());
+	}
+}
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.pacebookcorp.doragee.executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.pacebookcorp.doragee.dto.FeedExecutorStats;
+
+/**
+ * FeedExecutor 단위 테스트
+ *
+ * @author Kwon Young
+ */
+public class FeedExecutorTest {
+	private FeedExecutor sut;
+
+	private CountDownLatch release = new CountDownLatch(1);
+
+	@After
+	public void tearDown() {
+		release.countDown();
+
+		if (sut != null) {
+			sut.shutdown();
+		}
+	}
+
+	/**
+	 * 풀에서 실행한 결과를 리턴한다.
+	 */
+	@Test
+	public void testSupply() {
+		sut = new FeedExecutor(1, 1, "abort");
+
+		String result = sut.supply(() -> Thread.currentThread().getName()).join();
+
+		assertTrue(result.startsWith("feed-executor-"));
+	}
+
+	/**
+	 * 작업 중 발생한 예외로 완료된다.
+	 */
+	@Test
+	public void testSupply_exception() {
+		sut = new FeedExecutor(1, 1, "abort");
+
+		try {
+			sut.supply(() -> {
+				throw new IllegalArgumentException("userId is illegal.");
+			}).join();
+
+			fail();
+		} catch (CompletionException e) {
+			assertTrue(e.getCause() instanceof IllegalArgumentException);
+		}
+	}
+
+	/**
+	 * abort : 스레드와 대기열이 모두 차면 RejectedExecutionException 을 던지고 거절 수를 센다.
+	 */
+	@Test
+	public void testSupply_abort() throws InterruptedException {
+		sut = new FeedExecutor(1, 1, "abort");
+
+		fill();
+
+		try {
+			sut.supply(() -> "rejected");
+
+			fail();
+		} catch (RejectedExecutionException e) {
+			assertEquals(FeedExecutor.FEED_EXECUTOR_IS_BUSY, e.getMessage());
+		}
+
+		FeedExecutorStats stats = sut.stats();
+
+		assertEquals(1, stats.getActiveThreads());
+		assertEquals(1, stats.getQueuedTasks());
+		assertEquals(1L, stats.getRejectedTasks());
+		assertEquals(0L, stats.getCallerRunsTasks());
+		assertEquals("abort", stats.getRejectionPolicy());
+	}
+
+	/**
+	 * caller-runs : 스레드와 대기열이 모두 차면 요청한 스레드에서 바로 실행한다.
+	 */
+	@Test
+	public void testSupply_callerRuns() throws InterruptedException {
+		sut = new FeedExecutor(1, 1, "caller-runs");
+
+		fill();
+
+		CompletableFuture<String> result = sut.supply(() -> Thread.currentThread().getName());
+
+		assertEquals(Thread.currentThread().getName(), result.join());
+		assertEquals(1L, sut.stats().getRejectedTasks());
+		assertEquals(1L, sut.stats().getCallerRunsTasks());
+		assertEquals("caller-runs", sut.stats().getRejectionPolicy());
+	}
+
+	/**
+	 * 유효하지 않은 설정
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testNew_illegalRejectionPolicy() {
+		new FeedExecutor(1, 1, "discard");
+	}
+
+	/**
+	 * 스레드 하나는 release 까지 멈춰두고, 대기열 하나를 채운다.
+	 */
+	private void fill() throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+
+		sut.supply(() -> {
+			started.countDown();
+
+			return await();
+		});
+
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+
+		sut.supply(this::await);
+	}
+
+	private boolean await() {
+		try {
+			return release.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+
+			return false;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.pacebookcorp.doragee.graph;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * FollowGraphSnapshot 단위 테스트
+ *
+ * @author Kwon Young
+ */
+public class FollowGraphSnapshotTest {
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	/**
+	 * 쓰고 읽기 : 계정 목록(한글 포함)과 집합별 CSR 배열이 그대로 읽힘
+	 */
+	@Test
+	public void testWriteAndRead() throws IOException {
+		Path path = temporaryFolder.getRoot().toPath().resolve("snapshot").resolve("follow-graph.snapshot");
+		String[] userIds = {"doragee", "고사리", "pacebook"};
+		int[][] offsets = {{0, 2, 3, 4}, {0, 1, 2, 2}, {0, 0, 1, 1}};
+		int[][] neighbors = {{1, 2, 0, 0}, {1, 0}, {0}};
+
+		FollowGraphSnapshot.write(path, 1470471543000L, 2, userIds, offsets, neighbors);
+
+		FollowGraphSnapshot sut = FollowGraphSnapshot.read(path);
+
+		assertEquals(1470471543000L, sut.watermark());
+		assertEquals(2, sut.relationCount());
+		assertEquals(3, sut.userCount());
+		assertEquals("고사리", sut.userId(1));
+		assertEquals(2, sut.degree(FollowGraphSnapshot.RELATED, 0));
+		assertEquals(0, sut.degree(FollowGraphSnapshot.FRIENDS, 2));
+		assertEquals(Arrays.asList(1, 2), neighbors(sut, FollowGraphSnapshot.RELATED, 0));
+		assertEquals(Arrays.asList(0), neighbors(sut, FollowGraphSnapshot.FOLLOWEES, 1));
+		assertEquals(1, Files.list(path.getParent()).count());
+	}
+
+	/**
+	 * 읽기 : 잘린 파일은 IOException
+	 */
+	@Test(expected = IOException.class)
+	public void testRead_truncated() throws IOException {
+		Path path = temporaryFolder.getRoot().toPath().resolve("follow-graph.snapshot");
+
+		FollowGraphSnapshot.write(path, 0L, 0, new String[] {"doragee"}, new int[][] {{0, 0}, {0, 0}, {0, 0}}, new int[][] {{}, {}, {}});
+
+		byte[] bytes = Files.readAllBytes(path);
+
+		Files.write(path, Arrays.copyOf(bytes, bytes.length - 4));
+
+		FollowGraphSnapshot.read(path);
+	}
+
+	private static List<Integer> neighbors(FollowGraphSnapshot snapshot, int set, int user) {
+		List<Integer> neighbors = new ArrayList<>();
+
+		snapshot.forEachNeighbor(set, user, neighbors::add);
+
+		return neighbors;
+	}
+}
\ No newline at end of file
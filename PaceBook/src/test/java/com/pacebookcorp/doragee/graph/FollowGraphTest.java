@@ -0,0 +1,304 @@
+package com.pacebookcorp.doragee.graph;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.pacebookcorp.doragee.dictionary.UserDictionary;
+import com.pacebookcorp.doragee.entity.Friend;
+
+/**
+ * FollowGraph 단위 테스트
+ *
+ * @author Kwon Young
+ */
+public class FollowGraphTest {
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	/**
+	 * 친구 신청 : 신청 이력은 있지만 친구도, 팔로우도 아님
+	 */
+	@Test
+	public void testPut_apply() {
+		FollowGraph sut = new FollowGraph(new UserDictionary());
+
+		sut.put(friend("doragee", "gosari", "n", "n", "n"));
+
+		assertTrue(sut.isRelated("doragee", "gosari"));
+		assertTrue(sut.isRelated("gosari", "doragee"));
+		assertFalse(sut.isFriend("doragee", "gosari"));
+		assertFalse(sut.follows("doragee", "gosari"));
+		assertFalse(sut.isRelated("doragee", "pacebook"));
+	}
+
+	/**
+	 * 친구 수락 후 언팔로우 : 친구 여부는 양방향, 팔로우는 방향별로 바뀜
+	 */
+	@Test
+	public void testPut_acceptAndUnfollow() {
+		FollowGraph sut = new FollowGraph(new UserDictionary());
+
+		sut.put(friend("doragee", "gosari", "n", "n", "n"));
+		sut.put(friend("doragee", "gosari", "y", "y", "y"));
+
+		assertTrue(sut.isFriend("gosari", "doragee"));
+		assertEquals(Arrays.asList("gosari"), sut.followeeIds("doragee"));
+		assertEquals(Arrays.asList("doragee"), sut.followeeIds("gosari"));
+
+		sut.put(friend("doragee", "gosari", "y", "n", "y"));
+
+		assertFalse(sut.follows("doragee", "gosari"));
+		assertTrue(sut.follows("gosari", "doragee"));
+		assertEquals(Collections.emptyList(), sut.followeeIds("doragee"));
+		assertEquals(1, sut.relationCount());
+	}
+
+	/**
+	 * 친구 끊기 : 끊긴 관계도 신청 이력은 남음
+	 */
+	@Test
+	public void testPut_end() {
+		FollowGraph sut = new FollowGraph(new UserDictionary());
+
+		sut.put(friend("doragee", "gosari", "y", "y", "y"));
+		sut.put(friend("doragee", "gosari", "n", "n", "n"));
+
+		assertFalse(sut.isFriend("doragee", "gosari"));
+		assertTrue(sut.isRelated("gosari", "doragee"));
+		assertEquals(Collections.emptyList(), sut.followeeIds("gosari"));
+	}
+
+	/**
+	 * 관계 목록이 배열 크기를 넘어도 정렬 위치에 들어가고, 모든 관계를 찾을 수 있음
+	 */
+	@Test
+	public void testPut_grow() {
+		FollowGraph sut = new FollowGraph(new UserDictionary());
+
+		for (int i = 2000; i > 0; i--) {
+			sut.put(friend("doragee", String.format("user%04d", i), "y", "y", "n"));
+		}
+
+		assertEquals(2001, sut.userCount());
+		assertEquals(2000, sut.relationCount());
+		assertEquals(2000, new HashSet<>(sut.followeeIds("doragee")).size());
+		assertTrue(sut.follows("doragee", "user1000"));
+		assertFalse(sut.follows("user1000", "doragee"));
+		assertTrue(sut.isFriend("user0001", "doragee"));
+
+		sut.clear();
+
+		assertFalse(sut.isFriend("user0001", "doragee"));
+		assertEquals(0, sut.userCount());
+	}
+
+	/**
+	 * 팔로우 대상 중 주어진 유저 번호 집합에 담긴 유저만 : 팔로우하지 않는 유저는 집합에 있어도 빠짐
+	 */
+	@Test
+	public void testFolloweeIds_filter() {
+		UserDictionary userDictionary = new UserDictionary();
+		FollowGraph sut = new FollowGraph(userDictionary);
+
+		sut.put(friend("doragee", "gosari", "y", "y", "y"));
+		sut.put(friend("doragee", "celebrity", "y", "y", "y"));
+		sut.put(friend("doragee", "superstar", "y", "n", "y"));
+
+		RoaringBitmap heavyUsers = new RoaringBitmap();
+
+		heavyUsers.add(userDictionary.numberOf("celebrity"));
+		heavyUsers.add(userDictionary.numberOf("superstar"));
+
+		assertEquals(Arrays.asList("celebrity"), sut.followeeIds("doragee", heavyUsers));
+		assertEquals(Collections.emptyList(), sut.followeeIds("unknown", heavyUsers));
+	}
+
+	/**
+	 * 뉴스피드 작성자 목록 : 팔로우 대상과 본인, 관계가 없는 유저는 본인만
+	 */
+	@Test
+	public void testAuthorIds() {
+		FollowGraph sut = new FollowGraph(new UserDictionary());
+
+		sut.put(friend("doragee", "gosari", "y", "y", "n"));
+		sut.put(friend("pacebook", "doragee", "y", "y", "y"));
+
+		assertEquals(Arrays.asList("doragee", "gosari", "pacebook"), sut.authorIds("doragee"));
+		assertEquals(Arrays.asList("gosari"), sut.authorIds("gosari"));
+		assertEquals(Arrays.asList("unknown"), sut.authorIds("unknown"));
+	}
+
+	/**
+	 * 함께 아는 친구 : 양쪽 모두와 수락된 친구만 세고, 신청만 했거나 끊긴 관계는 세지 않음
+	 */
+	@Test
+	public void testMutualFriendCount() {
+		FollowGraph sut = new FollowGraph(new UserDictionary());
+
+		sut.put(friend("doragee", "gosari", "y", "y", "y"));
+		sut.put(friend("doragee", "pacebook", "y", "y", "y"));
+		sut.put(friend("doragee", "kongnamul", "y", "y", "y"));
+		sut.put(friend("congnamul", "gosari", "y", "y", "y"));
+		sut.put(friend("congnamul", "pacebook", "y", "n", "n"));
+		sut.put(friend("congnamul", "kongnamul", "n", "n", "n"));
+
+		assertEquals(2, sut.mutualFriendCount("doragee", "congnamul"));
+		assertEquals(2, sut.mutualFriendCount("congnamul", "doragee"));
+		assertEquals(0, sut.mutualFriendCount("doragee", "unknown"));
+		assertEquals(Arrays.asList("gosari", "pacebook", "kongnamul"), sut.friendIds("doragee"));
+	}
+
+	/**
+	 * 함께 아는 친구 페이지 : 전체 수는 항상 세고, 커서 다음부터 limit 명만 담음
+	 */
+	@Test
+	public void testMutualFriends_page() {
+		FollowGraph sut = new FollowGraph(new UserDictionary());
+
+		for (int i = 0; i < 5; i++) {
+			sut.put(friend("doragee", "friend" + i, "y", "y", "y"));
+			sut.put(friend("gosari", "friend" + i, "y", "y", "y"));
+		}
+
+		List<String> firstPage = new ArrayList<>();
+		List<String> nextPage = new ArrayList<>();
+
+		assertEquals(5, sut.mutualFriends("doragee", "gosari", null, 2, firstPage));
+		assertEquals(5, sut.mutualFriends("doragee", "gosari", "friend1", 10, nextPage));
+		assertEquals(Arrays.asList("friend0", "friend1"), firstPage);
+		assertEquals(Arrays.asList("friend2", "friend3", "friend4"), nextPage);
+	}
+
+	/**
+	 * 함께 아는 친구 : 한쪽 친구가 훨씬 많아 건너뛰며 찾아도(galloping) 차례로 훑은 결과와 같음
+	 */
+	@Test
+	public void testMutualFriends_gallop() {
+		FollowGraph sut = new FollowGraph(new UserDictionary());
+
+		for (int i = 0; i < 3000; i++) {
+			sut.put(friend("doragee", String.format("user%04d", i), "y", "y", "y"));
+		}
+
+		sut.put(friend("gosari", "user0000", "y", "y", "y"));
+		sut.put(friend("gosari", "user1500", "y", "y", "y"));
+		sut.put(friend("gosari", "user2999", "y", "y", "y"));
+		sut.put(friend("gosari", "user2000", "n", "n", "n"));
+		sut.put(friend("gosari", "pacebook", "y", "y", "y"));
+
+		List<String> friendIds = new ArrayList<>();
+
+		assertEquals(3, sut.mutualFriends("gosari", "doragee", null, 10, friendIds));
+		assertEquals(Arrays.asList("user0000", "user1500", "user2999"), friendIds);
+		assertEquals(3, sut.mutualFriendCount("doragee", "gosari"));
+	}
+
+	/**
+	 * 유저 번호 : 상대 번호는 정렬되어 나오고, 사전에만 담긴 유저는 관계가 없음
+	 */
+	@Test
+	public void testNeighborIndexes() {
+		UserDictionary userDictionary = new UserDictionary();
+		FollowGraph sut = new FollowGraph(userDictionary);
+
+		userDictionary.intern("newbie");
+		sut.put(friend("doragee", "gosari", "y", "y", "y"));
+		sut.put(friend("pacebook", "doragee", "n", "n", "n"));
+
+		int doragee = userDictionary.numberOf("doragee");
+		StringBuilder friendIds = new StringBuilder();
+
+		sut.forEachFriend(doragee, friend -> friendIds.append(userDictionary.userIdOf(friend)));
+
+		assertArrayEquals(new int[] {userDictionary.numberOf("gosari")}, sut.neighborIndexes(doragee, true));
+		assertArrayEquals(new int[] {userDictionary.numberOf("gosari"), userDictionary.numberOf("pacebook")}, sut.neighborIndexes(doragee, false));
+		assertEquals("gosari", friendIds.toString());
+		// 사전에만 담기고 관계가 없는 유저
+		assertArrayEquals(new int[0], sut.neighborIndexes(userDictionary.numberOf("newbie"), false));
+		assertFalse(sut.isRelated("newbie", "doragee"));
+		assertEquals(3, sut.userCount());
+	}
+
+	/**
+	 * 스냅샷 쓰고 읽기 : 사전의 번호가 달라도 관계, 친구, 팔로우와 워터마크가 그대로 담김
+	 */
+	@Test
+	public void testSaveAndLoad() throws IOException {
+		Path path = temporaryFolder.getRoot().toPath().resolve("follow-graph.snapshot");
+		FollowGraph graph = new FollowGraph(new UserDictionary());
+
+		graph.put(friend("doragee", "gosari", "y", "y", "n"));
+		graph.put(friend("doragee", "pacebook", "n", "n", "n"));
+		graph.put(new Friend("frnd20160806171903002", "gosari", "pacebook", null, "y", "y", "y", null, new Date(1470471543000L), 0));
+
+		assertEquals(1470471543000L, graph.save(path));
+
+		UserDictionary userDictionary = new UserDictionary();
+		FollowGraph sut = new FollowGraph(userDictionary);
+
+		userDictionary.intern("newbie");
+
+		assertEquals(1470471543000L, sut.load(path));
+		assertTrue(sut.isRelated("pacebook", "doragee"));
+		assertFalse(sut.isFriend("pacebook", "doragee"));
+		assertTrue(sut.follows("doragee", "gosari"));
+		assertFalse(sut.follows("gosari", "doragee"));
+		assertEquals(Arrays.asList("doragee", "pacebook"), sut.friendIds("gosari"));
+		assertEquals(3, sut.relationCount());
+		assertEquals(3, sut.userCount());
+		assertEquals(1, sut.mutualFriendCount("doragee", "pacebook"));
+
+		sut.put(friend("doragee", "pacebook", "y", "y", "y"));
+
+		assertTrue(sut.isFriend("pacebook", "doragee"));
+	}
+
+	/**
+	 * 깨진 스냅샷 : IOException 이며 그래프는 그대로
+	 */
+	@Test
+	public void testLoad_corrupt() throws IOException {
+		Path path = temporaryFolder.getRoot().toPath().resolve("follow-graph.snapshot");
+		FollowGraph graph = new FollowGraph(new UserDictionary());
+
+		graph.put(friend("doragee", "gosari", "y", "y", "y"));
+		graph.save(path);
+
+		byte[] bytes = Files.readAllBytes(path);
+
+		bytes[bytes.length / 2] ^= 1;
+		Files.write(path, bytes);
+
+		FollowGraph sut = new FollowGraph(new UserDictionary());
+
+		sut.put(friend("pacebook", "gosari", "y", "y", "y"));
+
+		try {
+			sut.load(path);
+			fail();
+		} catch (IOException e) {
+			assertTrue(sut.isFriend("pacebook", "gosari"));
+		}
+	}
+
+	private static Friend friend(String applierId, String acceptorId, String acceptYn, String applierFollowYn, String acceptFollowYn) {
+		return new Friend("frnd20160806171903001", applierId, acceptorId, null, acceptYn, applierFollowYn, acceptFollowYn, null, null, 0);
+	}
+}
\ No newline at end of file
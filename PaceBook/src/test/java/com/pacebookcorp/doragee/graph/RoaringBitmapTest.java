@@ -0,0 +1,186 @@
+package com.pacebookcorp.doragee.graph;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+/**
+ * RoaringBitmap 단위 테스트
+ *
+ * @author Kwon Young
+ */
+public class RoaringBitmapTest {
+	/**
+	 * 담기, 빼기, 포함 여부 : 같은 수는 한 번만 담기고, 정렬된 순서로 나옴
+	 */
+	@Test
+	public void testAddAndRemove() {
+		RoaringBitmap sut = new RoaringBitmap();
+
+		assertTrue(sut.add(70000));
+		assertTrue(sut.add(3));
+		assertFalse(sut.add(3));
+		assertTrue(sut.add(65535));
+
+		assertTrue(sut.contains(70000));
+		assertFalse(sut.contains(4));
+		assertArrayEquals(new int[] {3, 65535, 70000}, sut.toArray());
+
+		assertTrue(sut.remove(70000));
+		assertFalse(sut.remove(70000));
+		assertFalse(sut.remove(123456));
+
+		assertEquals(2, sut.cardinality());
+		assertFalse(sut.isEmpty());
+	}
+
+	/**
+	 * 한 구간에 4096 개를 넘게 담으면 비트맵으로, 다시 줄면 배열로 바뀌어도 담긴 수는 그대로이고, 줄어든 만큼 메모리도 줄어듦
+	 */
+	@Test
+	public void testContainerConversion() {
+		RoaringBitmap sut = new RoaringBitmap();
+
+		for (int i = 0; i < 10000; i += 2) {
+			sut.add(i);
+		}
+
+		assertEquals(5000, sut.cardinality());
+		assertTrue(sut.contains(9998));
+		assertFalse(sut.contains(9999));
+
+		long bitmapBytes = sut.sizeInBytes();
+
+		for (int i = 0; i < 10000; i += 2) {
+			if (i % 20 != 0) {
+				sut.remove(i);
+			}
+		}
+
+		assertEquals(500, sut.cardinality());
+		assertTrue(sut.contains(9980));
+		assertFalse(sut.contains(9998));
+		assertTrue(sut.sizeInBytes() < bitmapBytes);
+	}
+
+	/**
+	 * 교집합, 합집합 : 배열과 비트맵 구간이 섞여도 정렬된 집합 연산 결과와 같음
+	 */
+	@Test
+	public void testAndOr() {
+		Random random = new Random(20160806L);
+
+		for (int round = 0; round < 50; round++) {
+			RoaringBitmap left = new RoaringBitmap();
+			RoaringBitmap right = new RoaringBitmap();
+			TreeSet<Integer> leftSet = new TreeSet<>();
+			TreeSet<Integer> rightSet = new TreeSet<>();
+			int leftCount = random.nextInt(round % 2 == 0 ? 100 : 20000);
+			int rightCount = random.nextInt(20000);
+
+			for (int i = 0; i < leftCount; i++) {
+				int value = random.nextInt(200000);
+
+				left.add(value);
+				leftSet.add(value);
+			}
+
+			for (int i = 0; i < rightCount; i++) {
+				int value = random.nextInt(200000);
+
+				right.add(value);
+				rightSet.add(value);
+			}
+
+			TreeSet<Integer> and = new TreeSet<>(leftSet);
+			TreeSet<Integer> or = new TreeSet<>(leftSet);
+
+			and.retainAll(rightSet);
+			or.addAll(rightSet);
+
+			assertArrayEquals(and.stream().mapToInt(Integer::intValue).toArray(), RoaringBitmap.and(left, right).toArray());
+			assertArrayEquals(or.stream().mapToInt(Integer::intValue).toArray(), RoaringBitmap.or(left, right).toArray());
+			assertEquals(and.size(), RoaringBitmap.and(right, left).cardinality());
+		}
+	}
+
+	/**
+	 * 교집합 세기, 페이지 훑기 : 교집합을 만들지 않아도 정렬된 집합 연산 결과와 같고, after 다음부터 limit 개만 넘김
+	 */
+	@Test
+	public void testAndCardinalityAndForEach() {
+		Random random = new Random(20160807L);
+
+		for (int round = 0; round < 50; round++) {
+			RoaringBitmap left = new RoaringBitmap();
+			RoaringBitmap right = new RoaringBitmap();
+			TreeSet<Integer> and = new TreeSet<>();
+			TreeSet<Integer> rightSet = new TreeSet<>();
+			int leftCount = random.nextInt(round % 2 == 0 ? 100 : 20000);
+			int rightCount = random.nextInt(20000);
+
+			for (int i = 0; i < rightCount; i++) {
+				int value = random.nextInt(200000);
+
+				right.add(value);
+				rightSet.add(value);
+			}
+
+			for (int i = 0; i < leftCount; i++) {
+				int value = random.nextInt(200000);
+
+				left.add(value);
+
+				if (rightSet.contains(value)) {
+					and.add(value);
+				}
+			}
+
+			int after = round % 3 == 0 ? -1 : random.nextInt(200000);
+			int limit = 1 + random.nextInt(round % 2 == 0 ? 10 : 5000);
+			int[] expected = and.tailSet(after, false).stream().limit(limit).mapToInt(Integer::intValue).toArray();
+			List<Integer> page = new ArrayList<>();
+
+			assertEquals(and.size(), RoaringBitmap.andCardinality(left, right));
+			assertEquals(and.size(), RoaringBitmap.andCardinality(right, left));
+			assertEquals(expected.length, RoaringBitmap.andForEach(left, right, after, limit, page::add));
+			assertArrayEquals(expected, page.stream().mapToInt(Integer::intValue).toArray());
+		}
+	}
+
+	/**
+	 * 교집합 페이지 훑기 : 구간 경계의 after, 비트맵 구간의 word 중간에서 시작해도 빠짐없이 이어짐
+	 */
+	@Test
+	public void testAndForEach_boundary() {
+		RoaringBitmap left = new RoaringBitmap();
+		RoaringBitmap right = new RoaringBitmap();
+
+		for (int i = 60000; i < 140000; i++) {
+			left.add(i);
+			right.add(i);
+		}
+
+		List<Integer> page = new ArrayList<>();
+
+		assertEquals(3, RoaringBitmap.andForEach(left, right, 65534, 3, page::add));
+		assertEquals(Arrays.asList(65535, 65536, 65537), page);
+
+		page.clear();
+
+		assertEquals(2, RoaringBitmap.andForEach(left, right, 70000, 2, page::add));
+		assertEquals(Arrays.asList(70001, 70002), page);
+		assertEquals(0, RoaringBitmap.andForEach(left, right, 139999, 2, page::add));
+		assertEquals(0, RoaringBitmap.andForEach(left, right, -1, 0, page::add));
+		assertEquals(80000, RoaringBitmap.andCardinality(left, right));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,286 @@
+package com.pacebookcorp.doragee.repository;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.flywaydb.core.Flyway;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import ch.vorburger.mariadb4j.DB;
+import ch.vorburger.mariadb4j.DBConfigurationBuilder;
+
+/**
+ * 자주 실행되는(hot) 조회 쿼리의 실행 계획 회귀 테스트
+ * 내장 MariaDB 에 마이그레이션(db/migration)을 적용하고 데이터를 채운 뒤 EXPLAIN 하여,
+ * 테이블 전체 스캔(ALL), 인덱스 전체 스캔(index) 또는 filesort 로 바뀐 쿼리가 있으면 실패한다.
+ * native 쿼리는 Repository 의 @Query 를 그대로 EXPLAIN 하고, JPQL 은 Hibernate 가 만드는 SQL 과 같은 모양으로 옮겨 적는다.
+ * 전체 팔로워 수를 세는 FriendRepository.findHeavyUserIds 는 주기적으로 도는 집계 쿼리라 대상에서 뺀다.
+ *
+ * @author Kwon Young
+ */
+public class QueryPlanTest {
+	private static final int USER_COUNT = 500;
+	private static final int FRIENDS_PER_USER = 5;
+	private static final int POSTS_PER_USER = 20;
+	private static final List<String> FULL_SCANS = Arrays.asList("ALL", "index");
+
+	private static DB db;
+	private static JdbcTemplate jdbcTemplate;
+
+	@BeforeClass
+	public static void setUp() throws Exception {
+		DBConfigurationBuilder config = DBConfigurationBuilder.newBuilder();
+		config.setPort(0);
+
+		db = DB.newEmbeddedDB(config.build());
+		db.start();
+		db.createDB("pacebook");
+
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(config.getURL("pacebook"), "root", "");
+
+		Flyway flyway = new Flyway();
+		flyway.setDataSource(dataSource);
+		flyway.migrate();
+
+		jdbcTemplate = new JdbcTemplate(dataSource);
+
+		insertRows();
+
+		jdbcTemplate.execute("ANALYZE TABLE t_user, t_post, t_frnd, t_feed, t_post_del");
+	}
+
+	@AfterClass
+	public static void tearDown() throws Exception {
+		if (db != null) {
+			db.stop();
+		}
+	}
+
+	/**
+	 * 유저마다 친구 FRIENDS_PER_USER 명, Post POSTS_PER_USER 건과 펼쳐진 뉴스피드를 채운다.
+	 */
+	private static void insertRows() {
+		Timestamp now = new Timestamp(1470471543000L);
+		List<Object[]> users = new ArrayList<>();
+		List<Object[]> friends = new ArrayList<>();
+		List<Object[]> posts = new ArrayList<>();
+		List<Object[]> feeds = new ArrayList<>();
+		List<Object[]> deletedPosts = new ArrayList<>();
+
+		for (int i = 0; i < USER_COUNT; i++) {
+			users.add(new Object[] {userId(i), userId(i), userId(i), now, userId(i), now});
+
+			for (int j = 1; j <= FRIENDS_PER_USER; j++) {
+				friends.add(new Object[] {String.format("frnd%07d%03d", i, j), userId(i), userId((i + j) % USER_COUNT), pairKey(i, (i + j) % USER_COUNT), now, now});
+			}
+
+			for (int j = 0; j < POSTS_PER_USER; j++) {
+				Timestamp modifiedDate = new Timestamp(now.getTime() - (i * POSTS_PER_USER + j) * 1000L);
+
+				posts.add(new Object[] {postPk(i, j), userId(i), "content", userId(i), modifiedDate, userId(i), modifiedDate});
+				deletedPosts.add(new Object[] {"del" + postPk(i, j), userId(i), modifiedDate});
+
+				for (int k = 0; k <= FRIENDS_PER_USER; k++) {
+					feeds.add(new Object[] {userId((i + k) % USER_COUNT), postPk(i, j), userId(i), modifiedDate});
+				}
+			}
+		}
+
+		jdbcTemplate.batchUpdate("INSERT INTO t_user VALUES (?, ?, ?, ?, ?, ?)", users);
+		jdbcTemplate.batchUpdate("INSERT INTO t_frnd VALUES (?, ?, ?, ?, 'y', 'y', 'y', ?, ?, 0)", friends);
+		jdbcTemplate.batchUpdate("INSERT INTO t_post VALUES (?, ?, ?, ?, ?, ?, ?)", posts);
+		jdbcTemplate.batchUpdate("INSERT INTO t_feed VALUES (?, ?, ?, ?)", feeds);
+		jdbcTemplate.batchUpdate("INSERT INTO t_post_del VALUES (?, ?, ?)", deletedPosts);
+	}
+
+	private static String userId(int i) {
+		return String.format("user%04d", i);
+	}
+
+	private static String pairKey(int i, int j) {
+		return userId(Math.min(i, j)) + ":" + userId(Math.max(i, j));
+	}
+
+	private static String postPk(int i, int j) {
+		return String.format("post%013d%04d", i, j);
+	}
+
+	/**
+	 * 뉴스피드 페이지 조회 : FeedRepository.newsfeedFirstPage, newsfeedNextPage, newsfeedSummaryFirstPage, newsfeedSummaryNextPage
+	 */
+	@Test
+	public void testNewsfeedPage() {
+		assertIndexed("SELECT p.* FROM t_feed f, t_post p "
+					  + "WHERE f.viewer_id='user0001' AND p.post_pk=f.post_pk "
+					  + "ORDER BY f.mod_ymdt DESC, f.post_pk DESC LIMIT 21");
+		assertIndexed("SELECT p.* FROM t_feed f, t_post p "
+					  + "WHERE f.viewer_id='user0001' "
+					    + "AND (f.mod_ymdt < '2016-08-06 17:00:00' OR (f.mod_ymdt = '2016-08-06 17:00:00' AND f.post_pk < 'post00000000000010005')) "
+					    + "AND p.post_pk=f.post_pk "
+					  + "ORDER BY f.mod_ymdt DESC, f.post_pk DESC LIMIT 21");
+		assertIndexed("SELECT p.post_pk, p.ownr_id, p.crer_id, SUBSTRING(p.content, 1, 100), p.mod_ymdt FROM t_feed f, t_post p "
+					  + "WHERE f.viewer_id='user0001' AND p.post_pk=f.post_pk "
+					  + "ORDER BY f.mod_ymdt DESC, f.post_pk DESC LIMIT 21");
+		assertIndexed("SELECT p.post_pk, p.ownr_id, p.crer_id, SUBSTRING(p.content, 1, 100), p.mod_ymdt FROM t_feed f, t_post p "
+					  + "WHERE f.viewer_id='user0001' "
+					    + "AND (f.mod_ymdt < '2016-08-06 17:00:00' OR (f.mod_ymdt = '2016-08-06 17:00:00' AND f.post_pk < 'post00000000000010005')) "
+					    + "AND p.post_pk=f.post_pk "
+					  + "ORDER BY f.mod_ymdt DESC, f.post_pk DESC LIMIT 21");
+	}
+
+	/**
+	 * 뉴스피드 키 조회 : FeedRepository.findLatest 는 인덱스만 읽는다.
+	 */
+	@Test
+	public void testFeedKeys() {
+		assertCovered("SELECT f.viewer_id, f.post_pk, f.ownr_id, f.mod_ymdt FROM t_feed f "
+					  + "WHERE f.viewer_id='user0001' ORDER BY f.mod_ymdt DESC, f.post_pk DESC LIMIT 64");
+		assertCovered("SELECT f.viewer_id FROM t_feed f WHERE f.post_pk='post00000000000010005'");
+	}
+
+	/**
+	 * 작성자별 타임라인 조회 : PostRepository.timeline, timelineSummary, findLatestByOwner, findOlderByOwner, findByPostPks, findSummariesByPostPks, findModifiedByOwners
+	 */
+	@Test
+	public void testTimeline() {
+		assertIndexed("SELECT p.* FROM t_post p WHERE p.ownr_id='user0001' ORDER BY p.mod_ymdt DESC, p.post_pk DESC");
+		assertIndexed("SELECT p.post_pk, p.ownr_id, p.crer_id, SUBSTRING(p.content, 1, 100), p.mod_ymdt FROM t_post p "
+					  + "WHERE p.ownr_id='user0001' ORDER BY p.mod_ymdt DESC, p.post_pk DESC");
+		assertIndexed("SELECT p.* FROM t_post p WHERE p.ownr_id='user0001' ORDER BY p.mod_ymdt DESC, p.post_pk DESC LIMIT 10");
+		assertIndexed("SELECT p.* FROM t_post p "
+					  + "WHERE p.ownr_id='user0001' "
+					    + "AND (p.mod_ymdt < '2016-08-06 17:00:00' OR (p.mod_ymdt = '2016-08-06 17:00:00' AND p.post_pk < 'post00000000000010005')) "
+					  + "ORDER BY p.mod_ymdt DESC, p.post_pk DESC LIMIT 20");
+		assertIndexed("SELECT p.* FROM t_post p WHERE p.post_pk IN ('post00000000000010005', 'post00000000000020005', 'post00000000000030005')");
+		assertIndexed("SELECT p.post_pk, p.ownr_id, p.crer_id, SUBSTRING(p.content, 1, 100), p.mod_ymdt FROM t_post p "
+					  + "WHERE p.post_pk IN ('post00000000000010005', 'post00000000000020005', 'post00000000000030005')");
+		assertIndexed("SELECT p.* FROM t_post p "
+					  + "WHERE p.ownr_id IN ('user0001', 'user0002', 'user0003') "
+					    + "AND p.mod_ymdt >= '2016-08-06 16:00:00' AND p.mod_ymdt < '2016-08-06 17:00:00'");
+	}
+
+	/**
+	 * 최근 활동 유저 조회 : PostRepository.findActiveUserIds 는 인덱스만 읽는다.
+	 */
+	@Test
+	public void testActiveUsers() {
+		String since = jdbcTemplate.queryForObject("SELECT DATE_FORMAT(MAX(mod_ymdt) - INTERVAL 10 MINUTE, '%Y-%m-%d %H:%i:%s') FROM t_post", String.class);
+
+		assertCovered("SELECT DISTINCT p.modr_id FROM t_post p WHERE p.mod_ymdt >= '" + since + "' LIMIT 10000");
+	}
+
+	/**
+	 * 삭제된 Post 조회 : DeletedPostRepository.findDeletedPostPks 는 인덱스만 읽는다.
+	 */
+	@Test
+	public void testDeletedPosts() {
+		assertCovered("SELECT d.post_pk FROM t_post_del d "
+					  + "WHERE d.ownr_id IN ('user0001', 'user0002', 'user0003') "
+					    + "AND d.del_ymdt >= '2016-08-06 16:00:00' AND d.del_ymdt < '2016-08-06 17:00:00'");
+	}
+
+	/**
+	 * 친구 관계 쌍 조회 : 수락, 끊기, 팔로우 때 바꿀 행을 찾는 FriendRepository.findRelation 의 쌍 키 조회와
+	 * 친구 일괄 처리의 FriendRepository.findRelations, UserRepository.findUserIds IN 조회
+	 */
+	@Test
+	public void testFriendRelation() {
+		assertIndexed("SELECT x.* FROM t_frnd x WHERE x.pair_key='user0001:user0002'");
+		assertIndexed("SELECT x.* FROM t_frnd x WHERE x.pair_key IN ('user0001:user0002', 'user0001:user0003', 'user0002:user0004')");
+		assertIndexed("SELECT x.user_id FROM t_user x WHERE x.user_id IN ('user0001', 'user0002', 'user0003')");
+		assertIndexed("SELECT x.user_id FROM t_user x WHERE x.user_id='user0001' OR x.user_id='user0002'");
+	}
+
+	/**
+	 * 스냅샷 이후 바뀐 친구 관계 조회 : FriendRepository.streamModifiedSince 는 mod_ymdt 범위만 읽는다.
+	 */
+	@Test
+	public void testFriendModifiedSince() {
+		assertIndexed("SELECT x.* FROM t_frnd x WHERE x.mod_ymdt >= '2016-08-07 00:00:00'");
+	}
+
+	/**
+	 * 팔로우 대상 조회와 Post 펼치기 : FriendRepository.findFolloweeIds, FeedRepository.push, pushAll
+	 * 뉴스피드 변경분 조회의 친구 관계 변경 확인 : FriendRepository.findModifiedRelationPks 는 인덱스만 읽는다.
+	 */
+	@Test
+	public void testNativeQueries() throws Exception {
+		Map<String, String> params = new HashMap<>();
+		params.put("userId", "'user0001'");
+		params.put("ownerId", "'user0001'");
+		params.put("viewerId", "'user0002'");
+		params.put("postPk", "'post00000000000010005'");
+		params.put("modifiedDate", "'2016-08-06 17:00:00'");
+		params.put("since", "'2016-08-06 17:00:00'");
+
+		assertCovered(nativeQuery(FriendRepository.class.getMethod("findFolloweeIds", String.class), params));
+		assertCovered(nativeQuery(FriendRepository.class.getMethod("findModifiedRelationPks", String.class, Date.class), params));
+		assertIndexed(nativeQuery(FeedRepository.class.getMethod("push", String.class, String.class, Date.class), params));
+		assertIndexed(nativeQuery(FeedRepository.class.getMethod("pushAll", String.class, String.class), params));
+	}
+
+	/**
+	 * Repository 의 native @Query 에 파라미터를 채운 SELECT 문을 리턴한다. INSERT ... SELECT 라면 SELECT 부분만 리턴한다.
+	 */
+	private String nativeQuery(Method method, Map<String, String> params) {
+		Query query = method.getAnnotation(Query.class);
+
+		assertTrue(method.getName() + " is not native.", query.nativeQuery());
+
+		String sql = query.value();
+
+		for (Map.Entry<String, String> param : params.entrySet()) {
+			sql = sql.replace(":" + param.getKey(), param.getValue());
+		}
+
+		return sql.startsWith("INSERT") ? sql.substring(sql.indexOf("SELECT")) : sql;
+	}
+
+	/**
+	 * 모든 테이블 접근이 인덱스 탐색이고 filesort 가 없는지 확인한다.
+	 * UNION, 서브쿼리 결과(<union1,2>, <derived2>)는 이미 걸러진 임시 결과이므로 보지 않는다.
+	 */
+	private List<Map<String, Object>> assertIndexed(String sql) {
+		List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql);
+
+		for (Map<String, Object> row : plan) {
+			if (String.valueOf(row.get("table")).startsWith("<")) {
+				continue;
+			}
+
+			assertFalse("full scan : " + row + "\n" + sql, FULL_SCANS.contains(String.valueOf(row.get("type"))));
+			assertFalse("filesort : " + row + "\n" + sql, String.valueOf(row.get("Extra")).contains("Using filesort"));
+		}
+
+		return plan;
+	}
+
+	/**
+	 * assertIndexed 에 더해 테이블 행을 읽지 않고 인덱스만 읽는지(covering index) 확인한다.
+	 */
+	private void assertCovered(String sql) {
+		for (Map<String, Object> row : assertIndexed(sql)) {
+			if (String.valueOf(row.get("table")).startsWith("<")) {
+				continue;
+			}
+
+			List<String> extras = Arrays.asList(String.valueOf(row.get("Extra")).split("; "));
+
+			assertTrue("not covered : " + row + "\n" + sql, extras.contains("Using index"));
+		}
+	}
+}
\ No newline at end of file
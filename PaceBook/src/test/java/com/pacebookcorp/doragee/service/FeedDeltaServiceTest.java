@@ -0,0 +1,139 @@
+package com.pacebookcorp.doragee.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.pacebookcorp.doragee.dto.NewsfeedDelta;
+import com.pacebookcorp.doragee.entity.DeletedPost;
+import com.pacebookcorp.doragee.entity.Post;
+import com.pacebookcorp.doragee.repository.DeletedPostRepository;
+import com.pacebookcorp.doragee.repository.FriendRepository;
+import com.pacebookcorp.doragee.repository.PostRepository;
+import com.pacebookcorp.doragee.util.PaceBookUtils;
+
+/**
+ * FeedDeltaService 의 단위 테스트
+ *
+ * @author Kwon Young
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FeedDeltaServiceTest {
+	@InjectMocks
+	private FeedDeltaService sut;
+
+	@Mock
+	private PostRepository postRepository;
+
+	@Mock
+	private DeletedPostRepository deletedPostRepository;
+
+	@Mock
+	private FriendRepository friendRepository;
+
+	@Mock
+	private FeedMergeService feedMergeService;
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(sut, "lagMillis", 1000L);
+		ReflectionTestUtils.setField(sut, "retentionDays", 30);
+	}
+
+	/**
+	 * 뉴스피드 변경분 조회 1 : 워터마크 이후 변경된 Post(수정일 최신순)와 삭제된 PK, 초 단위로 자른 다음 워터마크
+	 */
+	@Test
+	public void testDelta() {
+		long since = PaceBookUtils.nowDateTime().getTime() - 60000L;
+		Set<String> authorIds = authorIds("gosari", "doragee");
+		Post modifiedPost = new Post("post20160806171903002", "gosari", "수정된 글", "gosari", new Date(since), "gosari", new Date(since + 1000L));
+		Post writtenPost = new Post("post20160806171903003", "doragee", "작성된 글", "doragee", new Date(since + 500L), "doragee", new Date(since + 500L));
+
+		when(feedMergeService.authorIds("doragee")).thenReturn(authorIds);
+		when(postRepository.findModifiedByOwners(eq(authorIds), eq(new Date(since)), (Date) anyObject())).thenReturn(Arrays.asList(writtenPost, modifiedPost));
+		when(deletedPostRepository.findDeletedPostPks(eq(authorIds), eq(new Date(since)), (Date) anyObject())).thenReturn(Arrays.asList("post20160806171903001"));
+
+		NewsfeedDelta result = sut.delta("doragee", since);
+
+		assertEquals(Arrays.asList(modifiedPost, writtenPost), result.getPosts());
+		assertEquals(Arrays.asList("post20160806171903001"), result.getDeletedPostPks());
+		assertEquals(0L, result.getWatermark() % 1000L);
+		assertTrue(result.getWatermark() > since);
+		assertFalse(result.isReset());
+	}
+
+	/**
+	 * 뉴스피드 변경분 조회 2 : 워터마크가 없거나 삭제 이력 보관 기간보다 오래되었다면 전체를 리턴하고 reset
+	 */
+	@Test
+	public void testDelta_reset() {
+		Set<String> authorIds = authorIds("doragee");
+
+		when(feedMergeService.authorIds("doragee")).thenReturn(authorIds);
+
+		NewsfeedDelta result = sut.delta("doragee", null);
+
+		verify(postRepository, times(1)).findModifiedByOwners(eq(authorIds), eq(new Date(0L)), (Date) anyObject());
+		verify(deletedPostRepository, times(0)).findDeletedPostPks((Collection<String>) anyObject(), (Date) anyObject(), (Date) anyObject());
+
+		assertTrue(result.getDeletedPostPks().isEmpty());
+		assertTrue(result.isReset());
+	}
+
+	/**
+	 * 뉴스피드 변경분 조회 3 : 워터마크 이후 친구 관계가 바뀌었다면(작성자가 늘거나 줄었다면) 전체를 리턴하고 reset
+	 */
+	@Test
+	public void testDelta_relationChanged() {
+		long since = PaceBookUtils.nowDateTime().getTime() - 60000L;
+		Set<String> authorIds = authorIds("gosari", "doragee");
+
+		when(feedMergeService.authorIds("doragee")).thenReturn(authorIds);
+		when(friendRepository.findModifiedRelationPks("doragee", new Date(since))).thenReturn(Arrays.asList("frnd20160806171903001"));
+
+		NewsfeedDelta result = sut.delta("doragee", since);
+
+		verify(postRepository, times(1)).findModifiedByOwners(eq(authorIds), eq(new Date(0L)), (Date) anyObject());
+		verify(deletedPostRepository, times(0)).findDeletedPostPks((Collection<String>) anyObject(), (Date) anyObject(), (Date) anyObject());
+
+		assertTrue(result.isReset());
+	}
+
+	/**
+	 * 삭제된 Post 의 PK 를 남기기
+	 */
+	@Test
+	public void testTombstone() {
+		Post post = new Post();
+		post.setPostPk("post20160806171903001");
+		post.setOwnerId("doragee");
+
+		sut.tombstone(post);
+
+		verify(deletedPostRepository, times(1)).save((DeletedPost) anyObject());
+	}
+
+	private Set<String> authorIds(String... userIds) {
+		return new LinkedHashSet<>(Arrays.asList(userIds));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+package com.pacebookcorp.doragee.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.Pageable;
+
+import com.pacebookcorp.doragee.entity.Post;
+import com.pacebookcorp.doragee.graph.FollowGraph;
+import com.pacebookcorp.doragee.repository.PostRepository;
+
+/**
+ * FeedMergeService 의 단위 테스트
+ *
+ * @author Kwon Young
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FeedMergeServiceTest {
+	@InjectMocks
+	private FeedMergeService sut;
+
+	@Mock
+	private PostRepository postRepository;
+
+	@Mock
+	private FollowGraph followGraph;
+
+	@Mock
+	private EntityManager entityManager;
+
+	/**
+	 * 작성자별 타임라인 병합 1 : 수정일 최신순으로 병합하고, limit 건이 채워지면 더 읽지 않음
+	 */
+	@Test
+	public void testMerge() {
+		Post gosariNewPost = post("post20160806171903005", "gosari", 5000L);
+		Post gosariOldPost = post("post20160806171903002", "gosari", 2000L);
+		Post celebrityNewPost = post("post20160806171903004", "celebrity", 4000L);
+		Post celebrityOldPost = post("post20160806171903003", "celebrity", 3000L);
+		Post dorageePost = post("post20160806171903001", "doragee", 1000L);
+
+		when(postRepository.findLatestByOwner(eq("gosari"), (Pageable) anyObject())).thenReturn(Arrays.asList(gosariNewPost));
+		when(postRepository.findOlderByOwner(eq("gosari"), eq(new Date(5000L)), eq(gosariNewPost.getPostPk()), (Pageable) anyObject())).thenReturn(Arrays.asList(gosariOldPost));
+		when(postRepository.findLatestByOwner(eq("celebrity"), (Pageable) anyObject())).thenReturn(Arrays.asList(celebrityNewPost));
+		when(postRepository.findOlderByOwner(eq("celebrity"), eq(new Date(4000L)), eq(celebrityNewPost.getPostPk()), (Pageable) anyObject())).thenReturn(Arrays.asList(celebrityOldPost));
+		when(postRepository.findLatestByOwner(eq("doragee"), (Pageable) anyObject())).thenReturn(Arrays.asList(dorageePost));
+
+		List<Post> result = sut.merge(Arrays.asList("gosari", "celebrity", "doragee"), null, 3);
+
+		verify(postRepository, times(1)).findOlderByOwner(eq("celebrity"), (Date) anyObject(), anyString(), (Pageable) anyObject());
+		verify(postRepository, times(0)).findOlderByOwner(eq("doragee"), (Date) anyObject(), anyString(), (Pageable) anyObject());
+
+		assertEquals(Arrays.asList(gosariNewPost, celebrityNewPost, celebrityOldPost), result);
+	}
+
+	/**
+	 * 작성자별 타임라인 병합 2 : 작성자가 없다면 빈 목록
+	 */
+	@Test
+	public void testMerge_noAuthor() {
+		List<Post> result = sut.merge(Collections.<String>emptyList(), null, 20);
+
+		assertEquals(Collections.emptyList(), result);
+	}
+
+	/**
+	 * 특정 유저의 뉴스피드 조회 : 팔로우 중인 친구들과 본인의 타임라인을 모두 병합
+	 */
+	@Test
+	public void testNewsfeed() {
+		Post gosariPost = post("post20160806171903002", "gosari", 2000L);
+		Post dorageePost = post("post20160806171903001", "doragee", 1000L);
+
+		when(followGraph.authorIds("doragee")).thenReturn(Arrays.asList("doragee", "gosari"));
+		when(postRepository.findLatestByOwner(eq("gosari"), (Pageable) anyObject())).thenReturn(Arrays.asList(gosariPost));
+		when(postRepository.findOlderByOwner(eq("gosari"), (Date) anyObject(), anyString(), (Pageable) anyObject())).thenReturn(Collections.<Post>emptyList());
+		when(postRepository.findLatestByOwner(eq("doragee"), (Pageable) anyObject())).thenReturn(Arrays.asList(dorageePost));
+		when(postRepository.findOlderByOwner(eq("doragee"), (Date) anyObject(), anyString(), (Pageable) anyObject())).thenReturn(Collections.<Post>emptyList());
+
+		List<Post> result = sut.newsfeed("doragee");
+
+		assertEquals(Arrays.asList(gosariPost, dorageePost), result);
+	}
+
+	/**
+	 * 특정 유저의 뉴스피드 스트리밍 조회 : 병합 순서대로 consumer 에 넘기고 영속성 컨텍스트에서 떼어낸다.
+	 */
+	@Test
+	public void testStreamNewsfeed() {
+		Post gosariPost = post("post20160806171903002", "gosari", 2000L);
+		Post dorageePost = post("post20160806171903001", "doragee", 1000L);
+		List<Post> consumedPosts = new ArrayList<>();
+
+		when(followGraph.authorIds("doragee")).thenReturn(Arrays.asList("doragee", "gosari"));
+		when(postRepository.findLatestByOwner(eq("gosari"), (Pageable) anyObject())).thenReturn(Arrays.asList(gosariPost));
+		when(postRepository.findLatestByOwner(eq("doragee"), (Pageable) anyObject())).thenReturn(Arrays.asList(dorageePost));
+
+		sut.streamNewsfeed("doragee", consumedPosts::add);
+
+		verify(entityManager, times(1)).detach(gosariPost);
+		verify(entityManager, times(1)).detach(dorageePost);
+
+		assertEquals(Arrays.asList(gosariPost, dorageePost), consumedPosts);
+	}
+
+	private Post post(String postPk, String ownerId, long modifiedTime) {
+		return new Post(postPk, ownerId, ownerId + " 의 글", ownerId, new Date(modifiedTime), ownerId, new Date(modifiedTime));
+	}
+}
\ No newline at end of file
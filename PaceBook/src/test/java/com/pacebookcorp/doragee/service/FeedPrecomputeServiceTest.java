@@ -0,0 +1,107 @@
+package com.pacebookcorp.doragee.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.pacebookcorp.doragee.cache.FeedCache;
+import com.pacebookcorp.doragee.dto.FeedCacheStats;
+import com.pacebookcorp.doragee.dto.FeedPrecomputeStats;
+import com.pacebookcorp.doragee.repository.PostRepository;
+
+/**
+ * FeedPrecomputeService 단위 테스트
+ *
+ * @author Kwon Young
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FeedPrecomputeServiceTest {
+	@InjectMocks
+	private FeedPrecomputeService sut;
+
+	@Mock
+	private PostRepository postRepository;
+
+	@Mock
+	private FeedService feedService;
+
+	@Mock
+	private FeedCache feedCache;
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(sut, "activeHours", 24);
+		ReflectionTestUtils.setField(sut, "maxUsers", 100);
+		ReflectionTestUtils.setField(sut, "parallelism", 2);
+	}
+
+	/**
+	 * 최근 활동 유저의 뉴스피드를 병렬로 미리 담고, 실패한 유저가 있어도 나머지는 계속 담는다.
+	 */
+	@Test
+	public void testPrecompute() {
+		when(feedCache.getMaxUsers()).thenReturn(50);
+		when(postRepository.findActiveUserIds((Date) anyObject(), (Pageable) anyObject())).thenReturn(Arrays.asList("doragee", "gosari", "celebrity"));
+		doThrow(new IllegalStateException()).when(feedService).warm("celebrity");
+		when(feedCache.stats()).thenReturn(new FeedCacheStats());
+
+		sut.precompute();
+
+		verify(postRepository, times(1)).findActiveUserIds((Date) anyObject(), (Pageable) anyObject());
+		verify(feedService, times(1)).warm("doragee");
+		verify(feedService, times(1)).warm("gosari");
+
+		FeedPrecomputeStats stats = sut.stats();
+
+		assertEquals(3, stats.getLastActiveUsers());
+		assertEquals(2L, stats.getLastPrecomputed());
+		assertEquals(1L, stats.getLastFailed());
+	}
+
+	/**
+	 * 찾는 유저 수는 캐시할 수 있는 최대 유저 수를 넘지 않는다.
+	 */
+	@Test
+	public void testPrecompute_limitedByCache() {
+		when(feedCache.getMaxUsers()).thenReturn(50);
+
+		sut.precompute();
+
+		verify(postRepository, times(1)).findActiveUserIds((Date) anyObject(), eq(new PageRequest(0, 50)));
+	}
+
+	/**
+	 * 미리 담은 뉴스피드의 적중률
+	 */
+	@Test
+	public void testStats() {
+		FeedCacheStats cacheStats = new FeedCacheStats();
+		cacheStats.setPrecomputedLoads(4L);
+		cacheStats.setPrecomputedHits(3L);
+
+		when(feedCache.stats()).thenReturn(cacheStats);
+
+		FeedPrecomputeStats stats = sut.stats();
+
+		assertEquals(4L, stats.getPrecomputedLoads());
+		assertEquals(3L, stats.getPrecomputedHits());
+		assertEquals(0.75, stats.getHitRate(), 0.0001);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,360 @@
+package com.pacebookcorp.doragee.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.pacebookcorp.doragee.cache.FeedCache;
+import com.pacebookcorp.doragee.dto.PostPage;
+import com.pacebookcorp.doragee.dto.PostSummary;
+import com.pacebookcorp.doragee.dto.PostSummaryPage;
+import com.pacebookcorp.doragee.entity.Feed;
+import com.pacebookcorp.doragee.entity.Post;
+import com.pacebookcorp.doragee.repository.FeedRepository;
+import com.pacebookcorp.doragee.repository.PostRepository;
+import com.pacebookcorp.doragee.util.FeedCursor;
+
+/**
+ * FeedService 의 단위 테스트
+ *
+ * @author Kwon Young
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FeedServiceTest {
+	@InjectMocks
+	private FeedService sut;
+
+	@Mock
+	private FeedRepository feedRepository;
+
+	@Mock
+	private PostRepository postRepository;
+
+	@Mock
+	private HeavyUserService heavyUserService;
+
+	@Mock
+	private FeedCache feedCache;
+
+	@Mock
+	private FeedMergeService feedMergeService;
+
+	/**
+	 * 특정 유저의 뉴스피드 페이지 조회 1 : 첫 페이지 / size + 1 건이 조회되면 다음 페이지 커서를 리턴
+	 */
+	@Test
+	public void testNewsfeed_firstPage() {
+		List<Post> posts = new ArrayList<>();
+
+		posts.add(new Post("post20160806171903003", "doragee", "세번째 글", "doragee", new Date(3000L), "doragee", new Date(3000L)));
+		posts.add(new Post("post20160806171903002", "doragee", "두번째 글", "doragee", new Date(2000L), "doragee", new Date(2000L)));
+		posts.add(new Post("post20160806171903001", "doragee", "첫번째 글", "doragee", new Date(1000L), "doragee", new Date(1000L)));
+
+		when(feedRepository.newsfeedFirstPage(eq("doragee"), (Pageable) anyObject())).thenReturn(posts);
+
+		PostPage resultPage = sut.newsfeed("doragee", null, 2);
+
+		verify(feedRepository, times(1)).newsfeedFirstPage(eq("doragee"), (Pageable) anyObject());
+
+		assertEquals(2, resultPage.getPosts().size());
+		assertEquals(FeedCursor.encode(posts.get(1)), resultPage.getNextCursor());
+	}
+
+	/**
+	 * 특정 유저의 뉴스피드 페이지 조회 2 : 다음 페이지 / 커서 위치부터 조회하며 마지막 페이지라면 커서는 null
+	 */
+	@Test
+	public void testNewsfeed_lastPage() {
+		Post cursorPost = new Post("post20160806171903002", "doragee", "두번째 글", "doragee", new Date(2000L), "doragee", new Date(2000L));
+		List<Post> posts = new ArrayList<>();
+
+		posts.add(new Post("post20160806171903001", "doragee", "첫번째 글", "doragee", new Date(1000L), "doragee", new Date(1000L)));
+
+		when(feedRepository.newsfeedNextPage(eq("doragee"), eq(new Date(2000L)), eq("post20160806171903002"), (Pageable) anyObject())).thenReturn(posts);
+
+		PostPage resultPage = sut.newsfeed("doragee", FeedCursor.encode(cursorPost), 2);
+
+		verify(feedRepository, times(1)).newsfeedNextPage(eq("doragee"), eq(new Date(2000L)), eq("post20160806171903002"), (Pageable) anyObject());
+
+		assertEquals(1, resultPage.getPosts().size());
+		assertNull(resultPage.getNextCursor());
+	}
+
+	/**
+	 * 특정 유저의 뉴스피드 페이지 조회 3 : 팔로우 중인 heavy 유저의 Post 를 가져와 수정일 최신순으로 병합, 중복 제거
+	 */
+	@Test
+	public void testNewsfeed_mergeHeavyFollowee() {
+		Post pushedPost = new Post("post20160806171903002", "gosari", "gosari 의 글", "gosari", new Date(2000L), "gosari", new Date(2000L));
+		Post heavyPost = new Post("post20160806171903003", "celebrity", "celebrity 의 글", "celebrity", new Date(3000L), "celebrity", new Date(3000L));
+		Post alreadyPushedHeavyPost = new Post("post20160806171903001", "celebrity", "heavy 가 되기 전 글", "celebrity", new Date(1000L), "celebrity", new Date(1000L));
+		Set<String> heavyFolloweeIds = new HashSet<>();
+		heavyFolloweeIds.add("celebrity");
+
+		when(feedRepository.newsfeedFirstPage(eq("doragee"), (Pageable) anyObject())).thenReturn(Arrays.asList(pushedPost, alreadyPushedHeavyPost));
+		when(heavyUserService.heavyFolloweeIds("doragee")).thenReturn(heavyFolloweeIds);
+		when(feedMergeService.merge(heavyFolloweeIds, null, 21)).thenReturn(Arrays.asList(heavyPost, alreadyPushedHeavyPost));
+
+		PostPage resultPage = sut.newsfeed("doragee", null, 20);
+
+		verify(heavyUserService, times(1)).recordMerge(anyLong());
+
+		assertEquals(Arrays.asList(heavyPost, pushedPost, alreadyPushedHeavyPost), resultPage.getPosts());
+		assertNull(resultPage.getNextCursor());
+	}
+
+	/**
+	 * 특정 유저의 뉴스피드 페이지 조회 4 : 캐시된 Post PK 로 조회하면 t_feed 를 읽지 않고 캐시 순서대로 리턴
+	 */
+	@Test
+	public void testNewsfeed_cacheHit() {
+		Post newerPost = new Post("post20160806171903002", "gosari", "gosari 의 글", "gosari", new Date(2000L), "gosari", new Date(2000L));
+		Post olderPost = new Post("post20160806171903001", "doragee", "doragee 의 글", "doragee", new Date(1000L), "doragee", new Date(1000L));
+		List<String> postPks = Arrays.asList(newerPost.getPostPk(), olderPost.getPostPk());
+
+		when(feedCache.getFeedSize()).thenReturn(64);
+		when(feedCache.window("doragee", null, 3)).thenReturn(postPks);
+		when(postRepository.findByPostPks(postPks)).thenReturn(Arrays.asList(olderPost, newerPost));
+
+		PostPage resultPage = sut.newsfeed("doragee", null, 2);
+
+		verify(feedRepository, times(0)).newsfeedFirstPage(anyString(), (Pageable) anyObject());
+
+		assertEquals(Arrays.asList(newerPost, olderPost), resultPage.getPosts());
+		assertNull(resultPage.getNextCursor());
+	}
+
+	/**
+	 * 특정 유저의 뉴스피드 페이지 조회 5 : 캐시되지 않은 유저의 첫 페이지라면 t_feed 의 최신 N 건 키를 캐시에 담기
+	 */
+	@Test
+	public void testNewsfeed_cacheLoad() {
+		Post post = new Post("post20160806171903001", "doragee", "첫번째 글", "doragee", new Date(1000L), "doragee", new Date(1000L));
+		List<Feed> feeds = Arrays.asList(new Feed("doragee", post.getPostPk(), "doragee", post.getModifiedDate()));
+
+		when(feedCache.getFeedSize()).thenReturn(64);
+		when(feedCache.stamp("doragee")).thenReturn(7L);
+		when(feedRepository.findLatest(eq("doragee"), (Pageable) anyObject())).thenReturn(feeds);
+		when(postRepository.findByPostPks(Arrays.asList(post.getPostPk()))).thenReturn(Arrays.asList(post));
+
+		PostPage resultPage = sut.newsfeed("doragee", null, 2);
+
+		verify(feedCache, times(1)).load("doragee", feeds, false, false, 7L);
+		verify(feedRepository, times(0)).newsfeedFirstPage(anyString(), (Pageable) anyObject());
+
+		assertEquals(Arrays.asList(post), resultPage.getPosts());
+	}
+
+	/**
+	 * 특정 유저의 뉴스피드 요약 페이지 조회 1 : 엔티티 대신 요약 projection 으로 조회하며 size + 1 건이 조회되면 다음 페이지 커서를 리턴
+	 */
+	@Test
+	public void testNewsfeedSummary_firstPage() {
+		List<PostSummary> summaries = new ArrayList<>();
+
+		summaries.add(new PostSummary("post20160806171903003", "doragee", "doragee", "세번째 글", new Date(3000L)));
+		summaries.add(new PostSummary("post20160806171903002", "doragee", "doragee", "두번째 글", new Date(2000L)));
+		summaries.add(new PostSummary("post20160806171903001", "doragee", "doragee", "첫번째 글", new Date(1000L)));
+
+		when(feedRepository.newsfeedSummaryFirstPage(eq("doragee"), (Pageable) anyObject())).thenReturn(summaries);
+
+		PostSummaryPage resultPage = sut.newsfeedSummary("doragee", null, 2);
+
+		verify(feedRepository, times(0)).newsfeedFirstPage(anyString(), (Pageable) anyObject());
+
+		assertEquals(summaries.subList(0, 2), resultPage.getPosts());
+		assertEquals(FeedCursor.encode(new Date(2000L), "post20160806171903002"), resultPage.getNextCursor());
+	}
+
+	/**
+	 * 특정 유저의 뉴스피드 요약 페이지 조회 2 : 캐시된 Post PK 로 요약만 조회하여 캐시 순서대로 리턴
+	 */
+	@Test
+	public void testNewsfeedSummary_cacheHit() {
+		PostSummary newerSummary = new PostSummary("post20160806171903002", "gosari", "gosari", "gosari 의 글", new Date(2000L));
+		PostSummary olderSummary = new PostSummary("post20160806171903001", "doragee", "doragee", "doragee 의 글", new Date(1000L));
+		List<String> postPks = Arrays.asList(newerSummary.getPostPk(), olderSummary.getPostPk());
+
+		when(feedCache.getFeedSize()).thenReturn(64);
+		when(feedCache.window("doragee", null, 3)).thenReturn(postPks);
+		when(postRepository.findSummariesByPostPks(postPks)).thenReturn(Arrays.asList(olderSummary, newerSummary));
+
+		PostSummaryPage resultPage = sut.newsfeedSummary("doragee", null, 2);
+
+		verify(postRepository, times(0)).findByPostPks(anyObject());
+
+		assertEquals(Arrays.asList(newerSummary, olderSummary), resultPage.getPosts());
+		assertNull(resultPage.getNextCursor());
+	}
+
+	/**
+	 * 특정 유저의 뉴스피드 요약 페이지 조회 3 : heavy 유저에게서 가져온 Post 는 요약으로 바꾸어 병합, 중복 제거
+	 */
+	@Test
+	public void testNewsfeedSummary_mergeHeavyFollowee() {
+		PostSummary pushedSummary = new PostSummary("post20160806171903002", "gosari", "gosari", "gosari 의 글", new Date(2000L));
+		PostSummary alreadyPushedSummary = new PostSummary("post20160806171903001", "celebrity", "celebrity", "heavy 가 되기 전 글", new Date(1000L));
+		Post heavyPost = new Post("post20160806171903003", "celebrity", "celebrity 의 글", "celebrity", new Date(3000L), "celebrity", new Date(3000L));
+		Post alreadyPushedHeavyPost = new Post("post20160806171903001", "celebrity", "heavy 가 되기 전 글", "celebrity", new Date(1000L), "celebrity", new Date(1000L));
+		Set<String> heavyFolloweeIds = new HashSet<>();
+		heavyFolloweeIds.add("celebrity");
+
+		when(feedRepository.newsfeedSummaryFirstPage(eq("doragee"), (Pageable) anyObject())).thenReturn(Arrays.asList(pushedSummary, alreadyPushedSummary));
+		when(heavyUserService.heavyFolloweeIds("doragee")).thenReturn(heavyFolloweeIds);
+		when(feedMergeService.merge(heavyFolloweeIds, null, 21)).thenReturn(Arrays.asList(heavyPost, alreadyPushedHeavyPost));
+
+		PostSummaryPage resultPage = sut.newsfeedSummary("doragee", null, 20);
+
+		verify(heavyUserService, times(1)).recordMerge(anyLong());
+
+		assertEquals(Arrays.asList(PostSummary.of(heavyPost), pushedSummary, alreadyPushedSummary), resultPage.getPosts());
+		assertNull(resultPage.getNextCursor());
+	}
+
+	/**
+	 * 뉴스피드 첫 페이지 키를 미리 캐시에 담기 : 조회 때와 같이 t_feed 의 최신 N 건을 precomputed 로 담는다.
+	 */
+	@Test
+	public void testWarm() {
+		List<Feed> feeds = Arrays.asList(new Feed("doragee", "post20160806171903001", "doragee", new Date(1000L)));
+
+		when(feedCache.getFeedSize()).thenReturn(1);
+		when(feedRepository.findLatest(eq("doragee"), (Pageable) anyObject())).thenReturn(feeds);
+
+		sut.warm("doragee");
+
+		verify(feedCache, times(1)).load("doragee", feeds, true, true, 0L);
+		verify(postRepository, times(0)).findByPostPks(anyObject());
+	}
+
+	/**
+	 * Post 작성시 Post 주인과 팔로워들의 뉴스피드에 펼치고, 캐시된 유저의 캐시에 넣기
+	 */
+	@Test
+	public void testPush() {
+		Post post = new Post("post20160806171903001", "doragee", "첫번째 글", "doragee", new Date(1000L), "doragee", new Date(1000L));
+
+		when(feedRepository.findViewerIds(post.getPostPk())).thenReturn(Arrays.asList("doragee", "gosari"));
+
+		sut.push(post);
+
+		verify(feedRepository, times(1)).push(post.getPostPk(), post.getOwnerId(), post.getModifiedDate());
+		verify(feedCache, times(1)).put("doragee", post.getPostPk(), post.getModifiedDate());
+		verify(feedCache, times(1)).put("gosari", post.getPostPk(), post.getModifiedDate());
+	}
+
+	/**
+	 * Post 작성시 트랜잭션 안이라면 커밋된 뒤에 캐시에 넣고, 롤백되면 넣지 않기
+	 */
+	@Test
+	public void testPush_afterCommit() {
+		Post post = new Post("post20160806171903001", "doragee", "첫번째 글", "doragee", new Date(1000L), "doragee", new Date(1000L));
+
+		when(feedRepository.findViewerIds(post.getPostPk())).thenReturn(Arrays.asList("doragee"));
+
+		TransactionSynchronizationManager.initSynchronization();
+
+		try {
+			sut.push(post);
+
+			verify(feedCache, times(0)).put(anyString(), anyString(), (Date) anyObject());
+
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+			verify(feedCache, times(1)).put("doragee", post.getPostPk(), post.getModifiedDate());
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	/**
+	 * heavy 유저의 Post 작성시 Post 주인의 뉴스피드에만 넣기
+	 */
+	@Test
+	public void testPush_heavyOwner() {
+		Post post = new Post("post20160806171903001", "celebrity", "첫번째 글", "celebrity", new Date(1000L), "celebrity", new Date(1000L));
+
+		when(heavyUserService.isHeavy("celebrity")).thenReturn(true);
+
+		sut.push(post);
+
+		verify(feedRepository, times(1)).save(new Feed("celebrity", post.getPostPk(), "celebrity", post.getModifiedDate()));
+		verify(feedRepository, times(0)).push(post.getPostPk(), post.getOwnerId(), post.getModifiedDate());
+		verify(feedCache, times(1)).put("celebrity", post.getPostPk(), post.getModifiedDate());
+	}
+
+	/**
+	 * Post 수정시 펼쳐진 뉴스피드의 수정일 갱신
+	 */
+	@Test
+	public void testRefresh() {
+		Post post = new Post("post20160806171903001", "doragee", "수정된 글", "doragee", new Date(1000L), "doragee", new Date(5000L));
+
+		sut.refresh(post);
+
+		verify(feedRepository, times(1)).refresh(post.getPostPk(), post.getModifiedDate());
+	}
+
+	/**
+	 * Post 삭제시 모든 뉴스피드와 캐시에서 지우기
+	 */
+	@Test
+	public void testRemove() {
+		Post post = new Post();
+		post.setPostPk("post20160806171903001");
+
+		when(feedRepository.findViewerIds(post.getPostPk())).thenReturn(Arrays.asList("gosari"));
+
+		sut.remove(post);
+
+		verify(feedRepository, times(1)).remove(post.getPostPk());
+		verify(feedCache, times(1)).remove("gosari", post.getPostPk());
+	}
+
+	/**
+	 * 팔로우 맺기 / 끊기시 팔로우 대상의 Post 를 채우거나 지우고 캐시 비우기
+	 */
+	@Test
+	public void testFollowAndUnfollow() {
+		sut.follow("doragee", "gosari");
+		sut.unfollow("doragee", "gosari");
+
+		verify(feedRepository, times(1)).pushAll("doragee", "gosari");
+		verify(feedRepository, times(1)).removeAll("doragee", "gosari");
+		verify(feedCache, times(2)).invalidate("doragee");
+	}
+
+	/**
+	 * heavy 유저를 팔로우하면 조회 시점에 가져가므로 기존 Post 를 채우지 않기
+	 */
+	@Test
+	public void testFollow_heavyOwner() {
+		when(heavyUserService.isHeavy("celebrity")).thenReturn(true);
+
+		sut.follow("doragee", "celebrity");
+
+		verify(feedRepository, times(0)).pushAll("doragee", "celebrity");
+	}
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+package com.pacebookcorp.doragee.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.pacebookcorp.doragee.graph.FollowGraph;
+
+/**
+ * FollowGraphSnapshotService 의 단위 테스트
+ *
+ * @author Kwon Young
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FollowGraphSnapshotServiceTest {
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@InjectMocks
+	private FollowGraphSnapshotService sut;
+
+	@Mock
+	private FollowGraph followGraph;
+
+	private Path path;
+
+	@Before
+	public void setUp() {
+		path = temporaryFolder.getRoot().toPath().resolve("follow-graph.snapshot");
+
+		ReflectionTestUtils.setField(sut, "path", path.toString());
+		ReflectionTestUtils.setField(sut, "replayLagMillis", 60000L);
+	}
+
+	/**
+	 * 스냅샷 담기 : 워터마크보다 replayLag 만큼 앞선 시각부터 다시 읽음
+	 */
+	@Test
+	public void testRestore() throws IOException {
+		Files.write(path, new byte[] {0});
+
+		when(followGraph.load(path)).thenReturn(1470471543000L);
+
+		assertEquals(1470471483000L, sut.restore().getTime());
+	}
+
+	/**
+	 * 스냅샷 담기 : 파일이 없거나 깨졌다면 null(t_frnd 전체를 읽음)
+	 */
+	@Test
+	public void testRestore_failed() throws IOException {
+		assertNull(sut.restore());
+		verify(followGraph, never()).load((Path) anyObject());
+
+		Files.write(path, new byte[] {0});
+
+		when(followGraph.load(path)).thenThrow(new IOException("follow graph snapshot checksum mismatch"));
+
+		assertNull(sut.restore());
+	}
+
+	/**
+	 * 스냅샷 쓰기 : 서버 기동 때 그래프를 모두 담기 전에는 쓰지 않음
+	 */
+	@Test
+	public void testSave() throws IOException {
+		sut.save();
+
+		verify(followGraph, never()).save(path);
+
+		sut.start();
+		sut.save();
+
+		verify(followGraph, times(1)).save(path);
+	}
+}
\ No newline at end of file
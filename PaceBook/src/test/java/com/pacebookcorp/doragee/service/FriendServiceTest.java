@@ -1,319 +1,797 @@
-package com.pacebookcorp.doragee.service;
-
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertNotNull;
-import static org.junit.Assert.assertTrue;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
-
-import java.util.ArrayList;
-import java.util.List;
-
-import org.junit.Test;
-import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.runners.MockitoJUnitRunner;
-
-import com.pacebookcorp.doragee.entity.Friend;
-import com.pacebookcorp.doragee.repository.FriendRepository;
-import com.pacebookcorp.doragee.repository.UserRepository;
-
-/**
- * FriendService 의 단위 테스트
- * 
- * @author Kwon Young
- */
-@RunWith(MockitoJUnitRunner.class)
-public class FriendServiceTest {
-	@InjectMocks
-	private FriendService sut;
-
-	@Mock
-	private UserRepository userRepository;
-
-	@Mock
-	private FriendRepository friendRepository;
-
-	/**
-	 * 친구를 신청하기전 신청자, 수락자의 유효성 체크 1 : 정상 case 
-	 * isValidApply 의 부정 함수인 isInvalidApply 는 단위 TC 없음
-	 */
-	@Test
-	public void testIsValidApply() {
-		Friend friend = new Friend();
-
-		friend.setApplierId("doragee");
-		friend.setAcceptorId("gosari");
-
-		List<String> userIds = new ArrayList<>();
-		userIds.add("doragee");
-		userIds.add("gosari");
-
-		when(userRepository.findUsers(friend.getApplierId(), friend.getAcceptorId())).thenReturn(userIds);
-		// 친구 신청 이력이 없어야 하기때문에 null 리턴
-		when(friendRepository.existFriendRelation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(null);
-
-		boolean result = sut.isValidApply(friend);
-
-		verify(userRepository, times(1)).findUsers(friend.getApplierId(), friend.getAcceptorId());
-		verify(friendRepository, times(1)).existFriendRelation(friend.getApplierId(), friend.getAcceptorId());
-
-		assertTrue(result);
-	}
-
-	/**
-	 * 친구를 신청하기전 신청자, 수락자의 유효성 체크 2 : 비정상 case / 유저 한명이 계정 삭제로 친구 신청 불가능
-	 */
-	@Test
-	public void testIsValidApply_notExistUser() {
-		Friend friend = new Friend();
-
-		friend.setApplierId("doragee");
-		friend.setAcceptorId("gosari");
-
-		List<String> userIds = new ArrayList<>();
-		userIds.add("doragee");
-		// userIds.add("gosari"); // 계정 삭제
-
-		when(userRepository.findUsers(friend.getApplierId(), friend.getAcceptorId())).thenReturn(userIds);
-
-		boolean result = sut.isValidApply(friend);
-
-		verify(userRepository, times(1)).findUsers(friend.getApplierId(), friend.getAcceptorId());
-		verify(friendRepository, times(0)).findNotAccptedFriendRelation(friend.getApplierId(), friend.getAcceptorId());
-
-		assertFalse(result);
-	}
-
-	/**
-	 * 친구를 신청하기전 신청자, 수락자의 유효성 체크 3 : 비정상 case / 이미 신청 이력이 있음
-	 */
-	@Test
-	public void testIsValidApply_existFriendRelation() {
-		Friend friend = new Friend();
-
-		friend.setApplierId("doragee");
-		friend.setAcceptorId("gosari");
-
-		List<String> userIds = new ArrayList<>();
-		userIds.add("doragee");
-		userIds.add("gosari");
-
-		when(userRepository.findUsers(friend.getApplierId(), friend.getAcceptorId())).thenReturn(userIds);
-		// 친구 신청 이력이 있으면 Friend 객체 리턴
-		when(friendRepository.existFriendRelation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(new Friend());
-
-		boolean result = sut.isValidApply(friend);
-
-		verify(userRepository, times(1)).findUsers(friend.getApplierId(), friend.getAcceptorId());
-		verify(friendRepository, times(1)).existFriendRelation(friend.getApplierId(), friend.getAcceptorId());
-
-		assertFalse(result);
-	}
-
-	/**
-	 * 친구 신청
-	 */
-	@Test
-	public void testApply() {
-		Friend friend = new Friend();
-
-		when(friendRepository.save(friend)).thenReturn(new Friend());
-
-		Friend resultFriend = sut.apply(friend);
-
-		verify(friendRepository, times(1)).save(friend);
-
-		assertNotNull(resultFriend);
-	}
-
-	/**
-	 * 친구 신청을 수락하기 전 유효성 체크 1 : 정상 case 
-	 * existNotAccptedFriendRelation 의 부정 함수인 notExistNotAccptedFriendRelation 는 단위 TC 없음
-	 */
-	@Test
-	public void testExistNotAccptedFriendRelation() {
-		Friend friend = new Friend();
-
-		friend.setApplierId("doragee");
-		friend.setAcceptorId("gosari");
-
-		// 친구 신청 이력이 있다면 Friend 객체를 리턴
-		when(friendRepository.findNotAccptedFriendRelation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(new Friend());
-
-		boolean result = sut.existNotAccptedFriendRelation(friend.getApplierId(), friend.getAcceptorId());
-
-		verify(friendRepository, times(1)).findNotAccptedFriendRelation(friend.getApplierId(), friend.getAcceptorId());
-
-		assertTrue(result);
-	}
-
-	/**
-	 * 친구 신청을 수락하기 전 유효성 체크 2 : 비정상 case / 친구 신청 이력이 있어야 하나 (이력이) 없음
-	 */
-	@Test
-	public void testExistNotAccptedFriendRelation_noneAccept() {
-		Friend friend = new Friend();
-
-		friend.setApplierId("doragee");
-		friend.setAcceptorId("gosari");
-
-		// 친구 신청 이력이 없다면 null 리턴
-		when(friendRepository.findNotAccptedFriendRelation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(null);
-
-		boolean result = sut.existNotAccptedFriendRelation(friend.getApplierId(), friend.getAcceptorId());
-
-		verify(friendRepository, times(1)).findNotAccptedFriendRelation(friend.getApplierId(), friend.getAcceptorId());
-
-		assertFalse(result);
-	}
-
-	/**
-	 * 친구 수락
-	 */
-	@Test
-	public void testAccept() {
-		Friend friend = new Friend();
-		Friend existFriend = new Friend();
-
-		friend.setApplierId("doragee");
-		friend.setAcceptorId("gosari");
-
-		when(friendRepository.findNotAccptedFriendRelation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(existFriend);
-		when(friendRepository.save(existFriend)).thenReturn(new Friend());
-
-		Friend resultFriend = sut.accept(friend);
-
-		verify(friendRepository, times(1)).findNotAccptedFriendRelation(friend.getApplierId(), friend.getAcceptorId());
-		verify(friendRepository, times(1)).save(existFriend);
-
-		assertNotNull(resultFriend);
-	}
-
-	/**
-	 * 친구 관계를 끊거나 언팔, 팔로우 하기 위해선 먼저 '친구' 였는지부터 검사하는 메서드 1 : 정상 case
-	 * isValidAccepted 의 부정 함수인 isInvalidAccepted 는 단위 TC 없음
-	 */
-	@Test
-	public void testIsValidAccepted() {
-		Friend friend = new Friend();
-
-		friend.setApplierId("doragee");
-		friend.setAcceptorId("gosari");
-
-		// 친구 관계라면 Friend 객체를 리턴
-		when(friendRepository.findAcceptedFriendRelation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(new Friend());
-
-		boolean result = sut.isValidAccepted(friend);
-
-		verify(friendRepository, times(1)).findAcceptedFriendRelation(friend.getApplierId(), friend.getAcceptorId());
-
-		assertTrue(result);
-	}
-
-	/**
-	 * 친구 관계를 끊거나 언팔, 팔로우 하기 위해선 먼저 '친구' 였는지부터 검사하는 메서드 2 : 비정상 case
-	 */
-	@Test
-	public void testIsValidAccepted_notFriendEachOther() {
-		Friend friend = new Friend();
-
-		friend.setApplierId("doragee");
-		friend.setAcceptorId("gosari");
-
-		// 친구 관계가 아니라면 null
-		when(friendRepository.findAcceptedFriendRelation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(null);
-
-		boolean result = sut.isValidAccepted(friend);
-
-		verify(friendRepository, times(1)).findAcceptedFriendRelation(friend.getApplierId(), friend.getAcceptorId());
-
-		assertFalse(result);
-	}
-
-	/**
-	 * Follower 의 주체가 신청자인지 수락자인지 명확해야 한다. 파라메터 어뷰징 방지 가드로직 1 : 정상 case
-	 */
-	@Test
-	public void testIsValidFollowAgent() {
-		assertTrue(sut.isValidFollowAgent("applierId"));
-		assertTrue(sut.isValidFollowAgent("acceptorId"));
-	}
-
-	/**
-	 * Follower 의 주체가 신청자인지 수락자인지 명확해야 한다. 파라메터 어뷰징 방지 가드로직 2 : 비정상 case / applierId, acceptorId가 아님
-	 */
-	@Test
-	public void testIsValidFollowAgent_tryAbuse() {
-		assertFalse(sut.isValidFollowAgent("abuseApplier"));
-		assertFalse(sut.isValidFollowAgent("abuseAcceptor"));
-	}
-
-	/**
-	 * 친구 끊기
-	 */
-	@Test
-	public void testEnd() {
-		Friend friend = new Friend();
-		Friend existFriend = new Friend();
-
-		friend.setApplierId("doragee");
-		friend.setAcceptorId("gosari");
-
-		when(friendRepository.findAcceptedFriendRelation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(existFriend);
-		when(friendRepository.save(existFriend)).thenReturn(new Friend());
-
-		Friend resultFriend = sut.end(friend);
-
-		verify(friendRepository, times(1)).findAcceptedFriendRelation(friend.getApplierId(), friend.getAcceptorId());
-		verify(friendRepository, times(1)).save(existFriend);
-
-		assertNotNull(resultFriend);
-	}
-
-	/**
-	 * 친구 관계에 있는 사람 팔로우 맺기
-	 */
-	@Test
-	public void testFollow() {
-		Friend friend = new Friend();
-		Friend existFriend = new Friend();
-
-		friend.setApplierId("doragee");
-		friend.setAcceptorId("gosari");
-
-		when(friendRepository.findAcceptedFriendRelation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(existFriend);
-		when(friendRepository.save(existFriend)).thenReturn(new Friend());
-
-		Friend resultFriend = sut.follow(friend, "applierId");
-
-		verify(friendRepository, times(1)).findAcceptedFriendRelation(friend.getApplierId(), friend.getAcceptorId());
-		verify(friendRepository, times(1)).save(existFriend);
-
-		assertNotNull(resultFriend);
-	}
-
-	/**
-	 * 친구 관계에 있는 사람 팔로우 끊기
-	 */
-	@Test
-	public void testUnfollow() {
-		Friend friend = new Friend();
-		Friend existFriend = new Friend();
-
-		friend.setApplierId("doragee");
-		friend.setAcceptorId("gosari");
-
-		when(friendRepository.findAcceptedFriendRelation(friend.getApplierId(), friend.getAcceptorId())).thenReturn(existFriend);
-		when(friendRepository.save(existFriend)).thenReturn(new Friend());
-
-		Friend resultFriend = sut.follow(friend, "acceptorId");
-
-		verify(friendRepository, times(1)).findAcceptedFriendRelation(friend.getApplierId(), friend.getAcceptorId());
-		verify(friendRepository, times(1)).save(existFriend);
-
-		assertNotNull(resultFriend);
-	}
+package com.pacebookcorp.doragee.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.pacebookcorp.doragee.cache.FriendRelationCache;
+import com.pacebookcorp.doragee.dictionary.UserDictionary;
+import com.pacebookcorp.doragee.dto.FriendBatchResult;
+import com.pacebookcorp.doragee.dto.FriendRelation;
+import com.pacebookcorp.doragee.dto.MutualFriendPage;
+import com.pacebookcorp.doragee.entity.Friend;
+import com.pacebookcorp.doragee.graph.FollowGraph;
+import com.pacebookcorp.doragee.repository.FriendBatchRepository;
+import com.pacebookcorp.doragee.repository.FriendRepository;
+import com.pacebookcorp.doragee.repository.UserRepository;
+import com.pacebookcorp.doragee.util.PaceBookUtils;
+
+/**
+ * FriendService 의 단위 테스트
+ *
+ * @author Kwon Young
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FriendServiceTest {
+	@InjectMocks
+	private FriendService sut;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private FriendRepository friendRepository;
+
+	@Mock
+	private FriendBatchRepository friendBatchRepository;
+
+	@Mock
+	private FeedService feedService;
+
+	@Mock
+	private FollowGraph followGraph;
+
+	@Mock
+	private FollowGraphSnapshotService followGraphSnapshotService;
+
+	@Mock
+	private UserDictionary userDictionary;
+
+	@Mock
+	private SuggestionService suggestionService;
+
+	@Mock
+	private FriendRelationCache friendRelationCache;
+
+	@Mock
+	private UserCountService userCountService;
+
+	@Mock
+	private EntityManager entityManager;
+
+	@Mock
+	private ApplicationContext applicationContext;
+
+	@Mock
+	private ApplicationContext childContext;
+
+	@Before
+	public void setUp() {
+		ReflectionTestUtils.setField(sut, "maxUpdateAttempts", 3);
+	}
+
+	/**
+	 * 서버 기동 때 t_frnd 전체를 FollowGraph 에 담는다.
+	 */
+	@Test
+	public void testLoadFollowGraph() {
+		Friend friend = new Friend("frnd20160806171903001", "doragee", "gosari", "doragee:gosari", "y", "y", "y", null, null, 0);
+
+		when(friendRepository.streamAll()).thenReturn(Arrays.asList(friend).stream());
+
+		sut.loadFollowGraph(new ContextRefreshedEvent(applicationContext));
+
+		verify(followGraph, times(1)).clear();
+		verify(followGraph, times(1)).put(friend);
+		verify(entityManager, times(1)).detach(friend);
+		verify(suggestionService, times(1)).clear();
+		verify(followGraphSnapshotService, times(1)).start();
+	}
+
+	/**
+	 * 서버 기동 때 스냅샷이 있다면 워터마크 이후 바뀐 행만 FollowGraph 에 담는다.
+	 */
+	@Test
+	public void testLoadFollowGraph_snapshot() {
+		Date since = new Date(1470471543000L);
+		Friend friend = new Friend("frnd20160806171903001", "doragee", "gosari", "doragee:gosari", "y", "y", "y", null, since, 0);
+
+		when(followGraphSnapshotService.restore()).thenReturn(since);
+		when(friendRepository.streamModifiedSince(since)).thenReturn(Arrays.asList(friend).stream());
+
+		sut.loadFollowGraph(new ContextRefreshedEvent(applicationContext));
+
+		verify(followGraph, times(0)).clear();
+		verify(friendRepository, times(0)).streamAll();
+		verify(followGraph, times(1)).put(friend);
+		verify(followGraphSnapshotService, times(1)).start();
+	}
+
+	/**
+	 * 자식 컨텍스트의 refresh 이벤트라면 FollowGraph 를 다시 담지 않는다.
+	 */
+	@Test
+	public void testLoadFollowGraph_childContext() {
+		when(childContext.getParent()).thenReturn(applicationContext);
+
+		sut.loadFollowGraph(new ContextRefreshedEvent(childContext));
+
+		verify(followGraphSnapshotService, times(0)).restore();
+		verify(friendRepository, times(0)).streamAll();
+		verify(followGraph, times(0)).clear();
+		verify(followGraphSnapshotService, times(0)).start();
+	}
+
+	/**
+	 * 친구를 신청하기전 신청자, 수락자의 유효성 체크 1 : 정상 case 
+	 * isValidApply 의 부정 함수인 isInvalidApply 는 단위 TC 없음
+	 */
+	@Test
+	public void testIsValidApply() {
+		Friend friend = new Friend();
+
+		friend.setApplierId("doragee");
+		friend.setAcceptorId("gosari");
+
+		List<String> userIds = new ArrayList<>();
+		userIds.add("doragee");
+		userIds.add("gosari");
+
+		when(userRepository.findUsers(friend.getApplierId(), friend.getAcceptorId())).thenReturn(userIds);
+		// 친구 신청 이력이 없어야 하기때문에 false 리턴
+		when(followGraph.isRelated(friend.getApplierId(), friend.getAcceptorId())).thenReturn(false);
+
+		boolean result = sut.isValidApply(friend);
+
+		verify(userRepository, times(1)).findUsers(friend.getApplierId(), friend.getAcceptorId());
+		verify(followGraph, times(1)).isRelated(friend.getApplierId(), friend.getAcceptorId());
+
+		assertTrue(result);
+	}
+
+	/**
+	 * 친구를 신청하기전 신청자, 수락자의 유효성 체크 2 : 비정상 case / 유저 한명이 계정 삭제로 친구 신청 불가능
+	 */
+	@Test
+	public void testIsValidApply_notExistUser() {
+		Friend friend = new Friend();
+
+		friend.setApplierId("doragee");
+		friend.setAcceptorId("gosari");
+
+		List<String> userIds = new ArrayList<>();
+		userIds.add("doragee");
+		// userIds.add("gosari"); // 계정 삭제
+
+		when(userRepository.findUsers(friend.getApplierId(), friend.getAcceptorId())).thenReturn(userIds);
+
+		boolean result = sut.isValidApply(friend);
+
+		verify(userRepository, times(1)).findUsers(friend.getApplierId(), friend.getAcceptorId());
+		verify(followGraph, times(0)).isRelated(friend.getApplierId(), friend.getAcceptorId());
+
+		assertFalse(result);
+	}
+
+	/**
+	 * 친구를 신청하기전 신청자, 수락자의 유효성 체크 3 : 비정상 case / 이미 신청 이력이 있음
+	 */
+	@Test
+	public void testIsValidApply_existFriendRelation() {
+		Friend friend = new Friend();
+
+		friend.setApplierId("doragee");
+		friend.setAcceptorId("gosari");
+
+		List<String> userIds = new ArrayList<>();
+		userIds.add("doragee");
+		userIds.add("gosari");
+
+		when(userRepository.findUsers(friend.getApplierId(), friend.getAcceptorId())).thenReturn(userIds);
+		// 친구 신청 이력이 있으면 true 리턴
+		when(followGraph.isRelated(friend.getApplierId(), friend.getAcceptorId())).thenReturn(true);
+
+		boolean result = sut.isValidApply(friend);
+
+		verify(userRepository, times(1)).findUsers(friend.getApplierId(), friend.getAcceptorId());
+		verify(followGraph, times(1)).isRelated(friend.getApplierId(), friend.getAcceptorId());
+
+		assertFalse(result);
+	}
+
+	/**
+	 * 친구 신청
+	 */
+	@Test
+	public void testApply() {
+		Friend friend = new Friend();
+		Friend appliedFriend = new Friend();
+
+		friend.setApplierId("gosari");
+		friend.setAcceptorId("doragee");
+
+		when(friendRepository.save(friend)).thenReturn(appliedFriend);
+
+		Friend resultFriend = sut.apply(friend);
+
+		verify(friendRepository, times(1)).save(friend);
+		verify(followGraph, times(1)).put(appliedFriend);
+		verify(suggestionService, times(1)).applied(appliedFriend.getApplierId(), appliedFriend.getAcceptorId());
+
+		// 신청 방향과 무관한 친구 관계 쌍 키
+		assertEquals("doragee:gosari", friend.getPairKey());
+		assertNotNull(resultFriend);
+	}
+
+	/**
+	 * 친구 신청 : 요청에 버전이 담겨 와도 비우고 새 행으로 입력(merge 로 다른 행을 덮어쓰거나 낙관적 잠금에 걸리지 않음)
+	 */
+	@Test
+	public void testApply_clientVersion() {
+		Friend friend = new Friend();
+
+		friend.setApplierId("gosari");
+		friend.setAcceptorId("doragee");
+		friend.setVersion(3);
+
+		when(friendRepository.save(friend)).thenReturn(friend);
+
+		sut.apply(friend);
+
+		verify(friendRepository, times(1)).save(friend);
+
+		assertNull(friend.getVersion());
+		assertEquals("n", friend.getAcceptYn());
+	}
+
+	/**
+	 * 친구 신청 : 같은 쌍의 관계가 먼저 저장되어 친구 관계 쌍 키 유니크 인덱스에 걸리면 IllegalStateException
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testApply_duplicatedPair() {
+		Friend friend = new Friend();
+
+		friend.setApplierId("gosari");
+		friend.setAcceptorId("doragee");
+
+		when(friendRepository.save(friend)).thenThrow(new DataIntegrityViolationException("ux_frnd_pair"));
+		when(friendRepository.findRelation("doragee:gosari")).thenReturn(friend("doragee", "gosari", "n", "n", "n"));
+
+		sut.apply(friend);
+	}
+
+	/**
+	 * 친구 신청 : 같은 쌍은 없고 다른 서버가 생성한 PK 와 겹쳤다면 새 PK 로 다시 입력
+	 */
+	@Test
+	public void testApply_duplicatedPk() {
+		Friend friend = new Friend();
+		List<String> friendPks = new ArrayList<>();
+
+		friend.setApplierId("gosari");
+		friend.setAcceptorId("doragee");
+
+		when(friendRepository.save(friend)).thenAnswer(invocation -> {
+			friendPks.add(friend.getFriendPk());
+
+			if (friendPks.size() == 1) {
+				throw new DataIntegrityViolationException("PRIMARY");
+			}
+
+			return friend;
+		});
+		when(friendRepository.exists(anyString())).thenReturn(true);
+
+		Friend appliedFriend = sut.apply(friend);
+
+		verify(friendRepository, times(2)).save(friend);
+
+		assertEquals(2, new HashSet<>(friendPks).size());
+		assertEquals(friendPks.get(1), appliedFriend.getFriendPk());
+	}
+
+	/**
+	 * 친구 신청 : 쌍도 PK 도 겹치지 않은 무결성 오류는 관계가 있다고 바꾸지 않고 그대로 던짐
+	 */
+	@Test(expected = DataIntegrityViolationException.class)
+	public void testApply_otherIntegrityViolation() {
+		Friend friend = new Friend();
+
+		friend.setApplierId("gosari");
+		friend.setAcceptorId("doragee");
+
+		when(friendRepository.save(friend)).thenThrow(new DataIntegrityViolationException("aply_id cannot be null"));
+
+		sut.apply(friend);
+	}
+
+	/**
+	 * 친구 관계 조회 : 둘 중 누가 신청했든 친구 관계 쌍 키로 캐시를 거쳐 t_frnd 를 한 번만 조회하고, 아이디가 유효하지 않다면 조회하지 않음
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testRelation() {
+		Friend friend = new Friend("frnd20160806171903001", "gosari", "doragee", "doragee:gosari", "y", "y", "n", null, null, 0);
+
+		when(friendRelationCache.get(anyString(), (Function<String, Friend>) anyObject()))
+			.thenAnswer(invocation -> ((Function<String, Friend>) invocation.getArguments()[1]).apply((String) invocation.getArguments()[0]));
+		when(friendRepository.findRelation("doragee:gosari")).thenReturn(friend);
+
+		FriendRelation relation = sut.relation("doragee", "gosari");
+
+		verify(friendRepository, times(1)).findRelation("doragee:gosari");
+
+		assertTrue(relation.exists());
+		assertFalse(relation.isRequestedByApplier());
+		assertTrue(relation.follows(true));
+		assertFalse(relation.follows(false));
+
+		assertFalse(sut.relation("doragee", null).exists());
+		verify(friendRepository, times(1)).findRelation(anyString());
+	}
+
+	/**
+	 * 친구 신청을 수락하기 전 유효성 체크 1 : 정상 case 
+	 * isValidAccept 의 부정 함수인 isInvalidAccept 는 단위 TC 없음
+	 */
+	@Test
+	public void testIsValidAccept() {
+		// 친구 신청 이력이 있고 아직 수락 전이라면 true 리턴
+		assertTrue(sut.isValidAccept(relation("doragee", "gosari", "n", "n", "n")));
+	}
+
+	/**
+	 * 친구 신청을 수락하기 전 유효성 체크 2 : 비정상 case / 친구 신청 이력이 없거나, 이미 수락됐거나, 신청자, 수락자 방향이 바뀜
+	 */
+	@Test
+	public void testIsValidAccept_noneAccept() {
+		assertFalse(sut.isValidAccept(FriendRelation.of(null, "doragee", "gosari")));
+		assertFalse(sut.isValidAccept(relation("doragee", "gosari", "y", "y", "y")));
+		assertFalse(sut.isValidAccept(FriendRelation.of(friend("doragee", "gosari", "n", "n", "n"), "gosari", "doragee")));
+	}
+
+	/**
+	 * 친구 수락 : 조회한 버전 그대로인 행만 수정하고, t_frnd 를 다시 조회하지 않음
+	 */
+	@Test
+	public void testAccept() {
+		FriendRelation relation = relation("doragee", "gosari", "n", "n", "n");
+
+		when(friendRepository.updateStatus(eq("frnd20160806171903001"), eq(0), eq("y"), eq("y"), eq("y"), (Date) anyObject())).thenReturn(1);
+
+		Friend resultFriend = sut.accept(relation);
+
+		verify(friendRepository, times(0)).findRelation(anyString());
+		verify(followGraph, times(1)).put(resultFriend);
+		verify(friendRelationCache, times(1)).invalidate("doragee:gosari");
+		verify(userCountService, times(1)).changed(relation, relation.withStatus(true, resultFriend.getModifiedDate()));
+		verify(suggestionService, times(1)).changed("doragee", "gosari");
+		verify(feedService, times(2)).follow(anyString(), anyString());
+
+		assertEquals("y", resultFriend.getAcceptYn());
+		assertEquals("y", resultFriend.getAcceptFollowYn());
+	}
+
+	/**
+	 * 친구 수락 : 조회 이후 다른 요청이 먼저 수락했다면 다시 조회한 상태로 거절(IllegalStateException)
+	 */
+	@Test
+	public void testAccept_changed() {
+		FriendRelation relation = relation("doragee", "gosari", "n", "n", "n");
+		Friend accepted = friend("doragee", "gosari", "y", "y", "y");
+
+		accepted.setVersion(1);
+
+		when(friendRepository.updateStatus(anyString(), anyInt(), anyString(), anyString(), anyString(), (Date) anyObject())).thenReturn(0);
+		when(friendRepository.findRelation("doragee:gosari")).thenReturn(accepted);
+
+		try {
+			sut.accept(relation);
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals("Friend Relation is changed by another request.", e.getMessage());
+		}
+
+		verify(friendRepository, times(1)).updateStatus(anyString(), anyInt(), anyString(), anyString(), anyString(), (Date) anyObject());
+		verify(entityManager, times(1)).detach(accepted);
+		verify(followGraph, times(0)).put((Friend) anyObject());
+
+		assertEquals(1, sut.updateStats().getRejections());
+	}
+
+	/**
+	 * 친구 수락 : 최대 시도 횟수까지 버전 충돌이 이어지면 IllegalStateException
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testAccept_exhausted() {
+		ReflectionTestUtils.setField(sut, "maxUpdateAttempts", 1);
+
+		when(friendRepository.updateStatus(anyString(), anyInt(), anyString(), anyString(), anyString(), (Date) anyObject())).thenReturn(0);
+
+		sut.accept(relation("doragee", "gosari", "n", "n", "n"));
+	}
+
+	/**
+	 * 친구 수락 : 뉴스피드 반영이 실패해 롤백되면 FollowGraph 와 친구 추천은 바뀌지 않고, 커밋된 뒤에만 고침
+	 */
+	@Test
+	public void testAccept_rollback() {
+		FriendRelation relation = relation("doragee", "gosari", "n", "n", "n");
+
+		when(friendRepository.updateStatus(anyString(), anyInt(), anyString(), anyString(), anyString(), (Date) anyObject())).thenReturn(1);
+		doThrow(new IllegalStateException("t_feed")).when(feedService).follow(anyString(), anyString());
+
+		TransactionSynchronizationManager.initSynchronization();
+
+		try {
+			sut.accept(relation);
+			fail();
+		} catch (IllegalStateException e) {
+			assertEquals("t_feed", e.getMessage());
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+
+		verify(followGraph, times(0)).put((Friend) anyObject());
+		verify(suggestionService, times(0)).changed(anyString(), anyString());
+	}
+
+	/**
+	 * 친구 수락 : 트랜잭션 안이라면 커밋된 뒤에 FollowGraph 를 고침
+	 */
+	@Test
+	public void testAccept_afterCommit() {
+		when(friendRepository.updateStatus(anyString(), anyInt(), anyString(), anyString(), anyString(), (Date) anyObject())).thenReturn(1);
+
+		TransactionSynchronizationManager.initSynchronization();
+
+		try {
+			Friend resultFriend = sut.accept(relation("doragee", "gosari", "n", "n", "n"));
+
+			verify(followGraph, times(0)).put((Friend) anyObject());
+
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+			verify(followGraph, times(1)).put(resultFriend);
+			verify(suggestionService, times(1)).changed("doragee", "gosari");
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	/**
+	 * 친구 관계를 끊기 전 '친구' 였는지 검사하는 메서드 : 둘 중 누가 신청했든 수락된 관계라면 true
+	 * isValidEnd 의 부정 함수인 isInvalidEnd 는 단위 TC 없음
+	 */
+	@Test
+	public void testIsValidEnd() {
+		assertTrue(sut.isValidEnd(relation("doragee", "gosari", "y", "n", "n")));
+		assertTrue(sut.isValidEnd(FriendRelation.of(friend("doragee", "gosari", "y", "y", "y"), "gosari", "doragee")));
+		assertFalse(sut.isValidEnd(relation("doragee", "gosari", "n", "n", "n")));
+		assertFalse(sut.isValidEnd(FriendRelation.of(null, "doragee", "gosari")));
+	}
+
+	/**
+	 * Follower 의 주체가 신청자인지 수락자인지 명확해야 한다. 파라메터 어뷰징 방지 가드로직 1 : 정상 case
+	 */
+	@Test
+	public void testIsValidFollowAgent() {
+		assertTrue(sut.isValidFollowAgent("applierId"));
+		assertTrue(sut.isValidFollowAgent("acceptorId"));
+	}
+
+	/**
+	 * Follower 의 주체가 신청자인지 수락자인지 명확해야 한다. 파라메터 어뷰징 방지 가드로직 2 : 비정상 case / applierId, acceptorId가 아님
+	 */
+	@Test
+	public void testIsValidFollowAgent_tryAbuse() {
+		assertFalse(sut.isValidFollowAgent("abuseApplier"));
+		assertFalse(sut.isValidFollowAgent("abuseAcceptor"));
+	}
+
+	/**
+	 * 팔로우를 맺기전 팔로우 중이 아닌지 체크 : 신청자, 수락자 방향이 맞고 팔로우 주체가 팔로우 중이 아니어야 한다.
+	 */
+	@Test
+	public void testIsValidFollow() {
+		FriendRelation relation = relation("doragee", "gosari", "y", "y", "n");
+
+		assertFalse(sut.isValidFollow(relation, "applierId"));
+		assertTrue(sut.isValidFollow(relation, "acceptorId"));
+		assertFalse(sut.isValidFollow(relation("doragee", "gosari", "n", "n", "n"), "acceptorId"));
+	}
+
+	/**
+	 * 팔로우를 끊기전 팔로우 중인지 체크 : 신청자, 수락자 방향이 바뀌었다면 팔로우 중이더라도 false
+	 */
+	@Test
+	public void testIsValidUnfollow() {
+		FriendRelation relation = relation("doragee", "gosari", "y", "y", "n");
+
+		assertTrue(sut.isValidUnfollow(relation, "applierId"));
+		assertFalse(sut.isValidUnfollow(relation, "acceptorId"));
+		assertFalse(sut.isValidUnfollow(FriendRelation.of(friend("doragee", "gosari", "y", "y", "n"), "gosari", "doragee"), "acceptorId"));
+	}
+
+	/**
+	 * 친구 끊기
+	 */
+	@Test
+	public void testEnd() {
+		FriendRelation relation = relation("doragee", "gosari", "y", "y", "n");
+
+		when(friendRepository.updateStatus(eq("frnd20160806171903001"), eq(0), eq("n"), eq("n"), eq("n"), (Date) anyObject())).thenReturn(1);
+
+		Friend resultFriend = sut.end(relation);
+
+		// 친구 관계가 끊기면 서로의 뉴스피드에서 상대의 Post 를 지운다.
+		verify(feedService, times(2)).unfollow(anyString(), anyString());
+		verify(followGraph, times(1)).put(resultFriend);
+		verify(suggestionService, times(1)).changed("doragee", "gosari");
+
+		assertEquals("n", resultFriend.getAcceptYn());
+	}
+
+	/**
+	 * 친구 관계에 있는 사람 팔로우 맺기
+	 */
+	@Test
+	public void testFollow() {
+		FriendRelation relation = relation("doragee", "gosari", "y", "n", "y");
+
+		when(friendRepository.updateStatus(eq("frnd20160806171903001"), eq(0), eq("y"), eq("y"), eq("y"), (Date) anyObject())).thenReturn(1);
+
+		Friend resultFriend = sut.follow(relation, "applierId");
+
+		// 친구신청자(doragee)의 뉴스피드에 친구수락자(gosari)의 Post 를 채운다.
+		verify(feedService, times(1)).follow("doragee", "gosari");
+		verify(followGraph, times(1)).put(resultFriend);
+		verify(suggestionService, times(0)).changed(anyString(), anyString());
+
+		assertEquals("y", resultFriend.getApplierFollowYn());
+	}
+
+	/**
+	 * 친구 관계에 있는 사람 팔로우 맺기 : 조회 이후 상대가 먼저 언팔로우했다면 다시 조회한 버전으로 다시 수정하고 상대의 변경은 유지
+	 */
+	@Test
+	public void testFollow_retried() {
+		FriendRelation relation = relation("doragee", "gosari", "y", "n", "y");
+		Friend unfollowed = friend("doragee", "gosari", "y", "n", "n");
+
+		unfollowed.setVersion(1);
+
+		when(friendRepository.updateStatus(eq("frnd20160806171903001"), eq(0), anyString(), anyString(), anyString(), (Date) anyObject())).thenReturn(0);
+		when(friendRepository.findRelation("doragee:gosari")).thenReturn(unfollowed);
+		when(friendRepository.updateStatus(eq("frnd20160806171903001"), eq(1), eq("y"), eq("y"), eq("n"), (Date) anyObject())).thenReturn(1);
+
+		Friend resultFriend = sut.follow(relation, "applierId");
+
+		verify(friendRepository, times(2)).updateStatus(anyString(), anyInt(), anyString(), anyString(), anyString(), (Date) anyObject());
+		verify(feedService, times(1)).follow("doragee", "gosari");
+
+		assertEquals("y", resultFriend.getApplierFollowYn());
+		assertEquals("n", resultFriend.getAcceptFollowYn());
+		assertEquals(Integer.valueOf(2), resultFriend.getVersion());
+		assertEquals(1, sut.updateStats().getConflicts());
+		assertEquals(1, sut.updateStats().getRetries());
+		assertEquals(1, sut.updateStats().getUpdates());
+	}
+
+	/**
+	 * 친구 관계에 있는 사람 팔로우 끊기
+	 */
+	@Test
+	public void testUnfollow() {
+		FriendRelation relation = relation("doragee", "gosari", "y", "y", "y");
+
+		when(friendRepository.updateStatus(eq("frnd20160806171903001"), eq(0), eq("y"), eq("y"), eq("n"), (Date) anyObject())).thenReturn(1);
+
+		Friend resultFriend = sut.unfollow(relation, "acceptorId");
+
+		// 친구수락자(gosari)의 뉴스피드에서 친구신청자(doragee)의 Post 를 지운다.
+		verify(feedService, times(1)).unfollow("gosari", "doragee");
+
+		assertEquals("n", resultFriend.getAcceptFollowYn());
+		assertEquals("y", resultFriend.getApplierFollowYn());
+	}
+
+	/**
+	 * 친구 일괄 처리 전 유효성 체크 : 요청한 유저 계정이 유효하고 상대가 1 ~ 500 명
+	 * isValidBatch 의 부정 함수인 isInvalidBatch 는 단위 TC 없음
+	 */
+	@Test
+	public void testIsValidBatch() {
+		assertTrue(sut.isValidBatch("doragee", Arrays.asList("gosari")));
+		assertFalse(sut.isValidBatch("doragee", new ArrayList<>()));
+		assertFalse(sut.isValidBatch("doragee", null));
+		assertFalse(sut.isValidBatch("tjc", Arrays.asList("gosari")));
+		assertFalse(sut.isValidBatch("doragee", Collections.nCopies(501, "gosari")));
+	}
+
+	/**
+	 * 친구 일괄 신청 : 가입 여부, 기존 관계를 IN 조회 한 번씩으로 체크하고 가능한 건만 batch 입력, 상대별 결과는 요청 순서대로
+	 * 입력 후 다시 조회했을 때 다른 요청이 먼저 입력한 쌍(congnamul)은 거절
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testApplyAll() {
+		List<Friend> inserted = new ArrayList<>();
+
+		when(userRepository.findUserIds((Collection<String>) anyObject())).thenReturn(Arrays.asList("doragee", "gosari", "pacebook", "congnamul"));
+		doAnswer(invocation -> inserted.addAll((List<Friend>) invocation.getArguments()[0])).when(friendBatchRepository).insertAll((List<Friend>) anyObject());
+		when(friendRepository.findRelations((Collection<String>) anyObject())).thenReturn(Arrays.asList(friend("pacebook", "doragee", "y", "y", "y")));
+		when(friendRepository.lockRelations((Collection<String>) anyObject()))
+			.thenAnswer(invocation -> Arrays.asList(inserted.get(0), friend("congnamul", "doragee", "n", "n", "n")));
+
+		List<FriendBatchResult> results = sut.applyAll("doragee", Arrays.asList("gosari", "gosari", "bad!", "pacebook", "congnamul", "kongnamul"));
+
+		verify(userRepository, times(1)).findUserIds((Collection<String>) anyObject());
+		verify(friendRepository, times(1)).findRelations((Collection<String>) anyObject());
+		verify(friendRepository, times(1)).lockRelations((Collection<String>) anyObject());
+		verify(followGraph, times(1)).put(inserted.get(0));
+		verify(suggestionService, times(1)).applied(anyString(), anyString());
+
+		assertEquals(2, inserted.size());
+		assertEquals(Arrays.asList("gosari", "bad!", "pacebook", "congnamul", "kongnamul"),
+					 results.stream().map(FriendBatchResult::getFriendId).collect(Collectors.toList()));
+		assertEquals(Arrays.asList(true, false, false, false, false),
+					 results.stream().map(FriendBatchResult::isSuccess).collect(Collectors.toList()));
+		assertEquals("doragee:gosari", results.get(0).getFriend().getPairKey());
+		assertEquals("n", results.get(0).getFriend().getAcceptYn());
+	}
+
+	/**
+	 * 친구 일괄 신청 : 쌍이 비어있는데 입력되지 않은 건(다른 서버가 생성한 PK 와 겹침)은 새 PK 로 다시 입력
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testApplyAll_duplicatedPk() {
+		List<List<Friend>> insertedBatches = new ArrayList<>();
+		List<String> friendPks = new ArrayList<>();
+
+		when(userRepository.findUserIds((Collection<String>) anyObject())).thenReturn(Arrays.asList("doragee", "gosari"));
+		doAnswer(invocation -> {
+			List<Friend> batch = (List<Friend>) invocation.getArguments()[0];
+
+			insertedBatches.add(new ArrayList<>(batch));
+			batch.forEach(friend -> friendPks.add(friend.getFriendPk()));
+
+			return null;
+		}).when(friendBatchRepository).insertAll((List<Friend>) anyObject());
+		when(friendRepository.lockRelations((Collection<String>) anyObject()))
+			.thenReturn(new ArrayList<>())
+			.thenAnswer(invocation -> insertedBatches.get(1));
+
+		List<FriendBatchResult> results = sut.applyAll("doragee", Arrays.asList("gosari"));
+
+		verify(friendBatchRepository, times(2)).insertAll((List<Friend>) anyObject());
+		verify(followGraph, times(1)).put(results.get(0).getFriend());
+
+		assertEquals(2, new HashSet<>(friendPks).size());
+		assertTrue(results.get(0).isSuccess());
+		assertEquals(friendPks.get(1), results.get(0).getFriend().getFriendPk());
+	}
+
+	/**
+	 * 친구 일괄 수락 : 수락할 수 없는 관계(pacebook, 이미 수락)는 거절, 조회 이후 다른 요청이 먼저 바꾼 관계(congnamul)도 거절
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testAcceptAll() {
+		when(friendRepository.findRelations((Collection<String>) anyObject())).thenReturn(Arrays.asList(friend("doragee", "gosari", "n", "n", "n"),
+																										friend("pacebook", "gosari", "y", "y", "y"),
+																										friend("congnamul", "gosari", "n", "n", "n")));
+		when(friendBatchRepository.updateStatusAll((List<Friend>) anyObject(), (List<Friend>) anyObject())).thenReturn(new int[] {1, 0});
+
+		List<FriendBatchResult> results = sut.acceptAll("gosari", Arrays.asList("doragee", "pacebook", "congnamul"));
+
+		verify(friendRepository, times(1)).findRelations((Collection<String>) anyObject());
+		verify(feedService, times(1)).follow("doragee", "gosari");
+		verify(feedService, times(1)).follow("gosari", "doragee");
+		verify(followGraph, times(1)).put(results.get(0).getFriend());
+		verify(suggestionService, times(1)).changed(anyString(), anyString());
+
+		assertEquals(Arrays.asList(true, false, false),
+					 results.stream().map(FriendBatchResult::isSuccess).collect(Collectors.toList()));
+		assertEquals("y", results.get(0).getFriend().getAcceptYn());
+	}
+
+	/**
+	 * 친구 일괄 끊기 : 누가 신청했든 수락된 관계만 끊음
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testEndAll() {
+		when(friendRepository.findRelations((Collection<String>) anyObject())).thenReturn(Arrays.asList(friend("gosari", "doragee", "y", "y", "n"),
+																										friend("doragee", "pacebook", "n", "n", "n")));
+		when(friendBatchRepository.updateStatusAll((List<Friend>) anyObject(), (List<Friend>) anyObject())).thenReturn(new int[] {1});
+
+		List<FriendBatchResult> results = sut.endAll("doragee", Arrays.asList("gosari", "pacebook"));
+
+		verify(feedService, times(2)).unfollow(anyString(), anyString());
+
+		assertTrue(results.get(0).isSuccess());
+		assertEquals("n", results.get(0).getFriend().getApplierFollowYn());
+		assertFalse(results.get(1).isSuccess());
+	}
+
+	/**
+	 * 함께 아는 친구 조회 전 유효성 체크 : 두 계정이 유효하고 서로 달라야 하며, 커서는 유저 번호가 붙은 유저
+	 * isValidMutualFriends 의 부정 함수인 isInvalidMutualFriends 는 단위 TC 없음
+	 */
+	@Test
+	public void testIsValidMutualFriends() {
+		when(userDictionary.numberOf("pacebook")).thenReturn(3);
+		when(userDictionary.numberOf("unknown")).thenReturn(-1);
+
+		assertTrue(sut.isValidMutualFriends("doragee", "gosari", null));
+		assertTrue(sut.isValidMutualFriends("doragee", "gosari", "pacebook"));
+		assertFalse(sut.isValidMutualFriends("doragee", "gosari", "unknown"));
+		assertFalse(sut.isValidMutualFriends("doragee", "doragee", null));
+		assertFalse(sut.isValidMutualFriends("doragee", "tj", null));
+	}
+
+	/**
+	 * 함께 아는 친구 조회 : size + 1 명을 담아 다음 페이지가 있는지 판단하고, size 번째 친구를 다음 페이지 커서로 리턴
+	 */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testMutualFriends() {
+		doAnswer(invocation -> {
+			((List<String>) invocation.getArguments()[4]).addAll(Arrays.asList("pacebook", "congnamul", "kongnamul"));
+			return 7;
+		}).when(followGraph).mutualFriends(eq("doragee"), eq("gosari"), eq("sigumchi"), eq(3), (List<String>) anyObject());
+
+		MutualFriendPage resultPage = sut.mutualFriends("doragee", "gosari", "sigumchi", 2);
+
+		assertEquals(7, resultPage.getCount());
+		assertEquals(Arrays.asList("pacebook", "congnamul"), resultPage.getFriendIds());
+		assertEquals("congnamul", resultPage.getNextCursor());
+	}
+
+	private static FriendRelation relation(String applierId, String acceptorId, String acceptYn, String applierFollowYn, String acceptFollowYn) {
+		return FriendRelation.of(friend(applierId, acceptorId, acceptYn, applierFollowYn, acceptFollowYn), applierId, acceptorId);
+	}
+
+	private static Friend friend(String applierId, String acceptorId, String acceptYn, String applierFollowYn, String acceptFollowYn) {
+		return new Friend("frnd20160806171903001", applierId, acceptorId, PaceBookUtils.friendPairKey(applierId, acceptorId), acceptYn, applierFollowYn, acceptFollowYn, null, null, 0);
+	}
 }
\ No newline at end of file
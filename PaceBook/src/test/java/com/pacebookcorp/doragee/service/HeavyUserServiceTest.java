@@ -0,0 +1,134 @@
+package com.pacebookcorp.doragee.service;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.pacebookcorp.doragee.cache.FeedCache;
+import com.pacebookcorp.doragee.dictionary.UserDictionary;
+import com.pacebookcorp.doragee.dto.HybridFeedStats;
+import com.pacebookcorp.doragee.graph.FollowGraph;
+import com.pacebookcorp.doragee.graph.RoaringBitmap;
+import com.pacebookcorp.doragee.repository.FeedRepository;
+import com.pacebookcorp.doragee.repository.FriendRepository;
+
+/**
+ * HeavyUserService 의 단위 테스트
+ *
+ * @author Kwon Young
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class HeavyUserServiceTest {
+	@InjectMocks
+	private HeavyUserService sut;
+
+	@Mock
+	private FriendRepository friendRepository;
+
+	@Mock
+	private FeedRepository feedRepository;
+
+	@Mock
+	private FeedCache feedCache;
+
+	@Mock
+	private FollowGraph followGraph;
+
+	@Mock
+	private UserDictionary userDictionary;
+
+	/**
+	 * heavy 유저 분류 1 : 팔로워 수 기준 이상인 유저만 heavy
+	 */
+	@Test
+	public void testRefresh() {
+		when(friendRepository.findHeavyUserIds(anyInt())).thenReturn(Arrays.asList("celebrity"));
+
+		sut.refresh();
+
+		assertTrue(sut.isHeavy("celebrity"));
+		assertFalse(sut.isHeavy("doragee"));
+	}
+
+	/**
+	 * heavy 유저 분류 2 : heavy 에서 빠진 유저는 그동안 펼치지 않은 Post 를 팔로워들의 뉴스피드에 채우고 캐시를 비운다.
+	 */
+	@Test
+	public void testRefresh_demoted() {
+		when(friendRepository.findHeavyUserIds(anyInt())).thenReturn(Arrays.asList("celebrity"), Collections.<String>emptyList());
+
+		sut.refresh();
+		sut.refresh();
+
+		verify(feedRepository, times(1)).pushAllToFollowers("celebrity");
+		verify(feedCache, times(1)).clear();
+
+		assertFalse(sut.isHeavy("celebrity"));
+	}
+
+	/**
+	 * 팔로우 중인 heavy 유저 목록 1 : heavy 유저가 없다면 팔로우 대상 조회 없음
+	 */
+	@Test
+	public void testHeavyFolloweeIds_noneHeavy() {
+		Set<String> result = sut.heavyFolloweeIds("doragee");
+
+		verify(followGraph, times(0)).followeeIds(anyString(), (RoaringBitmap) anyObject());
+
+		assertTrue(result.isEmpty());
+	}
+
+	/**
+	 * 팔로우 중인 heavy 유저 목록 2 : heavy 유저 번호 집합으로 팔로우 대상과 교집합
+	 */
+	@Test
+	public void testHeavyFolloweeIds() {
+		ArgumentCaptor<RoaringBitmap> heavyUsers = ArgumentCaptor.forClass(RoaringBitmap.class);
+
+		when(friendRepository.findHeavyUserIds(anyInt())).thenReturn(Arrays.asList("celebrity", "superstar"));
+		when(userDictionary.intern("celebrity")).thenReturn(3);
+		when(userDictionary.intern("superstar")).thenReturn(7);
+		when(followGraph.followeeIds(eq("doragee"), heavyUsers.capture())).thenReturn(Arrays.asList("celebrity"));
+
+		sut.refresh();
+
+		Set<String> result = sut.heavyFolloweeIds("doragee");
+
+		assertEquals(Collections.singleton("celebrity"), result);
+		assertArrayEquals(new int[] {3, 7}, heavyUsers.getValue().toArray());
+	}
+
+	/**
+	 * 조회 시점 병합 지표
+	 */
+	@Test
+	public void testStats() {
+		sut.recordMerge(1000000L);
+		sut.recordMerge(3000000L);
+
+		HybridFeedStats result = sut.stats();
+
+		assertEquals(2, result.getMergeCount());
+		assertEquals(2.0, result.getAverageMergeMillis(), 0.001);
+		assertEquals(3.0, result.getMaxMergeMillis(), 0.001);
+	}
+}
\ No newline at end of file
@@ -1,373 +1,613 @@
-package com.pacebookcorp.doragee.service;
-
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertNotNull;
-import static org.junit.Assert.assertTrue;
-import static org.mockito.Matchers.anyObject;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.times;
-import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
-
-import java.util.ArrayList;
-import java.util.List;
-
-import org.junit.Test;
-import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.runners.MockitoJUnitRunner;
-
-import com.pacebookcorp.doragee.entity.Friend;
-import com.pacebookcorp.doragee.entity.Post;
-import com.pacebookcorp.doragee.repository.FriendRepository;
-import com.pacebookcorp.doragee.repository.PostRepository;
-
-/**
- * PostService 의 단위 테스트
- * 
- * @author Kwon Young
- */
-@RunWith(MockitoJUnitRunner.class)
-public class PostServiceTest {
-	@InjectMocks
-	private PostService sut;
-
-	@Mock
-	private PostRepository postRepository;
-
-	@Mock
-	private FriendRepository friendRepository;
-
-	/**
-	 * 특정 유저의 뉴스피드 조회
-	 */
-	@Test
-	public void testGetTotalNewsfeedBy() {
-		List<Post> post = new ArrayList<>();
-
-		when(postRepository.newsfeed("doragee")).thenReturn(post);
-
-		List<Post> resultPost = sut.newsfeed("doragee");
-
-		verify(postRepository, times(1)).newsfeed("doragee");
-
-		assertNotNull(resultPost);
-	}
-
-	/**
-	 * 특정 유저만의 타임라인(뉴스피드) 조회
-	 */
-	@Test
-	public void testGetMyNewsFeedBy() {
-		List<Post> post = new ArrayList<>();
-
-		when(postRepository.timeline("doragee")).thenReturn(post);
-
-		List<Post> resultPost = sut.timeline("doragee");
-
-		verify(postRepository, times(1)).timeline("doragee");
-
-		assertNotNull(resultPost);
-	}
-
-	/**
-	 * Post 작성의 유효성 체크 1: 정상 case / 자신에게 쓴글
-	 * isValidWritePost() 의 부정 함수인 isInvalidWrite() 는 단위 TC 없음
-	 */
-	@Test
-	public void testIsValidWritePost_writeMe() {
-		Post post = new Post();
-
-		post.setOwnerId("doragee");
-		post.setCreatorId("doragee");
-		post.setContent("내가 내 Post에 글을 쓴다");
-
-		boolean result = sut.isValidWrite(post);
-
-		verify(friendRepository, times(0)).findAcceptedFriendRelation(post.getOwnerId(), post.getCreatorId());
-
-		assertTrue(result);
-	}
-
-	/**
-	 * Post 작성의 유효성 체크 2: 정상 case / 친구에게 쓴글
-	 */
-	@Test
-	public void testIsValidWritePost_writeFriend() {
-		Post post = new Post();
-
-		post.setOwnerId("doragee");
-		post.setCreatorId("gosari");
-		post.setContent("gosari 가 doragee 에게 글을 쓴다");
-
-		// 친구관계라면 Frined 객체 리턴
-		when(friendRepository.findAcceptedFriendRelation(post.getOwnerId(), post.getCreatorId())).thenReturn(new Friend());
-
-		boolean result = sut.isValidWrite(post);
-
-		verify(friendRepository, times(1)).findAcceptedFriendRelation(post.getOwnerId(), post.getCreatorId());
-
-		assertTrue(result);
-	}
-
-	/**
-	 * Post 작성의 유효성 체크 3: 비정상 case / 친구 아닌 사람에게 글 작성 시도
-	 */
-	@Test
-	public void testIsValidWritePost_write_butNotFriend() {
-		Post post = new Post();
-
-		post.setOwnerId("doragee");
-		post.setCreatorId("gosari");
-		post.setContent("gosari 가 친구가 아닌 doragee 에게 글을 쓴다");
-
-		// 친구가 아니라면 null 을 리턴
-		when(friendRepository.findAcceptedFriendRelation(post.getOwnerId(), post.getCreatorId())).thenReturn(null);
-
-		boolean result = sut.isValidWrite(post);
-
-		verify(friendRepository, times(1)).findAcceptedFriendRelation(post.getOwnerId(), post.getCreatorId());
-
-		assertFalse(result);
-	}
-
-	/**
-	 * Post 작성의 유효성 체크 4: 비정상 case / 유효하지 않은 계정(특수문자 포함 or 5자 이하)
-	 */
-	@Test
-	public void testIsValidWritePost_invalidUserId() {
-		Post post = new Post();
-
-		post.setOwnerId("#doragee");
-		post.setCreatorId("dd");
-		post.setContent("유효하지 않은 계정끼리 글을 쓴다.");
-
-		boolean result = sut.isValidWrite(post);
-
-		verify(friendRepository, times(0)).findAcceptedFriendRelation(post.getOwnerId(), post.getCreatorId());
-
-		assertFalse(result);
-	}
-
-	/**
-	 * Post 작성
-	 */
-	@Test
-	public void testWrite() {
-		Post post = new Post();
-
-		when(postRepository.save((Post) anyObject())).thenReturn(post);
-
-		Post resultPost = sut.write(post);
-
-		verify(postRepository, times(1)).save((Post) anyObject());
-
-		assertNotNull(resultPost);
-	}
-
-	/**
-	 * isValidModify 의 부정 함수인 isInvalidModify 는 단위 TC 없음 
-	 * Post 수정의 유효성 체크 1 : 정상 case / 자신이 자신에게 쓴 글을 수정
-	 */
-	@Test
-	public void testIsValidModify_modify_myPost() {
-		Post post = new Post();
-
-		post.setPostPk("post20160804171109732");
-		post.setOwnerId("doragee");
-		post.setCreatorId("doragee");
-		post.setModifierId("doragee");
-		post.setContent("내가 내게 쓴 글을 수정한다.");
-
-		boolean result = sut.isValidModify(post);
-
-		verify(friendRepository, times(0)).findAcceptedFriendRelation(post.getOwnerId(), post.getCreatorId());
-
-		assertTrue(result);
-	}
-
-	/**
-	 * Post 수정의 유효성 체크 2 : 정상 case / 자신이 자신에게 쓴 글을 수정
-	 */
-	@Test
-	public void testIsValidModifyPost_modify_myFriend() {
-		Post post = new Post();
-
-		post.setPostPk("post20160804171109732");
-		post.setOwnerId("doragee");
-		post.setCreatorId("gosari");
-		post.setModifierId("gosari");
-		post.setContent("gosari 가 doragee 에게 남겼었던 글을 수정한다.");
-
-		// 친구 관계라면 Friend 객체가 리턴
-		when(friendRepository.findAcceptedFriendRelation(post.getOwnerId(), post.getModifierId())).thenReturn(new Friend()); 
-
-		boolean result = sut.isValidModify(post);
-
-		verify(friendRepository, times(1)).findAcceptedFriendRelation(post.getOwnerId(), post.getModifierId());
-
-		assertTrue(result);
-	}
-
-	/**
-	 * Post 수정의 유효성 체크 3 : 비정상 case / 다른 사람의 글을 수정시도 하나 친구가 아님
-	 */
-	@Test
-	public void testIsValidModifyPost_tryModify_other() {
-		Post post = new Post();
-
-		post.setPostPk("post20160804171109732");
-		post.setOwnerId("doragee");
-		post.setCreatorId("doragee");
-		post.setModifierId("gosari");
-		post.setContent("gosari 가 친구가 아닌 doragee 글을 수정 시도한다.");
-
-		// 친구 관계가 아니라면 null 리턴
-		when(friendRepository.findAcceptedFriendRelation(post.getOwnerId(), post.getModifierId())).thenReturn(null);
-
-		boolean result = sut.isValidModify(post);
-
-		verify(friendRepository, times(0)).findAcceptedFriendRelation(post.getOwnerId(), post.getModifierId());
-
-		assertFalse(result);
-	}
-
-	/**
-	 * Post 수정의 유효성 체크 4 : 비정상 case / PK 어뷰징
-	 */
-	@Test
-	public void testIsValidModifyPost_tryAbuse_illegalPkValue() {
-		Post post = new Post();
-
-		post.setPostPk("post20160englist09732");
-		post.setOwnerId("doragee");
-		post.setModifierId("gosari");
-		post.setContent("PK 의 Prefix 뒤에 숫자가 아닌 영문자가 있음.");
-
-		boolean result = sut.isValidModify(post);
-
-		verify(friendRepository, times(0)).findAcceptedFriendRelation(post.getOwnerId(), post.getCreatorId());
-
-		assertFalse(result);
-	}
-
-	/**
-	 * Post 수정
-	 */
-	@Test
-	public void testModify() {
-		Post post = new Post();
-		Post modifiedPost = new Post();
-
-		post.setPostPk("testPk");
-		modifiedPost.setContent("글을 수정합니다");
-		modifiedPost.setModifierId("doragee");
-
-		when(postRepository.findOne(post.getPostPk())).thenReturn(modifiedPost);
-		when(postRepository.save(modifiedPost)).thenReturn(new Post());
-
-		Post resultPost = sut.modify(post);
-
-		verify(postRepository, times(1)).findOne(post.getPostPk());
-		verify(postRepository, times(1)).save(modifiedPost);
-
-		assertNotNull(resultPost);
-	}
-
-	/**
-	 * Post 를 삭제하기 전의 유효성 체크 1 : 정상 case / 내가 내 Post 에 작성한 글을 삭제
-	 * isValidDelete 의 부정 함수인 isInvalidDelete 는 단위 TC 없음 
-	 */
-	@Test
-	public void testIsValidDelete() {
-		Post post = new Post();
-
-		post.setPostPk("post20160804171109732");
-		post.setOwnerId("doragee");
-		post.setModifierId("doragee");
-
-		boolean result = sut.isValidDelete(post);
-
-		verify(friendRepository, times(0)).findAcceptedFriendRelation(post.getOwnerId(), post.getCreatorId());
-
-		assertTrue(result);
-	}
-
-	/**
-	 * Post 를 삭제하기 전의 유효성 체크 2 : 정상 case / 내가 내 친구에게 작성한 Post 를 삭제
-	 */
-	@Test
-	public void testIsValidDelete_myFriend() {
-		Post post = new Post();
-
-		post.setPostPk("post20160804171109732");
-		post.setOwnerId("doragee");
-		post.setModifierId("gosari");
-
-		// 친구 관계라면 Friend 객체를 리턴
-		when(friendRepository.findAcceptedFriendRelation(post.getOwnerId(), post.getModifierId())).thenReturn(new Friend()); 
-
-		boolean result = sut.isValidDelete(post);
-
-		verify(friendRepository, times(1)).findAcceptedFriendRelation(post.getOwnerId(), post.getModifierId());
-
-		assertTrue(result);
-	}
-
-	/**
-	 * Post 를 삭제하기 전의 유효성 체크 3 : 비정상 case / 친구가 아닌 사람의 글을 삭제시도
-	 */
-	@Test
-	public void testIsValidDelete_tryDelete_other() {
-		Post post = new Post();
-
-		post.setPostPk("post20160804171109732");
-		post.setOwnerId("doragee");
-		post.setModifierId("gosari");
-
-		// 친구 관계가 아니라면 null 리턴
-		when(friendRepository.findAcceptedFriendRelation(post.getOwnerId(), post.getModifierId())).thenReturn(null);
-
-		boolean result = sut.isValidDelete(post);
-
-		verify(friendRepository, times(1)).findAcceptedFriendRelation(post.getOwnerId(), post.getModifierId());
-
-		assertFalse(result);
-	}
-
-	/**
-	 * Post 를 삭제하기 전의 유효성 체크 4 : 비정상 case / PK 값 어뷰징
-	 */
-	@Test
-	public void testIsValidDelete_tryAbuse_illegalPkValue() {
-		Post post = new Post();
-
-		post.setPostPk("20160post804171109732");
-		post.setOwnerId("doragee");
-		post.setModifierId("gosari");
-		post.setContent("PK가 prefix('post')가 상이한 곳에 있음");
-
-		boolean result = sut.isValidDelete(post);
-
-		verify(friendRepository, times(0)).findAcceptedFriendRelation(post.getOwnerId(), post.getModifierId());
-
-		assertFalse(result);
-	}
-
-	/**
-	 * Post 삭제
-	 */
-	@Test
-	public void testDelete() {
-		Post post = new Post();
-		post.setPostPk("testPk");
-
-		when(postRepository.findOne(post.getPostPk())).thenReturn(new Post());
-		doNothing().when(postRepository).delete(post);
-
-		sut.delete(post);
-
-		verify(postRepository, times(1)).findOne(post.getPostPk());
-	}
+package com.pacebookcorp.doragee.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.pacebookcorp.doragee.cache.TimelineCache;
+import com.pacebookcorp.doragee.dto.NewsfeedDelta;
+import com.pacebookcorp.doragee.dto.PostPage;
+import com.pacebookcorp.doragee.dto.PostSummary;
+import com.pacebookcorp.doragee.dto.PostSummaryPage;
+import com.pacebookcorp.doragee.entity.Post;
+import com.pacebookcorp.doragee.graph.FollowGraph;
+import com.pacebookcorp.doragee.repository.PostRepository;
+import com.pacebookcorp.doragee.util.FeedCursor;
+
+/**
+ * PostService 의 단위 테스트
+ *
+ * @author Kwon Young
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class PostServiceTest {
+	@InjectMocks
+	private PostService sut;
+
+	@Mock
+	private PostRepository postRepository;
+
+	@Mock
+	private FollowGraph followGraph;
+
+	@Mock
+	private FeedService feedService;
+
+	@Mock
+	private FeedMergeService feedMergeService;
+
+	@Mock
+	private FeedDeltaService feedDeltaService;
+
+	@Mock
+	private TimelineCache timelineCache;
+
+	@Mock
+	private UserCountService userCountService;
+
+	@Mock
+	private EntityManager entityManager;
+
+	/**
+	 * 특정 유저의 뉴스피드 조회
+	 */
+	@Test
+	public void testGetTotalNewsfeedBy() {
+		List<Post> post = new ArrayList<>();
+
+		when(feedMergeService.newsfeed("doragee")).thenReturn(post);
+
+		List<Post> resultPost = sut.newsfeed("doragee");
+
+		verify(feedMergeService, times(1)).newsfeed("doragee");
+
+		assertNotNull(resultPost);
+	}
+
+	/**
+	 * 특정 유저의 뉴스피드 페이지 조회 : 뉴스피드 테이블(t_feed)에서 조회
+	 */
+	@Test
+	public void testNewsfeedPage() {
+		when(feedService.newsfeed("doragee", null, 20)).thenReturn(new PostPage());
+
+		PostPage resultPage = sut.newsfeed("doragee", null, 20);
+
+		verify(feedService, times(1)).newsfeed("doragee", null, 20);
+
+		assertNotNull(resultPage);
+	}
+
+	/**
+	 * 특정 유저의 뉴스피드 요약 페이지 조회 : 엔티티 대신 요약으로 조회하는 FeedService 에 위임
+	 */
+	@Test
+	public void testNewsfeedSummary() {
+		PostSummary summary = new PostSummary("post20160806171903001", "doragee", "doragee", "content", new Date(1000L));
+
+		when(feedService.newsfeedSummary("doragee", null, 20)).thenReturn(new PostSummaryPage(Arrays.asList(summary), "cursor"));
+
+		PostSummaryPage resultPage = sut.newsfeedSummary("doragee", null, 20);
+
+		verify(feedService, times(1)).newsfeedSummary("doragee", null, 20);
+		verify(feedService, never()).newsfeed(anyString(), anyString(), (Integer) anyObject());
+
+		assertEquals(Arrays.asList(summary), resultPage.getPosts());
+		assertEquals("cursor", resultPage.getNextCursor());
+	}
+
+	/**
+	 * 특정 유저의 타임라인 요약 조회 : 엔티티 대신 projection 으로 조회
+	 */
+	@Test
+	public void testTimelineSummary() {
+		List<PostSummary> summaries = new ArrayList<>();
+
+		when(postRepository.timelineSummary("doragee")).thenReturn(summaries);
+
+		List<PostSummary> resultSummaries = sut.timelineSummary("doragee");
+
+		verify(postRepository, times(1)).timelineSummary("doragee");
+		verify(postRepository, times(0)).timeline("doragee");
+
+		assertNotNull(resultSummaries);
+	}
+
+	/**
+	 * 특정 유저의 뉴스피드 변경분 조회
+	 */
+	@Test
+	public void testNewsfeedDelta() {
+		when(feedDeltaService.delta("doragee", 1470471543000L)).thenReturn(new NewsfeedDelta());
+
+		NewsfeedDelta resultDelta = sut.newsfeedDelta("doragee", 1470471543000L);
+
+		verify(feedDeltaService, times(1)).delta("doragee", 1470471543000L);
+
+		assertNotNull(resultDelta);
+	}
+
+	/**
+	 * 특정 유저의 타임라인 스트리밍 조회 : 읽은 Post 를 consumer 에 넘기고 영속성 컨텍스트에서 떼어낸다.
+	 */
+	@Test
+	public void testStreamTimeline() {
+		Post post = new Post();
+		List<Post> consumedPosts = new ArrayList<>();
+		Consumer<Post> consumer = consumedPosts::add;
+
+		when(postRepository.streamTimeline("doragee")).thenReturn(Stream.of(post));
+
+		sut.streamTimeline("doragee", consumer);
+
+		verify(entityManager, times(1)).detach(post);
+
+		assertTrue(consumedPosts.contains(post));
+	}
+
+	/**
+	 * 특정 유저의 타임라인 페이지 조회 1 : 첫 페이지는 최신 size + 1 건을 읽고, size 건을 넘으면 마지막 Post 를 다음 페이지 커서로
+	 */
+	@Test
+	public void testTimelinePage() {
+		Post newerPost = new Post("post20160806171903002", "doragee", "두번째 글", "doragee", new Date(2000L), "doragee", new Date(2000L));
+		Post olderPost = new Post("post20160806171903001", "doragee", "첫번째 글", "doragee", new Date(1000L), "doragee", new Date(1000L));
+
+		when(postRepository.findLatestByOwner("doragee", new PageRequest(0, 2))).thenReturn(Arrays.asList(newerPost, olderPost));
+
+		PostPage resultPage = sut.timeline("doragee", null, 1);
+
+		assertEquals(Arrays.asList(newerPost), resultPage.getPosts());
+		assertEquals(FeedCursor.encode(newerPost), resultPage.getNextCursor());
+	}
+
+	/**
+	 * 특정 유저의 타임라인 페이지 조회 2 : 커서 다음부터 읽고, size 건 이하라면 마지막 페이지
+	 */
+	@Test
+	public void testTimelinePage_nextPage() {
+		Post newerPost = new Post("post20160806171903002", "doragee", "두번째 글", "doragee", new Date(2000L), "doragee", new Date(2000L));
+		Post olderPost = new Post("post20160806171903001", "doragee", "첫번째 글", "doragee", new Date(1000L), "doragee", new Date(1000L));
+
+		when(postRepository.findOlderByOwner("doragee", newerPost.getModifiedDate(), newerPost.getPostPk(), new PageRequest(0, 21))).thenReturn(Arrays.asList(olderPost));
+
+		PostPage resultPage = sut.timeline("doragee", FeedCursor.encode(newerPost), null);
+
+		assertEquals(Arrays.asList(olderPost), resultPage.getPosts());
+		assertNull(resultPage.getNextCursor());
+	}
+
+	/**
+	 * 특정 유저의 타임라인 페이지 조회 3 : 캐시된 주인의 첫 페이지는 t_post 를 읽지 않는다.
+	 */
+	@Test
+	public void testTimelinePage_cached() {
+		Post post = new Post("post20160806171903001", "doragee", "첫번째 글", "doragee", new Date(1000L), "doragee", new Date(1000L));
+
+		when(timelineCache.getPageSize()).thenReturn(20);
+		when(timelineCache.firstPage("doragee", 21)).thenReturn(Arrays.asList(post));
+
+		PostPage resultPage = sut.timeline("doragee", null, null);
+
+		verify(postRepository, never()).findLatestByOwner(anyString(), (Pageable) anyObject());
+
+		assertEquals(Arrays.asList(post), resultPage.getPosts());
+	}
+
+	/**
+	 * 특정 유저의 타임라인 페이지 조회 4 : 캐시되지 않은 주인이라면 캐시가 담는 건수만큼 읽어 캐시에 담고 페이지로 자른다.
+	 */
+	@Test
+	public void testTimelinePage_cacheMiss() {
+		Post newerPost = new Post("post20160806171903002", "doragee", "두번째 글", "doragee", new Date(2000L), "doragee", new Date(2000L));
+		Post olderPost = new Post("post20160806171903001", "doragee", "첫번째 글", "doragee", new Date(1000L), "doragee", new Date(1000L));
+		List<Post> posts = Arrays.asList(newerPost, olderPost);
+
+		when(timelineCache.getPageSize()).thenReturn(20);
+		when(timelineCache.stamp("doragee")).thenReturn(7L);
+		when(postRepository.findLatestByOwner("doragee", new PageRequest(0, 21))).thenReturn(posts);
+
+		PostPage resultPage = sut.timeline("doragee", null, 1);
+
+		verify(timelineCache, times(1)).load("doragee", posts, false, 7L);
+
+		assertEquals(Arrays.asList(newerPost), resultPage.getPosts());
+		assertEquals(FeedCursor.encode(newerPost), resultPage.getNextCursor());
+	}
+
+	/**
+	 * 특정 유저의 타임라인 요약 페이지 조회 : 타임라인 페이지를 요약으로
+	 */
+	@Test
+	public void testTimelineSummaryPage() {
+		Post post = new Post("post20160806171903001", "doragee", "첫번째 글", "doragee", new Date(1000L), "doragee", new Date(1000L));
+
+		when(postRepository.findLatestByOwner("doragee", new PageRequest(0, 21))).thenReturn(Arrays.asList(post));
+
+		PostSummaryPage resultPage = sut.timelineSummary("doragee", null, null);
+
+		assertEquals(PostSummary.of(post), resultPage.getPosts().get(0));
+		assertNull(resultPage.getNextCursor());
+	}
+
+	/**
+	 * 특정 유저만의 타임라인(뉴스피드) 조회
+	 */
+	@Test
+	public void testGetMyNewsFeedBy() {
+		List<Post> post = new ArrayList<>();
+
+		when(postRepository.timeline("doragee")).thenReturn(post);
+
+		List<Post> resultPost = sut.timeline("doragee");
+
+		verify(postRepository, times(1)).timeline("doragee");
+
+		assertNotNull(resultPost);
+	}
+
+	/**
+	 * Post 작성의 유효성 체크 1: 정상 case / 자신에게 쓴글
+	 * isValidWritePost() 의 부정 함수인 isInvalidWrite() 는 단위 TC 없음
+	 */
+	@Test
+	public void testIsValidWritePost_writeMe() {
+		Post post = new Post();
+
+		post.setOwnerId("doragee");
+		post.setCreatorId("doragee");
+		post.setContent("내가 내 Post에 글을 쓴다");
+
+		boolean result = sut.isValidWrite(post);
+
+		verify(followGraph, times(0)).isFriend(post.getOwnerId(), post.getCreatorId());
+
+		assertTrue(result);
+	}
+
+	/**
+	 * Post 작성의 유효성 체크 2: 정상 case / 친구에게 쓴글
+	 */
+	@Test
+	public void testIsValidWritePost_writeFriend() {
+		Post post = new Post();
+
+		post.setOwnerId("doragee");
+		post.setCreatorId("gosari");
+		post.setContent("gosari 가 doragee 에게 글을 쓴다");
+
+		// 친구관계라면 true 리턴
+		when(followGraph.isFriend(post.getOwnerId(), post.getCreatorId())).thenReturn(true);
+
+		boolean result = sut.isValidWrite(post);
+
+		verify(followGraph, times(1)).isFriend(post.getOwnerId(), post.getCreatorId());
+
+		assertTrue(result);
+	}
+
+	/**
+	 * Post 작성의 유효성 체크 3: 비정상 case / 친구 아닌 사람에게 글 작성 시도
+	 */
+	@Test
+	public void testIsValidWritePost_write_butNotFriend() {
+		Post post = new Post();
+
+		post.setOwnerId("doragee");
+		post.setCreatorId("gosari");
+		post.setContent("gosari 가 친구가 아닌 doragee 에게 글을 쓴다");
+
+		// 친구가 아니라면 false 리턴
+		when(followGraph.isFriend(post.getOwnerId(), post.getCreatorId())).thenReturn(false);
+
+		boolean result = sut.isValidWrite(post);
+
+		verify(followGraph, times(1)).isFriend(post.getOwnerId(), post.getCreatorId());
+
+		assertFalse(result);
+	}
+
+	/**
+	 * Post 작성의 유효성 체크 4: 비정상 case / 유효하지 않은 계정(특수문자 포함 or 5자 이하)
+	 */
+	@Test
+	public void testIsValidWritePost_invalidUserId() {
+		Post post = new Post();
+
+		post.setOwnerId("#doragee");
+		post.setCreatorId("dd");
+		post.setContent("유효하지 않은 계정끼리 글을 쓴다.");
+
+		boolean result = sut.isValidWrite(post);
+
+		verify(followGraph, times(0)).isFriend(post.getOwnerId(), post.getCreatorId());
+
+		assertFalse(result);
+	}
+
+	/**
+	 * Post 작성
+	 */
+	@Test
+	public void testWrite() {
+		Post post = new Post();
+
+		when(postRepository.save((Post) anyObject())).thenReturn(post);
+
+		Post resultPost = sut.write(post);
+
+		verify(postRepository, times(1)).save((Post) anyObject());
+		verify(feedService, times(1)).push(post);
+		verify(timelineCache, times(1)).put(post);
+		verify(userCountService, times(1)).written(post);
+
+		assertNotNull(resultPost);
+	}
+
+	/**
+	 * Post 작성시 트랜잭션 안이라면 커밋된 뒤에 타임라인 캐시에 넣기
+	 */
+	@Test
+	public void testWrite_afterCommit() {
+		Post post = new Post();
+
+		when(postRepository.save((Post) anyObject())).thenReturn(post);
+
+		TransactionSynchronizationManager.initSynchronization();
+
+		try {
+			sut.write(post);
+
+			verify(timelineCache, times(0)).put((Post) anyObject());
+
+			TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+			verify(timelineCache, times(1)).put(post);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	/**
+	 * isValidModify 의 부정 함수인 isInvalidModify 는 단위 TC 없음 
+	 * Post 수정의 유효성 체크 1 : 정상 case / 자신이 자신에게 쓴 글을 수정
+	 */
+	@Test
+	public void testIsValidModify_modify_myPost() {
+		Post post = new Post();
+
+		post.setPostPk("post20160804171109732");
+		post.setOwnerId("doragee");
+		post.setCreatorId("doragee");
+		post.setModifierId("doragee");
+		post.setContent("내가 내게 쓴 글을 수정한다.");
+
+		boolean result = sut.isValidModify(post);
+
+		verify(followGraph, times(0)).isFriend(post.getOwnerId(), post.getCreatorId());
+
+		assertTrue(result);
+	}
+
+	/**
+	 * Post 수정의 유효성 체크 2 : 정상 case / 자신이 자신에게 쓴 글을 수정
+	 */
+	@Test
+	public void testIsValidModifyPost_modify_myFriend() {
+		Post post = new Post();
+
+		post.setPostPk("post20160804171109732");
+		post.setOwnerId("doragee");
+		post.setCreatorId("gosari");
+		post.setModifierId("gosari");
+		post.setContent("gosari 가 doragee 에게 남겼었던 글을 수정한다.");
+
+		// 친구 관계라면 true 리턴
+		when(followGraph.isFriend(post.getOwnerId(), post.getModifierId())).thenReturn(true); 
+
+		boolean result = sut.isValidModify(post);
+
+		verify(followGraph, times(1)).isFriend(post.getOwnerId(), post.getModifierId());
+
+		assertTrue(result);
+	}
+
+	/**
+	 * Post 수정의 유효성 체크 3 : 비정상 case / 다른 사람의 글을 수정시도 하나 친구가 아님
+	 */
+	@Test
+	public void testIsValidModifyPost_tryModify_other() {
+		Post post = new Post();
+
+		post.setPostPk("post20160804171109732");
+		post.setOwnerId("doragee");
+		post.setCreatorId("doragee");
+		post.setModifierId("gosari");
+		post.setContent("gosari 가 친구가 아닌 doragee 글을 수정 시도한다.");
+
+		// 친구 관계가 아니라면 false 리턴
+		when(followGraph.isFriend(post.getOwnerId(), post.getModifierId())).thenReturn(false);
+
+		boolean result = sut.isValidModify(post);
+
+		verify(followGraph, times(0)).isFriend(post.getOwnerId(), post.getModifierId());
+
+		assertFalse(result);
+	}
+
+	/**
+	 * Post 수정의 유효성 체크 4 : 비정상 case / PK 어뷰징
+	 */
+	@Test
+	public void testIsValidModifyPost_tryAbuse_illegalPkValue() {
+		Post post = new Post();
+
+		post.setPostPk("post20160englist09732");
+		post.setOwnerId("doragee");
+		post.setModifierId("gosari");
+		post.setContent("PK 의 Prefix 뒤에 숫자가 아닌 영문자가 있음.");
+
+		boolean result = sut.isValidModify(post);
+
+		verify(followGraph, times(0)).isFriend(post.getOwnerId(), post.getCreatorId());
+
+		assertFalse(result);
+	}
+
+	/**
+	 * Post 수정
+	 */
+	@Test
+	public void testModify() {
+		Post post = new Post();
+		Post modifiedPost = new Post();
+
+		post.setPostPk("testPk");
+		modifiedPost.setContent("글을 수정합니다");
+		modifiedPost.setModifierId("doragee");
+
+		when(postRepository.findOne(post.getPostPk())).thenReturn(modifiedPost);
+		when(postRepository.save(modifiedPost)).thenReturn(new Post());
+
+		Post resultPost = sut.modify(post);
+
+		verify(postRepository, times(1)).findOne(post.getPostPk());
+		verify(postRepository, times(1)).save(modifiedPost);
+		verify(feedService, times(1)).refresh((Post) anyObject());
+		verify(timelineCache, times(1)).put((Post) anyObject());
+
+		assertNotNull(resultPost);
+	}
+
+	/**
+	 * Post 를 삭제하기 전의 유효성 체크 1 : 정상 case / 내가 내 Post 에 작성한 글을 삭제
+	 * isValidDelete 의 부정 함수인 isInvalidDelete 는 단위 TC 없음 
+	 */
+	@Test
+	public void testIsValidDelete() {
+		Post post = new Post();
+
+		post.setPostPk("post20160804171109732");
+		post.setOwnerId("doragee");
+		post.setModifierId("doragee");
+
+		boolean result = sut.isValidDelete(post);
+
+		verify(followGraph, times(0)).isFriend(post.getOwnerId(), post.getCreatorId());
+
+		assertTrue(result);
+	}
+
+	/**
+	 * Post 를 삭제하기 전의 유효성 체크 2 : 정상 case / 내가 내 친구에게 작성한 Post 를 삭제
+	 */
+	@Test
+	public void testIsValidDelete_myFriend() {
+		Post post = new Post();
+
+		post.setPostPk("post20160804171109732");
+		post.setOwnerId("doragee");
+		post.setModifierId("gosari");
+
+		// 친구 관계라면 true 리턴
+		when(followGraph.isFriend(post.getOwnerId(), post.getModifierId())).thenReturn(true); 
+
+		boolean result = sut.isValidDelete(post);
+
+		verify(followGraph, times(1)).isFriend(post.getOwnerId(), post.getModifierId());
+
+		assertTrue(result);
+	}
+
+	/**
+	 * Post 를 삭제하기 전의 유효성 체크 3 : 비정상 case / 친구가 아닌 사람의 글을 삭제시도
+	 */
+	@Test
+	public void testIsValidDelete_tryDelete_other() {
+		Post post = new Post();
+
+		post.setPostPk("post20160804171109732");
+		post.setOwnerId("doragee");
+		post.setModifierId("gosari");
+
+		// 친구 관계가 아니라면 false 리턴
+		when(followGraph.isFriend(post.getOwnerId(), post.getModifierId())).thenReturn(false);
+
+		boolean result = sut.isValidDelete(post);
+
+		verify(followGraph, times(1)).isFriend(post.getOwnerId(), post.getModifierId());
+
+		assertFalse(result);
+	}
+
+	/**
+	 * Post 를 삭제하기 전의 유효성 체크 4 : 비정상 case / PK 값 어뷰징
+	 */
+	@Test
+	public void testIsValidDelete_tryAbuse_illegalPkValue() {
+		Post post = new Post();
+
+		post.setPostPk("20160post804171109732");
+		post.setOwnerId("doragee");
+		post.setModifierId("gosari");
+		post.setContent("PK가 prefix('post')가 상이한 곳에 있음");
+
+		boolean result = sut.isValidDelete(post);
+
+		verify(followGraph, times(0)).isFriend(post.getOwnerId(), post.getModifierId());
+
+		assertFalse(result);
+	}
+
+	/**
+	 * Post 삭제 : 뉴스피드에서 지우고 삭제 이력을 남긴다.
+	 */
+	@Test
+	public void testDelete() {
+		Post post = new Post();
+		post.setPostPk("testPk");
+		Post deletePost = new Post();
+		deletePost.setPostPk("testPk");
+		deletePost.setOwnerId("doragee");
+
+		when(postRepository.findOne(post.getPostPk())).thenReturn(deletePost);
+		doNothing().when(postRepository).delete(post);
+
+		sut.delete(post);
+
+		verify(postRepository, times(1)).findOne(post.getPostPk());
+		verify(feedService, times(1)).remove(post);
+		verify(feedDeltaService, times(1)).tombstone(deletePost);
+		verify(timelineCache, times(1)).remove("doragee", "testPk");
+		verify(userCountService, times(1)).deleted(deletePost);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+package com.pacebookcorp.doragee.service;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.pacebookcorp.doragee.dictionary.UserDictionary;
+import com.pacebookcorp.doragee.dto.Suggestion;
+import com.pacebookcorp.doragee.dto.SuggestionStats;
+import com.pacebookcorp.doragee.entity.Friend;
+import com.pacebookcorp.doragee.graph.FollowGraph;
+
+/**
+ * SuggestionService 단위 테스트
+ * 메모리 그래프(FollowGraph)를 직접 채워 2 단계 탐색 결과를 확인한다.
+ *
+ * @author Kwon Young
+ */
+public class SuggestionServiceTest {
+	private FollowGraph followGraph;
+
+	private SuggestionService sut;
+
+	@Before
+	public void setUp() {
+		UserDictionary userDictionary = new UserDictionary();
+
+		followGraph = new FollowGraph(userDictionary);
+		sut = new SuggestionService(followGraph, userDictionary, 2, 10, 2);
+
+		// doragee 의 친구 : gosari, pacebook
+		accept("doragee", "gosari");
+		accept("doragee", "pacebook");
+		// 친구의 친구 : congnamul(2 명), kongnamul(1 명), sigumchi(1 명, doragee 가 이미 신청)
+		accept("gosari", "congnamul");
+		accept("pacebook", "congnamul");
+		accept("pacebook", "kongnamul");
+		accept("gosari", "sigumchi");
+		followGraph.put(friend("doragee", "sigumchi", "n"));
+	}
+
+	@After
+	public void tearDown() {
+		sut.shutdown();
+	}
+
+	/**
+	 * 친구 추천 조회 : 함께 아는 친구 수가 많은 순, 본인과 이미 관계가 있는 유저는 빠짐
+	 */
+	@Test
+	public void testSuggestions() {
+		List<Suggestion> resultSuggestions = sut.suggestions("doragee");
+
+		assertEquals(Arrays.asList(new Suggestion("congnamul", 2), new Suggestion("kongnamul", 1)), resultSuggestions);
+		assertEquals(0, sut.suggestions("unknown").size());
+	}
+
+	/**
+	 * 친구 추천 조회 : 두 번째 조회는 다시 계산하지 않음
+	 */
+	@Test
+	public void testSuggestions_cached() {
+		sut.suggestions("doragee");
+		sut.suggestions("doragee");
+
+		SuggestionStats stats = sut.stats();
+
+		assertEquals(1L, stats.getHits());
+		assertEquals(1L, stats.getComputations());
+		assertEquals(1, stats.getCachedUsers());
+	}
+
+	/**
+	 * 친구 추천 조회 : 친구가 많으면 친구 목록을 나누어 병렬로 세고, 결과는 순차로 센 것과 같음
+	 */
+	@Test
+	public void testSuggestions_parallel() {
+		for (int i = 0; i < 200; i++) {
+			String friendId = String.format("friend%03d", i);
+
+			accept("haesalgi", friendId);
+			accept(friendId, "candidate" + (i % 3));
+
+			if (i % 2 == 0) {
+				accept(friendId, "candidate3");
+			}
+		}
+
+		List<String> resultUserIds = sut.suggestions("haesalgi").stream().map(Suggestion::getUserId).collect(Collectors.toList());
+
+		// candidate0 = 67, candidate1 = 67, candidate2 = 66, candidate3 = 100
+		assertEquals(Arrays.asList("candidate3", "candidate0"), resultUserIds);
+		assertEquals(100, sut.suggestions("haesalgi").get(0).getMutualFriends());
+	}
+
+	/**
+	 * 친구 수락 : 수락한 두 유저의 친구들 목록은 다시 계산하지 않고 그 자리에서 고침
+	 */
+	@Test
+	public void testChanged_accept() {
+		sut.suggestions("doragee");
+
+		accept("gosari", "kongnamul");
+		sut.changed("gosari", "kongnamul");
+
+		List<Suggestion> resultSuggestions = sut.suggestions("doragee");
+
+		assertEquals(Arrays.asList(new Suggestion("congnamul", 2), new Suggestion("kongnamul", 2)), resultSuggestions);
+		assertEquals(1L, sut.stats().getComputations());
+		assertEquals(1L, sut.stats().getRefreshes());
+	}
+
+	/**
+	 * 친구 끊기 : 가득 찬 목록에 담긴 후보의 수가 줄면 목록 밖의 후보가 앞설 수 있으므로 비우고 다시 계산함
+	 */
+	@Test
+	public void testChanged_end() {
+		sut.suggestions("doragee");
+
+		followGraph.put(friend("pacebook", "congnamul", "n"));
+		sut.changed("pacebook", "congnamul");
+
+		List<Suggestion> resultSuggestions = sut.suggestions("doragee");
+
+		assertEquals(Arrays.asList(new Suggestion("congnamul", 1), new Suggestion("kongnamul", 1)), resultSuggestions);
+		assertEquals(2L, sut.stats().getComputations());
+	}
+
+	/**
+	 * 친구 신청 : 신청한 두 유저의 목록만 비움
+	 */
+	@Test
+	public void testApplied() {
+		sut.suggestions("doragee");
+
+		followGraph.put(friend("doragee", "congnamul", "n"));
+		sut.applied("doragee", "congnamul");
+
+		List<Suggestion> resultSuggestions = sut.suggestions("doragee");
+
+		assertEquals(Arrays.asList(new Suggestion("kongnamul", 1)), resultSuggestions);
+		assertEquals(1L, sut.stats().getInvalidations());
+	}
+
+	private void accept(String applierId, String acceptorId) {
+		followGraph.put(friend(applierId, acceptorId, "y"));
+	}
+
+	private static Friend friend(String applierId, String acceptorId, String acceptYn) {
+		return new Friend(null, applierId, acceptorId, null, acceptYn, acceptYn, acceptYn, null, null, 0);
+	}
+}
\ No newline at end of file
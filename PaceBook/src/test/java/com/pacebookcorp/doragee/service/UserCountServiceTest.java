@@ -0,0 +1,242 @@
+package com.pacebookcorp.doragee.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.dao.QueryTimeoutException;
+
+import com.pacebookcorp.doragee.dto.FriendRelation;
+import com.pacebookcorp.doragee.entity.Friend;
+import com.pacebookcorp.doragee.entity.Post;
+import com.pacebookcorp.doragee.entity.UserCount;
+import com.pacebookcorp.doragee.repository.UserCountBatchRepository;
+import com.pacebookcorp.doragee.repository.UserCountRepository;
+
+/**
+ * UserCountService 의 단위 테스트
+ * 트랜잭션 밖에서 호출하므로 변화량은 바로 모인다.
+ *
+ * @author Kwon Young
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class UserCountServiceTest {
+	@InjectMocks
+	private UserCountService sut;
+
+	@Mock
+	private UserCountRepository userCountRepository;
+
+	@Mock
+	private UserCountBatchRepository userCountBatchRepository;
+
+	/**
+	 * 친구 수락 : 두 유저 모두 친구, 팔로워, 팔로잉 수가 1 씩 늘어남
+	 */
+	@Test
+	public void testChanged_accept() {
+		FriendRelation relation = relation("n", "n", "n");
+
+		sut.changed(relation, relation.withStatus(true, new Date()));
+
+		assertEquals(new UserCount("doragee", 1, 1, 1, 0, null), sut.counts("doragee"));
+		assertEquals(new UserCount("gosari", 1, 1, 1, 0, null), sut.counts("gosari"));
+	}
+
+	/**
+	 * 언팔로우 : 언팔로우한 유저의 팔로잉, 상대의 팔로워 수만 1 줄어듦
+	 */
+	@Test
+	public void testChanged_unfollow() {
+		FriendRelation relation = relation("y", "y", "y");
+
+		sut.changed(relation, relation.withFollow(false, false, new Date()));
+
+		assertEquals(new UserCount("doragee", 0, -1, 0, 0, null), sut.counts("doragee"));
+		assertEquals(new UserCount("gosari", 0, 0, -1, 0, null), sut.counts("gosari"));
+	}
+
+	/**
+	 * 친구 끊기 : 이미 언팔로우한 방향은 다시 줄지 않음
+	 */
+	@Test
+	public void testChanged_end() {
+		FriendRelation relation = relation("y", "y", "n");
+
+		sut.changed(relation, relation.withStatus(false, new Date()));
+
+		assertEquals(new UserCount("doragee", -1, 0, -1, 0, null), sut.counts("doragee"));
+		assertEquals(new UserCount("gosari", -1, -1, 0, 0, null), sut.counts("gosari"));
+	}
+
+	/**
+	 * 유저 집계 조회 : t_user_cnt 의 집계에 아직 더하지 않은 Post 수를 합침
+	 */
+	@Test
+	public void testCounts() {
+		UserCount stored = new UserCount("doragee", 3, 2, 1, 10, new Date());
+
+		when(userCountRepository.findOne("doragee")).thenReturn(stored);
+
+		sut.written(post("doragee"));
+		sut.written(post("doragee"));
+		sut.deleted(post("doragee"));
+
+		UserCount resultCount = sut.counts("doragee");
+
+		assertEquals(11, resultCount.getPostCount());
+		assertEquals(3, resultCount.getFriendCount());
+		assertEquals(10, stored.getPostCount());
+	}
+
+	/**
+	 * 일괄 반영 : 유저별 변화량을 한 번에 더하고, 더한 변화량은 비움
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testFlush() {
+		ArgumentCaptor<List> deltas = ArgumentCaptor.forClass(List.class);
+
+		sut.written(post("doragee"));
+		sut.written(post("gosari"));
+		sut.written(post("gosari"));
+		sut.flush();
+		sut.flush();
+
+		verify(userCountBatchRepository, times(1)).addAll(deltas.capture());
+
+		Map<String, Integer> postCounts = ((List<UserCount>) deltas.getValue()).stream()
+																				.collect(Collectors.toMap(UserCount::getUserId, UserCount::getPostCount));
+
+		assertEquals(2, postCounts.size());
+		assertEquals(Integer.valueOf(1), postCounts.get("doragee"));
+		assertEquals(Integer.valueOf(2), postCounts.get("gosari"));
+		assertEquals(0, sut.counts("gosari").getPostCount());
+	}
+
+	/**
+	 * 일괄 반영 실패 : 한 트랜잭션이라 더해진 행이 없으므로 변화량을 모두 되돌려 다음 주기에 다시 더함
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testFlush_failed() {
+		doThrow(new QueryTimeoutException("timeout")).when(userCountBatchRepository).addAll((List<UserCount>) anyObject());
+
+		sut.written(post("doragee"));
+		sut.flush();
+
+		assertEquals(1, sut.counts("doragee").getPostCount());
+	}
+
+	/**
+	 * 일괄 반영 중 조회 : 떼어낸 변화량이 커밋될 때까지 기다렸다가 커밋된 집계를 조회하므로 집계가 줄지 않음
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testCounts_flushing() throws Exception {
+		AtomicBoolean committed = new AtomicBoolean();
+		AtomicReference<UserCount> resultCount = new AtomicReference<>();
+		Thread reader = new Thread(() -> resultCount.set(sut.counts("doragee")));
+
+		when(userCountRepository.findOne("doragee")).thenAnswer(invocation -> new UserCount("doragee", 0, 0, 0, committed.get() ? 1 : 0, null));
+		doAnswer(invocation -> {
+			reader.start();
+			reader.join(200);
+			committed.set(true);
+			return null;
+		}).when(userCountBatchRepository).addAll((List<UserCount>) anyObject());
+
+		sut.written(post("doragee"));
+		sut.flush();
+		reader.join();
+
+		assertEquals(1, resultCount.get().getPostCount());
+	}
+
+	/**
+	 * 재집계 : 구간 유저의 모아둔 변화량은 다시 센 값에 들어있으므로 더하지 않고 버림, 구간 밖 유저와 이후 변화량은 다음 flush 에서 더함
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testReconcile() {
+		List<UserCount> counts = Arrays.asList(new UserCount("doragee", 0, 0, 0, 1, null), new UserCount("gosari", 0, 0, 0, 0, null));
+		ArgumentCaptor<List> deltas = ArgumentCaptor.forClass(List.class);
+
+		when(userCountBatchRepository.userIds(eq(""), anyInt())).thenReturn(Arrays.asList("doragee", "gosari"));
+		when(userCountBatchRepository.count(eq("doragee"), eq("gosari"), (Date) anyObject())).thenReturn(counts);
+
+		sut.written(post("doragee"));
+		sut.written(post("yeonkkot"));
+		sut.reconcile();
+
+		verify(userCountBatchRepository, times(1)).setAll(counts);
+		verify(userCountBatchRepository, times(1)).userIds(eq("gosari"), anyInt());
+		assertEquals(0, sut.counts("doragee").getPostCount());
+
+		sut.written(post("doragee"));
+		sut.flush();
+
+		verify(userCountBatchRepository, times(1)).addAll(deltas.capture());
+
+		Map<String, Integer> postCounts = ((List<UserCount>) deltas.getValue()).stream()
+																				.collect(Collectors.toMap(UserCount::getUserId, UserCount::getPostCount));
+
+		assertEquals(2, postCounts.size());
+		assertEquals(Integer.valueOf(1), postCounts.get("doragee"));
+		assertEquals(Integer.valueOf(1), postCounts.get("yeonkkot"));
+	}
+
+	/**
+	 * 재집계 실패 : 떼어낸 변화량을 되돌려 다음 flush 에서 더함
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testReconcile_failed() {
+		when(userCountBatchRepository.userIds(eq(""), anyInt())).thenReturn(Arrays.asList("doragee"));
+		doThrow(new QueryTimeoutException("timeout")).when(userCountBatchRepository).setAll((List<UserCount>) anyObject());
+
+		sut.written(post("doragee"));
+
+		try {
+			sut.reconcile();
+			fail();
+		} catch (QueryTimeoutException e) {
+			assertEquals(1, sut.counts("doragee").getPostCount());
+		}
+	}
+
+	private static FriendRelation relation(String acceptYn, String applierFollowYn, String acceptFollowYn) {
+		Friend friend = new Friend("frnd20160806171903001", "doragee", "gosari", "doragee:gosari", acceptYn, applierFollowYn, acceptFollowYn, null, null, 0);
+
+		return FriendRelation.of(friend, "doragee", "gosari");
+	}
+
+	private static Post post(String ownerId) {
+		Post post = new Post();
+
+		post.setOwnerId(ownerId);
+
+		return post;
+	}
+}
\ No newline at end of file
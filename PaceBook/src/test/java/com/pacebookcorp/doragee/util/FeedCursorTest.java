@@ -0,0 +1,60 @@
+package com.pacebookcorp.doragee.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.junit.Test;
+
+import com.pacebookcorp.doragee.entity.Post;
+
+/**
+ * FeedCursor 단위 테스트
+ *
+ * @author Kwon Young
+ */
+public class FeedCursorTest {
+	/**
+	 * 커서 인코딩, 디코딩 : 정상 case
+	 */
+	@Test
+	public void testEncodeAndDecode() {
+		Post post = new Post();
+
+		post.setPostPk("post20160806171903000");
+		post.setModifiedDate(new Date(1470471543000L));
+
+		FeedCursor cursor = FeedCursor.decode(FeedCursor.encode(post));
+
+		assertEquals(post.getModifiedDate(), cursor.getModifiedDate());
+		assertEquals(post.getPostPk(), cursor.getPostPk());
+	}
+
+	/**
+	 * 커서 디코딩 : 비정상 case (어뷰징)
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testDecode_illegal() {
+		FeedCursor.decode("#abuse!cursor");
+	}
+
+	/**
+	 * 커서 디코딩 : 비정상 case (수정일이 숫자가 아님)
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testDecode_illegalModifiedDate() {
+		FeedCursor.decode("ZG9yYWdlZTpwb3N0");
+	}
+
+	/**
+	 * 첫 페이지 여부
+	 */
+	@Test
+	public void testIsFirstPage() {
+		assertTrue(FeedCursor.isFirstPage(null));
+		assertTrue(FeedCursor.isFirstPage(""));
+		assertFalse(FeedCursor.isFirstPage("MTQ3MDQ3MTU0MzAwMDpwb3N0"));
+	}
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.pacebookcorp.doragee.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pacebookcorp.doragee.entity.User;
+
+/**
+ * NdjsonWriter 단위 테스트
+ *
+ * @author Kwon Young
+ */
+public class NdjsonWriterTest {
+	/**
+	 * 한 줄에 객체 하나씩 JSON 으로 쓰기
+	 */
+	@Test
+	public void testAccept() {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		NdjsonWriter<User> sut = new NdjsonWriter<>(new ObjectMapper(), outputStream);
+		User user = new User();
+		user.setUserId("doragee");
+
+		sut.accept(user);
+		sut.accept(user);
+
+		String[] lines = new String(outputStream.toByteArray(), StandardCharsets.UTF_8).split("\n", -1);
+
+		assertEquals(3, lines.length);
+		assertEquals("", lines[2]);
+		assertEquals(lines[0], lines[1]);
+	}
+}
\ No newline at end of file
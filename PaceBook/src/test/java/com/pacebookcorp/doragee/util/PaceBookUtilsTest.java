@@ -1,113 +1,189 @@
-package com.pacebookcorp.doragee.util;
-
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertTrue;
-
-import org.junit.Test;
-
-/**
- * PaceBookUtils 단위 테스트
- * 
- * @author Kwon Young
- */
-public class PaceBookUtilsTest {
-	/**
-	 * 현재 시간 가져오기
-	 */
-	@Test
-	public void testNowDateTime() {
-		PaceBookUtils.nowDateTime();
-	}
-
-	/**
-	 * 유저 id 등록시 유효성 체크 1 : 정상 case
-	 */
-	@Test
-	public void testIsValidUserId() {
-		assertTrue(PaceBookUtils.isValidUserId("doragee"));
-		assertTrue(PaceBookUtils.isValidUserId("gosari"));
-		assertTrue(PaceBookUtils.isValidUserId("doragee_heart"));
-		assertTrue(PaceBookUtils.isValidUserId("abcd5fghi5klmn5abcd5fghi5klmn5abcd5fghi5klmn5")); // 45 자 경계값
-	}
-
-	/**
-	 * 유저 id 등록시 유효성 체크 2 : 비정상 case
-	 */
-	@Test
-	public void testIsValidUserId_illegal() {
-		assertFalse(PaceBookUtils.isValidUserId(""));
-		assertFalse(PaceBookUtils.isValidUserId(null));
-		assertFalse(PaceBookUtils.isValidUserId("23doragee"));
-		assertFalse(PaceBookUtils.isValidUserId("#gosari"));
-		assertFalse(PaceBookUtils.isValidUserId("sh"));
-		assertFalse(PaceBookUtils.isValidUserId("한글"));
-		assertFalse(PaceBookUtils.isValidUserId("abcd5fghi5klmn5abcd5fghi5klmn5abcd5fghi5klmn5a")); // 46 자 경계값
-	}
-
-	/**
-	 * 유저 이름 등록시 유효성 체크 1 : 정상 case
-	 */
-	@Test
-	public void testIsValidUserName() {
-		assertTrue(PaceBookUtils.isValidUserName("도라지"));
-		assertTrue(PaceBookUtils.isValidUserName("고사리"));
-		assertTrue(PaceBookUtils.isValidUserName("도라지의심장"));
-		assertTrue(PaceBookUtils.isValidUserName("DORAJI"));
-		assertTrue(PaceBookUtils.isValidUserName("GOSARI86"));
-	}
-
-	/**
-	 * 유저 이름 등록시 유효성 체크 2 : 비정상 case
-	 */
-	@Test
-	public void testIsValidUserName_illegal() {
-		assertFalse(PaceBookUtils.isValidUserName(""));
-		assertFalse(PaceBookUtils.isValidUserName(null));
-		assertFalse(PaceBookUtils.isValidUserName("#도라지의심장"));
-		assertFalse(PaceBookUtils.isValidUserName("abcd5fghi5klmn5abcd5fghi5klmn5abcd5fghi5klmn5a")); // 46 자 경계값
-	}
-
-	/**
-	 * 아이디 다중 입력 유효성 체크 1: 정상 case
-	 */
-	@Test
-	public void testIsValidUserIds() {
-		assertTrue(PaceBookUtils.isValidUserIds("doragee", "gosari", "congnamul"));
-	}
-
-	/**
-	 * 아이디 다중 입력 유효성 체크 2 : 비정상 case
-	 */
-	@Test
-	public void testIsValidUserIds_illegal() {
-		assertFalse(PaceBookUtils.isValidUserIds("doragee", "한글", "congnamul"));
-	}
-
-	/**
-	 * Friend, Post 테이블에서 사용할 PK 생성
-	 */
-	@Test
-	public void testGeneratePrivateKey() {
-		PaceBookUtils.generatePrivateKey("frnd");
-	}
-
-	/**
-	 * Friend, Post 테이블에서 사용하는 PK 의 유효성 체크, 파라미터에서 PK 어뷰징 방지 가드로직 1 : 정상 case
-	 */
-	@Test
-	public void testIsValidPrivateKey() {
-		assertTrue(PaceBookUtils.isValidPrivateKey("frnd20160804171109732", "frnd"));
-		assertTrue(PaceBookUtils.isValidPrivateKey("post20160804171109732", "post"));
-	}
-
-	/**
-	 * Friend, Post 테이블에서 사용하는 PK 의 유효성 체크, 파라미터에서 PK 어뷰징 방지 가드로직 2 : 비정상 case
-	 */
-	@Test
-	public void testIsValidPrivateKey_illegal() {
-		assertFalse(PaceBookUtils.isValidPrivateKey("frnd20160frnd71109732", "frnd"));
-		assertFalse(PaceBookUtils.isValidPrivateKey("post20160804171109732", "postsdf"));
-		assertFalse(PaceBookUtils.isValidPrivateKey("frnd20160frnd71732", "frnd"));
-		assertFalse(PaceBookUtils.isValidPrivateKey("post201608041711#09732", "post"));
-	}
+package com.pacebookcorp.doragee.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+/**
+ * PaceBookUtils 단위 테스트
+ *
+ * @author Kwon Young
+ */
+public class PaceBookUtilsTest {
+	/**
+	 * 현재 시간 가져오기 : datetime 컬럼과 같도록 밀리초는 0
+	 */
+	@Test
+	public void testNowDateTime() {
+		assertEquals(0L, PaceBookUtils.nowDateTime().getTime() % 1000L);
+	}
+
+	/**
+	 * 유저 id 등록시 유효성 체크 1 : 정상 case
+	 */
+	@Test
+	public void testIsValidUserId() {
+		assertTrue(PaceBookUtils.isValidUserId("doragee"));
+		assertTrue(PaceBookUtils.isValidUserId("gosari"));
+		assertTrue(PaceBookUtils.isValidUserId("doragee_heart"));
+		assertTrue(PaceBookUtils.isValidUserId("abcd5fghi5klmn5abcd5fghi5klmn5abcd5fghi5klmn5")); // 45 자 경계값
+	}
+
+	/**
+	 * 유저 id 등록시 유효성 체크 2 : 비정상 case
+	 */
+	@Test
+	public void testIsValidUserId_illegal() {
+		assertFalse(PaceBookUtils.isValidUserId(""));
+		assertFalse(PaceBookUtils.isValidUserId(null));
+		assertFalse(PaceBookUtils.isValidUserId("23doragee"));
+		assertFalse(PaceBookUtils.isValidUserId("#gosari"));
+		assertFalse(PaceBookUtils.isValidUserId("sh"));
+		assertFalse(PaceBookUtils.isValidUserId("한글"));
+		assertFalse(PaceBookUtils.isValidUserId("abcd5fghi5klmn5abcd5fghi5klmn5abcd5fghi5klmn5a")); // 46 자 경계값
+	}
+
+	/**
+	 * 유저 이름 등록시 유효성 체크 1 : 정상 case
+	 */
+	@Test
+	public void testIsValidUserName() {
+		assertTrue(PaceBookUtils.isValidUserName("도라지"));
+		assertTrue(PaceBookUtils.isValidUserName("고사리"));
+		assertTrue(PaceBookUtils.isValidUserName("도라지의심장"));
+		assertTrue(PaceBookUtils.isValidUserName("DORAJI"));
+		assertTrue(PaceBookUtils.isValidUserName("GOSARI86"));
+	}
+
+	/**
+	 * 유저 이름 등록시 유효성 체크 2 : 비정상 case
+	 */
+	@Test
+	public void testIsValidUserName_illegal() {
+		assertFalse(PaceBookUtils.isValidUserName(""));
+		assertFalse(PaceBookUtils.isValidUserName(null));
+		assertFalse(PaceBookUtils.isValidUserName("#도라지의심장"));
+		assertFalse(PaceBookUtils.isValidUserName("abcd5fghi5klmn5abcd5fghi5klmn5abcd5fghi5klmn5a")); // 46 자 경계값
+	}
+
+	/**
+	 * 아이디 다중 입력 유효성 체크 1: 정상 case
+	 */
+	@Test
+	public void testIsValidUserIds() {
+		assertTrue(PaceBookUtils.isValidUserIds("doragee", "gosari", "congnamul"));
+	}
+
+	/**
+	 * 아이디 다중 입력 유효성 체크 2 : 비정상 case
+	 */
+	@Test
+	public void testIsValidUserIds_illegal() {
+		assertFalse(PaceBookUtils.isValidUserIds("doragee", "한글", "congnamul"));
+	}
+
+	/**
+	 * Friend, Post 테이블에서 사용할 PK 생성
+	 */
+	@Test
+	public void testGeneratePrivateKey() {
+		PaceBookUtils.generatePrivateKey("frnd");
+	}
+
+	/**
+	 * 일괄 입력할 PK 생성 : 한 번에 생성한 PK 끼리 겹치지 않고 PK 형태가 올바름
+	 */
+	@Test
+	public void testGeneratePrivateKeys() {
+		List<String> privateKeys = PaceBookUtils.generatePrivateKeys("frnd", 500);
+
+		assertEquals(500, new HashSet<>(privateKeys).size());
+		assertTrue(privateKeys.stream().allMatch(privateKey -> PaceBookUtils.isValidPrivateKey(privateKey, "frnd")));
+	}
+
+	/**
+	 * PK 생성 : 여러 스레드에서 단건, 일괄 생성을 섞어도 같은 서버에서 생성한 PK 끼리 겹치지 않음
+	 */
+	@Test
+	public void testGeneratePrivateKeys_concurrent() {
+		List<String> privateKeys = IntStream.range(0, 200)
+											.parallel()
+											.mapToObj(i -> i % 2 == 0 ? Arrays.asList(PaceBookUtils.generatePrivateKey("frnd")) : PaceBookUtils.generatePrivateKeys("frnd", 10))
+											.flatMap(List::stream)
+											.collect(Collectors.toList());
+
+		assertEquals(1100, privateKeys.size());
+		assertEquals(1100, new HashSet<>(privateKeys).size());
+		assertTrue(privateKeys.stream().allMatch(privateKey -> PaceBookUtils.isValidPrivateKey(privateKey, "frnd")));
+	}
+
+	/**
+	 * Friend 테이블의 친구 관계 쌍 키 생성 : 신청 방향과 무관하게 같은 키
+	 */
+	@Test
+	public void testFriendPairKey() {
+		assertEquals("doragee:gosari", PaceBookUtils.friendPairKey("doragee", "gosari"));
+		assertEquals("doragee:gosari", PaceBookUtils.friendPairKey("gosari", "doragee"));
+	}
+
+	/**
+	 * Friend 테이블의 친구 관계 쌍 키 생성 : 계정의 대소문자가 달라도 같은 키
+	 */
+	@Test
+	public void testFriendPairKey_ignoreCase() {
+		assertEquals("apple1:zebra1", PaceBookUtils.friendPairKey("Zebra1", "apple1"));
+		assertEquals("apple1:zebra1", PaceBookUtils.friendPairKey("apple1", "zebra1"));
+		assertEquals("apple1:zebra1", PaceBookUtils.friendPairKey("ZEBRA1", "Apple1"));
+	}
+
+	/**
+	 * Friend, Post 테이블에서 사용하는 PK 의 유효성 체크, 파라미터에서 PK 어뷰징 방지 가드로직 1 : 정상 case
+	 */
+	@Test
+	public void testIsValidPrivateKey() {
+		assertTrue(PaceBookUtils.isValidPrivateKey("frnd20160804171109732", "frnd"));
+		assertTrue(PaceBookUtils.isValidPrivateKey("post20160804171109732", "post"));
+	}
+
+	/**
+	 * Friend, Post 테이블에서 사용하는 PK 의 유효성 체크, 파라미터에서 PK 어뷰징 방지 가드로직 2 : 비정상 case
+	 */
+	@Test
+	public void testIsValidPrivateKey_illegal() {
+		assertFalse(PaceBookUtils.isValidPrivateKey("frnd20160frnd71109732", "frnd"));
+		assertFalse(PaceBookUtils.isValidPrivateKey("post20160804171109732", "postsdf"));
+		assertFalse(PaceBookUtils.isValidPrivateKey("frnd20160frnd71732", "frnd"));
+		assertFalse(PaceBookUtils.isValidPrivateKey("post201608041711#09732", "post"));
+	}
+
+	/**
+	 * 페이지 크기 유효성 체크 : 비어있거나 1~100 범위만 가능
+	 */
+	@Test
+	public void testIsValidPageSize() {
+		assertTrue(PaceBookUtils.isValidPageSize(null));
+		assertTrue(PaceBookUtils.isValidPageSize(1));
+		assertTrue(PaceBookUtils.isValidPageSize(100));
+		assertFalse(PaceBookUtils.isValidPageSize(0));
+		assertFalse(PaceBookUtils.isValidPageSize(101));
+	}
+
+	/**
+	 * 워터마크 유효성 체크 : 비어있거나 0 이상만 가능
+	 */
+	@Test
+	public void testIsValidWatermark() {
+		assertTrue(PaceBookUtils.isValidWatermark(null));
+		assertTrue(PaceBookUtils.isValidWatermark(0L));
+		assertTrue(PaceBookUtils.isValidWatermark(1470471543000L));
+		assertFalse(PaceBookUtils.isValidWatermark(-1L));
+	}
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.pacebookcorp.doragee.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.junit.Test;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pacebookcorp.doragee.dto.PostSummary;
+
+/**
+ * PostSummaryFilter 단위 테스트
+ *
+ * @author Kwon Young
+ */
+public class PostSummaryFilterTest {
+	private ObjectMapper objectMapper = new ObjectMapper();
+
+	/**
+	 * 필드 목록 유효성 체크 : 비어있거나 PostSummary 의 필드만 가능
+	 */
+	@Test
+	public void testIsValidFields() {
+		assertTrue(PostSummaryFilter.isValidFields(null));
+		assertTrue(PostSummaryFilter.isValidFields(""));
+		assertTrue(PostSummaryFilter.isValidFields("postPk"));
+		assertTrue(PostSummaryFilter.isValidFields("postPk, content,modifiedDate"));
+		assertFalse(PostSummaryFilter.isValidFields("postPk,createdDate"));
+		assertFalse(PostSummaryFilter.isValidFields("modifierId"));
+	}
+
+	/**
+	 * 요청한 필드만 직렬화
+	 */
+	@Test
+	public void testFilter() throws JsonProcessingException {
+		PostSummary summary = new PostSummary("post20160806171903001", "doragee", "doragee", "content", new Date(0));
+		MappingJacksonValue filteredValue = PostSummaryFilter.filter(summary, "postPk,ownerId");
+
+		String json = objectMapper.writer(filteredValue.getFilters()).writeValueAsString(filteredValue.getValue());
+
+		assertEquals("{\"postPk\":\"post20160806171903001\",\"ownerId\":\"doragee\"}", json);
+	}
+
+	/**
+	 * 필드를 비워두면 모든 필드를 직렬화
+	 */
+	@Test
+	public void testFilter_allFields() throws JsonProcessingException {
+		PostSummary summary = new PostSummary("post20160806171903001", "doragee", "doragee", "content", new Date(0));
+		MappingJacksonValue filteredValue = PostSummaryFilter.filter(summary, null);
+
+		String json = objectMapper.writer(filteredValue.getFilters()).writeValueAsString(filteredValue.getValue());
+
+		assertEquals("{\"postPk\":\"post20160806171903001\",\"ownerId\":\"doragee\",\"creatorId\":\"doragee\",\"content\":\"content\",\"modifiedDate\":0}", json);
+	}
+}
\ No newline at end of file